@@ -0,0 +1,372 @@
+package org.terifan.algebra;
+
+import javax.vecmath.Color3f;
+import javax.vecmath.Color4b;
+import javax.vecmath.Color4f;
+
+
+/**
+ * Converts images between packed 8 bit sRGB ARGB pixels and linear floating point RGB.
+ * <p>
+ * Decoding uses a 256 entry lookup table of the exact sRGB transfer function. Encoding evaluates a polynomial in the square root of the
+ * linear value, within 0.13 of an 8 bit step of the exact transfer function, and optionally adds an ordered dither before quantizing to
+ * avoid banding in smooth gradients. Alpha is stored linearly in both representations. Images are processed row by row, optionally in
+ * parallel, and no objects are allocated per pixel.
+ */
+public final class ColorConverter
+{
+	private final static float[] DECODE = new float[256];
+
+	// least squares fit of 1.055 * l^(1/2.4) - 0.055 as a polynomial in sqrt(l) for 0.0031308 <= l <= 1
+	private final static float C0 = -0.039255286f;
+	private final static float C1 = 1.5002970f;
+	private final static float C2 = -1.2969983f;
+	private final static float C3 = 1.7751777f;
+	private final static float C4 = -1.3546826f;
+	private final static float C5 = 0.41563908f;
+
+	// 8x8 Bayer matrix scaled to offsets in the range -0.5 to 0.5 of an 8 bit step
+	private final static float[] DITHER = new float[64];
+
+	static
+	{
+		for (int i = 0; i < 256; i++)
+		{
+			DECODE[i] = (float)toLinear(i / 255.0);
+		}
+
+		int[] bayer =
+		{
+			0, 32, 8, 40, 2, 34, 10, 42,
+			48, 16, 56, 24, 50, 18, 58, 26,
+			12, 44, 4, 36, 14, 46, 6, 38,
+			60, 28, 52, 20, 62, 30, 54, 22,
+			3, 35, 11, 43, 1, 33, 9, 41,
+			51, 19, 59, 27, 49, 17, 57, 25,
+			15, 47, 7, 39, 13, 45, 5, 37,
+			63, 31, 55, 23, 61, 29, 53, 21
+		};
+
+		for (int i = 0; i < 64; i++)
+		{
+			DITHER[i] = (bayer[i] + 0.5f) / 64 - 0.5f;
+		}
+	}
+
+
+	private ColorConverter()
+	{
+	}
+
+
+	/**
+	 * Converts an sRGB encoded value in the range 0-1 to linear using the exact transfer function.
+	 */
+	public static double toLinear(double aValue)
+	{
+		return aValue <= 0.04045 ? aValue / 12.92 : Math.pow((aValue + 0.055) / 1.055, 2.4);
+	}
+
+
+	/**
+	 * Converts a linear value in the range 0-1 to sRGB using the exact transfer function.
+	 */
+	public static double toSrgb(double aValue)
+	{
+		return aValue <= 0.0031308 ? aValue * 12.92 : 1.055 * Math.pow(aValue, 1 / 2.4) - 0.055;
+	}
+
+
+	/**
+	 * Converts an 8 bit sRGB value to linear using a lookup table.
+	 */
+	public static float decode(int aValue)
+	{
+		return DECODE[aValue & 0xff];
+	}
+
+
+	/**
+	 * Converts a linear value to an 8 bit sRGB value. Values outside the range 0-1 are clamped.
+	 *
+	 * @param aDither an offset added before rounding, in the range -0.5 to 0.5, or zero for no dithering
+	 */
+	public static int encode(float aValue, float aDither)
+	{
+		float s;
+
+		if (!(aValue > 0.0031308f))
+		{
+			s = aValue * 12.92f;
+		}
+		else if (aValue >= 1)
+		{
+			s = 1;
+		}
+		else
+		{
+			float t = (float)Math.sqrt(aValue);
+			s = C0 + t * (C1 + t * (C2 + t * (C3 + t * (C4 + t * C5))));
+		}
+
+		int v = (int)(s * 255 + 0.5f + aDither);
+
+		return v < 0 ? 0 : v > 255 ? 255 : v;
+	}
+
+
+	/**
+	 * Returns the ordered dither offset of a pixel.
+	 */
+	static float dither(int aX, int aY)
+	{
+		return DITHER[8 * (aY & 7) + (aX & 7)];
+	}
+
+
+	/**
+	 * Decodes ARGB pixels to linear RGB or RGBA.
+	 *
+	 * @param aInput packed ARGB pixels stored row by row
+	 * @param aOutput an array receiving 3 or 4 values per pixel
+	 * @param aChannels 3 for RGB output or 4 for RGBA output
+	 * @param aParallel true if rows should be processed in parallel
+	 * @return the output array provided
+	 */
+	public static float[] decode(int[] aInput, float[] aOutput, int aChannels, int aWidth, int aHeight, boolean aParallel)
+	{
+		checkChannels(aChannels);
+
+		Parallel.forEach(aHeight, aParallel, y ->
+		{
+			for (int i = y * aWidth, end = i + aWidth, o = aChannels * i; i < end; i++, o += aChannels)
+			{
+				int c = aInput[i];
+				aOutput[o] = DECODE[0xff & (c >> 16)];
+				aOutput[o + 1] = DECODE[0xff & (c >> 8)];
+				aOutput[o + 2] = DECODE[0xff & c];
+				if (aChannels == 4)
+				{
+					aOutput[o + 3] = (c >>> 24) / 255f;
+				}
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Encodes linear RGB or RGBA values to ARGB pixels. Pixels are opaque if the input has no alpha channel.
+	 *
+	 * @param aInput 3 or 4 values per pixel stored row by row
+	 * @param aChannels 3 for RGB input or 4 for RGBA input
+	 * @param aOutput an array receiving packed ARGB pixels
+	 * @param aDither true if an ordered dither should be applied
+	 * @param aParallel true if rows should be processed in parallel
+	 * @return the output array provided
+	 */
+	public static int[] encode(float[] aInput, int aChannels, int[] aOutput, int aWidth, int aHeight, boolean aDither, boolean aParallel)
+	{
+		checkChannels(aChannels);
+
+		Parallel.forEach(aHeight, aParallel, y ->
+		{
+			int row = 8 * (y & 7);
+
+			for (int x = 0, i = y * aWidth, o = aChannels * i; x < aWidth; x++, i++, o += aChannels)
+			{
+				float d = aDither ? DITHER[row + (x & 7)] : 0;
+				int a = aChannels == 4 ? clampAlpha(aInput[o + 3]) : 255;
+
+				aOutput[i] = (a << 24) | (encode(aInput[o], d) << 16) | (encode(aInput[o + 1], d) << 8) | encode(aInput[o + 2], d);
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Decodes ARGB pixels to linear colors.
+	 *
+	 * @param aOutput an array of colors receiving the values, the colors are updated and not replaced
+	 * @return the output array provided
+	 */
+	public static Color3f[] decode(int[] aInput, Color3f[] aOutput, int aWidth, int aHeight, boolean aParallel)
+	{
+		Parallel.forEach(aHeight, aParallel, y ->
+		{
+			for (int i = y * aWidth, end = i + aWidth; i < end; i++)
+			{
+				int c = aInput[i];
+				aOutput[i].set(DECODE[0xff & (c >> 16)], DECODE[0xff & (c >> 8)], DECODE[0xff & c]);
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Decodes ARGB pixels to linear colors.
+	 *
+	 * @param aOutput an array of colors receiving the values, the colors are updated and not replaced
+	 * @return the output array provided
+	 */
+	public static Color4f[] decode(int[] aInput, Color4f[] aOutput, int aWidth, int aHeight, boolean aParallel)
+	{
+		Parallel.forEach(aHeight, aParallel, y ->
+		{
+			for (int i = y * aWidth, end = i + aWidth; i < end; i++)
+			{
+				int c = aInput[i];
+				aOutput[i].set(DECODE[0xff & (c >> 16)], DECODE[0xff & (c >> 8)], DECODE[0xff & c], (c >>> 24) / 255f);
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Decodes sRGB byte colors to linear colors.
+	 *
+	 * @param aOutput an array of colors receiving the values, the colors are updated and not replaced
+	 * @return the output array provided
+	 */
+	public static Color4f[] decode(Color4b[] aInput, Color4f[] aOutput, int aWidth, int aHeight, boolean aParallel)
+	{
+		Parallel.forEach(aHeight, aParallel, y ->
+		{
+			for (int i = y * aWidth, end = i + aWidth; i < end; i++)
+			{
+				Color4b c = aInput[i];
+				aOutput[i].set(DECODE[0xff & c.x], DECODE[0xff & c.y], DECODE[0xff & c.z], (0xff & c.w) / 255f);
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Encodes linear colors to opaque ARGB pixels.
+	 *
+	 * @param aDither true if an ordered dither should be applied
+	 * @return the output array provided
+	 */
+	public static int[] encode(Color3f[] aInput, int[] aOutput, int aWidth, int aHeight, boolean aDither, boolean aParallel)
+	{
+		Parallel.forEach(aHeight, aParallel, y ->
+		{
+			int row = 8 * (y & 7);
+
+			for (int x = 0, i = y * aWidth; x < aWidth; x++, i++)
+			{
+				Color3f c = aInput[i];
+				float d = aDither ? DITHER[row + (x & 7)] : 0;
+
+				aOutput[i] = 0xff000000 | (encode(c.x, d) << 16) | (encode(c.y, d) << 8) | encode(c.z, d);
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Encodes linear colors to ARGB pixels.
+	 *
+	 * @param aDither true if an ordered dither should be applied
+	 * @return the output array provided
+	 */
+	public static int[] encode(Color4f[] aInput, int[] aOutput, int aWidth, int aHeight, boolean aDither, boolean aParallel)
+	{
+		Parallel.forEach(aHeight, aParallel, y ->
+		{
+			int row = 8 * (y & 7);
+
+			for (int x = 0, i = y * aWidth; x < aWidth; x++, i++)
+			{
+				Color4f c = aInput[i];
+				float d = aDither ? DITHER[row + (x & 7)] : 0;
+
+				aOutput[i] = (clampAlpha(c.w) << 24) | (encode(c.x, d) << 16) | (encode(c.y, d) << 8) | encode(c.z, d);
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Encodes linear colors to sRGB byte colors.
+	 *
+	 * @param aOutput an array of colors receiving the values, the colors are updated and not replaced
+	 * @param aDither true if an ordered dither should be applied
+	 * @return the output array provided
+	 */
+	public static Color4b[] encode(Color4f[] aInput, Color4b[] aOutput, int aWidth, int aHeight, boolean aDither, boolean aParallel)
+	{
+		Parallel.forEach(aHeight, aParallel, y ->
+		{
+			int row = 8 * (y & 7);
+
+			for (int x = 0, i = y * aWidth; x < aWidth; x++, i++)
+			{
+				Color4f c = aInput[i];
+				Color4b o = aOutput[i];
+				float d = aDither ? DITHER[row + (x & 7)] : 0;
+
+				o.x = (byte)encode(c.x, d);
+				o.y = (byte)encode(c.y, d);
+				o.z = (byte)encode(c.z, d);
+				o.w = (byte)clampAlpha(c.w);
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Computes the relative luminance of linear RGB or RGBA values using the same weights as {@link Vec3d#luminance()}.
+	 *
+	 * @param aInput 3 or 4 values per pixel stored row by row
+	 * @param aChannels 3 for RGB input or 4 for RGBA input
+	 * @param aOutput an array receiving one value per pixel
+	 * @return the output array provided
+	 */
+	public static float[] luminance(float[] aInput, int aChannels, float[] aOutput, int aWidth, int aHeight, boolean aParallel)
+	{
+		checkChannels(aChannels);
+
+		Parallel.forEach(aHeight, aParallel, y ->
+		{
+			for (int i = y * aWidth, end = i + aWidth, o = aChannels * i; i < end; i++, o += aChannels)
+			{
+				aOutput[i] = 0.212671f * aInput[o] + 0.715160f * aInput[o + 1] + 0.072169f * aInput[o + 2];
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	private static int clampAlpha(float aValue)
+	{
+		int v = (int)(aValue * 255 + 0.5f);
+
+		return v < 0 ? 0 : v > 255 ? 255 : v;
+	}
+
+
+	private static void checkChannels(int aChannels)
+	{
+		if (aChannels != 3 && aChannels != 4)
+		{
+			throw new IllegalArgumentException("aChannels must be 3 or 4: " + aChannels);
+		}
+	}
+}
@@ -0,0 +1,633 @@
+package org.terifan.algebra;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+
+/**
+ * Convex hull of a set of 3D points computed using the Quickhull algorithm (Barber, Dobkin and Huhdanpaa, "The Quickhull Algorithm for
+ * Convex Hulls", ACM TOMS 1996).
+ * <p>
+ * The hull starts as a tetrahedron spanned by extreme points and all points inside it are discarded at once. Each remaining point is
+ * assigned to a face it's in front of and the hull is grown by the farthest point of a face until no points remain outside. Points within
+ * a tolerance derived from the magnitude of the input coordinates of a face plane are considered to be on the plane and are discarded.
+ * Coplanar faces are not merged, they are returned triangulated.
+ * <p>
+ * The hull is returned as an indexed list of counter-clockwise triangles facing outwards referencing the input points.
+ */
+public class ConvexHull
+{
+	private final static int BLOCK_SIZE = 1 << 14;
+	private final static int PARALLEL_THRESHOLD = 1 << 16;
+
+	private final double[] mCoordinates;
+	private final double mTolerance;
+	private final boolean mParallel;
+	private final ArrayList<Face> mFaces;
+	private final ArrayDeque<Face> mPending;
+	private final EdgeMap mEdges;
+
+
+	private static class Face
+	{
+		final int[] mVertices;
+		final Plane mPlane;
+		int[] mOutside;
+		int mOutsideCount;
+		int mFarthest;
+		double mFarthestDistance;
+		boolean mRemoved;
+
+
+		Face(double[] aCoordinates, int a, int b, int c)
+		{
+			mVertices = new int[]{a, b, c};
+			mPlane = new Plane(aCoordinates[3 * a], aCoordinates[3 * a + 1], aCoordinates[3 * a + 2], aCoordinates[3 * b], aCoordinates[3 * b + 1], aCoordinates[3 * b + 2], aCoordinates[3 * c], aCoordinates[3 * c + 1], aCoordinates[3 * c + 2]);
+			mFarthest = -1;
+		}
+
+
+		void addOutside(int aPoint, double aDistance)
+		{
+			if (mOutside == null)
+			{
+				mOutside = new int[4];
+			}
+			else if (mOutsideCount == mOutside.length)
+			{
+				mOutside = Arrays.copyOf(mOutside, 2 * mOutsideCount);
+			}
+			mOutside[mOutsideCount++] = aPoint;
+
+			if (aDistance > mFarthestDistance || mFarthest == -1)
+			{
+				mFarthest = aPoint;
+				mFarthestDistance = aDistance;
+			}
+		}
+	}
+
+
+	/**
+	 * Open addressing hash table with linear probing mapping the directed edges of the hull, packed in a long, to the face on their left.
+	 * Keys are stored in a primitive array and removed entries are filled by shifting later entries back, so no tombstones accumulate.
+	 */
+	private static class EdgeMap
+	{
+		long[] mKeys;
+		Face[] mFaces;
+		int mShift;
+		int mSize;
+
+
+		EdgeMap()
+		{
+			mKeys = new long[64];
+			mFaces = new Face[64];
+			mShift = 64 - 6;
+		}
+
+
+		Face get(long aKey)
+		{
+			int mask = mKeys.length - 1;
+
+			for (int i = slot(aKey); mFaces[i] != null; i = (i + 1) & mask)
+			{
+				if (mKeys[i] == aKey)
+				{
+					return mFaces[i];
+				}
+			}
+
+			return null;
+		}
+
+
+		void put(long aKey, Face aFace)
+		{
+			if (2 * (mSize + 1) > mKeys.length)
+			{
+				resize();
+			}
+
+			int mask = mKeys.length - 1;
+			int i = slot(aKey);
+
+			for (; mFaces[i] != null; i = (i + 1) & mask)
+			{
+				if (mKeys[i] == aKey)
+				{
+					mFaces[i] = aFace;
+					return;
+				}
+			}
+
+			mKeys[i] = aKey;
+			mFaces[i] = aFace;
+			mSize++;
+		}
+
+
+		void remove(long aKey)
+		{
+			int mask = mKeys.length - 1;
+			int i = slot(aKey);
+
+			for (; mFaces[i] != null; i = (i + 1) & mask)
+			{
+				if (mKeys[i] == aKey)
+				{
+					break;
+				}
+			}
+
+			if (mFaces[i] == null)
+			{
+				return;
+			}
+
+			mFaces[i] = null;
+			mSize--;
+
+			// move back entries of the probe sequence that would no longer be reachable past the hole
+			for (int j = (i + 1) & mask; mFaces[j] != null; j = (j + 1) & mask)
+			{
+				int k = slot(mKeys[j]);
+
+				if (i <= j ? i < k && k <= j : i < k || k <= j)
+				{
+					continue;
+				}
+
+				mKeys[i] = mKeys[j];
+				mFaces[i] = mFaces[j];
+				mFaces[j] = null;
+				i = j;
+			}
+		}
+
+
+		private void resize()
+		{
+			long[] keys = mKeys;
+			Face[] faces = mFaces;
+
+			mKeys = new long[2 * keys.length];
+			mFaces = new Face[2 * keys.length];
+			mShift--;
+			mSize = 0;
+
+			for (int i = 0; i < keys.length; i++)
+			{
+				if (faces[i] != null)
+				{
+					put(keys[i], faces[i]);
+				}
+			}
+		}
+
+
+		private int slot(long aKey)
+		{
+			// Fibonacci hashing, the vertex indices of an edge are packed in the high and low words of the key
+			return (int)((aKey * 0x9e3779b97f4a7c15L) >>> mShift);
+		}
+	}
+
+
+	public ConvexHull(Vec3d[] aPoints)
+	{
+		this(toArray(aPoints), aPoints.length, false);
+	}
+
+
+	/**
+	 * Computes the convex hull of a set of points.
+	 *
+	 * @param aCoordinates interleaved x, y and z coordinates, the array is not modified
+	 * @param aCount number of points
+	 * @param aParallel true if passes over all points should run in parallel
+	 * @throws IllegalArgumentException if the points don't span a volume
+	 */
+	public ConvexHull(double[] aCoordinates, int aCount, boolean aParallel)
+	{
+		if (aCount < 4 || 3L * aCount > aCoordinates.length)
+		{
+			throw new IllegalArgumentException("aCount out of bounds: " + aCount);
+		}
+
+		mCoordinates = aCoordinates;
+		mParallel = aParallel;
+		mFaces = new ArrayList<>();
+		mPending = new ArrayDeque<>();
+		mEdges = new EdgeMap();
+
+		int[] extremes = findExtremes(aCount);
+
+		double maxAbs = 0;
+		for (int axis = 0; axis < 3; axis++)
+		{
+			maxAbs += Math.max(Math.abs(aCoordinates[3 * extremes[axis] + axis]), Math.abs(aCoordinates[3 * extremes[3 + axis] + axis]));
+		}
+		mTolerance = 3 * Math.ulp(1.0) * maxAbs;
+
+		createSimplex(extremes, aCount);
+
+		while (!mPending.isEmpty())
+		{
+			Face face = mPending.pop();
+			if (!face.mRemoved)
+			{
+				addPoint(face, face.mFarthest);
+			}
+		}
+
+		// every face of the hull is referenced by the first of its edges
+		for (int i = 0; i < mEdges.mKeys.length; i++)
+		{
+			Face face = mEdges.mFaces[i];
+			if (face != null && mEdges.mKeys[i] == edge(face.mVertices[0], face.mVertices[1]))
+			{
+				mFaces.add(face);
+			}
+		}
+	}
+
+
+	/**
+	 * Returns the number of triangles of the hull.
+	 */
+	public int getFaceCount()
+	{
+		return mFaces.size();
+	}
+
+
+	/**
+	 * Returns the triangles of the hull, three indices of input points per triangle.
+	 */
+	public int[] getFaces()
+	{
+		int[] faces = new int[3 * getFaceCount()];
+		int i = 0;
+
+		for (Face face : mFaces)
+		{
+			faces[i++] = face.mVertices[0];
+			faces[i++] = face.mVertices[1];
+			faces[i++] = face.mVertices[2];
+		}
+
+		return faces;
+	}
+
+
+	/**
+	 * Returns the planes of the triangles of the hull in the same order as {@link #getFaces()}. Plane normals point outwards.
+	 */
+	public Plane[] getPlanes()
+	{
+		Plane[] planes = new Plane[getFaceCount()];
+		int i = 0;
+
+		for (Face face : mFaces)
+		{
+			planes[i++] = face.mPlane.clone();
+		}
+
+		return planes;
+	}
+
+
+	/**
+	 * Returns the sorted indices of the input points that are vertices of the hull.
+	 */
+	public int[] getVertices()
+	{
+		return IntStream.of(getFaces()).sorted().distinct().toArray();
+	}
+
+
+	public double getTolerance()
+	{
+		return mTolerance;
+	}
+
+
+	/**
+	 * Finds the points with the smallest and largest coordinate along each axis, the first three indices are minimum and the following
+	 * three maximum.
+	 */
+	private int[] findExtremes(int aCount)
+	{
+		IntStream blocks = IntStream.range(0, (aCount + BLOCK_SIZE - 1) / BLOCK_SIZE);
+
+		if (mParallel && aCount >= PARALLEL_THRESHOLD)
+		{
+			blocks = blocks.parallel();
+		}
+
+		return blocks.mapToObj(aBlock ->
+		{
+			int start = aBlock * BLOCK_SIZE;
+			int[] extremes = new int[6];
+			Arrays.fill(extremes, start);
+			for (int i = start + 1, end = Math.min(aCount, start + BLOCK_SIZE); i < end; i++)
+			{
+				updateExtremes(extremes, i);
+			}
+			return extremes;
+		}).reduce((a, b) ->
+		{
+			for (int i = 0; i < 6; i++)
+			{
+				updateExtremes(a, b[i]);
+			}
+			return a;
+		}).get();
+	}
+
+
+	private void updateExtremes(int[] aExtremes, int aPoint)
+	{
+		for (int axis = 0; axis < 3; axis++)
+		{
+			double v = mCoordinates[3 * aPoint + axis];
+			if (v < mCoordinates[3 * aExtremes[axis] + axis])
+			{
+				aExtremes[axis] = aPoint;
+			}
+			if (v > mCoordinates[3 * aExtremes[3 + axis] + axis])
+			{
+				aExtremes[3 + axis] = aPoint;
+			}
+		}
+	}
+
+
+	private void createSimplex(int[] aExtremes, int aCount)
+	{
+		double[] p = mCoordinates;
+
+		// the two extremes furthest apart along an axis
+		int v0 = 0, v1 = 0;
+		double max = -1;
+		for (int axis = 0; axis < 3; axis++)
+		{
+			double d = p[3 * aExtremes[3 + axis] + axis] - p[3 * aExtremes[axis] + axis];
+			if (d > max)
+			{
+				max = d;
+				v0 = aExtremes[axis];
+				v1 = aExtremes[3 + axis];
+			}
+		}
+
+		if (max <= mTolerance)
+		{
+			throw new IllegalArgumentException("Points are coincident");
+		}
+
+		// the point furthest from the line
+		double ux = p[3 * v1] - p[3 * v0], uy = p[3 * v1 + 1] - p[3 * v0 + 1], uz = p[3 * v1 + 2] - p[3 * v0 + 2];
+		double length = Math.sqrt(ux * ux + uy * uy + uz * uz);
+		ux /= length;
+		uy /= length;
+		uz /= length;
+
+		int v2 = -1;
+		max = 0;
+		for (int i = 0; i < aCount; i++)
+		{
+			double dx = p[3 * i] - p[3 * v0], dy = p[3 * i + 1] - p[3 * v0 + 1], dz = p[3 * i + 2] - p[3 * v0 + 2];
+			double cx = uy * dz - uz * dy, cy = uz * dx - ux * dz, cz = ux * dy - uy * dx;
+			double d = cx * cx + cy * cy + cz * cz;
+			if (d > max)
+			{
+				max = d;
+				v2 = i;
+			}
+		}
+
+		if (v2 == -1 || Math.sqrt(max) <= 100 * mTolerance)
+		{
+			throw new IllegalArgumentException("Points are collinear");
+		}
+
+		// the point furthest from the plane
+		Plane base = new Plane(p[3 * v0], p[3 * v0 + 1], p[3 * v0 + 2], p[3 * v1], p[3 * v1 + 1], p[3 * v1 + 2], p[3 * v2], p[3 * v2 + 1], p[3 * v2 + 2]);
+		int v3 = -1;
+		max = 0;
+		for (int i = 0; i < aCount; i++)
+		{
+			double d = Math.abs(base.distanceVectorPlane(p[3 * i], p[3 * i + 1], p[3 * i + 2]));
+			if (d > max)
+			{
+				max = d;
+				v3 = i;
+			}
+		}
+
+		if (v3 == -1 || max <= 100 * mTolerance)
+		{
+			throw new IllegalArgumentException("Points are coplanar");
+		}
+
+		// orient the tetrahedron so that all faces point outwards
+		if (base.distanceVectorPlane(p[3 * v3], p[3 * v3 + 1], p[3 * v3 + 2]) > 0)
+		{
+			int t = v1;
+			v1 = v2;
+			v2 = t;
+		}
+
+		Face[] faces =
+		{
+			addFace(v0, v1, v2),
+			addFace(v0, v3, v1),
+			addFace(v1, v3, v2),
+			addFace(v2, v3, v0)
+		};
+
+		int[] points = new int[aCount];
+		for (int i = 0; i < aCount; i++)
+		{
+			points[i] = i;
+		}
+
+		assign(points, aCount, faces);
+	}
+
+
+	private Face addFace(int a, int b, int c)
+	{
+		Face face = new Face(mCoordinates, a, b, c);
+		mEdges.put(edge(a, b), face);
+		mEdges.put(edge(b, c), face);
+		mEdges.put(edge(c, a), face);
+		return face;
+	}
+
+
+	/**
+	 * Adds a point to the hull, replacing the faces visible from the point by faces connecting the horizon to the point.
+	 */
+	private void addPoint(Face aFace, int aEye)
+	{
+		double[] p = mCoordinates;
+		double ex = p[3 * aEye];
+		double ey = p[3 * aEye + 1];
+		double ez = p[3 * aEye + 2];
+
+		ArrayList<Face> visible = new ArrayList<>();
+		ArrayList<int[]> horizon = new ArrayList<>();
+		ArrayDeque<Face> stack = new ArrayDeque<>();
+
+		aFace.mRemoved = true;
+		stack.push(aFace);
+
+		while (!stack.isEmpty())
+		{
+			Face face = stack.pop();
+			visible.add(face);
+
+			for (int k = 0; k < 3; k++)
+			{
+				int a = face.mVertices[k];
+				int b = face.mVertices[(k + 1) % 3];
+				Face neighbor = mEdges.get(edge(b, a));
+
+				if (neighbor.mRemoved)
+				{
+					continue;
+				}
+				if (neighbor.mPlane.distanceVectorPlane(ex, ey, ez) > mTolerance)
+				{
+					neighbor.mRemoved = true;
+					stack.push(neighbor);
+				}
+				else
+				{
+					horizon.add(new int[]{a, b});
+				}
+			}
+		}
+
+		for (Face face : visible)
+		{
+			for (int k = 0; k < 3; k++)
+			{
+				mEdges.remove(edge(face.mVertices[k], face.mVertices[(k + 1) % 3]));
+			}
+		}
+
+		Face[] created = new Face[horizon.size()];
+		for (int i = 0; i < created.length; i++)
+		{
+			int[] e = horizon.get(i);
+			created[i] = addFace(e[0], e[1], aEye);
+		}
+
+		int count = 0;
+		for (Face face : visible)
+		{
+			count += face.mOutsideCount;
+		}
+
+		int[] orphans = new int[count];
+		count = 0;
+		for (Face face : visible)
+		{
+			for (int i = 0; i < face.mOutsideCount; i++)
+			{
+				if (face.mOutside[i] != aEye)
+				{
+					orphans[count++] = face.mOutside[i];
+				}
+			}
+			face.mOutside = null;
+			face.mOutsideCount = 0;
+		}
+
+		assign(orphans, count, created);
+	}
+
+
+	/**
+	 * Assigns points to the face they're farthest in front of, points behind all faces are discarded.
+	 */
+	private void assign(int[] aPoints, int aCount, Face[] aFaces)
+	{
+		double[] p = mCoordinates;
+		int[] target = new int[aCount];
+		double[] distance = new double[aCount];
+
+		IntStream points = IntStream.range(0, aCount);
+
+		if (mParallel && aCount >= PARALLEL_THRESHOLD)
+		{
+			points = points.parallel();
+		}
+
+		points.forEach(i ->
+		{
+			int j = aPoints[i];
+			double x = p[3 * j], y = p[3 * j + 1], z = p[3 * j + 2];
+			double best = mTolerance;
+			int face = -1;
+
+			for (int k = 0; k < aFaces.length; k++)
+			{
+				double d = aFaces[k].mPlane.distanceVectorPlane(x, y, z);
+				if (d > best)
+				{
+					best = d;
+					face = k;
+				}
+			}
+
+			target[i] = face;
+			distance[i] = best;
+		});
+
+		for (int i = 0; i < aCount; i++)
+		{
+			if (target[i] != -1)
+			{
+				aFaces[target[i]].addOutside(aPoints[i], distance[i]);
+			}
+		}
+
+		for (Face face : aFaces)
+		{
+			if (face.mOutsideCount > 0)
+			{
+				mPending.push(face);
+			}
+		}
+	}
+
+
+	private static long edge(int a, int b)
+	{
+		return ((long)a << 32) | (b & 0xffffffffL);
+	}
+
+
+	private static double[] toArray(Vec3d[] aPoints)
+	{
+		double[] coordinates = new double[3 * aPoints.length];
+
+		for (int i = 0; i < aPoints.length; i++)
+		{
+			coordinates[3 * i] = aPoints[i].x;
+			coordinates[3 * i + 1] = aPoints[i].y;
+			coordinates[3 * i + 2] = aPoints[i].z;
+		}
+
+		return coordinates;
+	}
+}
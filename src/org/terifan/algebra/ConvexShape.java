@@ -0,0 +1,28 @@
+package org.terifan.algebra;
+
+
+/**
+ * A convex shape defined by its support function, used by {@link Gjk} for distance and penetration queries.
+ *
+ * @see ConvexShapes
+ */
+public interface ConvexShape
+{
+	/**
+	 * Returns the point of the shape furthest along a direction, in world space. The direction is not necessarily normalized and may be
+	 * zero. Implementations must not allocate or modify the direction.
+	 *
+	 * @param aDirection the direction
+	 * @param aOutput a Vec3d receiving the point
+	 * @return the Vec3d provided
+	 */
+	Vec3d support(Vec3d aDirection, Vec3d aOutput);
+
+
+	/**
+	 * Returns a point inside the shape, typically its center, in world space.
+	 *
+	 * @return the Vec3d provided
+	 */
+	Vec3d getCenter(Vec3d aOutput);
+}
@@ -0,0 +1,322 @@
+package org.terifan.algebra;
+
+
+/**
+ * Built-in convex shapes for {@link Gjk} queries. Shapes are defined in a local frame centered on the origin and placed in the world
+ * using a {@link Transform3D}, including its scale, or a unit {@link DualQuaternion}. Evaluating the support function doesn't allocate.
+ */
+public final class ConvexShapes
+{
+	private ConvexShapes()
+	{
+	}
+
+
+	/**
+	 * Base class of shapes placed in the world by a rigid transformation and an optional scale.
+	 */
+	public static abstract class Transformed implements ConvexShape
+	{
+		private double mQw = 1, mQx, mQy, mQz;
+		private double mTx, mTy, mTz;
+		private double mSx = 1, mSy = 1, mSz = 1;
+
+
+		/**
+		 * Returns the point of the shape furthest along a direction in the local frame.
+		 */
+		protected abstract void localSupport(double aDirX, double aDirY, double aDirZ, Vec3d aOutput);
+
+
+		/**
+		 * Places this shape using the position, direction and scale of a transform. The transform is copied.
+		 *
+		 * @return this shape
+		 */
+		public Transformed setTransform(Transform3D aTransform)
+		{
+			if (aTransform.hasDirection())
+			{
+				Quaternion q = aTransform.getQuaternion();
+				mQw = q.getW();
+				mQx = q.getX();
+				mQy = q.getY();
+				mQz = q.getZ();
+			}
+			else
+			{
+				mQw = 1;
+				mQx = mQy = mQz = 0;
+			}
+
+			Vec3d position = aTransform.getPosition();
+			mTx = position.x;
+			mTy = position.y;
+			mTz = position.z;
+
+			Vec3d scale = aTransform.getScale();
+			mSx = scale.x;
+			mSy = scale.y;
+			mSz = scale.z;
+
+			return this;
+		}
+
+
+		/**
+		 * Places this shape using a unit dual quaternion. The dual quaternion is copied.
+		 *
+		 * @return this shape
+		 */
+		public Transformed setTransform(DualQuaternion aTransform)
+		{
+			QuaternionNew r = aTransform.getReal();
+			QuaternionNew d = aTransform.getDual();
+
+			mQw = r.w;
+			mQx = r.x;
+			mQy = r.y;
+			mQz = r.z;
+
+			// translation = 2 * dual * conjugate(real)
+			mTx = 2 * (d.x * r.w - r.x * d.w + r.y * d.z - r.z * d.y);
+			mTy = 2 * (d.y * r.w - r.y * d.w + r.z * d.x - r.x * d.z);
+			mTz = 2 * (d.z * r.w - r.z * d.w + r.x * d.y - r.y * d.x);
+
+			mSx = mSy = mSz = 1;
+
+			return this;
+		}
+
+
+		/**
+		 * Places this shape at a position without rotation or scale.
+		 *
+		 * @return this shape
+		 */
+		public Transformed setPosition(double aX, double aY, double aZ)
+		{
+			mQw = 1;
+			mQx = mQy = mQz = 0;
+			mTx = aX;
+			mTy = aY;
+			mTz = aZ;
+			mSx = mSy = mSz = 1;
+			return this;
+		}
+
+
+		@Override
+		public Vec3d support(Vec3d aDirection, Vec3d aOutput)
+		{
+			// rotate the direction into the local frame using the conjugate rotation, the transpose of the scale is the scale itself
+			double x = aDirection.x;
+			double y = aDirection.y;
+			double z = aDirection.z;
+
+			double ccx = -mQy * z + mQz * y + x * mQw;
+			double ccy = -mQz * x + mQx * z + y * mQw;
+			double ccz = -mQx * y + mQy * x + z * mQw;
+
+			double lx = (x + 2 * (-mQy * ccz + mQz * ccy)) * mSx;
+			double ly = (y + 2 * (-mQz * ccx + mQx * ccz)) * mSy;
+			double lz = (z + 2 * (-mQx * ccy + mQy * ccx)) * mSz;
+
+			localSupport(lx, ly, lz, aOutput);
+
+			// transform the point to world space, scale then rotate then translate like Transform3D
+			x = aOutput.x * mSx;
+			y = aOutput.y * mSy;
+			z = aOutput.z * mSz;
+
+			ccx = mQy * z - mQz * y + x * mQw;
+			ccy = mQz * x - mQx * z + y * mQw;
+			ccz = mQx * y - mQy * x + z * mQw;
+
+			aOutput.x = x + 2 * (mQy * ccz - mQz * ccy) + mTx;
+			aOutput.y = y + 2 * (mQz * ccx - mQx * ccz) + mTy;
+			aOutput.z = z + 2 * (mQx * ccy - mQy * ccx) + mTz;
+
+			return aOutput;
+		}
+
+
+		@Override
+		public Vec3d getCenter(Vec3d aOutput)
+		{
+			return aOutput.set(mTx, mTy, mTz);
+		}
+	}
+
+
+	/**
+	 * A sphere centered on the origin.
+	 */
+	public static class Sphere extends Transformed
+	{
+		private final double mRadius;
+
+
+		public Sphere(double aRadius)
+		{
+			mRadius = aRadius;
+		}
+
+
+		public double getRadius()
+		{
+			return mRadius;
+		}
+
+
+		@Override
+		protected void localSupport(double aDirX, double aDirY, double aDirZ, Vec3d aOutput)
+		{
+			double length = Math.sqrt(aDirX * aDirX + aDirY * aDirY + aDirZ * aDirZ);
+
+			if (length == 0)
+			{
+				aOutput.set(mRadius, 0, 0);
+			}
+			else
+			{
+				double s = mRadius / length;
+				aOutput.set(aDirX * s, aDirY * s, aDirZ * s);
+			}
+		}
+	}
+
+
+	/**
+	 * An axis aligned box centered on the origin.
+	 */
+	public static class Box extends Transformed
+	{
+		private final double mHalfX;
+		private final double mHalfY;
+		private final double mHalfZ;
+
+
+		/**
+		 * @param aHalfX half the width of the box
+		 * @param aHalfY half the height of the box
+		 * @param aHalfZ half the depth of the box
+		 */
+		public Box(double aHalfX, double aHalfY, double aHalfZ)
+		{
+			mHalfX = aHalfX;
+			mHalfY = aHalfY;
+			mHalfZ = aHalfZ;
+		}
+
+
+		@Override
+		protected void localSupport(double aDirX, double aDirY, double aDirZ, Vec3d aOutput)
+		{
+			aOutput.set(aDirX < 0 ? -mHalfX : mHalfX, aDirY < 0 ? -mHalfY : mHalfY, aDirZ < 0 ? -mHalfZ : mHalfZ);
+		}
+	}
+
+
+	/**
+	 * A capsule centered on the origin with its axis along Y.
+	 */
+	public static class Capsule extends Transformed
+	{
+		private final double mRadius;
+		private final double mHalfHeight;
+
+
+		/**
+		 * @param aRadius radius of the capsule
+		 * @param aHalfHeight half the distance between the centers of the end caps
+		 */
+		public Capsule(double aRadius, double aHalfHeight)
+		{
+			mRadius = aRadius;
+			mHalfHeight = aHalfHeight;
+		}
+
+
+		@Override
+		protected void localSupport(double aDirX, double aDirY, double aDirZ, Vec3d aOutput)
+		{
+			double length = Math.sqrt(aDirX * aDirX + aDirY * aDirY + aDirZ * aDirZ);
+			double cap = aDirY < 0 ? -mHalfHeight : mHalfHeight;
+
+			if (length == 0)
+			{
+				aOutput.set(mRadius, cap, 0);
+			}
+			else
+			{
+				double s = mRadius / length;
+				aOutput.set(aDirX * s, aDirY * s + cap, aDirZ * s);
+			}
+		}
+	}
+
+
+	/**
+	 * The convex hull of a set of points. The support function tests every point, reduce the points to the vertices of their hull using
+	 * {@link ConvexHull} for large point sets.
+	 */
+	public static class Hull extends Transformed
+	{
+		private final double[] mCoordinates;
+		private final int mCount;
+
+
+		/**
+		 * @param aCoordinates interleaved x, y and z coordinates, the array is copied
+		 */
+		public Hull(double[] aCoordinates)
+		{
+			if (aCoordinates.length < 3)
+			{
+				throw new IllegalArgumentException("No points");
+			}
+
+			mCoordinates = aCoordinates.clone();
+			mCount = aCoordinates.length / 3;
+		}
+
+
+		/**
+		 * Creates a shape from the vertices of a convex hull.
+		 */
+		public Hull(double[] aCoordinates, ConvexHull aHull)
+		{
+			int[] vertices = aHull.getVertices();
+
+			mCount = vertices.length;
+			mCoordinates = new double[3 * mCount];
+
+			for (int i = 0; i < mCount; i++)
+			{
+				System.arraycopy(aCoordinates, 3 * vertices[i], mCoordinates, 3 * i, 3);
+			}
+		}
+
+
+		@Override
+		protected void localSupport(double aDirX, double aDirY, double aDirZ, Vec3d aOutput)
+		{
+			double[] p = mCoordinates;
+			int best = 0;
+			double max = Double.NEGATIVE_INFINITY;
+
+			for (int i = 0; i < mCount; i++)
+			{
+				double d = p[3 * i] * aDirX + p[3 * i + 1] * aDirY + p[3 * i + 2] * aDirZ;
+				if (d > max)
+				{
+					max = d;
+					best = i;
+				}
+			}
+
+			aOutput.set(p[3 * best], p[3 * best + 1], p[3 * best + 2]);
+		}
+	}
+}
@@ -39,45 +39,186 @@ public class DualQuaternion implements Cloneable
 	}
 
 
+	/**
+	 * Constructs a dual quaternion from eight packed doubles, see {@link #set(double[], int)}.
+	 */
+	public DualQuaternion(double[] aArray, int aOffset)
+	{
+		this();
+		set(aArray, aOffset);
+	}
+
+
+	/**
+	 * Copies the values of the dual quaternion provided.
+	 */
+	public DualQuaternion set(DualQuaternion aOther)
+	{
+		m_real.set(aOther.m_real);
+		m_dual.set(aOther.m_dual);
+		return this;
+	}
+
+
+	/**
+	 * Sets this dual quaternion from eight doubles packed as the real x, y, z, w followed by the dual x, y, z, w starting at the offset
+	 * provided.
+	 */
+	public DualQuaternion set(double[] aArray, int aOffset)
+	{
+		m_real.set(aArray, aOffset);
+		m_dual.set(aArray, aOffset + 4);
+		return this;
+	}
+
+
+	/**
+	 * Returns this dual quaternion packed as eight doubles, see {@link #set(double[], int)}.
+	 */
+	public double[] toArray()
+	{
+		return toArray(new double[8], 0);
+	}
+
+
+	/**
+	 * Writes this dual quaternion as eight packed doubles starting at the offset provided, see {@link #set(double[], int)}.
+	 *
+	 * @return the array provided
+	 */
+	public double[] toArray(double[] aArray, int aOffset)
+	{
+		m_real.toArray(aArray, aOffset);
+		m_dual.toArray(aArray, aOffset + 4);
+		return aArray;
+	}
+
+
+	public DualQuaternion identity()
+	{
+		m_real.identity();
+		m_dual.set(0, 0, 0, 0);
+		return this;
+	}
+
+
 	/**
 	 * Note: this DualQuaternion must be normalized before calling this method
 	 */
 	public Vec3d transform(Vec3d p)
 	{
-		Vec3d v0 = m_real.getVectorPart();
-		Vec3d ve = m_dual.getVectorPart();
+		return transform(p, p);
+	}
+
 
-		Vec3d trans = ve.clone().multiply(m_real.w).subtract(v0.clone().multiply(m_dual.w)).add(v0.clone().cross(ve)).multiply(2);
+	/**
+	 * Same as {@link #transform(Vec3d)}.
+	 *
+	 * @param aOutput the vector receiving the result, may be the vector transformed
+	 * @return the vector provided as output
+	 */
+	public Vec3d transform(Vec3d p, Vec3d aOutput)
+	{
+		QuaternionNew r = m_real;
+		QuaternionNew d = m_dual;
 
-		return m_real.rotate(p).add(trans);
+		// translation = 2 * dual * conjugate(real)
+		double tx = (d.x * r.w - r.x * d.w + (r.y * d.z - r.z * d.y)) * 2;
+		double ty = (d.y * r.w - r.y * d.w + (r.z * d.x - r.x * d.z)) * 2;
+		double tz = (d.z * r.w - r.z * d.w + (r.x * d.y - r.y * d.x)) * 2;
+
+		return r.rotate(p, aOutput).add(tx, ty, tz);
 	}
 
 
 	public Vec3d rotate(Vec3d v)
-    {
-        QuaternionNew tmp = m_real;
-        tmp.normalize();
-        return tmp.rotate(v);
-    }
+	{
+		return rotate(v, v);
+	}
+
+
+	/**
+	 * Same as {@link #rotate(Vec3d)}, the real part of this dual quaternion is normalized.
+	 *
+	 * @param aOutput the vector receiving the result, may be the vector rotated
+	 * @return the vector provided as output
+	 */
+	public Vec3d rotate(Vec3d v, Vec3d aOutput)
+	{
+		return m_real.normalize().rotate(v, aOutput);
+	}
 
 
 	public DualQuaternion conjugate()
 	{
-		m_real.conjugate();
-		m_dual.conjugate();
-		return this;
+		return conjugate(this);
+	}
+
+
+	/**
+	 * Same as {@link #conjugate()}.
+	 *
+	 * @param aOutput the dual quaternion receiving the result, may be this dual quaternion
+	 * @return the dual quaternion provided
+	 */
+	public DualQuaternion conjugate(DualQuaternion aOutput)
+	{
+		m_real.conjugate(aOutput.m_real);
+		m_dual.conjugate(aOutput.m_dual);
+		return aOutput;
 	}
 
 
+	/**
+	 * Multiplies the dual quaternion provided with this, this = dq * this.
+	 */
 	public DualQuaternion multiply(DualQuaternion dq)
 	{
-		QuaternionNew _q0 = dq.m_real.clone().multiply(m_real);
-		QuaternionNew _qe = dq.m_dual.clone().multiply(m_real).add(dq.m_real.clone().multiply(m_dual));
+		return multiply(dq, this);
+	}
 
-		m_real = _q0;
-		m_dual = _qe;
 
-		return this;
+	/**
+	 * Same as {@link #multiply(DualQuaternion)}, aOutput = dq * this.
+	 *
+	 * @param aOutput the dual quaternion receiving the result, may be either of the dual quaternions multiplied
+	 * @return the dual quaternion provided
+	 */
+	public DualQuaternion multiply(DualQuaternion dq, DualQuaternion aOutput)
+	{
+		QuaternionNew r = dq.m_real;
+		QuaternionNew d = dq.m_dual;
+
+		return premultiply(r.x, r.y, r.z, r.w, d.x, d.y, d.z, d.w, aOutput);
+	}
+
+
+	/**
+	 * Sets the output to the dual quaternion given by its packed components multiplied with this, without reading them from any object
+	 * that may alias the output.
+	 */
+	private DualQuaternion premultiply(double rx, double ry, double rz, double rw, double dx, double dy, double dz, double dw,
+		DualQuaternion aOutput)
+	{
+		QuaternionNew r = m_real;
+		QuaternionNew d = m_dual;
+
+		// real = a.real * real
+		double q0w = rw * r.w - rx * r.x - ry * r.y - rz * r.z;
+		double q0x = rw * r.x + rx * r.w + ry * r.z - rz * r.y;
+		double q0y = rw * r.y + ry * r.w + rz * r.x - rx * r.z;
+		double q0z = rw * r.z + rz * r.w + rx * r.y - ry * r.x;
+
+		// dual = a.dual * real + a.real * dual
+		double qew = (dw * r.w - dx * r.x - dy * r.y - dz * r.z) + (rw * d.w - rx * d.x - ry * d.y - rz * d.z);
+		double qex = (dw * r.x + dx * r.w + dy * r.z - dz * r.y) + (rw * d.x + rx * d.w + ry * d.z - rz * d.y);
+		double qey = (dw * r.y + dy * r.w + dz * r.x - dx * r.z) + (rw * d.y + ry * d.w + rz * d.x - rx * d.z);
+		double qez = (dw * r.z + dz * r.w + dx * r.y - dy * r.x) + (rw * d.z + rz * d.w + rx * d.y - ry * d.x);
+
+		aOutput.m_real.set(q0x, q0y, q0z, q0w);
+		aOutput.m_dual.set(qex, qey, qez, qew);
+
+		return aOutput;
 	}
 
 
@@ -99,39 +240,87 @@ public class DualQuaternion implements Cloneable
 // https://github.com/Arnatious/DualQuats/blob/master/Assets/Scripts/DualQuaternion.cs
 	public DualQuaternion normalize()
 	{
-		double length = m_real.dot(m_real);
+		return normalize(this);
+	}
+
+
+	/**
+	 * Same as {@link #normalize()}.
+	 *
+	 * @param aOutput the dual quaternion receiving the result, may be this dual quaternion
+	 * @return the dual quaternion provided
+	 */
+	public DualQuaternion normalize(DualQuaternion aOutput)
+	{
+		QuaternionNew r = m_real;
+		QuaternionNew d = m_dual;
+
+		double length = r.dot(r);
 		double scale = 1.0 / length;
 
-		m_real.multiply(scale);
-		m_dual.multiply(scale);
+		double rx = r.x * scale;
+		double ry = r.y * scale;
+		double rz = r.z * scale;
+		double rw = r.w * scale;
+		double dx = d.x * scale;
+		double dy = d.y * scale;
+		double dz = d.z * scale;
+		double dw = d.w * scale;
 
-		m_dual.subtract(m_real.clone().multiply(m_real.dot(m_dual) * (length * length)));
+		double f = (rx * dx + ry * dy + rz * dz + rw * dw) * (length * length);
 
-		return this;
+		aOutput.m_real.set(rx, ry, rz, rw);
+		aOutput.m_dual.set(dx - rx * f, dy - ry * f, dz - rz * f, dw - rw * f);
+
+		return aOutput;
 	}
 
 
 	public DualQuaternion invert()
 	{
-		double sqr_len_0 = m_real.dot(m_real);
-		double sqr_len_e = m_real.dot(m_dual) * 2.0;
+		return invert(this);
+	}
+
+
+	/**
+	 * Same as {@link #invert()}.
+	 *
+	 * @param aOutput the dual quaternion receiving the result, may be this dual quaternion
+	 * @return the dual quaternion provided
+	 */
+	public DualQuaternion invert(DualQuaternion aOutput)
+	{
+		QuaternionNew r = m_real;
+		QuaternionNew d = m_dual;
+
+		double sqr_len_0 = r.dot(r);
+		double sqr_len_e = r.dot(d) * 2.0;
 
 		if (sqr_len_0 > 0.0)
 		{
 			double inv_sqr_len_0 = 1.0 / sqr_len_0;
 			double inv_sqr_len_e = -sqr_len_e / (sqr_len_0 * sqr_len_0);
 
-			DualQuaternion conj = clone().conjugate();
-			m_real = conj.m_real.clone().multiply(inv_sqr_len_0);
-			m_dual = conj.m_dual.multiply(inv_sqr_len_0).add(conj.m_real.multiply(inv_sqr_len_e));
+			// real = conjugate(real) / |real|^2, dual = conjugate(dual) / |real|^2 + conjugate(real) * inv_sqr_len_e
+			double rx = -r.x;
+			double ry = -r.y;
+			double rz = -r.z;
+			double rw = r.w;
+
+			aOutput.m_dual.set(
+				-d.x * inv_sqr_len_0 + rx * inv_sqr_len_e,
+				-d.y * inv_sqr_len_0 + ry * inv_sqr_len_e,
+				-d.z * inv_sqr_len_0 + rz * inv_sqr_len_e,
+				d.w * inv_sqr_len_0 + rw * inv_sqr_len_e);
+			aOutput.m_real.set(rx * inv_sqr_len_0, ry * inv_sqr_len_0, rz * inv_sqr_len_0, rw * inv_sqr_len_0);
 		}
 		else
 		{
-			m_real.multiply(0);
-			m_dual.multiply(0);
+			aOutput.m_real.set(0, 0, 0, 0);
+			aOutput.m_dual.set(0, 0, 0, 0);
 		}
 
-		return this;
+		return aOutput;
 	}
 
 
@@ -142,20 +331,20 @@ public class DualQuaternion implements Cloneable
 	}
 
 
-	private DualQuaternion setFromScrew(double inAngle, double inPitch, Vec3d inDir, Vec3d inMoment)
+	private DualQuaternion setFromScrew(double inAngle, double inPitch, double inDirX, double inDirY, double inDirZ, double inMomentX, double inMomentY, double inMomentZ, boolean aFastMath)
 	{
-		double sin_half_angle = Math.sin(inAngle * 0.5);
-		double cos_half_angle = Math.cos(inAngle * 0.5);
+		double sin_half_angle = FastMath.sin(inAngle * 0.5, aFastMath);
+		double cos_half_angle = FastMath.cos(inAngle * 0.5, aFastMath);
 
 		m_real.w = cos_half_angle;
-		m_real.x = sin_half_angle * inDir.x;
-		m_real.y = sin_half_angle * inDir.y;
-		m_real.z = sin_half_angle * inDir.z;
+		m_real.x = sin_half_angle * inDirX;
+		m_real.y = sin_half_angle * inDirY;
+		m_real.z = sin_half_angle * inDirZ;
 
 		m_dual.w = -inPitch * sin_half_angle * 0.5;
-		m_dual.x = sin_half_angle * inMoment.x + 0.5 * inPitch * cos_half_angle * inDir.x;
-		m_dual.y = sin_half_angle * inMoment.y + 0.5 * inPitch * cos_half_angle * inDir.y;
-		m_dual.z = sin_half_angle * inMoment.z + 0.5 * inPitch * cos_half_angle * inDir.z;
+		m_dual.x = sin_half_angle * inMomentX + 0.5 * inPitch * cos_half_angle * inDirX;
+		m_dual.y = sin_half_angle * inMomentY + 0.5 * inPitch * cos_half_angle * inDirY;
+		m_dual.z = sin_half_angle * inMomentZ + 0.5 * inPitch * cos_half_angle * inDirZ;
 
 		return this;
 	}
@@ -273,38 +462,98 @@ public class DualQuaternion implements Cloneable
 //		res.m_dual.z = moment.z * angle[0] * 0.5 + direction.z * pitch[0] * 0.5;
 //		res.m_dual.w = 0.0;
 
-		DualQuaternion res = new DualQuaternion();
+		return log(new DualQuaternion());
+	}
+
+
+	/**
+	 * Computes the logarithm of this dual quaternion.
+	 *
+	 * @param aOutput the dual quaternion receiving the result, may be this dual quaternion
+	 * @return the dual quaternion provided
+	 */
+	public DualQuaternion log(DualQuaternion aOutput)
+	{
+		return log(aOutput, false);
+	}
+
 
-		double scale = 1 / Math.sqrt(m_real.dot(m_real));
+	/**
+	 * Same as {@link #log(DualQuaternion)}.
+	 *
+	 * @param aFastMath true if the logarithm and trigonometric functions should be approximated using FastMath
+	 */
+	public DualQuaternion log(DualQuaternion aOutput, boolean aFastMath)
+	{
+		QuaternionNew r = m_real;
+		QuaternionNew d = m_dual;
+
+		double scale = 1 / Math.sqrt(r.dot(r));
 		scale *= scale;
-		res.m_real = m_real.clone().log();
-		res.m_dual = m_real.clone().conjugate().multiply(m_dual).multiply(scale);
 
-		return res;
+		// dual = conjugate(real) * dual * scale
+		double dw = (r.w * d.w + r.x * d.x + r.y * d.y + r.z * d.z) * scale;
+		double dx = (r.w * d.x - r.x * d.w - r.y * d.z + r.z * d.y) * scale;
+		double dy = (r.w * d.y - r.y * d.w - r.z * d.x + r.x * d.z) * scale;
+		double dz = (r.w * d.z - r.z * d.w - r.x * d.y + r.y * d.x) * scale;
+
+		r.log(aOutput.m_real, aFastMath);
+		aOutput.m_dual.set(dx, dy, dz, dw);
+
+		return aOutput;
 	}
 
 
 	public DualQuaternion exp()
 	{
-		DualQuaternion res = new DualQuaternion();
-		Vec3d n = new Vec3d(m_real.x, m_real.y, m_real.z);
+		return exp(new DualQuaternion());
+	}
+
+
+	/**
+	 * Computes the exponential of this dual quaternion.
+	 *
+	 * @param aOutput the dual quaternion receiving the result, may be this dual quaternion
+	 * @return the dual quaternion provided
+	 */
+	public DualQuaternion exp(DualQuaternion aOutput)
+	{
+		return exp(aOutput, false);
+	}
+
+
+	/**
+	 * Same as {@link #exp(DualQuaternion)}.
+	 *
+	 * @param aFastMath true if the trigonometric functions should be approximated using FastMath
+	 */
+	public DualQuaternion exp(DualQuaternion aOutput, boolean aFastMath)
+	{
+		QuaternionNew r = m_real;
+		QuaternionNew d = m_dual;
 
-		double half_angle = n.length();
+		double half_angle = Math.sqrt(r.x * r.x + r.y * r.y + r.z * r.z);
 
 		// Pure translation?
 		if (half_angle < 1e-5)
 		{
-			return new DualQuaternion(new QuaternionNew().identity(), m_dual.clone());
+			aOutput.m_dual.set(d);
+			aOutput.m_real.identity();
+			return aOutput;
 		}
 
 		// Get normalized dir
-		Vec3d dir = n.clone().divide(half_angle);
+		double scale = 1 / half_angle;
+		double dirX = r.x * scale;
+		double dirY = r.y * scale;
+		double dirZ = r.z * scale;
 
-		Vec3d d = new Vec3d(m_dual.x, m_dual.y, m_dual.z);
-		double half_pitch = d.dot(dir);
-		Vec3d mom = d.subtract(dir.clone().multiply(half_pitch)).divide(half_angle);
+		double half_pitch = d.x * dirX + d.y * dirY + d.z * dirZ;
+		double momX = (d.x - dirX * half_pitch) * scale;
+		double momY = (d.y - dirY * half_pitch) * scale;
+		double momZ = (d.z - dirZ * half_pitch) * scale;
 
-		return res.setFromScrew(half_angle * 2.0, half_pitch * 2.0, dir, mom);
+		return aOutput.setFromScrew(half_angle * 2.0, half_pitch * 2.0, dirX, dirY, dirZ, momX, momY, momZ, aFastMath);
 	}
 
 
@@ -349,52 +598,119 @@ public class DualQuaternion implements Cloneable
 	// https://xbdev.net/misc_demos/demos/dual_quaternions_beyond/paper.pdf
 	public DualQuaternion lerp(DualQuaternion from, DualQuaternion to, double t)
 	{
-		// Shortest path
-		double dot = from.m_real.dot(to.m_real);
-		if (dot < 0)
+		return lerp(from, to, t, false);
+	}
+
+
+	/**
+	 * Screw linear interpolation between two dual quaternions.
+	 * <p>
+	 * Note: the result is written to <code>from</code>, and <code>to</code> is negated when that gives the shorter path. Use
+	 * {@link #lerp(DualQuaternion, DualQuaternion, double, boolean, DualQuaternion)} to leave both unchanged.
+	 *
+	 * @param aFastMath true if the trigonometric functions should be approximated using FastMath
+	 */
+	public DualQuaternion lerp(DualQuaternion from, DualQuaternion to, double t, boolean aFastMath)
+	{
+		if (from.m_real.dot(to.m_real) < 0)
 		{
-			to = to.multiply(-1);
+			to.multiply(-1);
 		}
 
+		return lerp(from, to, t, aFastMath, from);
+	}
+
+
+	/**
+	 * Screw linear interpolation between two dual quaternions writing the result to the output provided. Neither input is modified.
+	 *
+	 * @param aFastMath true if the trigonometric functions should be approximated using FastMath
+	 * @param aOutput the dual quaternion receiving the result, may be either input
+	 * @return the dual quaternion provided
+	 */
+	public DualQuaternion lerp(DualQuaternion from, DualQuaternion to, double t, boolean aFastMath, DualQuaternion aOutput)
+	{
+		// Shortest path
+		double sign = from.m_real.dot(to.m_real) < 0 ? -1 : 1;
+
+		QuaternionNew tr = to.m_real;
+		QuaternionNew td = to.m_dual;
+		double bx = tr.x * sign;
+		double by = tr.y * sign;
+		double bz = tr.z * sign;
+		double bw = tr.w * sign;
+		double bdx = td.x * sign;
+		double bdy = td.y * sign;
+		double bdz = td.z * sign;
+		double bdw = td.w * sign;
+
 		// ScLERP = qa(qa^-1 qb)^t
-		DualQuaternion diff = from.conjugate().multiply(to);
-		Vec3d vr = diff.m_real.getVectorPart();
-		Vec3d vd = diff.m_dual.getVectorPart();
-		double invr = 1 / Math.sqrt(vr.dot(vr));
+		DualQuaternion diff = from.conjugate(aOutput).premultiply(bx, by, bz, bw, bdx, bdy, bdz, bdw, aOutput);
+		QuaternionNew r = diff.m_real;
+		QuaternionNew d = diff.m_dual;
+		double invr = 1 / Math.sqrt(r.x * r.x + r.y * r.y + r.z * r.z);
 
 		// Screw parameters
-		double angle = 2 * Math.acos(diff.m_real.w);
-		double pitch = -2 * diff.m_dual.w * invr;
-		Vec3d direction = vr.clone().multiply(invr);
-		Vec3d moment = vd.subtract(direction.clone().multiply(pitch * diff.m_real.w * 0.5)).multiply(invr);
+		double angle = 2 * FastMath.acos(r.w, aFastMath);
+		double pitch = -2 * d.w * invr;
+		double dirX = r.x * invr;
+		double dirY = r.y * invr;
+		double dirZ = r.z * invr;
+		double f = pitch * r.w * 0.5;
+		double momX = (d.x - dirX * f) * invr;
+		double momY = (d.y - dirY * f) * invr;
+		double momZ = (d.z - dirZ * f) * invr;
 
 		// Exponential power
 		angle *= t;
 		pitch *= t;
 
 		// Convert back to dual-quaternion
-		double sinAngle = Math.sin(0.5 * angle);
-		double cosAngle = Math.cos(0.5 * angle);
-		Vec3d d = direction.clone().multiply(sinAngle);
-		Vec3d e = moment.clone().multiply(sinAngle).add(direction.clone().multiply(pitch * 0.5 * cosAngle));
-		QuaternionNew real = new QuaternionNew(d.x, d.y, d.z, cosAngle);
-		QuaternionNew dual = new QuaternionNew(e.x, e.y, e.z, -pitch * 0.5 * sinAngle);
+		double sinAngle = FastMath.sin(0.5 * angle, aFastMath);
+		double cosAngle = FastMath.cos(0.5 * angle, aFastMath);
+		double g = pitch * 0.5 * cosAngle;
 
 		// Complete the multiplication and return the interpolated value
-		return from.multiply(new DualQuaternion(real, dual));
+		return diff.premultiply(
+			dirX * sinAngle, dirY * sinAngle, dirZ * sinAngle, cosAngle,
+			momX * sinAngle + dirX * g, momY * sinAngle + dirY * g, momZ * sinAngle + dirZ * g, -pitch * 0.5 * sinAngle, diff);
 	}
 
 
 	// https://xbdev.net/misc_demos/demos/dual_quaternions_beyond/paper.pdf
 	public Mat4d toMat4d()
 	{
-		DualQuaternion q = clone().normalize();
+		return toMat4d(new Mat4d());
+	}
+
+
+	/**
+	 * Writes the transform of this dual quaternion, after normalization, to the matrix provided. This dual quaternion is not modified.
+	 *
+	 * @return the matrix provided
+	 */
+	public Mat4d toMat4d(Mat4d aOutput)
+	{
+		// Normalize a copy, see normalize
+		double length = m_real.dot(m_real);
+		double scale = 1.0 / length;
+
+		double w = m_real.w * scale;
+		double x = m_real.x * scale;
+		double y = m_real.y * scale;
+		double z = m_real.z * scale;
+		double dw = m_dual.w * scale;
+		double dx = m_dual.x * scale;
+		double dy = m_dual.y * scale;
+		double dz = m_dual.z * scale;
+
+		double f = (x * dx + y * dy + z * dz + w * dw) * (length * length);
+		dx -= x * f;
+		dy -= y * f;
+		dz -= z * f;
+		dw -= w * f;
 
-		Mat4d m = new Mat4d().identity();
-		double w = q.m_real.w;
-		double x = q.m_real.x;
-		double y = q.m_real.y;
-		double z = q.m_real.z;
+		Mat4d m = aOutput.identity();
 
 		// Extract rotational information
 		m.m00 = w * w + x * x - y * y - z * z;
@@ -407,11 +723,14 @@ public class DualQuaternion implements Cloneable
 		m.m21 = 2 * y * z - 2 * w * x;
 		m.m22 = w * w + z * z - x * x - y * y;
 
-		// Extract translation information
-		QuaternionNew t = q.m_dual.clone().multiply(q.m_real.clone().conjugate().multiply(2.0));
-		m.m30 = t.x;
-		m.m31 = t.y;
-		m.m32 = t.z;
+		// Extract translation information, dual * conjugate(real) * 2
+		double cw = w * 2.0;
+		double cx = -x * 2.0;
+		double cy = -y * 2.0;
+		double cz = -z * 2.0;
+		m.m30 = dw * cx + dx * cw + dy * cz - dz * cy;
+		m.m31 = dw * cy + dy * cw + dz * cx - dx * cz;
+		m.m32 = dw * cz + dz * cw + dx * cy - dy * cx;
 
 		return m;
 	}
@@ -0,0 +1,304 @@
+package org.terifan.algebra;
+
+
+/**
+ * Polynomial approximations of elementary functions trading accuracy for speed in hot loops.
+ * <p>
+ * The functions use plain double precision arithmetic and small lookup tables instead of the runtime library, and avoid data dependent
+ * branches on the common path. The documented errors were measured over dense sweeps of the input range. Arguments outside the range
+ * where an approximation holds, such as huge angles, denormals, infinities and NaN, are passed on to {@link java.lang.Math}.
+ * <p>
+ * Routines accepting an <code>aFastMath</code> flag, e.g. {@link Quaternion#fromEuler(double, double, double, boolean)},
+ * {@link Quaternion#lerp(Quaternion, Quaternion, float, boolean)},
+ * {@link DualQuaternion#lerp(DualQuaternion, DualQuaternion, double, boolean)},
+ * {@link DualQuaternion#log(DualQuaternion, boolean)}, {@link DualQuaternion#exp(DualQuaternion, boolean)},
+ * {@link Mat4d#rotateAboutLocalAxisRads(double, Vec3d, boolean)} and
+ * {@link VectorMath#importanceSampleUpperHemisphere(double, double, double, double, double, Vec3d, double, boolean)}, use these
+ * functions when the flag is set.
+ */
+public final class FastMath
+{
+	private final static double PI = Math.PI;
+	private final static double HALF_PI = Math.PI / 2;
+	private final static double TWO_OVER_PI = 2 / Math.PI;
+	private final static double LN2 = Math.log(2);
+	private final static double INV_LN2 = 1 / Math.log(2);
+
+	// pi/2 split in a part with 33 significant bits and the remainder, k * HALF_PI_HI is exact for |k| < 2^20
+	private final static double HALF_PI_HI = 1.57079632673412561417;
+	private final static double HALF_PI_LO = 6.07710050650619224932e-11;
+
+	private final static double MAX_ANGLE = 1e6;
+
+	// Taylor coefficients of sin and cos, sufficient for |x| <= pi/4
+	private final static double S3 = -1.0 / 6;
+	private final static double S5 = 1.0 / 120;
+	private final static double S7 = -1.0 / 5040;
+	private final static double S9 = 1.0 / 362880;
+	private final static double S11 = -1.0 / 39916800;
+	private final static double C2 = -1.0 / 2;
+	private final static double C4 = 1.0 / 24;
+	private final static double C6 = -1.0 / 720;
+	private final static double C8 = 1.0 / 40320;
+	private final static double C10 = -1.0 / 3628800;
+	private final static double C12 = 1.0 / 479001600;
+
+	// Abramowitz & Stegun 4.4.46
+	private final static double A0 = 1.5707963050;
+	private final static double A1 = -0.2145988016;
+	private final static double A2 = 0.0889789874;
+	private final static double A3 = -0.0501743046;
+	private final static double A4 = 0.0308918810;
+	private final static double A5 = -0.0170881256;
+	private final static double A6 = 0.0066700901;
+	private final static double A7 = -0.0012624911;
+
+	private final static long RSQRT_MAGIC = 0x5FE6EB50C7B537A9L;
+
+	// the mantissa 1 + i/256 + 1/512 of each log table interval, its reciprocal and base two logarithm
+	private final static int LOG_BITS = 8;
+	private final static double[] LOG_RECIPROCAL = new double[1 << LOG_BITS];
+	private final static double[] LOG_VALUE = new double[1 << LOG_BITS];
+
+	static
+	{
+		for (int i = 0; i < LOG_VALUE.length; i++)
+		{
+			double m = 1 + (i + 0.5) / LOG_VALUE.length;
+			LOG_RECIPROCAL[i] = 1 / m;
+			LOG_VALUE[i] = Math.log(m) * INV_LN2;
+		}
+	}
+
+
+	private FastMath()
+	{
+	}
+
+
+	/**
+	 * Returns the sine of an angle in radians. The absolute error is below 1e-11 for angles within +/- 1e6.
+	 */
+	public static double sin(double aAngle)
+	{
+		if (!(Math.abs(aAngle) <= MAX_ANGLE))
+		{
+			return Math.sin(aAngle);
+		}
+
+		double k = Math.rint(aAngle * TWO_OVER_PI);
+		double r = aAngle - k * HALF_PI_HI - k * HALF_PI_LO;
+
+		return quadrant(sinKernel(r), cosKernel(r), (int)k);
+	}
+
+
+	/**
+	 * Returns the cosine of an angle in radians. The absolute error is below 1e-11 for angles within +/- 1e6.
+	 */
+	public static double cos(double aAngle)
+	{
+		if (!(Math.abs(aAngle) <= MAX_ANGLE))
+		{
+			return Math.cos(aAngle);
+		}
+
+		double k = Math.rint(aAngle * TWO_OVER_PI);
+		double r = aAngle - k * HALF_PI_HI - k * HALF_PI_LO;
+
+		return quadrant(sinKernel(r), cosKernel(r), (int)k + 1);
+	}
+
+
+	/**
+	 * Computes the cosine and sine of an angle in radians sharing the range reduction. The absolute error is below 1e-11 for angles within
+	 * +/- 1e6.
+	 *
+	 * @param aAngle the angle in radians
+	 * @param aOutput a vector receiving the cosine in x and the sine in y
+	 * @return the Vec2d provided
+	 */
+	public static Vec2d sinCos(double aAngle, Vec2d aOutput)
+	{
+		if (!(Math.abs(aAngle) <= MAX_ANGLE))
+		{
+			aOutput.x = Math.cos(aAngle);
+			aOutput.y = Math.sin(aAngle);
+			return aOutput;
+		}
+
+		double k = Math.rint(aAngle * TWO_OVER_PI);
+		double r = aAngle - k * HALF_PI_HI - k * HALF_PI_LO;
+		double s = sinKernel(r);
+		double c = cosKernel(r);
+
+		aOutput.x = quadrant(s, c, (int)k + 1);
+		aOutput.y = quadrant(s, c, (int)k);
+		return aOutput;
+	}
+
+
+	/**
+	 * Returns the arc cosine of a value in the range -1 to 1. The absolute error is below 3e-8, values outside the range return NaN.
+	 */
+	public static double acos(double aValue)
+	{
+		if (!(Math.abs(aValue) <= 1))
+		{
+			return Double.NaN;
+		}
+
+		double x = Math.abs(aValue);
+		double p = A0 + x * (A1 + x * (A2 + x * (A3 + x * (A4 + x * (A5 + x * (A6 + x * A7))))));
+		double r = Math.sqrt(1 - x) * p;
+
+		return aValue < 0 ? PI - r : r;
+	}
+
+
+	/**
+	 * Returns the arc sine of a value in the range -1 to 1. The absolute error is below 3e-8, values outside the range return NaN.
+	 */
+	public static double asin(double aValue)
+	{
+		return HALF_PI - acos(aValue);
+	}
+
+
+	/**
+	 * Returns the reciprocal square root of a positive value using a bit level initial estimate refined by Newton-Raphson iterations. The
+	 * relative error is below 1e-10. Zero returns infinity and negative values NaN.
+	 * <p>
+	 * Note: on processors with a hardware square root, such as x86-64, <code>1 / Math.sqrt(x)</code> is usually as fast.
+	 */
+	public static double rsqrt(double aValue)
+	{
+		if (!(aValue >= Double.MIN_NORMAL && aValue < Double.POSITIVE_INFINITY))
+		{
+			return 1 / Math.sqrt(aValue);
+		}
+
+		double y = Double.longBitsToDouble(RSQRT_MAGIC - (Double.doubleToRawLongBits(aValue) >> 1));
+		double h = 0.5 * aValue;
+		y *= 1.5 - h * y * y;
+		y *= 1.5 - h * y * y;
+		y *= 1.5 - h * y * y;
+
+		return y;
+	}
+
+
+	/**
+	 * Returns two raised to a power. The relative error is below 3e-10.
+	 */
+	public static double exp2(double aValue)
+	{
+		if (!(aValue > -1022 && aValue < 1023))
+		{
+			return Math.pow(2, aValue);
+		}
+
+		double n = Math.rint(aValue);
+		double t = (aValue - n) * LN2;
+		double p = 1 + t * (1 + t * (1.0 / 2 + t * (1.0 / 6 + t * (1.0 / 24 + t * (1.0 / 120 + t * (1.0 / 720 + t * (1.0 / 5040 + t * (1.0 / 40320))))))));
+
+		return p * Double.longBitsToDouble((long)((int)n + 1023) << 52);
+	}
+
+
+	/**
+	 * Returns the base two logarithm of a positive value. The absolute error is below 1e-13, values that are not positive return NaN or
+	 * negative infinity like {@link Math#log(double)}.
+	 */
+	public static double log2(double aValue)
+	{
+		if (!(aValue >= Double.MIN_NORMAL && aValue < Double.POSITIVE_INFINITY))
+		{
+			return Math.log(aValue) * INV_LN2;
+		}
+
+		long bits = Double.doubleToRawLongBits(aValue);
+		int e = (int)(bits >>> 52) - 1023;
+		int i = (int)(bits >>> (52 - LOG_BITS)) & ((1 << LOG_BITS) - 1);
+		double m = Double.longBitsToDouble((bits & 0x000FFFFFFFFFFFFFL) | 0x3FF0000000000000L);
+
+		// log(m) = log(c) + log(1 + f) where c is the center of the table interval and |f| < 1/512
+		double f = m * LOG_RECIPROCAL[i] - 1;
+		double ln = f * (1 + f * (-1.0 / 2 + f * (1.0 / 3 + f * (-1.0 / 4 + f * (1.0 / 5)))));
+
+		return e + LOG_VALUE[i] + ln * INV_LN2;
+	}
+
+
+	/**
+	 * Returns a positive base raised to a power as exp2(aExponent * log2(aBase)). The relative error is below 3e-10 + 1e-13 * |aExponent *
+	 * log2(aBase)|. Bases that are not positive and finite are passed on to {@link Math#pow(double, double)}.
+	 */
+	public static double pow(double aBase, double aExponent)
+	{
+		if (!(aBase >= Double.MIN_NORMAL && aBase < Double.POSITIVE_INFINITY))
+		{
+			return Math.pow(aBase, aExponent);
+		}
+
+		return exp2(aExponent * log2(aBase));
+	}
+
+
+	static double sin(double aAngle, boolean aFastMath)
+	{
+		return aFastMath ? sin(aAngle) : Math.sin(aAngle);
+	}
+
+
+	static double cos(double aAngle, boolean aFastMath)
+	{
+		return aFastMath ? cos(aAngle) : Math.cos(aAngle);
+	}
+
+
+	static double acos(double aValue, boolean aFastMath)
+	{
+		return aFastMath ? acos(aValue) : Math.acos(aValue);
+	}
+
+
+	static double log(double aValue, boolean aFastMath)
+	{
+		return aFastMath ? log2(aValue) * LN2 : Math.log(aValue);
+	}
+
+
+	static double pow(double aBase, double aExponent, boolean aFastMath)
+	{
+		return aFastMath ? pow(aBase, aExponent) : Math.pow(aBase, aExponent);
+	}
+
+
+	private static double sinKernel(double aValue)
+	{
+		double x2 = aValue * aValue;
+
+		return aValue + aValue * x2 * (S3 + x2 * (S5 + x2 * (S7 + x2 * (S9 + x2 * S11))));
+	}
+
+
+	private static double cosKernel(double aValue)
+	{
+		double x2 = aValue * aValue;
+
+		return 1 + x2 * (C2 + x2 * (C4 + x2 * (C6 + x2 * (C8 + x2 * (C10 + x2 * C12)))));
+	}
+
+
+	/**
+	 * Returns the sine of the reduced angle shifted by aQuadrant quarter turns. Selecting the kernel and sign arithmetically keeps random
+	 * angles free of branch mispredictions.
+	 */
+	private static double quadrant(double aSin, double aCos, int aQuadrant)
+	{
+		double v = (aQuadrant & 1) == 0 ? aSin : aCos;
+
+		return Double.longBitsToDouble(Double.doubleToRawLongBits(v) ^ ((long)(aQuadrant & 2) << 62));
+	}
+}
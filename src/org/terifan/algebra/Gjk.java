@@ -0,0 +1,789 @@
+package org.terifan.algebra;
+
+
+/**
+ * Distance and penetration queries between convex shapes using the Gilbert-Johnson-Keerthi algorithm (GJK) and the Expanding Polytope
+ * Algorithm (EPA).
+ * <p>
+ * GJK iterates a simplex of points of the Minkowski difference A - B towards the origin. The final simplex is kept between queries and,
+ * unless {@link #reset()} is called, the next query starts from the same support directions re-evaluated on the shapes, which typically
+ * converges in one or two iterations for shapes that moved slightly since the previous frame. When the shapes overlap EPA expands the
+ * final simplex into a polytope to find the penetration depth and normal. The polytope is limited to 128 vertices, for deeply
+ * penetrating curved shapes the depth is underestimated by up to about 0.1% of the size of the shapes.
+ * <p>
+ * All working storage is preallocated and queries don't allocate. An instance is not thread safe, use one instance per thread or per
+ * pair of shapes for warm starting.
+ */
+public class Gjk
+{
+	private final static int MAX_ITERATIONS = 64;
+	private final static double REL_TOLERANCE = 1e-10;
+	private final static double ABS_TOLERANCE = 1e-12;
+	private final static double EPA_TOLERANCE = 1e-8;
+	private final static int EPA_MAX_VERTICES = 128;
+	private final static int EPA_MAX_FACES = 2 * EPA_MAX_VERTICES;
+
+	// simplex, Minkowski points, support points on A and B, support directions and barycentric coordinates
+	private final double[] mW = new double[12];
+	private final double[] mA = new double[12];
+	private final double[] mB = new double[12];
+	private final double[] mD = new double[12];
+	private final double[] mLambda = new double[4];
+	private int mCount;
+	private double mVx, mVy, mVz;
+
+	// closest feature candidates
+	private final int[] mCandidate = new int[4];
+	private final double[] mCandidateLambda = new double[4];
+	private int mCandidateCount;
+	private final int[] mBest = new int[4];
+	private final double[] mBestLambda = new double[4];
+	private int mBestCount;
+	private final double[] mTemp = new double[48];
+
+	// polytope
+	private final double[] mPolyW = new double[3 * EPA_MAX_VERTICES];
+	private final double[] mPolyA = new double[3 * EPA_MAX_VERTICES];
+	private final double[] mPolyB = new double[3 * EPA_MAX_VERTICES];
+	private final int[] mFaces = new int[3 * EPA_MAX_FACES];
+	private final double[] mFaceNormals = new double[3 * EPA_MAX_FACES];
+	private final double[] mFaceDistances = new double[EPA_MAX_FACES];
+	private final int[] mEdges = new int[6 * EPA_MAX_FACES];
+	private int mPolyCount;
+	private int mFaceCount;
+
+	private final Vec3d mDirection = new Vec3d();
+	private final Vec3d mSupportA = new Vec3d();
+	private final Vec3d mSupportB = new Vec3d();
+
+
+	/**
+	 * Discards the simplex kept from the previous query.
+	 *
+	 * @return this instance
+	 */
+	public Gjk reset()
+	{
+		mCount = 0;
+		return this;
+	}
+
+
+	/**
+	 * Returns true if two shapes overlap or touch.
+	 */
+	public boolean intersects(ConvexShape aShapeA, ConvexShape aShapeB)
+	{
+		return !gjk(aShapeA, aShapeB, true);
+	}
+
+
+	/**
+	 * Computes the distance and closest points between two shapes.
+	 *
+	 * @param aPointA a Vec3d receiving the point on shape A closest to shape B, or null
+	 * @param aPointB a Vec3d receiving the point on shape B closest to shape A, or null
+	 * @return the distance or zero if the shapes overlap, the closest points are undefined when the shapes overlap
+	 */
+	public double distance(ConvexShape aShapeA, ConvexShape aShapeB, Vec3d aPointA, Vec3d aPointB)
+	{
+		if (!gjk(aShapeA, aShapeB, false))
+		{
+			return 0;
+		}
+
+		closestPoints(aPointA, aPointB);
+
+		return Math.sqrt(mVx * mVx + mVy * mVy + mVz * mVz);
+	}
+
+
+	/**
+	 * Computes the signed distance between two shapes. If the shapes overlap the penetration depth is computed using EPA and returned as
+	 * a positive number, otherwise the negative distance between the shapes is returned.
+	 *
+	 * @param aNormal a Vec3d receiving the unit contact normal pointing from shape A to shape B. Moving shape B by the depth along the
+	 * normal separates the shapes.
+	 * @param aPointA a Vec3d receiving the deepest point of shape A inside shape B, or the closest point if separated, or null
+	 * @param aPointB a Vec3d receiving the deepest point of shape B inside shape A, or the closest point if separated, or null
+	 * @return the penetration depth if positive or the distance if negative
+	 */
+	public double penetration(ConvexShape aShapeA, ConvexShape aShapeB, Vec3d aNormal, Vec3d aPointA, Vec3d aPointB)
+	{
+		if (gjk(aShapeA, aShapeB, false))
+		{
+			double distance = Math.sqrt(mVx * mVx + mVy * mVy + mVz * mVz);
+
+			closestPoints(aPointA, aPointB);
+			aNormal.set(-mVx / distance, -mVy / distance, -mVz / distance);
+
+			return -distance;
+		}
+
+		return epa(aShapeA, aShapeB, aNormal, aPointA, aPointB);
+	}
+
+
+	/**
+	 * Runs GJK.
+	 *
+	 * @param aEarlyOut true if the query should stop as soon as a separating axis is found
+	 * @return true if the shapes are separated
+	 */
+	private boolean gjk(ConvexShape aShapeA, ConvexShape aShapeB, boolean aEarlyOut)
+	{
+		if (mCount > 0)
+		{
+			// warm start from the support directions of the previous simplex
+			for (int i = 0; i < mCount; i++)
+			{
+				support(aShapeA, aShapeB, mD[3 * i], mD[3 * i + 1], mD[3 * i + 2], mW, mA, mB, i);
+			}
+
+			if (solve())
+			{
+				return false;
+			}
+		}
+		else
+		{
+			aShapeA.getCenter(mSupportA);
+			aShapeB.getCenter(mSupportB);
+			mVx = mSupportA.x - mSupportB.x;
+			mVy = mSupportA.y - mSupportB.y;
+			mVz = mSupportA.z - mSupportB.z;
+
+			if (mVx * mVx + mVy * mVy + mVz * mVz < ABS_TOLERANCE)
+			{
+				mVx = 1;
+				mVy = mVz = 0;
+			}
+		}
+
+		double vv = mVx * mVx + mVy * mVy + mVz * mVz;
+
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++)
+		{
+			int n = mCount;
+
+			support(aShapeA, aShapeB, -mVx, -mVy, -mVz, mW, mA, mB, n);
+
+			double vw = mVx * mW[3 * n] + mVy * mW[3 * n + 1] + mVz * mW[3 * n + 2];
+
+			if (aEarlyOut && vw > 0)
+			{
+				return true;
+			}
+			if (mCount > 0 && vv - vw <= REL_TOLERANCE * vv)
+			{
+				return true;
+			}
+
+			mD[3 * n] = -mVx;
+			mD[3 * n + 1] = -mVy;
+			mD[3 * n + 2] = -mVz;
+			mCount++;
+
+			if (solve())
+			{
+				return false;
+			}
+
+			double previous = vv;
+			vv = mVx * mVx + mVy * mVy + mVz * mVz;
+
+			if (vv <= ABS_TOLERANCE * ABS_TOLERANCE)
+			{
+				return false;
+			}
+			if (vv >= previous && mCount > 1)
+			{
+				// no progress due to rounding, the current estimate is the best available
+				return true;
+			}
+		}
+
+		return true;
+	}
+
+
+	/**
+	 * Evaluates the support function of the Minkowski difference A - B in a direction.
+	 */
+	private void support(ConvexShape aShapeA, ConvexShape aShapeB, double aX, double aY, double aZ, double[] aW, double[] aA, double[] aB, int aIndex)
+	{
+		mDirection.set(aX, aY, aZ);
+		aShapeA.support(mDirection, mSupportA);
+		mDirection.set(-aX, -aY, -aZ);
+		aShapeB.support(mDirection, mSupportB);
+
+		int i = 3 * aIndex;
+		aA[i] = mSupportA.x;
+		aA[i + 1] = mSupportA.y;
+		aA[i + 2] = mSupportA.z;
+		aB[i] = mSupportB.x;
+		aB[i + 1] = mSupportB.y;
+		aB[i + 2] = mSupportB.z;
+		aW[i] = mSupportA.x - mSupportB.x;
+		aW[i + 1] = mSupportA.y - mSupportB.y;
+		aW[i + 2] = mSupportA.z - mSupportB.z;
+	}
+
+
+	/**
+	 * Replaces the simplex with the smallest sub-simplex containing the point closest to the origin and updates v.
+	 *
+	 * @return true if the origin is inside the tetrahedron
+	 */
+	private boolean solve()
+	{
+		mBestCount = 0;
+		double best = Double.POSITIVE_INFINITY;
+
+		switch (mCount)
+		{
+			case 1:
+				mBest[0] = 0;
+				mBestLambda[0] = 1;
+				mBestCount = 1;
+				break;
+			case 2:
+				segment(0, 1);
+				keepCandidate();
+				break;
+			case 3:
+				triangle(0, 1, 2);
+				keepCandidate();
+				break;
+			default:
+				int[][] faces = TETRAHEDRON_FACES;
+				for (int f = 0; f < 4; f++)
+				{
+					int a = faces[f][0], b = faces[f][1], c = faces[f][2], d = faces[f][3];
+
+					if (isOutside(a, b, c, d))
+					{
+						double dist = triangle(a, b, c);
+						if (dist < best)
+						{
+							best = dist;
+							keepCandidate();
+						}
+					}
+				}
+				if (mBestCount == 0)
+				{
+					return true;
+				}
+				break;
+		}
+
+		// compact the simplex
+		for (int i = 0; i < mBestCount; i++)
+		{
+			System.arraycopy(mW, 3 * mBest[i], mTemp, 3 * i, 3);
+			System.arraycopy(mA, 3 * mBest[i], mTemp, 12 + 3 * i, 3);
+			System.arraycopy(mB, 3 * mBest[i], mTemp, 24 + 3 * i, 3);
+			System.arraycopy(mD, 3 * mBest[i], mTemp, 36 + 3 * i, 3);
+		}
+		System.arraycopy(mTemp, 0, mW, 0, 3 * mBestCount);
+		System.arraycopy(mTemp, 12, mA, 0, 3 * mBestCount);
+		System.arraycopy(mTemp, 24, mB, 0, 3 * mBestCount);
+		System.arraycopy(mTemp, 36, mD, 0, 3 * mBestCount);
+		System.arraycopy(mBestLambda, 0, mLambda, 0, mBestCount);
+		mCount = mBestCount;
+
+		mVx = mVy = mVz = 0;
+		for (int i = 0; i < mCount; i++)
+		{
+			mVx += mLambda[i] * mW[3 * i];
+			mVy += mLambda[i] * mW[3 * i + 1];
+			mVz += mLambda[i] * mW[3 * i + 2];
+		}
+
+		return false;
+	}
+
+
+	private final static int[][] TETRAHEDRON_FACES =
+	{
+		{0, 1, 2, 3}, {0, 2, 3, 1}, {0, 3, 1, 2}, {1, 3, 2, 0}
+	};
+
+
+	private void keepCandidate()
+	{
+		System.arraycopy(mCandidate, 0, mBest, 0, mCandidateCount);
+		System.arraycopy(mCandidateLambda, 0, mBestLambda, 0, mCandidateCount);
+		mBestCount = mCandidateCount;
+	}
+
+
+	/**
+	 * Returns true if the origin and vertex d are on opposite sides of the plane through a, b and c, or if the tetrahedron is flat.
+	 */
+	private boolean isOutside(int a, int b, int c, int d)
+	{
+		double[] w = mW;
+		double abx = w[3 * b] - w[3 * a], aby = w[3 * b + 1] - w[3 * a + 1], abz = w[3 * b + 2] - w[3 * a + 2];
+		double acx = w[3 * c] - w[3 * a], acy = w[3 * c + 1] - w[3 * a + 1], acz = w[3 * c + 2] - w[3 * a + 2];
+		double nx = aby * acz - abz * acy;
+		double ny = abz * acx - abx * acz;
+		double nz = abx * acy - aby * acx;
+
+		double signP = -(nx * w[3 * a] + ny * w[3 * a + 1] + nz * w[3 * a + 2]);
+		double signD = nx * (w[3 * d] - w[3 * a]) + ny * (w[3 * d + 1] - w[3 * a + 1]) + nz * (w[3 * d + 2] - w[3 * a + 2]);
+
+		return signP * signD < 0 || signD == 0;
+	}
+
+
+	/**
+	 * Finds the point of a segment closest to the origin.
+	 *
+	 * @return the squared distance
+	 */
+	private double segment(int a, int b)
+	{
+		double[] w = mW;
+		double ax = w[3 * a], ay = w[3 * a + 1], az = w[3 * a + 2];
+		double abx = w[3 * b] - ax, aby = w[3 * b + 1] - ay, abz = w[3 * b + 2] - az;
+		double len = abx * abx + aby * aby + abz * abz;
+		double t = len > 0 ? -(ax * abx + ay * aby + az * abz) / len : 0;
+
+		if (t <= 0)
+		{
+			return vertex(a);
+		}
+		if (t >= 1)
+		{
+			return vertex(b);
+		}
+
+		mCandidate[0] = a;
+		mCandidate[1] = b;
+		mCandidateLambda[0] = 1 - t;
+		mCandidateLambda[1] = t;
+		mCandidateCount = 2;
+
+		double px = ax + t * abx, py = ay + t * aby, pz = az + t * abz;
+		return px * px + py * py + pz * pz;
+	}
+
+
+	private double vertex(int a)
+	{
+		mCandidate[0] = a;
+		mCandidateLambda[0] = 1;
+		mCandidateCount = 1;
+
+		double[] w = mW;
+		return w[3 * a] * w[3 * a] + w[3 * a + 1] * w[3 * a + 1] + w[3 * a + 2] * w[3 * a + 2];
+	}
+
+
+	/**
+	 * Finds the point of a triangle closest to the origin (Ericson, "Real-Time Collision Detection", 5.1.5).
+	 *
+	 * @return the squared distance
+	 */
+	private double triangle(int a, int b, int c)
+	{
+		double[] w = mW;
+		double ax = w[3 * a], ay = w[3 * a + 1], az = w[3 * a + 2];
+		double bx = w[3 * b], by = w[3 * b + 1], bz = w[3 * b + 2];
+		double cx = w[3 * c], cy = w[3 * c + 1], cz = w[3 * c + 2];
+		double abx = bx - ax, aby = by - ay, abz = bz - az;
+		double acx = cx - ax, acy = cy - ay, acz = cz - az;
+
+		double d1 = -(abx * ax + aby * ay + abz * az);
+		double d2 = -(acx * ax + acy * ay + acz * az);
+		if (d1 <= 0 && d2 <= 0)
+		{
+			return vertex(a);
+		}
+
+		double d3 = -(abx * bx + aby * by + abz * bz);
+		double d4 = -(acx * bx + acy * by + acz * bz);
+		if (d3 >= 0 && d4 <= d3)
+		{
+			return vertex(b);
+		}
+
+		double vc = d1 * d4 - d3 * d2;
+		if (vc <= 0 && d1 >= 0 && d3 <= 0)
+		{
+			return segment(a, b);
+		}
+
+		double d5 = -(abx * cx + aby * cy + abz * cz);
+		double d6 = -(acx * cx + acy * cy + acz * cz);
+		if (d6 >= 0 && d5 <= d6)
+		{
+			return vertex(c);
+		}
+
+		double vb = d5 * d2 - d1 * d6;
+		if (vb <= 0 && d2 >= 0 && d6 <= 0)
+		{
+			return segment(a, c);
+		}
+
+		double va = d3 * d6 - d5 * d4;
+		if (va <= 0 && d4 - d3 >= 0 && d5 - d6 >= 0)
+		{
+			return segment(b, c);
+		}
+
+		double sum = va + vb + vc;
+		if (!(sum > 0))
+		{
+			// degenerate triangle
+			double dist = segment(a, b);
+			int c0 = mCandidate[0], c1 = mCandidate[1], n = mCandidateCount;
+			double l0 = mCandidateLambda[0], l1 = mCandidateLambda[1];
+			double other = segment(b, c);
+			if (dist <= other)
+			{
+				mCandidate[0] = c0;
+				mCandidate[1] = c1;
+				mCandidateLambda[0] = l0;
+				mCandidateLambda[1] = l1;
+				mCandidateCount = n;
+				return dist;
+			}
+			return other;
+		}
+
+		double v = vb / sum;
+		double t = vc / sum;
+
+		mCandidate[0] = a;
+		mCandidate[1] = b;
+		mCandidate[2] = c;
+		mCandidateLambda[0] = 1 - v - t;
+		mCandidateLambda[1] = v;
+		mCandidateLambda[2] = t;
+		mCandidateCount = 3;
+
+		double px = ax + v * abx + t * acx, py = ay + v * aby + t * acy, pz = az + v * abz + t * acz;
+		return px * px + py * py + pz * pz;
+	}
+
+
+	private void closestPoints(Vec3d aPointA, Vec3d aPointB)
+	{
+		if (aPointA != null)
+		{
+			aPointA.set(0, 0, 0);
+			for (int i = 0; i < mCount; i++)
+			{
+				aPointA.add(mLambda[i] * mA[3 * i], mLambda[i] * mA[3 * i + 1], mLambda[i] * mA[3 * i + 2]);
+			}
+		}
+		if (aPointB != null)
+		{
+			aPointB.set(0, 0, 0);
+			for (int i = 0; i < mCount; i++)
+			{
+				aPointB.add(mLambda[i] * mB[3 * i], mLambda[i] * mB[3 * i + 1], mLambda[i] * mB[3 * i + 2]);
+			}
+		}
+	}
+
+
+	private double epa(ConvexShape aShapeA, ConvexShape aShapeB, Vec3d aNormal, Vec3d aPointA, Vec3d aPointB)
+	{
+		mPolyCount = 0;
+		for (int i = 0; i < mCount; i++)
+		{
+			System.arraycopy(mW, 3 * i, mPolyW, 3 * i, 3);
+			System.arraycopy(mA, 3 * i, mPolyA, 3 * i, 3);
+			System.arraycopy(mB, 3 * i, mPolyB, 3 * i, 3);
+		}
+		mPolyCount = mCount;
+
+		if (!expandToTetrahedron(aShapeA, aShapeB))
+		{
+			// the shapes touch but the Minkowski difference is flat, there is no penetration
+			aNormal.set(mVx, mVy, mVz);
+			if (aNormal.isZero())
+			{
+				aNormal.set(1, 0, 0);
+			}
+			aNormal.normalize();
+			closestPoints(aPointA, aPointB);
+			return 0;
+		}
+
+		// orient the tetrahedron so that the faces point outwards
+		double[] w = mPolyW;
+		double abx = w[3] - w[0], aby = w[4] - w[1], abz = w[5] - w[2];
+		double acx = w[6] - w[0], acy = w[7] - w[1], acz = w[8] - w[2];
+		double adx = w[9] - w[0], ady = w[10] - w[1], adz = w[11] - w[2];
+		double det = abx * (acy * adz - acz * ady) - aby * (acx * adz - acz * adx) + abz * (acx * ady - acy * adx);
+
+		mFaceCount = 0;
+		if (det > 0)
+		{
+			addFace(0, 2, 1);
+			addFace(0, 1, 3);
+			addFace(0, 3, 2);
+			addFace(1, 2, 3);
+		}
+		else
+		{
+			addFace(0, 1, 2);
+			addFace(0, 3, 1);
+			addFace(0, 2, 3);
+			addFace(1, 3, 2);
+		}
+
+		int closest = 0;
+
+		for (;;)
+		{
+			closest = 0;
+			for (int f = 1; f < mFaceCount; f++)
+			{
+				if (mFaceDistances[f] < mFaceDistances[closest])
+				{
+					closest = f;
+				}
+			}
+
+			if (mPolyCount == EPA_MAX_VERTICES)
+			{
+				break;
+			}
+
+			double nx = mFaceNormals[3 * closest], ny = mFaceNormals[3 * closest + 1], nz = mFaceNormals[3 * closest + 2];
+			int p = mPolyCount;
+
+			support(aShapeA, aShapeB, nx, ny, nz, mPolyW, mPolyA, mPolyB, p);
+
+			double distance = nx * mPolyW[3 * p] + ny * mPolyW[3 * p + 1] + nz * mPolyW[3 * p + 2];
+
+			if (distance - mFaceDistances[closest] <= EPA_TOLERANCE * Math.max(1, distance))
+			{
+				break;
+			}
+
+			mPolyCount++;
+
+			// remove the faces visible from the new point and collect the edges of the hole
+			int edgeCount = 0;
+			for (int f = 0; f < mFaceCount; )
+			{
+				int a = mFaces[3 * f];
+				double visible = mFaceNormals[3 * f] * (mPolyW[3 * p] - mPolyW[3 * a]) + mFaceNormals[3 * f + 1] * (mPolyW[3 * p + 1] - mPolyW[3 * a + 1]) + mFaceNormals[3 * f + 2] * (mPolyW[3 * p + 2] - mPolyW[3 * a + 2]);
+
+				if (visible > 0)
+				{
+					for (int k = 0; k < 3; k++)
+					{
+						edgeCount = addEdge(edgeCount, mFaces[3 * f + k], mFaces[3 * f + (k + 1) % 3]);
+					}
+					removeFace(f);
+				}
+				else
+				{
+					f++;
+				}
+			}
+
+			if (mFaceCount + edgeCount > EPA_MAX_FACES)
+			{
+				break;
+			}
+
+			for (int e = 0; e < edgeCount; e++)
+			{
+				addFace(mEdges[2 * e], mEdges[2 * e + 1], p);
+			}
+
+			if (mFaceCount == 0)
+			{
+				break;
+			}
+		}
+
+		double nx = mFaceNormals[3 * closest], ny = mFaceNormals[3 * closest + 1], nz = mFaceNormals[3 * closest + 2];
+		double depth = mFaceDistances[closest];
+
+		aNormal.set(nx, ny, nz);
+
+		// barycentric coordinates of the projection of the origin on the closest face
+		int a = mFaces[3 * closest], b = mFaces[3 * closest + 1], c = mFaces[3 * closest + 2];
+		System.arraycopy(mPolyW, 3 * a, mW, 0, 3);
+		System.arraycopy(mPolyW, 3 * b, mW, 3, 3);
+		System.arraycopy(mPolyW, 3 * c, mW, 6, 3);
+		System.arraycopy(mPolyA, 3 * a, mA, 0, 3);
+		System.arraycopy(mPolyA, 3 * b, mA, 3, 3);
+		System.arraycopy(mPolyA, 3 * c, mA, 6, 3);
+		System.arraycopy(mPolyB, 3 * a, mB, 0, 3);
+		System.arraycopy(mPolyB, 3 * b, mB, 3, 3);
+		System.arraycopy(mPolyB, 3 * c, mB, 6, 3);
+		mCount = 3;
+		triangle(0, 1, 2);
+		keepCandidate();
+
+		double[] lambda = mLambda;
+		lambda[0] = lambda[1] = lambda[2] = 0;
+		for (int i = 0; i < mBestCount; i++)
+		{
+			lambda[mBest[i]] = mBestLambda[i];
+		}
+		closestPoints(aPointA, aPointB);
+
+		// the simplex now holds a face of the polytope, discard it rather than warm starting from it
+		mCount = 0;
+
+		return depth;
+	}
+
+
+	/**
+	 * Adds points to the simplex until it's a tetrahedron with a non-zero volume.
+	 *
+	 * @return false if the Minkowski difference is flat
+	 */
+	private boolean expandToTetrahedron(ConvexShape aShapeA, ConvexShape aShapeB)
+	{
+		double[] w = mPolyW;
+
+		if (mPolyCount == 1)
+		{
+			for (int axis = 0; axis < 6 && mPolyCount == 1; axis++)
+			{
+				double s = axis < 3 ? 1 : -1;
+				support(aShapeA, aShapeB, axis % 3 == 0 ? s : 0, axis % 3 == 1 ? s : 0, axis % 3 == 2 ? s : 0, mPolyW, mPolyA, mPolyB, 1);
+				if (distanceSqr(0, 1) > ABS_TOLERANCE)
+				{
+					mPolyCount = 2;
+				}
+			}
+		}
+
+		if (mPolyCount == 2)
+		{
+			double dx = w[3] - w[0], dy = w[4] - w[1], dz = w[5] - w[2];
+
+			// a direction perpendicular to the segment, rotated around the segment until a point off the line is found
+			double ux, uy, uz;
+			if (Math.abs(dx) < Math.abs(dy) && Math.abs(dx) < Math.abs(dz))
+			{
+				ux = 0; uy = dz; uz = -dy;
+			}
+			else if (Math.abs(dy) < Math.abs(dz))
+			{
+				ux = dz; uy = 0; uz = -dx;
+			}
+			else
+			{
+				ux = dy; uy = -dx; uz = 0;
+			}
+			double vx = dy * uz - dz * uy, vy = dz * ux - dx * uz, vz = dx * uy - dy * ux;
+			double lu = Math.sqrt(ux * ux + uy * uy + uz * uz), lv = Math.sqrt(vx * vx + vy * vy + vz * vz);
+
+			for (int i = 0; i < 6 && mPolyCount == 2; i++)
+			{
+				double angle = i * Math.PI / 3;
+				double cos = Math.cos(angle) / lu, sin = Math.sin(angle) / lv;
+				support(aShapeA, aShapeB, ux * cos + vx * sin, uy * cos + vy * sin, uz * cos + vz * sin, mPolyW, mPolyA, mPolyB, 2);
+				if (triangleAreaSqr(0, 1, 2) > ABS_TOLERANCE)
+				{
+					mPolyCount = 3;
+				}
+			}
+		}
+
+		if (mPolyCount == 3)
+		{
+			double abx = w[3] - w[0], aby = w[4] - w[1], abz = w[5] - w[2];
+			double acx = w[6] - w[0], acy = w[7] - w[1], acz = w[8] - w[2];
+			double nx = aby * acz - abz * acy, ny = abz * acx - abx * acz, nz = abx * acy - aby * acx;
+
+			for (int i = 0; i < 2 && mPolyCount == 3; i++)
+			{
+				double s = i == 0 ? 1 : -1;
+				support(aShapeA, aShapeB, s * nx, s * ny, s * nz, mPolyW, mPolyA, mPolyB, 3);
+				double d = nx * (w[9] - w[0]) + ny * (w[10] - w[1]) + nz * (w[11] - w[2]);
+				if (Math.abs(d) > ABS_TOLERANCE * Math.sqrt(nx * nx + ny * ny + nz * nz))
+				{
+					mPolyCount = 4;
+				}
+			}
+		}
+
+		return mPolyCount == 4;
+	}
+
+
+	private double distanceSqr(int a, int b)
+	{
+		double[] w = mPolyW;
+		double dx = w[3 * b] - w[3 * a], dy = w[3 * b + 1] - w[3 * a + 1], dz = w[3 * b + 2] - w[3 * a + 2];
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+
+	private double triangleAreaSqr(int a, int b, int c)
+	{
+		double[] w = mPolyW;
+		double abx = w[3 * b] - w[3 * a], aby = w[3 * b + 1] - w[3 * a + 1], abz = w[3 * b + 2] - w[3 * a + 2];
+		double acx = w[3 * c] - w[3 * a], acy = w[3 * c + 1] - w[3 * a + 1], acz = w[3 * c + 2] - w[3 * a + 2];
+		double nx = aby * acz - abz * acy, ny = abz * acx - abx * acz, nz = abx * acy - aby * acx;
+		return nx * nx + ny * ny + nz * nz;
+	}
+
+
+	private void addFace(int a, int b, int c)
+	{
+		double[] w = mPolyW;
+		double abx = w[3 * b] - w[3 * a], aby = w[3 * b + 1] - w[3 * a + 1], abz = w[3 * b + 2] - w[3 * a + 2];
+		double acx = w[3 * c] - w[3 * a], acy = w[3 * c + 1] - w[3 * a + 1], acz = w[3 * c + 2] - w[3 * a + 2];
+		double nx = aby * acz - abz * acy, ny = abz * acx - abx * acz, nz = abx * acy - aby * acx;
+		double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		double s = length > 0 ? 1 / length : 0;
+
+		int f = mFaceCount++;
+		mFaces[3 * f] = a;
+		mFaces[3 * f + 1] = b;
+		mFaces[3 * f + 2] = c;
+		mFaceNormals[3 * f] = nx * s;
+		mFaceNormals[3 * f + 1] = ny * s;
+		mFaceNormals[3 * f + 2] = nz * s;
+		mFaceDistances[f] = length > 0 ? (nx * w[3 * a] + ny * w[3 * a + 1] + nz * w[3 * a + 2]) * s : Double.POSITIVE_INFINITY;
+	}
+
+
+	private void removeFace(int f)
+	{
+		int last = --mFaceCount;
+		System.arraycopy(mFaces, 3 * last, mFaces, 3 * f, 3);
+		System.arraycopy(mFaceNormals, 3 * last, mFaceNormals, 3 * f, 3);
+		mFaceDistances[f] = mFaceDistances[last];
+	}
+
+
+	/**
+	 * Adds an edge to the hole, or removes it if the reverse edge is already there since it's shared by two removed faces.
+	 */
+	private int addEdge(int aCount, int a, int b)
+	{
+		for (int e = 0; e < aCount; e++)
+		{
+			if (mEdges[2 * e] == b && mEdges[2 * e + 1] == a)
+			{
+				mEdges[2 * e] = mEdges[2 * (aCount - 1)];
+				mEdges[2 * e + 1] = mEdges[2 * (aCount - 1) + 1];
+				return aCount - 1;
+			}
+		}
+
+		mEdges[2 * aCount] = a;
+		mEdges[2 * aCount + 1] = b;
+		return aCount + 1;
+	}
+}
@@ -0,0 +1,328 @@
+package org.terifan.algebra;
+
+import java.util.Arrays;
+
+
+/**
+ * High dynamic range frame buffer accumulating linear RGB samples for progressive rendering.
+ * <p>
+ * The red, green and blue sums are stored in separate float arrays together with a sample count per pixel, the displayed value is the
+ * average of the samples. The image is divided into tiles of 32x32 pixels, each guarded by its own lock so that threads rendering
+ * different tiles never contend. The tone mapping operators run in parallel over rows and write sRGB encoded ARGB pixels.
+ */
+public class HdrFrameBuffer
+{
+	private final static int TILE_SHIFT = 5;
+	private final static int TILE_SIZE = 1 << TILE_SHIFT;
+
+	// Hable filmic curve parameters
+	private final static float FILMIC_A = 0.15f;
+	private final static float FILMIC_B = 0.50f;
+	private final static float FILMIC_C = 0.10f;
+	private final static float FILMIC_D = 0.20f;
+	private final static float FILMIC_E = 0.02f;
+	private final static float FILMIC_F = 0.30f;
+	private final static float FILMIC_WHITE = 11.2f;
+
+	private final int mWidth;
+	private final int mHeight;
+	private final int mTilesX;
+	private final int mTilesY;
+	private final float[] mRed;
+	private final float[] mGreen;
+	private final float[] mBlue;
+	private final int[] mSamples;
+	private final Object[] mLocks;
+
+
+	/**
+	 * Tone mapping operators compressing linear radiance to the displayable range.
+	 */
+	public enum ToneMapping
+	{
+		/**
+		 * Values are clamped to the range 0-1.
+		 */
+		CLAMP,
+		/**
+		 * Each channel c is mapped to c / (1 + c).
+		 */
+		REINHARD,
+		/**
+		 * Curve fit of the ACES filmic reference rendering transform by Krzysztof Narkowicz.
+		 */
+		ACES,
+		/**
+		 * Filmic curve by John Hable with a linear white point of 11.2.
+		 */
+		FILMIC
+	}
+
+
+	/**
+	 * Visits a tile of the frame buffer.
+	 */
+	public interface TileVisitor
+	{
+		/**
+		 * @param aX0 first column of the tile
+		 * @param aY0 first row of the tile
+		 * @param aX1 last column of the tile, exclusive
+		 * @param aY1 last row of the tile, exclusive
+		 */
+		void visit(int aX0, int aY0, int aX1, int aY1);
+	}
+
+
+	public HdrFrameBuffer(int aWidth, int aHeight)
+	{
+		if (aWidth < 1)
+		{
+			throw new IllegalArgumentException("aWidth out of bounds: " + aWidth);
+		}
+		if (aHeight < 1)
+		{
+			throw new IllegalArgumentException("aHeight out of bounds: " + aHeight);
+		}
+
+		mWidth = aWidth;
+		mHeight = aHeight;
+		mTilesX = (aWidth + TILE_SIZE - 1) >> TILE_SHIFT;
+		mTilesY = (aHeight + TILE_SIZE - 1) >> TILE_SHIFT;
+		mRed = new float[aWidth * aHeight];
+		mGreen = new float[aWidth * aHeight];
+		mBlue = new float[aWidth * aHeight];
+		mSamples = new int[aWidth * aHeight];
+		mLocks = new Object[mTilesX * mTilesY];
+
+		for (int i = 0; i < mLocks.length; i++)
+		{
+			mLocks[i] = new Object();
+		}
+	}
+
+
+	public int getWidth()
+	{
+		return mWidth;
+	}
+
+
+	public int getHeight()
+	{
+		return mHeight;
+	}
+
+
+	/**
+	 * Returns the sums of the red samples, one value per pixel stored row by row.
+	 */
+	public float[] getRed()
+	{
+		return mRed;
+	}
+
+
+	/**
+	 * Returns the sums of the green samples, one value per pixel stored row by row.
+	 */
+	public float[] getGreen()
+	{
+		return mGreen;
+	}
+
+
+	/**
+	 * Returns the sums of the blue samples, one value per pixel stored row by row.
+	 */
+	public float[] getBlue()
+	{
+		return mBlue;
+	}
+
+
+	/**
+	 * Returns the number of samples of each pixel stored row by row.
+	 */
+	public int[] getSampleCounts()
+	{
+		return mSamples;
+	}
+
+
+	/**
+	 * Removes all samples.
+	 *
+	 * @return this frame buffer
+	 */
+	public HdrFrameBuffer clear()
+	{
+		Arrays.fill(mRed, 0);
+		Arrays.fill(mGreen, 0);
+		Arrays.fill(mBlue, 0);
+		Arrays.fill(mSamples, 0);
+		return this;
+	}
+
+
+	/**
+	 * Adds a sample to a pixel. This method is thread safe.
+	 *
+	 * @return this frame buffer
+	 */
+	public HdrFrameBuffer addSample(int aX, int aY, float aRed, float aGreen, float aBlue)
+	{
+		if (aX < 0 || aX >= mWidth)
+		{
+			throw new IllegalArgumentException("aX out of bounds: " + aX);
+		}
+		if (aY < 0 || aY >= mHeight)
+		{
+			throw new IllegalArgumentException("aY out of bounds: " + aY);
+		}
+
+		int i = aY * mWidth + aX;
+
+		synchronized (mLocks[(aY >> TILE_SHIFT) * mTilesX + (aX >> TILE_SHIFT)])
+		{
+			mRed[i] += aRed;
+			mGreen[i] += aGreen;
+			mBlue[i] += aBlue;
+			mSamples[i]++;
+		}
+
+		return this;
+	}
+
+
+	/**
+	 * Adds a sample to a pixel. This method is thread safe.
+	 *
+	 * @return this frame buffer
+	 */
+	public HdrFrameBuffer addSample(int aX, int aY, Vec3d aRadiance)
+	{
+		return addSample(aX, aY, (float)aRadiance.x, (float)aRadiance.y, (float)aRadiance.z);
+	}
+
+
+	/**
+	 * Returns the average of the samples of a pixel, or zero if the pixel has no samples.
+	 *
+	 * @return the Vec3d provided
+	 */
+	public Vec3d getAverage(int aX, int aY, Vec3d aOutput)
+	{
+		if (aX < 0 || aX >= mWidth)
+		{
+			throw new IllegalArgumentException("aX out of bounds: " + aX);
+		}
+		if (aY < 0 || aY >= mHeight)
+		{
+			throw new IllegalArgumentException("aY out of bounds: " + aY);
+		}
+
+		int i = aY * mWidth + aX;
+		int n = mSamples[i];
+
+		if (n == 0)
+		{
+			return aOutput.set(0, 0, 0);
+		}
+
+		return aOutput.set(mRed[i] / (double)n, mGreen[i] / (double)n, mBlue[i] / (double)n);
+	}
+
+
+	/**
+	 * Visits every tile of the frame buffer, optionally in parallel with each tile visited by a single thread. Rendering tile by tile
+	 * keeps the locks taken by addSample uncontended.
+	 */
+	public void forEachTile(boolean aParallel, TileVisitor aVisitor)
+	{
+		Parallel.forEach(mTilesX * mTilesY, aParallel, tile ->
+		{
+			int x0 = (tile % mTilesX) << TILE_SHIFT;
+			int y0 = (tile / mTilesX) << TILE_SHIFT;
+
+			aVisitor.visit(x0, y0, Math.min(mWidth, x0 + TILE_SIZE), Math.min(mHeight, y0 + TILE_SIZE));
+		});
+	}
+
+
+	/**
+	 * Tone maps the average of the samples of every pixel and encodes the result as opaque sRGB ARGB pixels. Pixels without samples are
+	 * black.
+	 *
+	 * @param aToneMapping the tone mapping operator
+	 * @param aExposure scale applied to the linear values before tone mapping
+	 * @param aOutput an array receiving the pixels stored row by row
+	 * @param aDither true if an ordered dither should be applied
+	 * @param aParallel true if rows should be processed in parallel
+	 * @return the output array provided
+	 */
+	public int[] toneMap(ToneMapping aToneMapping, float aExposure, int[] aOutput, boolean aDither, boolean aParallel)
+	{
+		float filmicScale = aToneMapping == ToneMapping.FILMIC ? 1 / filmic(FILMIC_WHITE) : 1;
+
+		Parallel.forEach(mHeight, aParallel, y ->
+		{
+			float[] red = mRed;
+			float[] green = mGreen;
+			float[] blue = mBlue;
+			int[] samples = mSamples;
+
+			for (int x = 0, i = y * mWidth; x < mWidth; x++, i++)
+			{
+				int n = samples[i];
+				float s = n == 0 ? 0 : aExposure / n;
+				float r = red[i] * s;
+				float g = green[i] * s;
+				float b = blue[i] * s;
+
+				switch (aToneMapping)
+				{
+					case REINHARD:
+						r = r / (1 + r);
+						g = g / (1 + g);
+						b = b / (1 + b);
+						break;
+					case ACES:
+						r = aces(r);
+						g = aces(g);
+						b = aces(b);
+						break;
+					case FILMIC:
+						r = filmic(2 * r) * filmicScale;
+						g = filmic(2 * g) * filmicScale;
+						b = filmic(2 * b) * filmicScale;
+						break;
+					default:
+						break;
+				}
+
+				float d = aDither ? ColorConverter.dither(x, y) : 0;
+
+				aOutput[i] = 0xff000000 | (ColorConverter.encode(r, d) << 16) | (ColorConverter.encode(g, d) << 8) | ColorConverter.encode(b, d);
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	private static float aces(float aValue)
+	{
+		float v = aValue * (2.51f * aValue + 0.03f) / (aValue * (2.43f * aValue + 0.59f) + 0.14f);
+
+		return v < 0 ? 0 : v > 1 ? 1 : v;
+	}
+
+
+	private static float filmic(float aValue)
+	{
+		float x = Math.max(0, aValue);
+
+		return (x * (FILMIC_A * x + FILMIC_C * FILMIC_B) + FILMIC_D * FILMIC_E) / (x * (FILMIC_A * x + FILMIC_B) + FILMIC_D * FILMIC_F) - FILMIC_E / FILMIC_F;
+	}
+}
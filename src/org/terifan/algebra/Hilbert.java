@@ -0,0 +1,193 @@
+package org.terifan.algebra;
+
+
+/**
+ * Hilbert curve codes for 2D and 3D integer coordinates. Unlike Morton codes consecutive codes are always adjacent cells which gives
+ * slightly better locality at a slightly higher cost.
+ * <p>
+ * Coordinates are converted to the transposed Hilbert index using the algorithm by John Skilling ("Programming the Hilbert curve", AIP
+ * Conference Proceedings 707, 2004) and the bits are then interleaved like a Morton code.
+ */
+public final class Hilbert
+{
+	private Hilbert()
+	{
+	}
+
+
+	/**
+	 * Returns the Hilbert code of a 2D coordinate.
+	 *
+	 * @param aBits number of bits per axis, 1 to 32
+	 */
+	public static long encode(int aX, int aY, int aBits)
+	{
+		checkBits(aBits, Morton.BITS_2D);
+
+		int[] v = {aX, aY};
+		axesToTranspose(v, aBits);
+
+		return Morton.split2(v[1]) | (Morton.split2(v[0]) << 1);
+	}
+
+
+	/**
+	 * Returns the Hilbert code of a 3D coordinate.
+	 *
+	 * @param aBits number of bits per axis, 1 to 21
+	 */
+	public static long encode(int aX, int aY, int aZ, int aBits)
+	{
+		checkBits(aBits, Morton.BITS_3D);
+
+		int[] v = {aX, aY, aZ};
+		axesToTranspose(v, aBits);
+
+		return Morton.split3(v[2]) | (Morton.split3(v[1]) << 1) | (Morton.split3(v[0]) << 2);
+	}
+
+
+	public static long encode(Vec3i aVector, int aBits)
+	{
+		return encode(aVector.x, aVector.y, aVector.z, aBits);
+	}
+
+
+	public static long encode(Vec2i aVector, int aBits)
+	{
+		return encode(aVector.x, aVector.y, aBits);
+	}
+
+
+	/**
+	 * Decodes a 2D Hilbert code.
+	 *
+	 * @return the Vec2i provided
+	 */
+	public static Vec2i decode(long aCode, int aBits, Vec2i aOutput)
+	{
+		checkBits(aBits, Morton.BITS_2D);
+
+		int[] v = {Morton.compact2(aCode >>> 1), Morton.compact2(aCode)};
+		transposeToAxes(v, aBits);
+
+		return aOutput.set(v[0], v[1]);
+	}
+
+
+	/**
+	 * Decodes a 3D Hilbert code.
+	 *
+	 * @return the Vec3i provided
+	 */
+	public static Vec3i decode(long aCode, int aBits, Vec3i aOutput)
+	{
+		checkBits(aBits, Morton.BITS_3D);
+
+		int[] v = {Morton.compact3(aCode >>> 2), Morton.compact3(aCode >>> 1), Morton.compact3(aCode)};
+		transposeToAxes(v, aBits);
+
+		aOutput.x = v[0];
+		aOutput.y = v[1];
+		aOutput.z = v[2];
+
+		return aOutput;
+	}
+
+
+	private static void axesToTranspose(int[] X, int aBits)
+	{
+		int n = X.length;
+		int M = 1 << (aBits - 1);
+
+		if (aBits < 32)
+		{
+			for (int i = 0; i < n; i++)
+			{
+				X[i] &= (1 << aBits) - 1;
+			}
+		}
+
+		// inverse undo
+		for (int Q = M; Q != 1 && Q != 0; Q >>>= 1)
+		{
+			int P = Q - 1;
+			for (int i = 0; i < n; i++)
+			{
+				if ((X[i] & Q) != 0)
+				{
+					X[0] ^= P;
+				}
+				else
+				{
+					int t = (X[0] ^ X[i]) & P;
+					X[0] ^= t;
+					X[i] ^= t;
+				}
+			}
+		}
+
+		// gray encode
+		for (int i = 1; i < n; i++)
+		{
+			X[i] ^= X[i - 1];
+		}
+
+		int t = 0;
+		for (int Q = M; Q != 1 && Q != 0; Q >>>= 1)
+		{
+			if ((X[n - 1] & Q) != 0)
+			{
+				t ^= Q - 1;
+			}
+		}
+
+		for (int i = 0; i < n; i++)
+		{
+			X[i] ^= t;
+		}
+	}
+
+
+	private static void transposeToAxes(int[] X, int aBits)
+	{
+		int n = X.length;
+
+		// gray decode by H ^ (H/2)
+		int t = X[n - 1] >>> 1;
+		for (int i = n - 1; i > 0; i--)
+		{
+			X[i] ^= X[i - 1];
+		}
+		X[0] ^= t;
+
+		// undo excess work
+		for (int b = 1; b < aBits; b++)
+		{
+			int Q = 1 << b;
+			int P = Q - 1;
+			for (int i = n - 1; i >= 0; i--)
+			{
+				if ((X[i] & Q) != 0)
+				{
+					X[0] ^= P;
+				}
+				else
+				{
+					t = (X[0] ^ X[i]) & P;
+					X[0] ^= t;
+					X[i] ^= t;
+				}
+			}
+		}
+	}
+
+
+	private static void checkBits(int aBits, int aMax)
+	{
+		if (aBits < 1 || aBits > aMax)
+		{
+			throw new IllegalArgumentException("aBits out of range: " + aBits);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package org.terifan.algebra;
+
+import java.io.Serializable;
+
+
+/**
+ * Vector with coordinates that cannot change, safe to share between objects and threads.
+ */
+public final class ImmutableVec3d implements ReadOnlyVec3d, Serializable
+{
+	private final static long serialVersionUID = 1L;
+
+	public final static ImmutableVec3d ZERO = new ImmutableVec3d(0, 0, 0);
+	public final static ImmutableVec3d ONE = new ImmutableVec3d(1, 1, 1);
+	public final static ImmutableVec3d UNIT_X = new ImmutableVec3d(1, 0, 0);
+	public final static ImmutableVec3d UNIT_Y = new ImmutableVec3d(0, 1, 0);
+	public final static ImmutableVec3d UNIT_Z = new ImmutableVec3d(0, 0, 1);
+
+	public final double x;
+	public final double y;
+	public final double z;
+
+
+	public ImmutableVec3d(double aX, double aY, double aZ)
+	{
+		x = aX;
+		y = aY;
+		z = aZ;
+	}
+
+
+	public ImmutableVec3d(ReadOnlyVec3d aVector)
+	{
+		this(aVector.getX(), aVector.getY(), aVector.getZ());
+	}
+
+
+	@Override
+	public double getX()
+	{
+		return x;
+	}
+
+
+	@Override
+	public double getY()
+	{
+		return y;
+	}
+
+
+	@Override
+	public double getZ()
+	{
+		return z;
+	}
+
+
+	@Override
+	public boolean equals(Object aVector)
+	{
+		if (aVector instanceof ImmutableVec3d)
+		{
+			ImmutableVec3d v = (ImmutableVec3d)aVector;
+			return Double.doubleToLongBits(v.x) == Double.doubleToLongBits(x)
+				&& Double.doubleToLongBits(v.y) == Double.doubleToLongBits(y)
+				&& Double.doubleToLongBits(v.z) == Double.doubleToLongBits(z);
+		}
+		return false;
+	}
+
+
+	@Override
+	public int hashCode()
+	{
+		long a = Double.doubleToLongBits(x);
+		long b = Double.doubleToLongBits(y);
+		long c = Double.doubleToLongBits(z);
+
+		int ai = (int)(a ^ (a >>> 32));
+		int bi = (int)(b ^ (b >>> 32));
+		int ci = (int)(c ^ (c >>> 32));
+
+		return ai ^ Integer.rotateRight(bi, 11) ^ Integer.rotateLeft(ci, 11);
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return String.format("{x=%8.4f, y=%8.4f, z=%8.4f}", x, y, z);
+	}
+}
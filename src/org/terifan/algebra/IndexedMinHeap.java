@@ -0,0 +1,164 @@
+package org.terifan.algebra;
+
+import java.util.Arrays;
+
+
+/**
+ * Binary min-heap of the integers 0 to capacity-1 ordered by a double priority. The position of each element in the heap is tracked so
+ * that priorities can be changed and elements removed in logarithmic time.
+ */
+final class IndexedMinHeap
+{
+	private final double[] mPriority;
+	private final int[] mHeap;
+	private final int[] mPosition;
+	private int mSize;
+
+
+	IndexedMinHeap(int aCapacity)
+	{
+		mPriority = new double[aCapacity];
+		mHeap = new int[aCapacity];
+		mPosition = new int[aCapacity];
+		Arrays.fill(mPosition, -1);
+	}
+
+
+	int size()
+	{
+		return mSize;
+	}
+
+
+	boolean isEmpty()
+	{
+		return mSize == 0;
+	}
+
+
+	boolean contains(int aElement)
+	{
+		return mPosition[aElement] != -1;
+	}
+
+
+	/**
+	 * Inserts an element or changes its priority if it's already in the heap.
+	 */
+	void update(int aElement, double aPriority)
+	{
+		int i = mPosition[aElement];
+
+		if (i == -1)
+		{
+			i = mSize++;
+			mHeap[i] = aElement;
+			mPosition[aElement] = i;
+			mPriority[aElement] = aPriority;
+			siftUp(i);
+		}
+		else
+		{
+			double old = mPriority[aElement];
+			mPriority[aElement] = aPriority;
+			if (aPriority < old)
+			{
+				siftUp(i);
+			}
+			else
+			{
+				siftDown(i);
+			}
+		}
+	}
+
+
+	/**
+	 * Removes an element if it's in the heap.
+	 */
+	void remove(int aElement)
+	{
+		int i = mPosition[aElement];
+
+		if (i == -1)
+		{
+			return;
+		}
+
+		mPosition[aElement] = -1;
+		int last = mHeap[--mSize];
+
+		if (i < mSize)
+		{
+			mHeap[i] = last;
+			mPosition[last] = i;
+			siftUp(i);
+			siftDown(mPosition[last]);
+		}
+	}
+
+
+	/**
+	 * Removes and returns the element with the lowest priority.
+	 */
+	int poll()
+	{
+		int element = mHeap[0];
+		remove(element);
+		return element;
+	}
+
+
+	private void siftUp(int i)
+	{
+		int element = mHeap[i];
+		double priority = mPriority[element];
+
+		while (i > 0)
+		{
+			int parent = (i - 1) >>> 1;
+			int p = mHeap[parent];
+			if (mPriority[p] <= priority)
+			{
+				break;
+			}
+			mHeap[i] = p;
+			mPosition[p] = i;
+			i = parent;
+		}
+
+		mHeap[i] = element;
+		mPosition[element] = i;
+	}
+
+
+	private void siftDown(int i)
+	{
+		int element = mHeap[i];
+		double priority = mPriority[element];
+
+		for (;;)
+		{
+			int child = 2 * i + 1;
+			if (child >= mSize)
+			{
+				break;
+			}
+			if (child + 1 < mSize && mPriority[mHeap[child + 1]] < mPriority[mHeap[child]])
+			{
+				child++;
+			}
+			int c = mHeap[child];
+			if (mPriority[c] >= priority)
+			{
+				break;
+			}
+			mHeap[i] = c;
+			mPosition[c] = i;
+			i = child;
+		}
+
+		mHeap[i] = element;
+		mPosition[element] = i;
+	}
+}
@@ -0,0 +1,497 @@
+package org.terifan.algebra;
+
+import java.util.stream.IntStream;
+
+
+/**
+ * Balanced KD-tree over a set of 3D points supporting k-nearest-neighbor, radius and approximate searches.
+ * <p>
+ * The tree is built by recursive median splits along the axis of greatest extent and is stored implicitly: the points are reordered so
+ * that the node of a range is the median point of the range and its children are the halves on either side. Only the coordinates and one
+ * byte per point for the split axis are stored.
+ * <p>
+ * Queries write into a caller provided {@link Result} heap and don't allocate. A tree may be queried concurrently by several threads
+ * using one result per thread.
+ */
+public class KdTree
+{
+	private final static int LEAF_SIZE = 8;
+
+	private final int mCount;
+	private final double[] mPoints;
+	private final int[] mIndices;
+	private final byte[] mAxis;
+
+
+	/**
+	 * Bounded max-heap of the nearest points found by a query. The capacity of the heap is the number of neighbors searched for.
+	 */
+	public static class Result
+	{
+		private final int[] mIndices;
+		private final double[] mDistances;
+		private int mSize;
+		private double mLimit;
+
+
+		public Result(int aCapacity)
+		{
+			if (aCapacity < 1)
+			{
+				throw new IllegalArgumentException("aCapacity out of bounds: " + aCapacity);
+			}
+
+			mIndices = new int[aCapacity];
+			mDistances = new double[aCapacity];
+		}
+
+
+		public int capacity()
+		{
+			return mIndices.length;
+		}
+
+
+		/**
+		 * Returns the number of neighbors found.
+		 */
+		public int size()
+		{
+			return mSize;
+		}
+
+
+		/**
+		 * Returns the index of a neighbor in the original point array. Neighbors are in heap order unless {@link #sort()} has been called.
+		 */
+		public int getIndex(int aIndex)
+		{
+			return mIndices[aIndex];
+		}
+
+
+		/**
+		 * Returns the squared distance to a neighbor.
+		 */
+		public double getDistanceSqr(int aIndex)
+		{
+			return mDistances[aIndex];
+		}
+
+
+		/**
+		 * Sorts the neighbors found by ascending distance. The heap is emptied by the sort but the neighbors remain accessible until the
+		 * next query.
+		 *
+		 * @return this result
+		 */
+		public Result sort()
+		{
+			int size = mSize;
+
+			for (int i = size; --i > 0; )
+			{
+				swap(0, i);
+				mSize = i;
+				siftDown(0);
+			}
+
+			mSize = size;
+			return this;
+		}
+
+
+		void reset(double aLimit)
+		{
+			mSize = 0;
+			mLimit = aLimit;
+		}
+
+
+		/**
+		 * Returns the squared distance a point must be closer than to be added.
+		 */
+		double bound()
+		{
+			return mSize < mIndices.length ? mLimit : mDistances[0];
+		}
+
+
+		void offer(int aIndex, double aDistance)
+		{
+			if (mSize < mIndices.length)
+			{
+				int i = mSize++;
+				while (i > 0)
+				{
+					int parent = (i - 1) >>> 1;
+					if (mDistances[parent] >= aDistance)
+					{
+						break;
+					}
+					mIndices[i] = mIndices[parent];
+					mDistances[i] = mDistances[parent];
+					i = parent;
+				}
+				mIndices[i] = aIndex;
+				mDistances[i] = aDistance;
+			}
+			else
+			{
+				mIndices[0] = aIndex;
+				mDistances[0] = aDistance;
+				siftDown(0);
+			}
+		}
+
+
+		private void siftDown(int i)
+		{
+			for (;;)
+			{
+				int child = 2 * i + 1;
+				if (child >= mSize)
+				{
+					break;
+				}
+				if (child + 1 < mSize && mDistances[child + 1] > mDistances[child])
+				{
+					child++;
+				}
+				if (mDistances[i] >= mDistances[child])
+				{
+					break;
+				}
+				swap(i, child);
+				i = child;
+			}
+		}
+
+
+		private void swap(int i, int j)
+		{
+			int ti = mIndices[i];
+			mIndices[i] = mIndices[j];
+			mIndices[j] = ti;
+			double td = mDistances[i];
+			mDistances[i] = mDistances[j];
+			mDistances[j] = td;
+		}
+	}
+
+
+	public KdTree(Vec3d[] aPoints)
+	{
+		this(toArray(aPoints), aPoints.length);
+	}
+
+
+	/**
+	 * Builds a tree.
+	 *
+	 * @param aCoordinates interleaved x, y and z coordinates, the array is not modified or retained
+	 * @param aCount number of points
+	 */
+	public KdTree(double[] aCoordinates, int aCount)
+	{
+		if (aCount < 0 || 3L * aCount > aCoordinates.length)
+		{
+			throw new IllegalArgumentException("aCount out of bounds: " + aCount);
+		}
+
+		mCount = aCount;
+		mIndices = new int[aCount];
+		mAxis = new byte[aCount];
+
+		for (int i = 0; i < aCount; i++)
+		{
+			mIndices[i] = i;
+		}
+
+		build(aCoordinates, 0, aCount);
+
+		mPoints = new double[3 * aCount];
+		for (int i = 0; i < aCount; i++)
+		{
+			System.arraycopy(aCoordinates, 3 * mIndices[i], mPoints, 3 * i, 3);
+		}
+	}
+
+
+	/**
+	 * Returns the number of points in the tree.
+	 */
+	public int size()
+	{
+		return mCount;
+	}
+
+
+	public Result findNearest(Vec3d aPoint, Result aResult)
+	{
+		return findNearest(aPoint.x, aPoint.y, aPoint.z, 0, aResult);
+	}
+
+
+	/**
+	 * Finds the k nearest points where k is the capacity of the result.
+	 *
+	 * @return the result provided
+	 */
+	public Result findNearest(double aX, double aY, double aZ, Result aResult)
+	{
+		return findNearest(aX, aY, aZ, 0, aResult);
+	}
+
+
+	/**
+	 * Finds the approximate k nearest points where k is the capacity of the result. Every neighbor found is at most {@code 1 + aEpsilon}
+	 * times further away than the true neighbor of the same rank. Larger values visit fewer nodes.
+	 *
+	 * @param aEpsilon the allowed relative error, zero for an exact search
+	 * @return the result provided
+	 */
+	public Result findNearest(double aX, double aY, double aZ, double aEpsilon, Result aResult)
+	{
+		if (aEpsilon < 0)
+		{
+			throw new IllegalArgumentException("aEpsilon must not be negative: " + aEpsilon);
+		}
+
+		aResult.reset(Double.POSITIVE_INFINITY);
+		double scale = (1 + aEpsilon) * (1 + aEpsilon);
+		search(0, mCount, aX, aY, aZ, scale, aResult);
+		return aResult;
+	}
+
+
+	public Result findWithinRadius(Vec3d aPoint, double aRadius, Result aResult)
+	{
+		return findWithinRadius(aPoint.x, aPoint.y, aPoint.z, aRadius, aResult);
+	}
+
+
+	/**
+	 * Finds points within a radius. If more points than the capacity of the result are within the radius only the nearest are kept.
+	 *
+	 * @return the result provided
+	 */
+	public Result findWithinRadius(double aX, double aY, double aZ, double aRadius, Result aResult)
+	{
+		// points at exactly the radius are included
+		aResult.reset(Math.nextUp(aRadius * aRadius));
+		search(0, mCount, aX, aY, aZ, 1, aResult);
+		return aResult;
+	}
+
+
+	/**
+	 * Finds the k nearest points of many query points.
+	 *
+	 * @param aQueries interleaved x, y and z coordinates of the query points
+	 * @param aK number of neighbors of each query point
+	 * @param aEpsilon the allowed relative error, zero for an exact search
+	 * @param aIndices an array receiving {@code aK} neighbor indices for each query point sorted by distance, missing neighbors are set to -1
+	 * @param aDistances an array receiving the squared distances of the neighbors, or null
+	 * @param aParallel true if queries should be performed in parallel
+	 */
+	public void findNearest(double[] aQueries, int aK, double aEpsilon, int[] aIndices, double[] aDistances, boolean aParallel)
+	{
+		int queries = aQueries.length / 3;
+
+		if ((long)queries * aK > aIndices.length || aDistances != null && (long)queries * aK > aDistances.length)
+		{
+			throw new IllegalArgumentException("Output array too small, required " + (long)queries * aK);
+		}
+
+		int blockSize = 1024;
+		IntStream blocks = IntStream.range(0, (queries + blockSize - 1) / blockSize);
+
+		if (aParallel)
+		{
+			blocks = blocks.parallel();
+		}
+
+		blocks.forEach(aBlock ->
+		{
+			Result result = new Result(aK);
+
+			for (int q = aBlock * blockSize, end = Math.min(queries, q + blockSize); q < end; q++)
+			{
+				findNearest(aQueries[3 * q], aQueries[3 * q + 1], aQueries[3 * q + 2], aEpsilon, result).sort();
+
+				for (int i = 0; i < aK; i++)
+				{
+					boolean found = i < result.size();
+					aIndices[q * aK + i] = found ? result.getIndex(i) : -1;
+					if (aDistances != null)
+					{
+						aDistances[q * aK + i] = found ? result.getDistanceSqr(i) : Double.POSITIVE_INFINITY;
+					}
+				}
+			}
+		});
+	}
+
+
+	private void search(int aLo, int aHi, double aX, double aY, double aZ, double aScale, Result aResult)
+	{
+		double[] points = mPoints;
+
+		while (aHi - aLo > LEAF_SIZE)
+		{
+			int mid = (aLo + aHi) >>> 1;
+			int axis = mAxis[mid];
+
+			double dx = points[3 * mid] - aX;
+			double dy = points[3 * mid + 1] - aY;
+			double dz = points[3 * mid + 2] - aZ;
+			double dist = dx * dx + dy * dy + dz * dz;
+
+			if (dist < aResult.bound())
+			{
+				aResult.offer(mIndices[mid], dist);
+			}
+
+			double diff = axis == 0 ? -dx : axis == 1 ? -dy : -dz;
+
+			// descend the near side first and visit the far side only if the splitting plane is within reach
+			if (diff < 0)
+			{
+				search(aLo, mid, aX, aY, aZ, aScale, aResult);
+				if (diff * diff * aScale >= aResult.bound())
+				{
+					return;
+				}
+				aLo = mid + 1;
+			}
+			else
+			{
+				search(mid + 1, aHi, aX, aY, aZ, aScale, aResult);
+				if (diff * diff * aScale >= aResult.bound())
+				{
+					return;
+				}
+				aHi = mid;
+			}
+		}
+
+		for (int i = aLo; i < aHi; i++)
+		{
+			double dx = points[3 * i] - aX;
+			double dy = points[3 * i + 1] - aY;
+			double dz = points[3 * i + 2] - aZ;
+			double dist = dx * dx + dy * dy + dz * dz;
+
+			if (dist < aResult.bound())
+			{
+				aResult.offer(mIndices[i], dist);
+			}
+		}
+	}
+
+
+	private void build(double[] aCoordinates, int aLo, int aHi)
+	{
+		while (aHi - aLo > LEAF_SIZE)
+		{
+			int axis = getWidestAxis(aCoordinates, aLo, aHi);
+			int mid = (aLo + aHi) >>> 1;
+
+			select(aCoordinates, axis, aLo, aHi - 1, mid);
+			mAxis[mid] = (byte)axis;
+
+			build(aCoordinates, aLo, mid);
+			aLo = mid + 1;
+		}
+	}
+
+
+	private int getWidestAxis(double[] aCoordinates, int aLo, int aHi)
+	{
+		double minX = Double.POSITIVE_INFINITY, minY = minX, minZ = minX;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+
+		for (int i = aLo; i < aHi; i++)
+		{
+			int j = 3 * mIndices[i];
+			minX = Math.min(minX, aCoordinates[j]);
+			maxX = Math.max(maxX, aCoordinates[j]);
+			minY = Math.min(minY, aCoordinates[j + 1]);
+			maxY = Math.max(maxY, aCoordinates[j + 1]);
+			minZ = Math.min(minZ, aCoordinates[j + 2]);
+			maxZ = Math.max(maxZ, aCoordinates[j + 2]);
+		}
+
+		double ex = maxX - minX;
+		double ey = maxY - minY;
+		double ez = maxZ - minZ;
+
+		return ex >= ey && ex >= ez ? 0 : ey >= ez ? 1 : 2;
+	}
+
+
+	/**
+	 * Partially sorts the index range so that the element at aK is the one that would be there if the range was sorted along the axis,
+	 * with no larger elements before and no smaller elements after it.
+	 */
+	private void select(double[] aCoordinates, int aAxis, int aLeft, int aRight, int aK)
+	{
+		int[] indices = mIndices;
+
+		while (aRight > aLeft)
+		{
+			double pivot = aCoordinates[3 * indices[(aLeft + aRight) >>> 1] + aAxis];
+			int i = aLeft;
+			int j = aRight;
+
+			while (i <= j)
+			{
+				while (aCoordinates[3 * indices[i] + aAxis] < pivot)
+				{
+					i++;
+				}
+				while (aCoordinates[3 * indices[j] + aAxis] > pivot)
+				{
+					j--;
+				}
+				if (i <= j)
+				{
+					int t = indices[i];
+					indices[i] = indices[j];
+					indices[j] = t;
+					i++;
+					j--;
+				}
+			}
+
+			if (aK <= j)
+			{
+				aRight = j;
+			}
+			else if (aK >= i)
+			{
+				aLeft = i;
+			}
+			else
+			{
+				break;
+			}
+		}
+	}
+
+
+	private static double[] toArray(Vec3d[] aPoints)
+	{
+		double[] coordinates = new double[3 * aPoints.length];
+
+		for (int i = 0; i < aPoints.length; i++)
+		{
+			coordinates[3 * i] = aPoints[i].x;
+			coordinates[3 * i + 1] = aPoints[i].y;
+			coordinates[3 * i + 2] = aPoints[i].z;
+		}
+
+		return coordinates;
+	}
+}
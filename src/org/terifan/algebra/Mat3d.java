@@ -263,12 +263,12 @@ public class Mat3d implements Cloneable, Serializable, Bundlable
 		set(m00 * f00 + m10 * f01 + m20 * f02,
 			m01 * f00 + m11 * f01 + m21 * f02,
 			m02 * f00 + m12 * f01 + m22 * f02,
-			m00 * f20 + m10 * f21 + m20 * f22,
-			m01 * f20 + m11 * f21 + m21 * f22,
-			m02 * f20 + m12 * f21 + m22 * f22,
 			m00 * f10 + m10 * f11 + m20 * f12,
 			m01 * f10 + m11 * f11 + m21 * f12,
-			m02 * f10 + m12 * f11 + m22 * f12
+			m02 * f10 + m12 * f11 + m22 * f12,
+			m00 * f20 + m10 * f21 + m20 * f22,
+			m01 * f20 + m11 * f21 + m21 * f22,
+			m02 * f20 + m12 * f21 + m22 * f22
 		);
 
 		return this;
@@ -716,6 +716,6 @@ public class Mat3d implements Cloneable, Serializable, Bundlable
 
 	public Mat4d toMat4d()
 	{
-		return new Mat4d(this, Vec3d.ZERO);
+		return new Mat4d(this, ImmutableVec3d.ZERO);
 	}
 }
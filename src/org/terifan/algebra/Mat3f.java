@@ -0,0 +1,475 @@
+package org.terifan.algebra;
+
+import java.io.Serializable;
+import javax.vecmath.Matrix3f;
+
+
+/**
+ * Column-major order matrix.
+ * <p/>
+ * Single precision counterpart of {@link Mat3d} with the same layout and methods.
+ */
+public class Mat3f implements Cloneable, Serializable
+{
+	private final static long serialVersionUID = 1L;
+
+	public float m00, m01, m02; // First  column - typically the direction of the positive X-axis
+	public float m10, m11, m12; // Second column - typically the direction of the positive Y-axis
+	public float m20, m21, m22; // Third  column - typically the direction of the positive Z-axis
+
+
+	/**
+	 * Default constructor - all matrix elements are set to 0.0.
+	 */
+	public Mat3f()
+	{
+	}
+
+
+	/**
+	 * Constructor which sets the given value across the diagonal and zeroes the rest of the matrix.
+	 */
+	public Mat3f(float aValue)
+	{
+		m00 = m11 = m22 = aValue;
+	}
+
+
+	/**
+	 * Constructor which sets the matrix from the three provided axes.
+	 *
+	 * @param xAxis	The positive X-axis to set.
+	 * @param yAxis	The positive Y-axis to set.
+	 * @param zAxis	The positive Z-axis to set.
+	 */
+	public Mat3f(Vec3f xAxis, Vec3f yAxis, Vec3f zAxis)
+	{
+		m00 = xAxis.x;
+		m01 = xAxis.y;
+		m02 = xAxis.z;
+
+		m10 = yAxis.x;
+		m11 = yAxis.y;
+		m12 = yAxis.z;
+
+		m20 = zAxis.x;
+		m21 = zAxis.y;
+		m22 = zAxis.z;
+	}
+
+
+	public Mat3f(Mat3d aSource)
+	{
+		set(aSource);
+	}
+
+
+	public Mat3f(Matrix3f aSource)
+	{
+		set(aSource);
+	}
+
+
+	public Mat3f set(Mat3f aSource)
+	{
+		m00 = aSource.m00;
+		m01 = aSource.m01;
+		m02 = aSource.m02;
+		m10 = aSource.m10;
+		m11 = aSource.m11;
+		m12 = aSource.m12;
+		m20 = aSource.m20;
+		m21 = aSource.m21;
+		m22 = aSource.m22;
+		return this;
+	}
+
+
+	/**
+	 * Sets this matrix from a double precision matrix.
+	 *
+	 * @return this matrix.
+	 */
+	public Mat3f set(Mat3d aSource)
+	{
+		return set((float)aSource.m00, (float)aSource.m01, (float)aSource.m02, (float)aSource.m10, (float)aSource.m11, (float)aSource.m12, (float)aSource.m20, (float)aSource.m21, (float)aSource.m22);
+	}
+
+
+	/**
+	 * Sets this matrix from a javax.vecmath matrix. The javax.vecmath matrix transforms column vectors and is the transpose of this matrix.
+	 *
+	 * @return this matrix.
+	 */
+	public Mat3f set(Matrix3f aSource)
+	{
+		return set(aSource.m00, aSource.m10, aSource.m20, aSource.m01, aSource.m11, aSource.m21, aSource.m02, aSource.m12, aSource.m22);
+	}
+
+
+	public Mat3f set(float a00, float a01, float a02, float a10, float a11, float a12, float a20, float a21, float a22)
+	{
+		m00 = a00;
+		m01 = a01;
+		m02 = a02;
+		m10 = a10;
+		m11 = a11;
+		m12 = a12;
+		m20 = a20;
+		m21 = a21;
+		m22 = a22;
+		return this;
+	}
+
+
+	/**
+	 * Zero all elements of this matrix.
+	 * @return this matrix.
+	 */
+	public Mat3f zero()
+	{
+		m00 = m01 = m02 = m10 = m11 = m12 = m20 = m21 = m22 = 0.0f;
+		return this;
+	}
+
+
+	/**
+	 * Reset this matrix to identity.
+	 * @return this matrix.
+	 */
+	public Mat3f identity()
+	{
+		m00 = m11 = m22 = 1.0f;
+		m01 = m02 = m10 = m12 = m20 = m21 = 0.0f;
+		return this;
+	}
+
+
+	/**
+	 * Transposes this matrix.
+	 * @return this matrix.
+	 */
+	public Mat3f transpose()
+	{
+		set(m00, m10, m20, m01, m11, m21, m02, m12, m22);
+		return this;
+	}
+
+
+	/**
+	 * Create a rotation matrix from a given direction.
+	 * <p>
+	 * The reference direction is aligned to the Z-Axis, and the X-Axis is generated via the genPerpendicularVectorQuuck() method. The
+	 * Y-Axis is then the cross-product of those two axes.
+	 * <p>
+	 * This method uses the <a href="https://gist.github.com/roxlu/3082114">Frisvad technique</a> for generating perpendicular axes.
+	 *
+	 * @param	aReferenceDirection	The vector to use as the Z-Axis
+	 * @return	The created rotation matrix.
+	 *
+	 * @see Mat3d#createRotationMatrix(Vec3d)
+	 */
+	public static Mat3f createRotationMatrix(Vec3f aReferenceDirection)
+	{
+		Vec3f xAxis;
+		Vec3f yAxis;
+		Vec3f zAxis = aReferenceDirection.normalize();
+
+		// Handle the singularity (i.e. bone pointing along negative Z-Axis)...
+		if (aReferenceDirection.z < -0.9999999f)
+		{
+			xAxis = new Vec3f(1.0f, 0.0f, 0.0f); // ...in which case positive X runs directly to the right...
+			yAxis = new Vec3f(0.0f, 1.0f, 0.0f); // ...and positive Y runs directly upwards.
+		}
+		else
+		{
+			float a = 1.0f / (1.0f + zAxis.z);
+			float b = -zAxis.x * zAxis.y * a;
+			xAxis = new Vec3f(1.0f - zAxis.x * zAxis.x * a, b, -zAxis.x).normalize();
+			yAxis = new Vec3f(b, 1.0f - zAxis.y * zAxis.y * a, -zAxis.y).normalize();
+		}
+
+		return new Mat3f(xAxis, yAxis, zAxis);
+	}
+
+
+	/**
+	 * Return whether this matrix consists of three orthogonal axes or not to within a cross-product of 0.01.
+	 *
+	 * @return	Whether or not this matrix is orthogonal.
+	 */
+	public boolean isOrthogonal()
+	{
+		return approximatelyEquals(getXBasis().dot(getYBasis()), 0.0f, 0.01f)
+			&& approximatelyEquals(getXBasis().dot(getZBasis()), 0.0f, 0.01f)
+			&& approximatelyEquals(getYBasis().dot(getZBasis()), 0.0f, 0.01f);
+	}
+
+
+	/**
+	 * Return a new matrix with the result of this matrix multiplied by the provided matrix.
+	 * @return this matrix.
+	 */
+	public Mat3f multiply(Mat3f m)
+	{
+		return set(
+			this.m00 * m.m00 + this.m10 * m.m01 + this.m20 * m.m02,
+			this.m01 * m.m00 + this.m11 * m.m01 + this.m21 * m.m02,
+			this.m02 * m.m00 + this.m12 * m.m01 + this.m22 * m.m02,
+			this.m00 * m.m10 + this.m10 * m.m11 + this.m20 * m.m12,
+			this.m01 * m.m10 + this.m11 * m.m11 + this.m21 * m.m12,
+			this.m02 * m.m10 + this.m12 * m.m11 + this.m22 * m.m12,
+			this.m00 * m.m20 + this.m10 * m.m21 + this.m20 * m.m22,
+			this.m01 * m.m20 + this.m11 * m.m21 + this.m21 * m.m22,
+			this.m02 * m.m20 + this.m12 * m.m21 + this.m22 * m.m22
+		);
+	}
+
+
+	/**
+	 * Return a new vector with the result of this matrix multiplied with the provided vector.
+	 */
+	public Vec3f multiply(Vec3f source)
+	{
+		return new Vec3f(this.m00 * source.x + this.m10 * source.y + this.m20 * source.z,
+			this.m01 * source.x + this.m11 * source.y + this.m21 * source.z,
+			this.m02 * source.x + this.m12 * source.y + this.m22 * source.z);
+	}
+
+
+	public float determinant()
+	{
+		return m20 * m01 * m12 - m20 * m02 * m11 - m10 * m01 * m22 + m10 * m02 * m21 + m00 * m11 * m22 - m00 * m12 * m21;
+	}
+
+
+	public Mat3f inverse()
+	{
+		float d = determinant();
+
+		return set(
+			 ( m11 * m22 - m12 * m21) / d,
+			-( m01 * m22 - m02 * m21) / d,
+			 ( m01 * m12 - m02 * m11) / d,
+			-(-m20 * m12 + m10 * m22) / d,
+			 (-m20 * m02 + m00 * m22) / d,
+			-(-m10 * m02 + m00 * m12) / d,
+			 (-m20 * m11 + m10 * m21) / d,
+			-(-m20 * m01 + m00 * m21) / d,
+			 (-m10 * m02 + m00 * m11) / d
+		);
+	}
+
+
+	/**
+	 * Rotate this matrix by the provided angle about the specified axis.
+	 *
+	 * @param	angleRads	The angle to rotate the matrix, specified in radians.
+	 * @param	rotationAxis	The axis to rotate this matrix about, relative to the current configuration of this matrix.
+	 * @return	this matrix.
+	 */
+	public Mat3f rotateRads(Vec3f rotationAxis, float angleRads)
+	{
+		float sin = (float)Math.sin(angleRads);
+		float cos = (float)Math.cos(angleRads);
+		float oneMinusCos = 1.0f - cos;
+
+		float xy = rotationAxis.x * rotationAxis.y;
+		float yz = rotationAxis.y * rotationAxis.z;
+		float xz = rotationAxis.x * rotationAxis.z;
+		float xs = rotationAxis.x * sin;
+		float ys = rotationAxis.y * sin;
+		float zs = rotationAxis.z * sin;
+
+		float f00 = rotationAxis.x * rotationAxis.x * oneMinusCos + cos;
+		float f01 = xy * oneMinusCos + zs;
+		float f02 = xz * oneMinusCos - ys;
+
+		float f10 = xy * oneMinusCos - zs;
+		float f11 = rotationAxis.y * rotationAxis.y * oneMinusCos + cos;
+		float f12 = yz * oneMinusCos + xs;
+
+		float f20 = xz * oneMinusCos + ys;
+		float f21 = yz * oneMinusCos - xs;
+		float f22 = rotationAxis.z * rotationAxis.z * oneMinusCos + cos;
+
+		set(m00 * f00 + m10 * f01 + m20 * f02,
+			m01 * f00 + m11 * f01 + m21 * f02,
+			m02 * f00 + m12 * f01 + m22 * f02,
+			m00 * f10 + m10 * f11 + m20 * f12,
+			m01 * f10 + m11 * f11 + m21 * f12,
+			m02 * f10 + m12 * f11 + m22 * f12,
+			m00 * f20 + m10 * f21 + m20 * f22,
+			m01 * f20 + m11 * f21 + m21 * f22,
+			m02 * f20 + m12 * f21 + m22 * f22
+		);
+
+		return this;
+	}
+
+
+	/**
+	 * Rotate this matrix by the provided angle about the specified axis.
+	 *
+	 * @param	angleDegs	The angle to rotate the matrix, specified in degrees.
+	 * @param	localAxis	The axis to rotate this matrix about, relative to the current configuration of this matrix.
+	 * @return	this matrix.
+	 */
+	public Mat3f rotateDegs(float angleDegs, Vec3f localAxis)
+	{
+		return rotateRads(localAxis, (float)Math.toRadians(angleDegs));
+	}
+
+
+	/**
+	 * Set the X basis of this matrix.
+	 *
+	 * @param	v	The vector to use as the X-basis of this matrix.
+	 * @return	this matrix.
+	 */
+	public Mat3f setXBasis(Vec3f v)
+	{
+		m00 = v.x;
+		m01 = v.y;
+		m02 = v.z;
+		return this;
+	}
+
+
+	/**
+	 * Get the X basis of this matrix.
+	 *
+	 * @return The X basis of this matrix as a Vec3f
+	 *
+	 */
+	public Vec3f getXBasis()
+	{
+		return new Vec3f(m00, m01, m02);
+	}
+
+
+	/**
+	 * Set the Y basis of this matrix.
+	 *
+	 * @param	v	The vector to use as the Y-basis of this matrix.
+	 * @return	this matrix.
+	 */
+	public Mat3f setYBasis(Vec3f v)
+	{
+		m10 = v.x;
+		m11 = v.y;
+		m12 = v.z;
+		return this;
+	}
+
+
+	/**
+	 * Get the Y basis of this matrix.
+	 *
+	 * @return The Y basis of this matrix as a Vec3f
+	 *
+	 */
+	public Vec3f getYBasis()
+	{
+		return new Vec3f(m10, m11, m12);
+	}
+
+
+	/**
+	 * Set the Z basis of this matrix.
+	 *
+	 * @param	v	The vector to use as the Z-basis of this matrix.
+	 * @return	this matrix.
+	 */
+	public Mat3f setZBasis(Vec3f v)
+	{
+		m20 = v.x;
+		m21 = v.y;
+		m22 = v.z;
+		return this;
+	}
+
+
+	/**
+	 * Get the Z basis of this matrix.
+	 *
+	 * @return The Z basis of this matrix as a Vec3f
+	 *
+	 */
+	public Vec3f getZBasis()
+	{
+		return new Vec3f(m20, m21, m22);
+	}
+
+
+	/**
+	 * Returns a double precision copy of this matrix.
+	 */
+	public Mat3d toMat3d()
+	{
+		return new Mat3d().set(m00, m01, m02, m10, m11, m12, m20, m21, m22);
+	}
+
+
+	/**
+	 * Returns this matrix as a javax.vecmath matrix, transposed to transform column vectors.
+	 */
+	public Matrix3f toMatrix3f()
+	{
+		return new Matrix3f(m00, m10, m20, m01, m11, m21, m02, m12, m22);
+	}
+
+
+	/**
+	 * Return this Mat3f as an array of 9 floats.
+	 *
+	 * @return	This Mat3f as an array of 9 floats.
+	 */
+	public float[] toArray()
+	{
+		return new float[]
+		{
+			m00, m01, m02, m10, m11, m12, m20, m21, m22
+		};
+	}
+
+
+	/**
+	 * Note: Displays output in COLUMN-MAJOR format!
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format("{{%8.4f, %8.4f, %8.4f},{%8.4f, %8.4f, %8.4f},{%8.4f, %8.4f, %8.4f}}", m00, m01, m02, m10, m11, m12, m20, m21, m22);
+	}
+
+
+	/**
+	 * Note: Displays output in COLUMN-MAJOR format!
+	 */
+	public String toString2D()
+	{
+		return String.format("{%n\t{%8.4f, %8.4f, %8.4f}%n\t{%8.4f, %8.4f, %8.4f}%n\t{%8.4f, %8.4f, %8.4f}%n}", m00, m01, m02, m10, m11, m12, m20, m21, m22);
+	}
+
+
+	public static boolean approximatelyEquals(float a, float b, float tolerance)
+	{
+		return Math.abs(a - b) <= tolerance;
+	}
+
+
+	@Override
+	public Mat3f clone()
+	{
+		Mat3f m = new Mat3f();
+		m.set(this);
+		return m;
+	}
+
+
+	public Mat4f toMat4f()
+	{
+		return new Mat4f(this, Vec3f.ZERO);
+	}
+}
@@ -30,7 +30,16 @@ public class Mat4d implements Cloneable, Serializable, Bundlable
 	}
 
 
+	/**
+	 * Kept for binary compatibility, see {@link #Mat4d(Mat3d, ReadOnlyVec3d)}.
+	 */
 	public Mat4d(Mat3d aRotation, Vec3d aOrigin)
+	{
+		this(aRotation, (ReadOnlyVec3d)aOrigin);
+	}
+
+
+	public Mat4d(Mat3d aRotation, ReadOnlyVec3d aOrigin)
 	{
 		m00 = aRotation.m00;
 		m01 = aRotation.m01;
@@ -47,9 +56,9 @@ public class Mat4d implements Cloneable, Serializable, Bundlable
 		m22 = aRotation.m22;
 		m23 = 0.0;
 
-		m30 = aOrigin.x;
-		m31 = aOrigin.y;
-		m32 = aOrigin.z;
+		m30 = aOrigin.getX();
+		m31 = aOrigin.getY();
+		m32 = aOrigin.getZ();
 		m33 = 1.0;
 	}
 
@@ -664,9 +673,13 @@ public class Mat4d implements Cloneable, Serializable, Bundlable
 	 */
 	public Vec3d transformPoint(Vec3d v)
 	{
-		v.x = m00 * v.x + m10 * v.y + m20 * v.z + m30;
-		v.y = m01 * v.x + m11 * v.y + m21 * v.z + m31;
-		v.z = m02 * v.x + m12 * v.y + m22 * v.z + m32;
+		double x = m00 * v.x + m10 * v.y + m20 * v.z + m30;
+		double y = m01 * v.x + m11 * v.y + m21 * v.z + m31;
+		double z = m02 * v.x + m12 * v.y + m22 * v.z + m32;
+
+		v.x = x;
+		v.y = y;
+		v.z = z;
 
 		return v;
 	}
@@ -675,14 +688,19 @@ public class Mat4d implements Cloneable, Serializable, Bundlable
 	/**
 	 * Transform the provided point in 3D space.
 	 *
-	 * @return the provided Vec3d.
+	 * @return the provided Vec4d.
 	 */
 	public Vec4d transformPoint(Vec4d v)
 	{
-		v.x = m00 * v.x + m10 * v.y + m20 * v.z + m30;
-		v.y = m01 * v.x + m11 * v.y + m21 * v.z + m31;
-		v.z = m02 * v.x + m12 * v.y + m22 * v.z + m32;
-		v.w = m03 * v.x + m13 * v.y + m23 * v.z + m33;
+		double x = m00 * v.x + m10 * v.y + m20 * v.z + m30;
+		double y = m01 * v.x + m11 * v.y + m21 * v.z + m31;
+		double z = m02 * v.x + m12 * v.y + m22 * v.z + m32;
+		double w = m03 * v.x + m13 * v.y + m23 * v.z + m33;
+
+		v.x = x;
+		v.y = y;
+		v.z = z;
+		v.w = w;
 
 		return v;
 	}
@@ -739,27 +757,8 @@ public class Mat4d implements Cloneable, Serializable, Bundlable
 	 */
 	public Mat4d invert()
 	{
-		Mat4d m = new Mat4d();
-
-		m.m00 = m12 * m23 * m31 - m13 * m22 * m31 + m13 * m21 * m32 - m11 * m23 * m32 - m12 * m21 * m33 + m11 * m22 * m33;
-		m.m01 = m03 * m22 * m31 - m02 * m23 * m31 - m03 * m21 * m32 + m01 * m23 * m32 + m02 * m21 * m33 - m01 * m22 * m33;
-		m.m02 = m02 * m13 * m31 - m03 * m12 * m31 + m03 * m11 * m32 - m01 * m13 * m32 - m02 * m11 * m33 + m01 * m12 * m33;
-		m.m03 = m03 * m12 * m21 - m02 * m13 * m21 - m03 * m11 * m22 + m01 * m13 * m22 + m02 * m11 * m23 - m01 * m12 * m23;
-		m.m10 = m13 * m22 * m30 - m12 * m23 * m30 - m13 * m20 * m32 + m10 * m23 * m32 + m12 * m20 * m33 - m10 * m22 * m33;
-		m.m11 = m02 * m23 * m30 - m03 * m22 * m30 + m03 * m20 * m32 - m00 * m23 * m32 - m02 * m20 * m33 + m00 * m22 * m33;
-		m.m12 = m03 * m12 * m30 - m02 * m13 * m30 - m03 * m10 * m32 + m00 * m13 * m32 + m02 * m10 * m33 - m00 * m12 * m33;
-		m.m13 = m02 * m13 * m20 - m03 * m12 * m20 + m03 * m10 * m22 - m00 * m13 * m22 - m02 * m10 * m23 + m00 * m12 * m23;
-		m.m20 = m11 * m23 * m30 - m13 * m21 * m30 + m13 * m20 * m31 - m10 * m23 * m31 - m11 * m20 * m33 + m10 * m21 * m33;
-		m.m21 = m03 * m21 * m30 - m01 * m23 * m30 - m03 * m20 * m31 + m00 * m23 * m31 + m01 * m20 * m33 - m00 * m21 * m33;
-		m.m22 = m01 * m13 * m30 - m03 * m11 * m30 + m03 * m10 * m31 - m00 * m13 * m31 - m01 * m10 * m33 + m00 * m11 * m33;
-		m.m23 = m03 * m11 * m20 - m01 * m13 * m20 - m03 * m10 * m21 + m00 * m13 * m21 + m01 * m10 * m23 - m00 * m11 * m23;
-		m.m30 = m12 * m21 * m30 - m11 * m22 * m30 - m12 * m20 * m31 + m10 * m22 * m31 + m11 * m20 * m32 - m10 * m21 * m32;
-		m.m31 = m01 * m22 * m30 - m02 * m21 * m30 + m02 * m20 * m31 - m00 * m22 * m31 - m01 * m20 * m32 + m00 * m21 * m32;
-		m.m32 = m02 * m11 * m30 - m01 * m12 * m30 - m02 * m10 * m31 + m00 * m12 * m31 + m01 * m10 * m32 - m00 * m11 * m32;
-		m.m33 = m01 * m12 * m20 - m02 * m11 * m20 + m02 * m10 * m21 - m00 * m12 * m21 - m01 * m10 * m22 + m00 * m11 * m22;
-
 		// Get the determinant of this matrix
-		double determinant = m.determinant();
+		double determinant = determinant();
 
 		// Each property of the inverse matrix is multiplied by 1.0 divided by the determinant.
 		// As we cannot divide by zero, we will throw an IllegalArgumentException if the determinant is zero.
@@ -768,10 +767,32 @@ public class Mat4d implements Cloneable, Serializable, Bundlable
 			throw new IllegalArgumentException("Cannot invert a matrix with a determinant of zero.");
 		}
 
-		// Otherwise, calculate the value of one over the determinant and scale the matrix by that value
-		m.scale(1.0 / determinant);
-
-		set(m);
+		try (ScratchArena scratch = ScratchArena.get().push())
+		{
+			Mat4d m = scratch.mat4d();
+
+			m.m00 = m12 * m23 * m31 - m13 * m22 * m31 + m13 * m21 * m32 - m11 * m23 * m32 - m12 * m21 * m33 + m11 * m22 * m33;
+			m.m01 = m03 * m22 * m31 - m02 * m23 * m31 - m03 * m21 * m32 + m01 * m23 * m32 + m02 * m21 * m33 - m01 * m22 * m33;
+			m.m02 = m02 * m13 * m31 - m03 * m12 * m31 + m03 * m11 * m32 - m01 * m13 * m32 - m02 * m11 * m33 + m01 * m12 * m33;
+			m.m03 = m03 * m12 * m21 - m02 * m13 * m21 - m03 * m11 * m22 + m01 * m13 * m22 + m02 * m11 * m23 - m01 * m12 * m23;
+			m.m10 = m13 * m22 * m30 - m12 * m23 * m30 - m13 * m20 * m32 + m10 * m23 * m32 + m12 * m20 * m33 - m10 * m22 * m33;
+			m.m11 = m02 * m23 * m30 - m03 * m22 * m30 + m03 * m20 * m32 - m00 * m23 * m32 - m02 * m20 * m33 + m00 * m22 * m33;
+			m.m12 = m03 * m12 * m30 - m02 * m13 * m30 - m03 * m10 * m32 + m00 * m13 * m32 + m02 * m10 * m33 - m00 * m12 * m33;
+			m.m13 = m02 * m13 * m20 - m03 * m12 * m20 + m03 * m10 * m22 - m00 * m13 * m22 - m02 * m10 * m23 + m00 * m12 * m23;
+			m.m20 = m11 * m23 * m30 - m13 * m21 * m30 + m13 * m20 * m31 - m10 * m23 * m31 - m11 * m20 * m33 + m10 * m21 * m33;
+			m.m21 = m03 * m21 * m30 - m01 * m23 * m30 - m03 * m20 * m31 + m00 * m23 * m31 + m01 * m20 * m33 - m00 * m21 * m33;
+			m.m22 = m01 * m13 * m30 - m03 * m11 * m30 + m03 * m10 * m31 - m00 * m13 * m31 - m01 * m10 * m33 + m00 * m11 * m33;
+			m.m23 = m03 * m11 * m20 - m01 * m13 * m20 - m03 * m10 * m21 + m00 * m13 * m21 + m01 * m10 * m23 - m00 * m11 * m23;
+			m.m30 = m12 * m21 * m30 - m11 * m22 * m30 - m12 * m20 * m31 + m10 * m22 * m31 + m11 * m20 * m32 - m10 * m21 * m32;
+			m.m31 = m01 * m22 * m30 - m02 * m21 * m30 + m02 * m20 * m31 - m00 * m22 * m31 - m01 * m20 * m32 + m00 * m21 * m32;
+			m.m32 = m02 * m11 * m30 - m01 * m12 * m30 - m02 * m10 * m31 + m00 * m12 * m31 + m01 * m10 * m32 - m00 * m11 * m32;
+			m.m33 = m01 * m12 * m20 - m02 * m11 * m20 + m02 * m10 * m21 - m00 * m12 * m21 - m01 * m10 * m22 + m00 * m11 * m22;
+
+			// Calculate the value of one over the determinant and scale the matrix by that value
+			m.scale(1.0 / determinant);
+
+			set(m);
+		}
 
 		return this;
 	}
@@ -840,8 +861,22 @@ public class Mat4d implements Cloneable, Serializable, Bundlable
 	// Method to rotate a matrix around an arbitrary axis
 	public Mat4d rotateAboutLocalAxisRads(double angleRads, Vec3d localAxis)
 	{
-		double cos = Math.cos(angleRads);
-		double sin = Math.sin(angleRads);
+		return rotateAboutLocalAxisRads(angleRads, localAxis, false);
+	}
+
+
+	/**
+	 * Rotate this matrix about a local axis by an angle specified in radians.
+	 *
+	 * @param	angleRads	The angle to rotate the matrix in radians.
+	 * @param	localAxis	The local axis around which to rotate the matrix.
+	 * @param	aFastMath	True if the trigonometric functions should be approximated using FastMath.
+	 * @return this matrix.
+	 */
+	public Mat4d rotateAboutLocalAxisRads(double angleRads, Vec3d localAxis, boolean aFastMath)
+	{
+		double cos = FastMath.cos(angleRads, aFastMath);
+		double sin = FastMath.sin(angleRads, aFastMath);
 		double nivCos = 1.0 - cos;
 
 		double xy = localAxis.x * localAxis.y;
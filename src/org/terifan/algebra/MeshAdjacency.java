@@ -0,0 +1,46 @@
+package org.terifan.algebra;
+
+
+/**
+ * Lists the triangle corners referencing each vertex of an indexed triangle mesh. The corners of vertex {@code v} are
+ * {@code mCorners[mOffsets[v]]} to {@code mCorners[mOffsets[v + 1] - 1]} where a corner is {@code 3 * triangle + k}.
+ * <p>
+ * Per-vertex values are computed by gathering over the corners of each vertex which lets vertices be processed in parallel without any
+ * synchronization, and in a deterministic order.
+ */
+final class MeshAdjacency
+{
+	final int[] mOffsets;
+	final int[] mCorners;
+
+
+	MeshAdjacency(int[] aIndices, int aTriangleCount, int aVertexCount)
+	{
+		int cornerCount = 3 * aTriangleCount;
+
+		mOffsets = new int[aVertexCount + 1];
+		mCorners = new int[cornerCount];
+
+		for (int i = 0; i < cornerCount; i++)
+		{
+			int v = aIndices[i];
+			if (v < 0 || v >= aVertexCount)
+			{
+				throw new IllegalArgumentException("Vertex index out of bounds: " + v);
+			}
+			mOffsets[v + 1]++;
+		}
+
+		for (int v = 0; v < aVertexCount; v++)
+		{
+			mOffsets[v + 1] += mOffsets[v];
+		}
+
+		int[] next = mOffsets.clone();
+
+		for (int i = 0; i < cornerCount; i++)
+		{
+			mCorners[next[aIndices[i]]++] = i;
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package org.terifan.algebra;
+
+
+/**
+ * Computes face normals, vertex normals and tangents of indexed triangle meshes stored in primitive arrays.
+ * <p>
+ * Positions are interleaved x, y and z coordinates and each triangle is three consecutive vertex indices, with counter-clockwise
+ * triangles facing the viewer like {@link Plane#computeNormal(Vec3d, Vec3d, Vec3d, Vec3d)}. Per-face values are computed in parallel
+ * over triangles and per-vertex values are then gathered in parallel over vertices, no vertex is written by more than one thread so no
+ * locking or atomic accumulation is needed and results don't depend on the number of threads.
+ */
+public final class MeshNormals
+{
+	/**
+	 * How face normals are weighted when computing vertex normals.
+	 */
+	public enum Weighting
+	{
+		/**
+		 * All faces sharing a vertex contribute equally.
+		 */
+		UNIFORM,
+		/**
+		 * Faces contribute in proportion to their area.
+		 */
+		AREA,
+		/**
+		 * Faces contribute in proportion to the angle of the face at the vertex. The result doesn't depend on how a surface is
+		 * tessellated.
+		 */
+		ANGLE
+	}
+
+
+	private MeshNormals()
+	{
+	}
+
+
+	/**
+	 * Computes unit face normals. Degenerate triangles get a zero normal.
+	 *
+	 * @param aPositions interleaved x, y and z coordinates
+	 * @param aIndices three vertex indices per triangle
+	 * @param aFaceNormals an array receiving three values per triangle
+	 * @param aParallel true if normals should be computed in parallel
+	 * @return the array of normals provided
+	 */
+	public static double[] computeFaceNormals(double[] aPositions, int[] aIndices, double[] aFaceNormals, boolean aParallel)
+	{
+		Parallel.forEach(aIndices.length / 3, aParallel, t ->
+		{
+			Plane.computeNormal(aPositions, aIndices[3 * t], aIndices[3 * t + 1], aIndices[3 * t + 2], aFaceNormals, 3 * t);
+		});
+
+		return aFaceNormals;
+	}
+
+
+	/**
+	 * Computes unit vertex normals. Vertices not referenced by any triangle, or only by degenerate triangles, get a zero normal.
+	 *
+	 * @param aPositions interleaved x, y and z coordinates
+	 * @param aIndices three vertex indices per triangle
+	 * @param aWeighting how face normals are weighted
+	 * @param aVertexNormals an array receiving three values per vertex
+	 * @param aParallel true if normals should be computed in parallel
+	 * @return the array of normals provided
+	 */
+	public static double[] computeVertexNormals(double[] aPositions, int[] aIndices, Weighting aWeighting, double[] aVertexNormals, boolean aParallel)
+	{
+		int triangleCount = aIndices.length / 3;
+		int vertexCount = aPositions.length / 3;
+
+		double[] faceNormals = new double[3 * triangleCount];
+		double[] weights = new double[3 * triangleCount];
+
+		Parallel.forEach(triangleCount, aParallel, t ->
+		{
+			int a = aIndices[3 * t];
+			int b = aIndices[3 * t + 1];
+			int c = aIndices[3 * t + 2];
+
+			double area = Plane.computeNormal(aPositions, a, b, c, faceNormals, 3 * t);
+
+			switch (aWeighting)
+			{
+				case UNIFORM:
+					weights[3 * t] = weights[3 * t + 1] = weights[3 * t + 2] = 1;
+					break;
+				case AREA:
+					weights[3 * t] = weights[3 * t + 1] = weights[3 * t + 2] = area;
+					break;
+				case ANGLE:
+					weights[3 * t] = angle(aPositions, a, b, c);
+					weights[3 * t + 1] = angle(aPositions, b, c, a);
+					weights[3 * t + 2] = angle(aPositions, c, a, b);
+					break;
+				default:
+					throw new IllegalArgumentException("Unsupported weighting: " + aWeighting);
+			}
+		});
+
+		MeshAdjacency adjacency = new MeshAdjacency(aIndices, triangleCount, vertexCount);
+
+		Parallel.forEach(vertexCount, aParallel, v ->
+		{
+			double x = 0;
+			double y = 0;
+			double z = 0;
+
+			for (int i = adjacency.mOffsets[v], end = adjacency.mOffsets[v + 1]; i < end; i++)
+			{
+				int corner = adjacency.mCorners[i];
+				int face = 3 * (corner / 3);
+				double w = weights[corner];
+
+				x += w * faceNormals[face];
+				y += w * faceNormals[face + 1];
+				z += w * faceNormals[face + 2];
+			}
+
+			double length = Math.sqrt(x * x + y * y + z * z);
+			double s = length > 0 ? 1.0 / length : 0;
+
+			aVertexNormals[3 * v] = x * s;
+			aVertexNormals[3 * v + 1] = y * s;
+			aVertexNormals[3 * v + 2] = z * s;
+		});
+
+		return aVertexNormals;
+	}
+
+
+	/**
+	 * Computes per-vertex tangents for normal mapping from texture coordinates. Tangents are orthogonalized against the vertex normals
+	 * and the fourth value of each tangent is the handedness of the tangent frame, +1 or -1, the bitangent is
+	 * {@code w * cross(normal, tangent)}.
+	 *
+	 * @param aPositions interleaved x, y and z coordinates
+	 * @param aTexCoords interleaved u and v texture coordinates, two values per vertex
+	 * @param aIndices three vertex indices per triangle
+	 * @param aVertexNormals unit vertex normals, three values per vertex
+	 * @param aTangents an array receiving four values per vertex
+	 * @param aParallel true if tangents should be computed in parallel
+	 * @return the array of tangents provided
+	 */
+	public static double[] computeTangents(double[] aPositions, double[] aTexCoords, int[] aIndices, double[] aVertexNormals, double[] aTangents, boolean aParallel)
+	{
+		int triangleCount = aIndices.length / 3;
+		int vertexCount = aPositions.length / 3;
+
+		// tangent and bitangent directions of each face, weighted by the area of the face in texture space
+		double[] faceTangents = new double[6 * triangleCount];
+
+		Parallel.forEach(triangleCount, aParallel, t ->
+		{
+			int a = aIndices[3 * t];
+			int b = aIndices[3 * t + 1];
+			int c = aIndices[3 * t + 2];
+
+			double x1 = aPositions[3 * b] - aPositions[3 * a];
+			double y1 = aPositions[3 * b + 1] - aPositions[3 * a + 1];
+			double z1 = aPositions[3 * b + 2] - aPositions[3 * a + 2];
+			double x2 = aPositions[3 * c] - aPositions[3 * a];
+			double y2 = aPositions[3 * c + 1] - aPositions[3 * a + 1];
+			double z2 = aPositions[3 * c + 2] - aPositions[3 * a + 2];
+			double s1 = aTexCoords[2 * b] - aTexCoords[2 * a];
+			double t1 = aTexCoords[2 * b + 1] - aTexCoords[2 * a + 1];
+			double s2 = aTexCoords[2 * c] - aTexCoords[2 * a];
+			double t2 = aTexCoords[2 * c + 1] - aTexCoords[2 * a + 1];
+
+			double det = s1 * t2 - s2 * t1;
+			double r = det != 0 ? Math.signum(det) : 0;
+
+			faceTangents[6 * t] = (t2 * x1 - t1 * x2) * r;
+			faceTangents[6 * t + 1] = (t2 * y1 - t1 * y2) * r;
+			faceTangents[6 * t + 2] = (t2 * z1 - t1 * z2) * r;
+			faceTangents[6 * t + 3] = (s1 * x2 - s2 * x1) * r;
+			faceTangents[6 * t + 4] = (s1 * y2 - s2 * y1) * r;
+			faceTangents[6 * t + 5] = (s1 * z2 - s2 * z1) * r;
+		});
+
+		MeshAdjacency adjacency = new MeshAdjacency(aIndices, triangleCount, vertexCount);
+
+		Parallel.forEach(vertexCount, aParallel, v ->
+		{
+			double tx = 0, ty = 0, tz = 0;
+			double bx = 0, by = 0, bz = 0;
+
+			for (int i = adjacency.mOffsets[v], end = adjacency.mOffsets[v + 1]; i < end; i++)
+			{
+				int face = 6 * (adjacency.mCorners[i] / 3);
+
+				tx += faceTangents[face];
+				ty += faceTangents[face + 1];
+				tz += faceTangents[face + 2];
+				bx += faceTangents[face + 3];
+				by += faceTangents[face + 4];
+				bz += faceTangents[face + 5];
+			}
+
+			double nx = aVertexNormals[3 * v];
+			double ny = aVertexNormals[3 * v + 1];
+			double nz = aVertexNormals[3 * v + 2];
+
+			// Gram-Schmidt orthogonalize
+			double d = nx * tx + ny * ty + nz * tz;
+			tx -= nx * d;
+			ty -= ny * d;
+			tz -= nz * d;
+
+			double length = Math.sqrt(tx * tx + ty * ty + tz * tz);
+
+			if (length < 1e-12)
+			{
+				// no usable texture mapping, any direction perpendicular to the normal will do
+				if (Math.abs(nx) < 0.9)
+				{
+					tx = 0;
+					ty = nz;
+					tz = -ny;
+				}
+				else
+				{
+					tx = -nz;
+					ty = 0;
+					tz = nx;
+				}
+				length = Math.sqrt(tx * tx + ty * ty + tz * tz);
+			}
+
+			double s = length > 0 ? 1.0 / length : 0;
+			tx *= s;
+			ty *= s;
+			tz *= s;
+
+			double handedness = (ny * tz - nz * ty) * bx + (nz * tx - nx * tz) * by + (nx * ty - ny * tx) * bz;
+
+			aTangents[4 * v] = tx;
+			aTangents[4 * v + 1] = ty;
+			aTangents[4 * v + 2] = tz;
+			aTangents[4 * v + 3] = handedness < 0 ? -1 : 1;
+		});
+
+		return aTangents;
+	}
+
+
+	/**
+	 * Returns the angle at vertex a between the edges to b and c.
+	 */
+	private static double angle(double[] aPositions, int a, int b, int c)
+	{
+		double ux = aPositions[3 * b] - aPositions[3 * a];
+		double uy = aPositions[3 * b + 1] - aPositions[3 * a + 1];
+		double uz = aPositions[3 * b + 2] - aPositions[3 * a + 2];
+		double vx = aPositions[3 * c] - aPositions[3 * a];
+		double vy = aPositions[3 * c + 1] - aPositions[3 * a + 1];
+		double vz = aPositions[3 * c + 2] - aPositions[3 * a + 2];
+
+		double cx = uy * vz - uz * vy;
+		double cy = uz * vx - ux * vz;
+		double cz = ux * vy - uy * vx;
+
+		return Math.atan2(Math.sqrt(cx * cx + cy * cy + cz * cz), ux * vx + uy * vy + uz * vz);
+	}
+}
@@ -0,0 +1,554 @@
+package org.terifan.algebra;
+
+import java.util.Arrays;
+
+
+/**
+ * Simplifies indexed triangle meshes by edge collapses ordered by quadric error (Garland and Heckbert, "Surface Simplification Using
+ * Quadric Error Metrics", SIGGRAPH 1997).
+ * <p>
+ * Each vertex holds the sum of the fundamental error quadrics of the planes of its triangles, weighted by triangle area. Quadrics are
+ * symmetric 4x4 matrices and are stored packed as ten values per vertex in a single array,
+ * {@code aa, ab, ac, ad, bb, bc, bd, cc, cd, dd} for a plane {@code ax + by + cz + d = 0}. Edges are kept in an indexed priority queue
+ * ordered by the error of collapsing the edge to the position minimizing the combined quadric. Collapses that would flip a triangle are
+ * skipped and boundary edges are preserved by adding constraint planes perpendicular to the boundary.
+ * <p>
+ * Positions are interleaved x, y and z coordinates and each triangle is three consecutive vertex indices. The arrays provided are not
+ * modified.
+ */
+public class MeshSimplifier
+{
+	private final static double BOUNDARY_WEIGHT = 1000;
+
+	private final int mVertexCount;
+	private final double[] mPositions;
+	private final int[] mIndices;
+	private final double[] mQuadrics;
+	private final boolean[] mRemovedTriangle;
+	private int mTriangleCount;
+
+	private final int[] mCornerHead;
+	private final int[] mCornerNext;
+
+	private final int[] mEdgeVertices;
+	private final double[] mEdgeTargets;
+	private final boolean[] mRemovedEdge;
+	private final int[] mEdgeHead;
+	private final int[] mEdgeNext;
+	private final IndexedMinHeap mQueue;
+
+	private final int[] mMark;
+	private int mStamp;
+
+
+	/**
+	 * Prepares a mesh for simplification.
+	 *
+	 * @param aPositions interleaved x, y and z coordinates
+	 * @param aIndices three vertex indices per triangle
+	 */
+	public MeshSimplifier(double[] aPositions, int[] aIndices)
+	{
+		mVertexCount = aPositions.length / 3;
+		mPositions = aPositions.clone();
+		mIndices = aIndices.clone();
+		mTriangleCount = aIndices.length / 3;
+		mRemovedTriangle = new boolean[mTriangleCount];
+		mQuadrics = new double[10 * mVertexCount];
+		mMark = new int[mVertexCount];
+
+		// corner lists, the corners referencing each vertex as singly linked lists
+		MeshAdjacency adjacency = new MeshAdjacency(mIndices, mTriangleCount, mVertexCount);
+		mCornerHead = new int[mVertexCount];
+		mCornerNext = new int[3 * mTriangleCount];
+		for (int v = 0; v < mVertexCount; v++)
+		{
+			int head = -1;
+			for (int i = adjacency.mOffsets[v + 1]; --i >= adjacency.mOffsets[v]; )
+			{
+				mCornerNext[adjacency.mCorners[i]] = head;
+				head = adjacency.mCorners[i];
+			}
+			mCornerHead[v] = head;
+		}
+
+		// triangle quadrics
+		double[] normal = new double[3];
+		for (int t = 0; t < mTriangleCount; t++)
+		{
+			int a = mIndices[3 * t];
+			double area = 0.5 * Plane.computeNormal(mPositions, a, mIndices[3 * t + 1], mIndices[3 * t + 2], normal, 0);
+			double d = -(normal[0] * mPositions[3 * a] + normal[1] * mPositions[3 * a + 1] + normal[2] * mPositions[3 * a + 2]);
+
+			for (int k = 0; k < 3; k++)
+			{
+				addPlane(mIndices[3 * t + k], normal[0], normal[1], normal[2], d, area);
+			}
+		}
+
+		// unique edges, found by sorting the half edges of all triangles
+		long[] keys = new long[3 * mTriangleCount];
+		for (int t = 0; t < mTriangleCount; t++)
+		{
+			for (int k = 0; k < 3; k++)
+			{
+				int a = mIndices[3 * t + k];
+				int b = mIndices[3 * t + (k + 1) % 3];
+				keys[3 * t + k] = ((long)Math.min(a, b) << 32) | Math.max(a, b);
+			}
+		}
+		int[] halfEdges = RadixSort.sort(keys, new int[keys.length], 64, true);
+
+		int edgeCount = 0;
+		for (int i = 0; i < keys.length; i++)
+		{
+			if (i == 0 || keys[i] != keys[i - 1])
+			{
+				edgeCount++;
+			}
+		}
+
+		mEdgeVertices = new int[2 * edgeCount];
+		mEdgeTargets = new double[3 * edgeCount];
+		mRemovedEdge = new boolean[edgeCount];
+		mEdgeHead = new int[mVertexCount];
+		mEdgeNext = new int[2 * edgeCount];
+		mQueue = new IndexedMinHeap(edgeCount);
+		Arrays.fill(mEdgeHead, -1);
+
+		for (int i = 0, e = 0; i < keys.length; e++)
+		{
+			int j = i + 1;
+			while (j < keys.length && keys[j] == keys[i])
+			{
+				j++;
+			}
+
+			int a = (int)(keys[i] >>> 32);
+			int b = (int)keys[i];
+
+			mEdgeVertices[2 * e] = a;
+			mEdgeVertices[2 * e + 1] = b;
+			mEdgeNext[2 * e] = mEdgeHead[a];
+			mEdgeHead[a] = 2 * e;
+			mEdgeNext[2 * e + 1] = mEdgeHead[b];
+			mEdgeHead[b] = 2 * e + 1;
+
+			if (j - i == 1)
+			{
+				addBoundaryPlane(halfEdges[i] / 3, a, b);
+			}
+
+			i = j;
+		}
+
+		for (int e = 0; e < edgeCount; e++)
+		{
+			updateEdge(e);
+		}
+	}
+
+
+	/**
+	 * Collapses edges until the number of triangles is at most the target or no more edges can be collapsed.
+	 *
+	 * @return this simplifier
+	 */
+	public MeshSimplifier simplify(int aTargetTriangleCount)
+	{
+		while (mTriangleCount > aTargetTriangleCount && !mQueue.isEmpty())
+		{
+			int e = mQueue.poll();
+			int u = mEdgeVertices[2 * e];
+			int v = mEdgeVertices[2 * e + 1];
+			double x = mEdgeTargets[3 * e];
+			double y = mEdgeTargets[3 * e + 1];
+			double z = mEdgeTargets[3 * e + 2];
+
+			// rejected edges are queued again when a neighboring collapse updates them
+			if (flips(u, v, x, y, z) || flips(v, u, x, y, z))
+			{
+				continue;
+			}
+
+			collapse(e, u, v, x, y, z);
+		}
+
+		return this;
+	}
+
+
+	/**
+	 * Returns the number of triangles remaining.
+	 */
+	public int getTriangleCount()
+	{
+		return mTriangleCount;
+	}
+
+
+	/**
+	 * Returns the positions of the vertices remaining, in the order of their original indices.
+	 */
+	public double[] getPositions()
+	{
+		int[] remap = getVertexRemap();
+		int count = 0;
+		for (int v = 0; v < mVertexCount; v++)
+		{
+			count = Math.max(count, remap[v] + 1);
+		}
+
+		double[] positions = new double[3 * count];
+		for (int v = 0; v < mVertexCount; v++)
+		{
+			if (remap[v] != -1)
+			{
+				System.arraycopy(mPositions, 3 * v, positions, 3 * remap[v], 3);
+			}
+		}
+
+		return positions;
+	}
+
+
+	/**
+	 * Returns the indices of the triangles remaining, referencing the positions returned by {@link #getPositions()}.
+	 */
+	public int[] getIndices()
+	{
+		int[] remap = getVertexRemap();
+		int[] indices = new int[3 * mTriangleCount];
+
+		for (int t = 0, i = 0; t < mRemovedTriangle.length; t++)
+		{
+			if (!mRemovedTriangle[t])
+			{
+				indices[i++] = remap[mIndices[3 * t]];
+				indices[i++] = remap[mIndices[3 * t + 1]];
+				indices[i++] = remap[mIndices[3 * t + 2]];
+			}
+		}
+
+		return indices;
+	}
+
+
+	/**
+	 * Returns the quadric of a vertex as a symmetric matrix.
+	 *
+	 * @param aVertex the original index of a vertex
+	 * @return the Mat4d provided
+	 */
+	public Mat4d getQuadric(int aVertex, Mat4d aOutput)
+	{
+		double[] q = mQuadrics;
+		int i = 10 * aVertex;
+
+		aOutput.m00 = q[i];
+		aOutput.m01 = aOutput.m10 = q[i + 1];
+		aOutput.m02 = aOutput.m20 = q[i + 2];
+		aOutput.m03 = aOutput.m30 = q[i + 3];
+		aOutput.m11 = q[i + 4];
+		aOutput.m12 = aOutput.m21 = q[i + 5];
+		aOutput.m13 = aOutput.m31 = q[i + 6];
+		aOutput.m22 = q[i + 7];
+		aOutput.m23 = aOutput.m32 = q[i + 8];
+		aOutput.m33 = q[i + 9];
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Returns the new index of each original vertex or -1 if the vertex isn't referenced by any remaining triangle.
+	 */
+	private int[] getVertexRemap()
+	{
+		int[] remap = new int[mVertexCount];
+		Arrays.fill(remap, -1);
+
+		for (int t = 0; t < mRemovedTriangle.length; t++)
+		{
+			if (!mRemovedTriangle[t])
+			{
+				for (int k = 0; k < 3; k++)
+				{
+					remap[mIndices[3 * t + k]] = 0;
+				}
+			}
+		}
+
+		for (int v = 0, next = 0; v < mVertexCount; v++)
+		{
+			if (remap[v] == 0)
+			{
+				remap[v] = next++;
+			}
+		}
+
+		return remap;
+	}
+
+
+	private void collapse(int e, int u, int v, double x, double y, double z)
+	{
+		mPositions[3 * u] = x;
+		mPositions[3 * u + 1] = y;
+		mPositions[3 * u + 2] = z;
+
+		for (int i = 0; i < 10; i++)
+		{
+			mQuadrics[10 * u + i] += mQuadrics[10 * v + i];
+		}
+
+		// triangles sharing the edge disappear, the other triangles of v are moved to u
+		int tail = -1;
+		for (int c = mCornerHead[v]; c != -1; c = mCornerNext[c])
+		{
+			int t = c / 3;
+			if (!mRemovedTriangle[t])
+			{
+				if (mIndices[3 * t] == u || mIndices[3 * t + 1] == u || mIndices[3 * t + 2] == u)
+				{
+					mRemovedTriangle[t] = true;
+					mTriangleCount--;
+				}
+				else
+				{
+					mIndices[c] = u;
+				}
+			}
+			tail = c;
+		}
+		if (tail != -1)
+		{
+			mCornerNext[tail] = mCornerHead[u];
+			mCornerHead[u] = mCornerHead[v];
+		}
+		mCornerHead[v] = -1;
+
+		// edges of v are moved to u unless u already has an edge to the same vertex
+		mStamp++;
+		for (int n = mEdgeHead[u]; n != -1; n = mEdgeNext[n])
+		{
+			if (!mRemovedEdge[n >> 1])
+			{
+				mMark[mEdgeVertices[n ^ 1]] = mStamp;
+			}
+		}
+
+		removeEdge(e);
+
+		tail = -1;
+		for (int n = mEdgeHead[v]; n != -1; n = mEdgeNext[n])
+		{
+			int f = n >> 1;
+			if (!mRemovedEdge[f])
+			{
+				int other = mEdgeVertices[n ^ 1];
+				if (mMark[other] == mStamp)
+				{
+					removeEdge(f);
+				}
+				else
+				{
+					mEdgeVertices[n] = u;
+					mMark[other] = mStamp;
+				}
+			}
+			tail = n;
+		}
+		if (tail != -1)
+		{
+			mEdgeNext[tail] = mEdgeHead[u];
+			mEdgeHead[u] = mEdgeHead[v];
+		}
+		mEdgeHead[v] = -1;
+
+		for (int n = mEdgeHead[u]; n != -1; n = mEdgeNext[n])
+		{
+			if (!mRemovedEdge[n >> 1])
+			{
+				updateEdge(n >> 1);
+			}
+		}
+	}
+
+
+	private void removeEdge(int e)
+	{
+		mRemovedEdge[e] = true;
+		mQueue.remove(e);
+	}
+
+
+	/**
+	 * Returns true if moving vertex u to the position provided flips a triangle not shared with vertex v.
+	 */
+	private boolean flips(int u, int v, double x, double y, double z)
+	{
+		double[] p = mPositions;
+
+		for (int c = mCornerHead[u]; c != -1; c = mCornerNext[c])
+		{
+			int t = c / 3;
+			if (mRemovedTriangle[t])
+			{
+				continue;
+			}
+
+			int k = c - 3 * t;
+			int a = mIndices[3 * t + (k + 1) % 3];
+			int b = mIndices[3 * t + (k + 2) % 3];
+
+			if (a == v || b == v)
+			{
+				continue;
+			}
+
+			double ax = p[3 * a] - p[3 * u], ay = p[3 * a + 1] - p[3 * u + 1], az = p[3 * a + 2] - p[3 * u + 2];
+			double bx = p[3 * b] - p[3 * u], by = p[3 * b + 1] - p[3 * u + 1], bz = p[3 * b + 2] - p[3 * u + 2];
+			double nx = ay * bz - az * by;
+			double ny = az * bx - ax * bz;
+			double nz = ax * by - ay * bx;
+
+			ax = p[3 * a] - x;
+			ay = p[3 * a + 1] - y;
+			az = p[3 * a + 2] - z;
+			bx = p[3 * b] - x;
+			by = p[3 * b + 1] - y;
+			bz = p[3 * b + 2] - z;
+			double mx = ay * bz - az * by;
+			double my = az * bx - ax * bz;
+			double mz = ax * by - ay * bx;
+
+			if (nx * mx + ny * my + nz * mz <= 0 && (nx != 0 || ny != 0 || nz != 0))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+
+	/**
+	 * Computes the optimal collapse position and error of an edge and updates the queue.
+	 */
+	private void updateEdge(int e)
+	{
+		int u = mEdgeVertices[2 * e];
+		int v = mEdgeVertices[2 * e + 1];
+		double[] q = mQuadrics;
+		int i = 10 * u;
+		int j = 10 * v;
+
+		double a2 = q[i] + q[j], ab = q[i + 1] + q[j + 1], ac = q[i + 2] + q[j + 2], ad = q[i + 3] + q[j + 3];
+		double b2 = q[i + 4] + q[j + 4], bc = q[i + 5] + q[j + 5], bd = q[i + 6] + q[j + 6];
+		double c2 = q[i + 7] + q[j + 7], cd = q[i + 8] + q[j + 8], d2 = q[i + 9] + q[j + 9];
+
+		double det = a2 * (b2 * c2 - bc * bc) - ab * (ab * c2 - bc * ac) + ac * (ab * bc - b2 * ac);
+		double trace = a2 + b2 + c2;
+		double x, y, z, error;
+
+		if (Math.abs(det) > 1e-12 * trace * trace * trace)
+		{
+			// solve the gradient of the quadric for zero using Cramer's rule
+			x = -(ad * (b2 * c2 - bc * bc) - ab * (bd * c2 - bc * cd) + ac * (bd * bc - b2 * cd)) / det;
+			y = -(a2 * (bd * c2 - cd * bc) - ad * (ab * c2 - bc * ac) + ac * (ab * cd - bd * ac)) / det;
+			z = -(a2 * (b2 * cd - bc * bd) - ab * (ab * cd - bd * ac) + ad * (ab * bc - b2 * ac)) / det;
+			error = error(a2, ab, ac, ad, b2, bc, bd, c2, cd, d2, x, y, z);
+		}
+		else
+		{
+			// the quadric is singular, e.g. on flat regions, pick the best of the end points and the midpoint
+			double[] p = mPositions;
+			x = p[3 * u];
+			y = p[3 * u + 1];
+			z = p[3 * u + 2];
+			error = error(a2, ab, ac, ad, b2, bc, bd, c2, cd, d2, x, y, z);
+
+			for (int k = 1; k <= 2; k++)
+			{
+				double s = k == 1 ? 1 : 0.5;
+				double tx = p[3 * u] + s * (p[3 * v] - p[3 * u]);
+				double ty = p[3 * u + 1] + s * (p[3 * v + 1] - p[3 * u + 1]);
+				double tz = p[3 * u + 2] + s * (p[3 * v + 2] - p[3 * u + 2]);
+				double te = error(a2, ab, ac, ad, b2, bc, bd, c2, cd, d2, tx, ty, tz);
+				if (te < error)
+				{
+					x = tx;
+					y = ty;
+					z = tz;
+					error = te;
+				}
+			}
+		}
+
+		mEdgeTargets[3 * e] = x;
+		mEdgeTargets[3 * e + 1] = y;
+		mEdgeTargets[3 * e + 2] = z;
+		mQueue.update(e, Math.max(0, error));
+	}
+
+
+	private static double error(double a2, double ab, double ac, double ad, double b2, double bc, double bd, double c2, double cd, double d2, double x, double y, double z)
+	{
+		return a2 * x * x + 2 * ab * x * y + 2 * ac * x * z + 2 * ad * x
+			+ b2 * y * y + 2 * bc * y * z + 2 * bd * y
+			+ c2 * z * z + 2 * cd * z
+			+ d2;
+	}
+
+
+	private void addPlane(int aVertex, double a, double b, double c, double d, double aWeight)
+	{
+		double[] q = mQuadrics;
+		int i = 10 * aVertex;
+
+		q[i] += aWeight * a * a;
+		q[i + 1] += aWeight * a * b;
+		q[i + 2] += aWeight * a * c;
+		q[i + 3] += aWeight * a * d;
+		q[i + 4] += aWeight * b * b;
+		q[i + 5] += aWeight * b * c;
+		q[i + 6] += aWeight * b * d;
+		q[i + 7] += aWeight * c * c;
+		q[i + 8] += aWeight * c * d;
+		q[i + 9] += aWeight * d * d;
+	}
+
+
+	/**
+	 * Adds a plane through a boundary edge perpendicular to its triangle to the quadrics of the edge vertices.
+	 */
+	private void addBoundaryPlane(int aTriangle, int a, int b)
+	{
+		double[] p = mPositions;
+		double[] normal = new double[3];
+		Plane.computeNormal(p, mIndices[3 * aTriangle], mIndices[3 * aTriangle + 1], mIndices[3 * aTriangle + 2], normal, 0);
+
+		double ex = p[3 * b] - p[3 * a];
+		double ey = p[3 * b + 1] - p[3 * a + 1];
+		double ez = p[3 * b + 2] - p[3 * a + 2];
+		double nx = ey * normal[2] - ez * normal[1];
+		double ny = ez * normal[0] - ex * normal[2];
+		double nz = ex * normal[1] - ey * normal[0];
+		double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+
+		if (length == 0)
+		{
+			return;
+		}
+
+		nx /= length;
+		ny /= length;
+		nz /= length;
+		double d = -(nx * p[3 * a] + ny * p[3 * a + 1] + nz * p[3 * a + 2]);
+		double weight = BOUNDARY_WEIGHT * (ex * ex + ey * ey + ez * ez);
+
+		addPlane(a, nx, ny, nz, d, weight);
+		addPlane(b, nx, ny, nz, d, weight);
+	}
+}
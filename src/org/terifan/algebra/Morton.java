@@ -0,0 +1,206 @@
+package org.terifan.algebra;
+
+import java.util.stream.IntStream;
+
+
+/**
+ * Morton (Z-order) codes for 2D and 3D integer coordinates. Bits of the coordinates are interleaved using magic-bit shifts and masks,
+ * 2D codes hold 32 bits per axis and 3D codes hold 21 bits per axis.
+ * <p>
+ * Sorting points by their Morton code, e.g. using {@link RadixSort}, places points close in space close in memory.
+ */
+public final class Morton
+{
+	/**
+	 * Maximum number of bits per axis of a 3D code.
+	 */
+	public final static int BITS_3D = 21;
+
+	/**
+	 * Maximum number of bits per axis of a 2D code.
+	 */
+	public final static int BITS_2D = 32;
+
+
+	private Morton()
+	{
+	}
+
+
+	/**
+	 * Returns the Morton code of a 2D coordinate. Coordinates are treated as unsigned 32 bit values.
+	 */
+	public static long encode(int aX, int aY)
+	{
+		return split2(aX) | (split2(aY) << 1);
+	}
+
+
+	public static long encode(Vec2i aVector)
+	{
+		return encode(aVector.x, aVector.y);
+	}
+
+
+	/**
+	 * Returns the Morton code of a 3D coordinate. Only the lower 21 bits of each coordinate are used.
+	 */
+	public static long encode(int aX, int aY, int aZ)
+	{
+		return split3(aX) | (split3(aY) << 1) | (split3(aZ) << 2);
+	}
+
+
+	public static long encode(Vec3i aVector)
+	{
+		return encode(aVector.x, aVector.y, aVector.z);
+	}
+
+
+	/**
+	 * Decodes a 2D Morton code.
+	 *
+	 * @return the Vec2i provided
+	 */
+	public static Vec2i decode(long aCode, Vec2i aOutput)
+	{
+		aOutput.x = compact2(aCode);
+		aOutput.y = compact2(aCode >>> 1);
+		return aOutput;
+	}
+
+
+	/**
+	 * Decodes a 3D Morton code.
+	 *
+	 * @return the Vec3i provided
+	 */
+	public static Vec3i decode(long aCode, Vec3i aOutput)
+	{
+		aOutput.x = compact3(aCode);
+		aOutput.y = compact3(aCode >>> 1);
+		aOutput.z = compact3(aCode >>> 2);
+		return aOutput;
+	}
+
+
+	/**
+	 * Quantizes a point inside a bounding box to an integer grid with {@code 2^aBits} cells along each axis. Points outside the box are
+	 * clamped to the nearest cell.
+	 *
+	 * @return the Vec3i provided
+	 */
+	public static Vec3i quantize(Vec3d aPoint, Vec3d aMin, Vec3d aMax, int aBits, Vec3i aOutput)
+	{
+		int max = (1 << aBits) - 1;
+
+		aOutput.x = quantize(aPoint.x, aMin.x, max / (aMax.x - aMin.x), max);
+		aOutput.y = quantize(aPoint.y, aMin.y, max / (aMax.y - aMin.y), max);
+		aOutput.z = quantize(aPoint.z, aMin.z, max / (aMax.z - aMin.z), max);
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Computes the 3D Morton codes of points stored as interleaved x, y and z coordinates. Points are quantized to a grid with
+	 * {@code 2^21} cells along each axis spanning the bounding box provided.
+	 *
+	 * @param aCoordinates interleaved x, y and z coordinates
+	 * @param aMin minimum corner of the bounding box
+	 * @param aMax maximum corner of the bounding box
+	 * @param aCodes an array with room for one code per point
+	 * @param aParallel true if codes should be computed in parallel
+	 * @return the array of codes provided
+	 */
+	public static long[] encode(double[] aCoordinates, Vec3d aMin, Vec3d aMax, long[] aCodes, boolean aParallel)
+	{
+		int max = (1 << BITS_3D) - 1;
+		double minX = aMin.x;
+		double minY = aMin.y;
+		double minZ = aMin.z;
+		double scaleX = max / (aMax.x - aMin.x);
+		double scaleY = max / (aMax.y - aMin.y);
+		double scaleZ = max / (aMax.z - aMin.z);
+
+		IntStream points = IntStream.range(0, aCoordinates.length / 3);
+
+		if (aParallel)
+		{
+			points = points.parallel();
+		}
+
+		points.forEach(i ->
+		{
+			int x = quantize(aCoordinates[3 * i], minX, scaleX, max);
+			int y = quantize(aCoordinates[3 * i + 1], minY, scaleY, max);
+			int z = quantize(aCoordinates[3 * i + 2], minZ, scaleZ, max);
+
+			aCodes[i] = encode(x, y, z);
+		});
+
+		return aCodes;
+	}
+
+
+	private static int quantize(double aValue, double aMin, double aScale, int aMax)
+	{
+		double v = (aValue - aMin) * aScale;
+
+		// NaN and degenerate boxes end up in the first cell
+		if (!(v > 0))
+		{
+			return 0;
+		}
+
+		return v >= aMax ? aMax : (int)v;
+	}
+
+
+	static long split2(int aValue)
+	{
+		long x = aValue & 0xffffffffL;
+		x = (x | x << 16) & 0x0000ffff0000ffffL;
+		x = (x | x << 8) & 0x00ff00ff00ff00ffL;
+		x = (x | x << 4) & 0x0f0f0f0f0f0f0f0fL;
+		x = (x | x << 2) & 0x3333333333333333L;
+		x = (x | x << 1) & 0x5555555555555555L;
+		return x;
+	}
+
+
+	static int compact2(long aValue)
+	{
+		long x = aValue & 0x5555555555555555L;
+		x = (x ^ (x >>> 1)) & 0x3333333333333333L;
+		x = (x ^ (x >>> 2)) & 0x0f0f0f0f0f0f0f0fL;
+		x = (x ^ (x >>> 4)) & 0x00ff00ff00ff00ffL;
+		x = (x ^ (x >>> 8)) & 0x0000ffff0000ffffL;
+		x = (x ^ (x >>> 16)) & 0x00000000ffffffffL;
+		return (int)x;
+	}
+
+
+	static long split3(int aValue)
+	{
+		long x = aValue & 0x1fffffL;
+		x = (x | x << 32) & 0x1f00000000ffffL;
+		x = (x | x << 16) & 0x1f0000ff0000ffL;
+		x = (x | x << 8) & 0x100f00f00f00f00fL;
+		x = (x | x << 4) & 0x10c30c30c30c30c3L;
+		x = (x | x << 2) & 0x1249249249249249L;
+		return x;
+	}
+
+
+	static int compact3(long aValue)
+	{
+		long x = aValue & 0x1249249249249249L;
+		x = (x ^ (x >>> 2)) & 0x10c30c30c30c30c3L;
+		x = (x ^ (x >>> 4)) & 0x100f00f00f00f00fL;
+		x = (x ^ (x >>> 8)) & 0x1f0000ff0000ffL;
+		x = (x ^ (x >>> 16)) & 0x1f00000000ffffL;
+		x = (x ^ (x >>> 32)) & 0x1fffffL;
+		return (int)x;
+	}
+}
@@ -0,0 +1,31 @@
+package org.terifan.algebra;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+
+/**
+ * Loop helper shared by the classes processing rows, tiles or chunks either sequentially or on the common fork join pool.
+ */
+final class Parallel
+{
+	private Parallel()
+	{
+	}
+
+
+	/**
+	 * Calls the consumer once for every index from 0 to aCount-1, concurrently and in no particular order if aParallel is true.
+	 */
+	static void forEach(int aCount, boolean aParallel, IntConsumer aConsumer)
+	{
+		IntStream range = IntStream.range(0, aCount);
+
+		if (aParallel)
+		{
+			range = range.parallel();
+		}
+
+		range.forEach(aConsumer);
+	}
+}
@@ -248,6 +248,38 @@ public class Plane implements Cloneable
 	}
 
 
+	/**
+	 * Computes a normal given three vertices in a triangle stored in an array of interleaved x, y and z coordinates. A degenerate triangle
+	 * has a zero normal.
+	 *
+	 * @param aPositions interleaved x, y and z coordinates
+	 * @param a index of the first vertex
+	 * @param b index of the second vertex
+	 * @param c index of the third vertex
+	 * @param aNormal array receiving the normal
+	 * @param aOffset offset in the normal array
+	 * @return twice the area of the triangle
+	 */
+	public static double computeNormal(double[] aPositions, int a, int b, int c, double[] aNormal, int aOffset)
+	{
+		double ax = aPositions[3 * a], ay = aPositions[3 * a + 1], az = aPositions[3 * a + 2];
+		double bx = aPositions[3 * b], by = aPositions[3 * b + 1], bz = aPositions[3 * b + 2];
+		double cx = aPositions[3 * c], cy = aPositions[3 * c + 1], cz = aPositions[3 * c + 2];
+
+		double nx = (cy - by) * (az - bz) - (cz - bz) * (ay - by);
+		double ny = (cz - bz) * (ax - bx) - (cx - bx) * (az - bz);
+		double nz = (cx - bx) * (ay - by) - (cy - by) * (ax - bx);
+		double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		double s = length > 0 ? 1.0 / length : 0;
+
+		aNormal[aOffset] = nx * s;
+		aNormal[aOffset + 1] = ny * s;
+		aNormal[aOffset + 2] = nz * s;
+
+		return length;
+	}
+
+
 	/**
 	 * Gets a description of this object.
 	 */
@@ -43,9 +43,20 @@ public final class Quaternion
 
 	public static Quaternion fromEuler(double aPitch, double aYaw, double aRoll)
 	{
-		Quaternion qx = new Quaternion(Math.cos(aPitch / 2), Math.sin(aPitch / 2), 0, 0);
-		Quaternion qy = new Quaternion(Math.cos(aYaw / 2), 0, Math.sin(aYaw / 2), 0);
-		Quaternion qz = new Quaternion(Math.cos(aRoll / 2), 0, 0, Math.sin(aRoll / 2));
+		return fromEuler(aPitch, aYaw, aRoll, false);
+	}
+
+
+	/**
+	 * Creates a quaternion from Euler angles.
+	 *
+	 * @param aFastMath true if the trigonometric functions should be approximated using FastMath
+	 */
+	public static Quaternion fromEuler(double aPitch, double aYaw, double aRoll, boolean aFastMath)
+	{
+		Quaternion qx = new Quaternion(FastMath.cos(aPitch / 2, aFastMath), FastMath.sin(aPitch / 2, aFastMath), 0, 0);
+		Quaternion qy = new Quaternion(FastMath.cos(aYaw / 2, aFastMath), 0, FastMath.sin(aYaw / 2, aFastMath), 0);
+		Quaternion qz = new Quaternion(FastMath.cos(aRoll / 2, aFastMath), 0, 0, FastMath.sin(aRoll / 2, aFastMath));
 		Quaternion qt = new Quaternion();
 		qt.set(qx);
 		qt.mul(qy);
@@ -198,6 +209,58 @@ public final class Quaternion
 	}
 
 
+	/**
+	 * Returns the W component, updating the components if the direction has changed.
+	 */
+	public double getW()
+	{
+		if (mUpdatedAngle)
+		{
+			init();
+		}
+		return w;
+	}
+
+
+	/**
+	 * Returns the X component, updating the components if the direction has changed.
+	 */
+	public double getX()
+	{
+		if (mUpdatedAngle)
+		{
+			init();
+		}
+		return x;
+	}
+
+
+	/**
+	 * Returns the Y component, updating the components if the direction has changed.
+	 */
+	public double getY()
+	{
+		if (mUpdatedAngle)
+		{
+			init();
+		}
+		return y;
+	}
+
+
+	/**
+	 * Returns the Z component, updating the components if the direction has changed.
+	 */
+	public double getZ()
+	{
+		if (mUpdatedAngle)
+		{
+			init();
+		}
+		return z;
+	}
+
+
 	/**
 	 * Transforms a single Vector.
 	 *
@@ -382,6 +445,17 @@ public final class Quaternion
 //		return pointToTarget.multiply(twist);
 //	}
 	public Quaternion lerp(Quaternion q1, Quaternion q2, float maxAngle)
+	{
+		return lerp(q1, q2, maxAngle, false);
+	}
+
+
+	/**
+	 * Rotates q1 towards q2 by at most maxAngle radians.
+	 *
+	 * @param aFastMath true if the trigonometric functions should be approximated using FastMath
+	 */
+	public Quaternion lerp(Quaternion q1, Quaternion q2, float maxAngle, boolean aFastMath)
 	{
 		if (maxAngle < 0.001f)
 		{
@@ -405,7 +479,7 @@ public final class Quaternion
 			cosTheta *= -1.0f;
 		}
 
-		double angle = Math.acos(cosTheta);
+		double angle = FastMath.acos(cosTheta, aFastMath);
 
 		// If there is only a 2&deg; difference, and we are allowed 5&deg;,
 		// then we arrived.
@@ -416,10 +490,10 @@ public final class Quaternion
 
 		double fT = maxAngle / angle;
 		angle = maxAngle;
-		Quaternion z1 = q1.mul(Math.sin((1.0f - fT) * angle));
-		Quaternion z2 = q2.mul(Math.sin(fT * angle));
+		Quaternion z1 = q1.mul(FastMath.sin((1.0f - fT) * angle, aFastMath));
+		Quaternion z2 = q2.mul(FastMath.sin(fT * angle, aFastMath));
 
-		return z1.add(z2).div(Math.sin(angle)).normalize();
+		return z1.add(z2).div(FastMath.sin(angle, aFastMath)).normalize();
 	}
 
 
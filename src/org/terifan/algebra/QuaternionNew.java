@@ -46,21 +46,77 @@ public class QuaternionNew
 	}
 
 
-	// https://github.com/xamarin/Urho3D/blob/master/Source/Urho3D/Math/Quaternion.cpp
+	public QuaternionNew set(double aX, double aY, double aZ, double aW)
+	{
+		x = aX;
+		y = aY;
+		z = aZ;
+		w = aW;
+
+		return this;
+	}
+
+
+	public QuaternionNew set(QuaternionNew aQuaternion)
+	{
+		x = aQuaternion.x;
+		y = aQuaternion.y;
+		z = aQuaternion.z;
+		w = aQuaternion.w;
+
+		return this;
+	}
+
+
+	/**
+	 * Sets this quaternion from four doubles in x, y, z, w order starting at the offset provided.
+	 */
+	public QuaternionNew set(double[] aArray, int aOffset)
+	{
+		x = aArray[aOffset];
+		y = aArray[aOffset + 1];
+		z = aArray[aOffset + 2];
+		w = aArray[aOffset + 3];
+
+		return this;
+	}
+
+
+	/**
+	 * Writes this quaternion as four doubles in x, y, z, w order starting at the offset provided.
+	 *
+	 * @return the array provided
+	 */
+	public double[] toArray(double[] aArray, int aOffset)
+	{
+		aArray[aOffset] = x;
+		aArray[aOffset + 1] = y;
+		aArray[aOffset + 2] = z;
+		aArray[aOffset + 3] = w;
+
+		return aArray;
+	}
+
+
 	public static QuaternionNew createFromRotationMatrix(Mat3d aMatrix)
 	{
-		QuaternionNew q = new QuaternionNew();
+		return new QuaternionNew().setFromRotationMatrix(aMatrix);
+	}
+
 
+	// https://github.com/xamarin/Urho3D/blob/master/Source/Urho3D/Math/Quaternion.cpp
+	public QuaternionNew setFromRotationMatrix(Mat3d aMatrix)
+	{
 		double t = aMatrix.m00 + aMatrix.m11 + aMatrix.m22;
 
 		if (t > 0.0)
 		{
 			double invS = 0.5 / Math.sqrt(1.0 + t);
 
-			q.x = (aMatrix.m12 - aMatrix.m21) * invS;
-			q.y = (aMatrix.m20 - aMatrix.m02) * invS;
-			q.z = (aMatrix.m01 - aMatrix.m10) * invS;
-			q.w = 0.25 / invS;
+			x = (aMatrix.m12 - aMatrix.m21) * invS;
+			y = (aMatrix.m20 - aMatrix.m02) * invS;
+			z = (aMatrix.m01 - aMatrix.m10) * invS;
+			w = 0.25 / invS;
 		}
 		else
 		{
@@ -68,32 +124,32 @@ public class QuaternionNew
 			{
 				double invS = 0.5 / Math.sqrt(1.0 + aMatrix.m00 - aMatrix.m11 - aMatrix.m22);
 
-				q.x = 0.25 / invS;
-				q.y = (aMatrix.m10 + aMatrix.m01) * invS;
-				q.z = (aMatrix.m02 + aMatrix.m20) * invS;
-				q.w = (aMatrix.m12 - aMatrix.m21) * invS;
+				x = 0.25 / invS;
+				y = (aMatrix.m10 + aMatrix.m01) * invS;
+				z = (aMatrix.m02 + aMatrix.m20) * invS;
+				w = (aMatrix.m12 - aMatrix.m21) * invS;
 			}
 			else if (aMatrix.m11 > aMatrix.m22)
 			{
 				double invS = 0.5 / Math.sqrt(1.0 + aMatrix.m11 - aMatrix.m00 - aMatrix.m22);
 
-				q.x = (aMatrix.m10 + aMatrix.m01) * invS;
-				q.y = 0.25 / invS;
-				q.z = (aMatrix.m21 + aMatrix.m12) * invS;
-				q.w = (aMatrix.m20 - aMatrix.m02) * invS;
+				x = (aMatrix.m10 + aMatrix.m01) * invS;
+				y = 0.25 / invS;
+				z = (aMatrix.m21 + aMatrix.m12) * invS;
+				w = (aMatrix.m20 - aMatrix.m02) * invS;
 			}
 			else
 			{
 				double invS = 0.5 / Math.sqrt(1.0 + aMatrix.m22 - aMatrix.m00 - aMatrix.m11);
 
-				q.x = (aMatrix.m20 + aMatrix.m02) * invS;
-				q.y = (aMatrix.m21 + aMatrix.m12) * invS;
-				q.z = 0.25 / invS;
-				q.w = (aMatrix.m01 - aMatrix.m10) * invS;
+				x = (aMatrix.m20 + aMatrix.m02) * invS;
+				y = (aMatrix.m21 + aMatrix.m12) * invS;
+				z = 0.25 / invS;
+				w = (aMatrix.m01 - aMatrix.m10) * invS;
 			}
 		}
 
-		return q;
+		return this;
 	}
 
 
@@ -104,6 +160,18 @@ public class QuaternionNew
 	 * @return the provided vector
 	 */
 	public Vec3d transform(Vec3d aVector)
+	{
+		return transform(aVector, aVector);
+	}
+
+
+	/**
+	 * Same as {@link #transform(Vec3d)}.
+	 *
+	 * @param aOutput the vector receiving the result, may be the vector transformed
+	 * @return the vector provided as output
+	 */
+	public Vec3d transform(Vec3d aVector, Vec3d aOutput)
 	{
 		double cx = 2 * x;
 		double cy = 2 * y;
@@ -113,15 +181,26 @@ public class QuaternionNew
 		double ccy = z * aVector.x - x * aVector.z + aVector.y * w;
 		double ccz = x * aVector.y - y * aVector.x + aVector.z * w;
 
-		aVector.x += cy * ccz - cz * ccy;
-		aVector.y += cz * ccx - cx * ccz;
-		aVector.z += cx * ccy - cy * ccx;
-
-		return aVector;
+		return aOutput.set(
+			aVector.x + cy * ccz - cz * ccy,
+			aVector.y + cz * ccx - cx * ccz,
+			aVector.z + cx * ccy - cy * ccx);
 	}
 
 
 	public QuaternionNew multiply(QuaternionNew aQuaternion)
+	{
+		return multiply(aQuaternion, this);
+	}
+
+
+	/**
+	 * Computes this * aQuaternion.
+	 *
+	 * @param aOutput the quaternion receiving the result, may be either of the quaternions multiplied
+	 * @return the quaternion provided as output
+	 */
+	public QuaternionNew multiply(QuaternionNew aQuaternion, QuaternionNew aOutput)
 	{
 		double tw = aQuaternion.w;
 		double tx = aQuaternion.x;
@@ -133,12 +212,7 @@ public class QuaternionNew
 		double ry = w * ty + y * tw + z * tx - x * tz;
 		double rz = w * tz + z * tw + x * ty - y * tx;
 
-		w = rw;
-		x = rx;
-		y = ry;
-		z = rz;
-
-		return this;
+		return aOutput.set(rx, ry, rz, rw);
 	}
 
 
@@ -187,14 +261,26 @@ public class QuaternionNew
 
 
 	public QuaternionNew normalize()
+	{
+		return normalize(this);
+	}
+
+
+	/**
+	 * Same as {@link #normalize()}.
+	 *
+	 * @param aOutput the quaternion receiving the result, may be this quaternion
+	 * @return the quaternion provided
+	 */
+	public QuaternionNew normalize(QuaternionNew aOutput)
 	{
 		double sqrt = Math.sqrt(dot(this));
-		if (sqrt != 0)
+		if (sqrt == 0)
 		{
-			div(sqrt);
+			return aOutput.set(this);
 		}
 
-		return this;
+		return aOutput.set(x / sqrt, y / sqrt, z / sqrt, w / sqrt);
 	}
 
 
@@ -210,6 +296,12 @@ public class QuaternionNew
 	}
 
 
+	public Vec3d getVectorPart(Vec3d aOutput)
+	{
+		return aOutput.set(x, y, z);
+	}
+
+
 	/**
 	 * Flips the sign of each component of the quaternion.
 	 */
@@ -226,11 +318,45 @@ public class QuaternionNew
 
 	public QuaternionNew conjugate()
 	{
-		x = -x;
-		y = -y;
-		z = -z;
+		return conjugate(this);
+	}
 
-		return this;
+
+	/**
+	 * Same as {@link #conjugate()}.
+	 *
+	 * @param aOutput the quaternion receiving the result, may be this quaternion
+	 * @return the quaternion provided
+	 */
+	public QuaternionNew conjugate(QuaternionNew aOutput)
+	{
+		return aOutput.set(-x, -y, -z, w);
+	}
+
+
+	public QuaternionNew invert()
+	{
+		return invert(this);
+	}
+
+
+	/**
+	 * Computes the inverse of this quaternion, its conjugate divided by its squared length.
+	 *
+	 * @param aOutput the quaternion receiving the result, may be this quaternion
+	 * @return the quaternion provided
+	 */
+	public QuaternionNew invert(QuaternionNew aOutput)
+	{
+		double sqrLength = dot(this);
+		if (sqrLength == 0)
+		{
+			return aOutput.set(0, 0, 0, 0);
+		}
+
+		double scale = 1 / sqrLength;
+
+		return aOutput.set(-x * scale, -y * scale, -z * scale, w * scale);
 	}
 
 
@@ -245,19 +371,42 @@ public class QuaternionNew
 
 
 	public QuaternionNew log()
+	{
+		return log(new QuaternionNew());
+	}
+
+
+	/**
+	 * Computes the logarithm of this quaternion.
+	 *
+	 * @param aOutput the quaternion receiving the result, may be this quaternion
+	 * @return the quaternion provided
+	 */
+	public QuaternionNew log(QuaternionNew aOutput)
+	{
+		return log(aOutput, false);
+	}
+
+
+	/**
+	 * Same as {@link #log(QuaternionNew)}.
+	 *
+	 * @param aFastMath true if the logarithm and trigonometric functions should be approximated using FastMath
+	 */
+	public QuaternionNew log(QuaternionNew aOutput, boolean aFastMath)
 	{
 		double exp_w = Math.sqrt(dot(this));
-		double w = Math.log(exp_w);
-		double a = Math.acos(w / exp_w);
+		double w = FastMath.log(exp_w, aFastMath);
+		double a = FastMath.acos(w / exp_w, aFastMath);
 
 		if (Math.abs(a) < 0.00001)
 		{
-			return new QuaternionNew(0, 0, 0, w);
+			return aOutput.set(0, 0, 0, w);
 		}
 
-		double mag = 1 / exp_w / Math.sin(a); // sinc???
+		double mag = 1 / exp_w / FastMath.sin(a, aFastMath); // sinc???
 
-		return new QuaternionNew(x * mag, y * mag, z * mag, w);
+		return aOutput.set(x * mag, y * mag, z * mag, w);
 	}
 
 
@@ -288,50 +437,87 @@ public class QuaternionNew
 
 
 	public static QuaternionNew createFromAxisAngle(Vec3d aAxis, double aAngle)
+	{
+		return new QuaternionNew().setFromAxisAngle(aAxis, aAngle);
+	}
+
+
+	public QuaternionNew setFromAxisAngle(Vec3d aAxis, double aAngle)
 	{
 		double halfAngle = aAngle * 0.5;
 		double s = Math.sin(halfAngle);
-		QuaternionNew q = new QuaternionNew();
-		q.x = aAxis.x * s;
-		q.y = aAxis.y * s;
-		q.z = aAxis.z * s;
-		q.w = Math.cos(halfAngle);
-		return q;
+		x = aAxis.x * s;
+		y = aAxis.y * s;
+		z = aAxis.z * s;
+		w = Math.cos(halfAngle);
+		return this;
 	}
 
 
 	public Vec3d toEulerAngle()
 	{
-		Vec3d result = new Vec3d();
+		return toEulerAngle(new Vec3d());
+	}
+
 
+	public Vec3d toEulerAngle(Vec3d aOutput)
+	{
 		// roll (x-axis rotation)
 		double sinr = +2.0 * (w * x + y * z);
 		double cosr = +1.0 - 2.0 * (x * x + y * y);
-		result.x = Math.atan2(sinr, cosr);
+		aOutput.x = Math.atan2(sinr, cosr);
 
 		// pitch (y-axis rotation)
 		double sinp = +2.0 * (w * y - z * x);
 		if (Math.abs(sinp) >= 1)
 		{
-			result.y = sinp < 0 ? -Math.PI / 2 : Math.PI / 2; // use 90 degrees if out of range
+			aOutput.y = sinp < 0 ? -Math.PI / 2 : Math.PI / 2; // use 90 degrees if out of range
 		}
 		else
 		{
-			result.y = Math.asin(sinp);
+			aOutput.y = Math.asin(sinp);
 		}
 
 		// yaw (z-axis rotation)
 		double siny = +2.0 * (w * z + x * y);
 		double cosy = +1.0 - 2.0 * (y * y + z * z);
-		result.z = Math.atan2(siny, cosy);
+		aOutput.z = Math.atan2(siny, cosy);
 
-		return result;
+		return aOutput;
 	}
 
 
+	/**
+	 * Rotates a vector in place by this quaternion, v + 2q x (q x v + w v).
+	 *
+	 * @return the vector provided
+	 */
 	public Vec3d rotate(Vec3d v)
 	{
-		return v.add(new Vec3d(x, y, z).multiply(2).cross(new Vec3d(x, y, z).cross(v).add(v.clone().multiply(w))));
+		return rotate(v, v);
+	}
+
+
+	/**
+	 * Same as {@link #rotate(Vec3d)}.
+	 *
+	 * @param aOutput the vector receiving the result, may be the vector rotated
+	 * @return the vector provided as output
+	 */
+	public Vec3d rotate(Vec3d v, Vec3d aOutput)
+	{
+		double cx = y * v.z - z * v.y + v.x * w;
+		double cy = z * v.x - x * v.z + v.y * w;
+		double cz = x * v.y - y * v.x + v.z * w;
+
+		double x2 = x * 2;
+		double y2 = y * 2;
+		double z2 = z * 2;
+
+		return aOutput.set(
+			v.x + y2 * cz - z2 * cy,
+			v.y + z2 * cx - x2 * cz,
+			v.z + x2 * cy - y2 * cx);
 	}
 
 
@@ -0,0 +1,418 @@
+package org.terifan.algebra;
+
+import javax.vecmath.Quat4f;
+
+
+/**
+ * Quaternion implementation used to rotate points in 3D-space.
+ * <p>
+ * Single precision counterpart of {@link QuaternionNew} with the same methods.
+ */
+public class Quaternionf
+{
+	float x, y, z, w;
+
+
+	public Quaternionf()
+	{
+	}
+
+
+	/**
+	 * from Euler (roll, pitch, yaw)
+	 */
+	public Quaternionf(Vec3f aDirection)
+	{
+		float tx = (float)Math.PI * aDirection.x;
+		float ty = (float)Math.PI * aDirection.y;
+		float tz = (float)Math.PI * aDirection.z;
+
+		float cx = (float)Math.cos(tx);
+		float sx = (float)Math.sin(tx);
+		float cy = (float)Math.cos(ty);
+		float sy = (float)Math.sin(ty);
+		float cz = (float)Math.cos(tz);
+		float sz = (float)Math.sin(tz);
+
+		x = cz * sx * cy - sz * cx * sy;
+		y = cz * cx * sy + sz * sx * cy;
+		z = sz * cx * cy + cz * sx * sy;
+		w = cz * cx * cy - sz * sx * sy;
+	}
+
+
+	public Quaternionf(float aX, float aY, float aZ, float aW)
+	{
+		x = aX;
+		y = aY;
+		z = aZ;
+		w = aW;
+	}
+
+
+	public Quaternionf(QuaternionNew aQuaternion)
+	{
+		set(aQuaternion);
+	}
+
+
+	public Quaternionf(Quat4f aQuaternion)
+	{
+		set(aQuaternion);
+	}
+
+
+	/**
+	 * Sets this quaternion from a double precision quaternion.
+	 */
+	public Quaternionf set(QuaternionNew aQuaternion)
+	{
+		x = (float)aQuaternion.x;
+		y = (float)aQuaternion.y;
+		z = (float)aQuaternion.z;
+		w = (float)aQuaternion.w;
+
+		return this;
+	}
+
+
+	/**
+	 * Sets this quaternion from a javax.vecmath quaternion.
+	 */
+	public Quaternionf set(Quat4f aQuaternion)
+	{
+		x = aQuaternion.x;
+		y = aQuaternion.y;
+		z = aQuaternion.z;
+		w = aQuaternion.w;
+
+		return this;
+	}
+
+
+	/**
+	 * Returns a double precision copy of this quaternion.
+	 */
+	public QuaternionNew toQuaternionNew()
+	{
+		return new QuaternionNew(x, y, z, w);
+	}
+
+
+	/**
+	 * Returns this quaternion as a javax.vecmath quaternion. The components are copied as is, without the normalization done by the
+	 * Quat4f constructor.
+	 */
+	public Quat4f toQuat4f()
+	{
+		Quat4f q = new Quat4f();
+		q.x = x;
+		q.y = y;
+		q.z = z;
+		q.w = w;
+		return q;
+	}
+
+
+	// https://github.com/xamarin/Urho3D/blob/master/Source/Urho3D/Math/Quaternion.cpp
+	public static Quaternionf createFromRotationMatrix(Mat3f aMatrix)
+	{
+		Quaternionf q = new Quaternionf();
+
+		float t = aMatrix.m00 + aMatrix.m11 + aMatrix.m22;
+
+		if (t > 0.0f)
+		{
+			float invS = 0.5f / (float)Math.sqrt(1.0f + t);
+
+			q.x = (aMatrix.m12 - aMatrix.m21) * invS;
+			q.y = (aMatrix.m20 - aMatrix.m02) * invS;
+			q.z = (aMatrix.m01 - aMatrix.m10) * invS;
+			q.w = 0.25f / invS;
+		}
+		else
+		{
+			if (aMatrix.m00 > aMatrix.m11 && aMatrix.m00 > aMatrix.m22)
+			{
+				float invS = 0.5f / (float)Math.sqrt(1.0f + aMatrix.m00 - aMatrix.m11 - aMatrix.m22);
+
+				q.x = 0.25f / invS;
+				q.y = (aMatrix.m10 + aMatrix.m01) * invS;
+				q.z = (aMatrix.m02 + aMatrix.m20) * invS;
+				q.w = (aMatrix.m12 - aMatrix.m21) * invS;
+			}
+			else if (aMatrix.m11 > aMatrix.m22)
+			{
+				float invS = 0.5f / (float)Math.sqrt(1.0f + aMatrix.m11 - aMatrix.m00 - aMatrix.m22);
+
+				q.x = (aMatrix.m10 + aMatrix.m01) * invS;
+				q.y = 0.25f / invS;
+				q.z = (aMatrix.m21 + aMatrix.m12) * invS;
+				q.w = (aMatrix.m20 - aMatrix.m02) * invS;
+			}
+			else
+			{
+				float invS = 0.5f / (float)Math.sqrt(1.0f + aMatrix.m22 - aMatrix.m00 - aMatrix.m11);
+
+				q.x = (aMatrix.m20 + aMatrix.m02) * invS;
+				q.y = (aMatrix.m21 + aMatrix.m12) * invS;
+				q.z = 0.25f / invS;
+				q.w = (aMatrix.m01 - aMatrix.m10) * invS;
+			}
+		}
+
+		return q;
+	}
+
+
+	/**
+	 * Transforms a single Vector.
+	 *
+	 * @param aVector the vector to transform
+	 * @return the provided vector
+	 */
+	public Vec3f transform(Vec3f aVector)
+	{
+		float cx = 2 * x;
+		float cy = 2 * y;
+		float cz = 2 * z;
+
+		float ccx = y * aVector.z - z * aVector.y + aVector.x * w;
+		float ccy = z * aVector.x - x * aVector.z + aVector.y * w;
+		float ccz = x * aVector.y - y * aVector.x + aVector.z * w;
+
+		aVector.x += cy * ccz - cz * ccy;
+		aVector.y += cz * ccx - cx * ccz;
+		aVector.z += cx * ccy - cy * ccx;
+
+		return aVector;
+	}
+
+
+	public Quaternionf multiply(Quaternionf aQuaternion)
+	{
+		float tw = aQuaternion.w;
+		float tx = aQuaternion.x;
+		float ty = aQuaternion.y;
+		float tz = aQuaternion.z;
+
+		float rw = w * tw - x * tx - y * ty - z * tz;
+		float rx = w * tx + x * tw + y * tz - z * ty;
+		float ry = w * ty + y * tw + z * tx - x * tz;
+		float rz = w * tz + z * tw + x * ty - y * tx;
+
+		w = rw;
+		x = rx;
+		y = ry;
+		z = rz;
+
+		return this;
+	}
+
+
+	public Quaternionf multiply(float aScalar)
+	{
+		w *= aScalar;
+		x *= aScalar;
+		y *= aScalar;
+		z *= aScalar;
+
+		return this;
+	}
+
+
+	public Quaternionf add(Quaternionf q)
+	{
+		w += q.w;
+		x += q.x;
+		y += q.y;
+		z += q.z;
+
+		return this;
+	}
+
+
+	public Quaternionf subtract(Quaternionf q)
+	{
+		w -= q.w;
+		x -= q.x;
+		y -= q.y;
+		z -= q.z;
+
+		return this;
+	}
+
+
+	public Quaternionf div(float aScalar)
+	{
+		w /= aScalar;
+		x /= aScalar;
+		y /= aScalar;
+		z /= aScalar;
+
+		return this;
+	}
+
+
+	public Quaternionf normalize()
+	{
+		float sqrt = (float)Math.sqrt(dot(this));
+		if (sqrt != 0)
+		{
+			div(sqrt);
+		}
+
+		return this;
+	}
+
+
+	public float dot(Quaternionf q)
+	{
+		return x * q.x + y * q.y + z * q.z + w * q.w;
+	}
+
+
+	public Vec3f getVectorPart()
+	{
+		return new Vec3f(x, y, z);
+	}
+
+
+	/**
+	 * Flips the sign of each component of the quaternion.
+	 */
+	public Quaternionf negate()
+	{
+		x = -x;
+		y = -y;
+		z = -z;
+		w = -w;
+
+		return this;
+	}
+
+
+	public Quaternionf conjugate()
+	{
+		x = -x;
+		y = -y;
+		z = -z;
+
+		return this;
+	}
+
+
+	public Quaternionf identity()
+	{
+		x = 0;
+		y = 0;
+		z = 0;
+		w = 1;
+		return this;
+	}
+
+
+	public Quaternionf log()
+	{
+		float exp_w = (float)Math.sqrt(dot(this));
+		float w = (float)Math.log(exp_w);
+		float a = (float)Math.acos(w / exp_w);
+
+		if (Math.abs(a) < 0.00001f)
+		{
+			return new Quaternionf(0, 0, 0, w);
+		}
+
+		float mag = 1 / exp_w / (float)Math.sin(a); // sinc???
+
+		return new Quaternionf(x * mag, y * mag, z * mag, w);
+	}
+
+
+	public static Quaternionf lookAt(Vec3f aSourcePoint, Vec3f aDestPoint)
+	{
+		Vec3f forwardVector = aDestPoint.clone().subtract(aSourcePoint).normalize();
+
+		Vec3f forward = new Vec3f(1, 0, 0);
+		Vec3f up = new Vec3f(0, 1, 0);
+
+		float dot = forwardVector.dot(forward);
+
+		if (Math.abs(dot - (-1.0f)) < 0.000001f)
+		{
+			return new Quaternionf(up.y, up.z, (float)Math.PI, up.x);
+		}
+		if (Math.abs(dot - (1.0f)) < 0.000001f)
+		{
+			return new Quaternionf().identity();
+		}
+
+		float rotAngle = (float)Math.acos(dot);
+		Vec3f rotAxis = forward.cross(forwardVector);
+		rotAxis = rotAxis.normalize();
+
+		return createFromAxisAngle(rotAxis, rotAngle);
+	}
+
+
+	public static Quaternionf createFromAxisAngle(Vec3f aAxis, float aAngle)
+	{
+		float halfAngle = aAngle * 0.5f;
+		float s = (float)Math.sin(halfAngle);
+		Quaternionf q = new Quaternionf();
+		q.x = aAxis.x * s;
+		q.y = aAxis.y * s;
+		q.z = aAxis.z * s;
+		q.w = (float)Math.cos(halfAngle);
+		return q;
+	}
+
+
+	public Vec3f toEulerAngle()
+	{
+		Vec3f result = new Vec3f();
+
+		// roll (x-axis rotation)
+		float sinr = +2.0f * (w * x + y * z);
+		float cosr = +1.0f - 2.0f * (x * x + y * y);
+		result.x = (float)Math.atan2(sinr, cosr);
+
+		// pitch (y-axis rotation)
+		float sinp = +2.0f * (w * y - z * x);
+		if (Math.abs(sinp) >= 1)
+		{
+			result.y = sinp < 0 ? -(float)Math.PI / 2 : (float)Math.PI / 2; // use 90 degrees if out of range
+		}
+		else
+		{
+			result.y = (float)Math.asin(sinp);
+		}
+
+		// yaw (z-axis rotation)
+		float siny = +2.0f * (w * z + x * y);
+		float cosy = +1.0f - 2.0f * (y * y + z * z);
+		result.z = (float)Math.atan2(siny, cosy);
+
+		return result;
+	}
+
+
+	public Vec3f rotate(Vec3f v)
+	{
+		return v.add(new Vec3f(x, y, z).scale(2).cross(new Vec3f(x, y, z).cross(v).add(v.clone().scale(w))));
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return "{x=" + x + ", y=" + y + ", z=" + z + ", w=" + w + "}";
+	}
+
+
+	@Override
+	public Quaternionf clone()
+	{
+		return new Quaternionf(x, y, z, w);
+	}
+}
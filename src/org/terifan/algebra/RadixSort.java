@@ -0,0 +1,148 @@
+package org.terifan.algebra;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+
+/**
+ * Stable least significant digit radix sort of long keys, such as Morton or Hilbert codes, producing the permutation of the original
+ * indices. Keys are compared as unsigned values.
+ * <p>
+ * The parallel sort splits the keys in one slice per thread. Each pass computes digit histograms for the slices in parallel, derives the
+ * output offsets of each slice and then scatters the slices in parallel, keeping the sort stable.
+ */
+public final class RadixSort
+{
+	private final static int DIGIT_BITS = 8;
+	private final static int BUCKETS = 1 << DIGIT_BITS;
+	private final static int PARALLEL_THRESHOLD = 1 << 16;
+
+
+	private RadixSort()
+	{
+	}
+
+
+	/**
+	 * Sorts the keys in place.
+	 *
+	 * @param aKeys keys to sort
+	 * @param aPermutation an array receiving the original index of each sorted key, or null
+	 * @param aKeyBits number of significant low bits in the keys, e.g. 63 for 3D Morton codes
+	 * @param aParallel true if the sort should run in parallel
+	 * @return the permutation array provided
+	 */
+	public static int[] sort(long[] aKeys, int[] aPermutation, int aKeyBits, boolean aParallel)
+	{
+		int n = aKeys.length;
+
+		if (aPermutation != null)
+		{
+			if (aPermutation.length < n)
+			{
+				throw new IllegalArgumentException("Permutation array too small, required " + n + ", found " + aPermutation.length);
+			}
+			for (int i = 0; i < n; i++)
+			{
+				aPermutation[i] = i;
+			}
+		}
+
+		int slices = aParallel && n >= PARALLEL_THRESHOLD ? ForkJoinPool.commonPool().getParallelism() : 1;
+
+		long[] keys = aKeys;
+		long[] keysTemp = new long[n];
+		int[] perm = aPermutation;
+		int[] permTemp = aPermutation == null ? null : new int[n];
+		int[][] counts = new int[slices][BUCKETS];
+
+		for (int shift = 0; shift < aKeyBits; shift += DIGIT_BITS)
+		{
+			if (!pass(keys, keysTemp, perm, permTemp, counts, shift, slices, n))
+			{
+				continue;
+			}
+
+			long[] t = keys;
+			keys = keysTemp;
+			keysTemp = t;
+
+			int[] p = perm;
+			perm = permTemp;
+			permTemp = p;
+		}
+
+		if (keys != aKeys)
+		{
+			System.arraycopy(keys, 0, aKeys, 0, n);
+			if (aPermutation != null)
+			{
+				System.arraycopy(perm, 0, aPermutation, 0, n);
+			}
+		}
+
+		return aPermutation;
+	}
+
+
+	/**
+	 * Performs one pass.
+	 *
+	 * @return false if the pass was skipped because all keys share the same digit
+	 */
+	private static boolean pass(long[] aKeys, long[] aKeysOut, int[] aPerm, int[] aPermOut, int[][] aCounts, int aShift, int aSlices, int n)
+	{
+		IntStream.range(0, aSlices).parallel().forEach(s ->
+		{
+			int[] count = aCounts[s];
+			Arrays.fill(count, 0);
+
+			for (int i = start(s, aSlices, n), end = start(s + 1, aSlices, n); i < end; i++)
+			{
+				count[(int)(aKeys[i] >>> aShift) & (BUCKETS - 1)]++;
+			}
+		});
+
+		// convert counts to output offsets, digit major and slice minor to keep the sort stable
+		int offset = 0;
+		for (int d = 0; d < BUCKETS; d++)
+		{
+			for (int s = 0; s < aSlices; s++)
+			{
+				int c = aCounts[s][d];
+
+				if (c == n)
+				{
+					return false;
+				}
+
+				aCounts[s][d] = offset;
+				offset += c;
+			}
+		}
+
+		IntStream.range(0, aSlices).parallel().forEach(s ->
+		{
+			int[] offsets = aCounts[s];
+
+			for (int i = start(s, aSlices, n), end = start(s + 1, aSlices, n); i < end; i++)
+			{
+				int j = offsets[(int)(aKeys[i] >>> aShift) & (BUCKETS - 1)]++;
+				aKeysOut[j] = aKeys[i];
+				if (aPerm != null)
+				{
+					aPermOut[j] = aPerm[i];
+				}
+			}
+		});
+
+		return true;
+	}
+
+
+	private static int start(int aSlice, int aSlices, int n)
+	{
+		return (int)((long)n * aSlice / aSlices);
+	}
+}
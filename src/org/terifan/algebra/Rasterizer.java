@@ -0,0 +1,706 @@
+package org.terifan.algebra;
+
+import java.util.Arrays;
+
+
+/**
+ * Software triangle rasterizer rendering indexed meshes into an ARGB color buffer and a float depth buffer.
+ * <p>
+ * Vertices are transformed to clip space by a model-view-projection matrix using the same convention as
+ * {@link Mat4d#createPerspectiveProjectionMatrix(double, double, double, double)}, triangles are clipped against the view frustum in
+ * homogeneous coordinates and snapped to a fixed point grid with 1/16 pixel precision. Screen space triangles are binned into tiles of
+ * 64x64 pixels which are rasterized in parallel, each tile walking 8x8 pixel blocks that are rejected, filled or tested per pixel using
+ * half-space edge functions with a top-left fill rule. Triangles are drawn in submission order within each tile so the result doesn't
+ * depend on the number of threads.
+ * <p>
+ * Depth values are the normalized device z coordinate mapped to 0..1 and a fragment is drawn if it's closer than the stored depth.
+ * Vertex attributes are interpolated perspective correct and passed to a {@link FragmentShader}, which must be thread safe when
+ * rendering in parallel.
+ */
+public class Rasterizer
+{
+	private final static int SUBPIXEL_BITS = 4;
+	private final static int SUBPIXEL_SCALE = 1 << SUBPIXEL_BITS;
+	private final static int TILE_SHIFT = 6;
+	private final static int TILE_SIZE = 1 << TILE_SHIFT;
+	private final static int BLOCK_SIZE = 8;
+	private final static int CHUNK_SIZE = 4096;
+	private final static int MAX_ATTRIBUTES = 16;
+
+	// clip planes as coefficients of x, y and z added to w, in the order of the VertexProjector outcode flags
+	private final static int[][] CLIP_PLANES =
+	{
+		{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}
+	};
+
+	private final int mWidth;
+	private final int mHeight;
+	private final int mTilesX;
+	private final int mTilesY;
+	private final int[] mColorBuffer;
+	private final float[] mDepthBuffer;
+	private boolean mBackfaceCulling;
+
+	// screen space triangles: fixed point coordinates and source triangle index, and depth, 1/w and attributes divided by w per vertex
+	private int[] mTriangleInts;
+	private float[] mTriangleFloats;
+	private int[] mTileStart;
+	private int[] mTileTriangles;
+
+
+	/**
+	 * Fragment shader computing the color of a pixel.
+	 */
+	public interface FragmentShader
+	{
+		/**
+		 * Returns the ARGB color of a pixel.
+		 *
+		 * @param aX horizontal pixel position
+		 * @param aY vertical pixel position
+		 * @param aTriangle index of the triangle in the index array, divided by three
+		 * @param aAttributes interpolated vertex attributes, the array is reused for the next pixel
+		 */
+		int shade(int aX, int aY, int aTriangle, float[] aAttributes);
+	}
+
+
+	public Rasterizer(int aWidth, int aHeight)
+	{
+		if (aWidth < 1 || aWidth > (1 << 14))
+		{
+			throw new IllegalArgumentException("aWidth out of bounds: " + aWidth);
+		}
+		if (aHeight < 1 || aHeight > (1 << 14))
+		{
+			throw new IllegalArgumentException("aHeight out of bounds: " + aHeight);
+		}
+
+		mWidth = aWidth;
+		mHeight = aHeight;
+		mTilesX = (aWidth + TILE_SIZE - 1) >> TILE_SHIFT;
+		mTilesY = (aHeight + TILE_SIZE - 1) >> TILE_SHIFT;
+		mColorBuffer = new int[aWidth * aHeight];
+		mDepthBuffer = new float[aWidth * aHeight];
+		mTriangleInts = new int[0];
+		mTriangleFloats = new float[0];
+		mTileStart = new int[mTilesX * mTilesY + 1];
+		mTileTriangles = new int[0];
+
+		clear(0xff000000, 1f);
+	}
+
+
+	public int getWidth()
+	{
+		return mWidth;
+	}
+
+
+	public int getHeight()
+	{
+		return mHeight;
+	}
+
+
+	/**
+	 * Returns the color buffer, one ARGB value per pixel stored row by row.
+	 */
+	public int[] getColorBuffer()
+	{
+		return mColorBuffer;
+	}
+
+
+	/**
+	 * Returns the depth buffer, one value per pixel stored row by row.
+	 */
+	public float[] getDepthBuffer()
+	{
+		return mDepthBuffer;
+	}
+
+
+	/**
+	 * Enables culling of triangles facing away from the viewer. Triangles with counter-clockwise vertices in normalized device
+	 * coordinates face the viewer.
+	 *
+	 * @return this rasterizer
+	 */
+	public Rasterizer setBackfaceCulling(boolean aBackfaceCulling)
+	{
+		mBackfaceCulling = aBackfaceCulling;
+		return this;
+	}
+
+
+	public boolean isBackfaceCulling()
+	{
+		return mBackfaceCulling;
+	}
+
+
+	/**
+	 * Fills the color and depth buffers.
+	 *
+	 * @return this rasterizer
+	 */
+	public Rasterizer clear(int aColor, float aDepth)
+	{
+		Arrays.fill(mColorBuffer, aColor);
+		Arrays.fill(mDepthBuffer, aDepth);
+		return this;
+	}
+
+
+	/**
+	 * Draws an indexed triangle mesh.
+	 *
+	 * @param aMatrix the model-view-projection matrix transforming positions to clip space
+	 * @param aPositions interleaved x, y and z coordinates
+	 * @param aIndices three vertex indices per triangle
+	 * @param aAttributes vertex attributes interleaved with aAttributeCount values per vertex, or null
+	 * @param aAttributeCount number of attributes per vertex, at most 16
+	 * @param aShader computes the color of each pixel drawn, or null to only update the depth buffer
+	 * @param aParallel true if vertices, triangles and tiles should be processed in parallel
+	 * @return this rasterizer
+	 */
+	public Rasterizer draw(Mat4d aMatrix, double[] aPositions, int[] aIndices, float[] aAttributes, int aAttributeCount, FragmentShader aShader, boolean aParallel)
+	{
+		if (aAttributeCount < 0 || aAttributeCount > MAX_ATTRIBUTES || aAttributeCount > 0 && aAttributes == null)
+		{
+			throw new IllegalArgumentException("aAttributeCount out of bounds: " + aAttributeCount);
+		}
+
+		int vertexCount = aPositions.length / 3;
+		int triangleCount = aIndices.length / 3;
+		double[] clip = new double[4 * vertexCount];
+		int[] outcodes = new int[vertexCount];
+
+		if (new VertexProjector(mWidth, mHeight).setMatrix(aMatrix).project(aPositions, vertexCount, clip, outcodes, null, aParallel) != 0)
+		{
+			return this;
+		}
+
+		int floatStride = 6 + 3 * aAttributeCount;
+		int chunks = (triangleCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		Batch[] batches = new Batch[chunks];
+
+		Parallel.forEach(chunks, aParallel, chunk ->
+		{
+			Batch batch = new Batch(floatStride, Math.min(CHUNK_SIZE, triangleCount - chunk * CHUNK_SIZE));
+			int end = Math.min(triangleCount, (chunk + 1) * CHUNK_SIZE);
+
+			for (int t = chunk * CHUNK_SIZE; t < end; t++)
+			{
+				setupTriangle(batch, clip, outcodes, aIndices, aAttributes, aAttributeCount, t);
+			}
+
+			batches[chunk] = batch;
+		});
+
+		int total = gather(batches, floatStride, aParallel);
+
+		binTriangles(total);
+
+		Parallel.forEach(mTilesX * mTilesY, aParallel, tile -> rasterizeTile(tile, floatStride, aAttributeCount, aShader));
+
+		return this;
+	}
+
+
+	/**
+	 * Clips a triangle and adds the resulting screen space triangles to a batch.
+	 */
+	private void setupTriangle(Batch aBatch, double[] aClip, int[] aOutcodes, int[] aIndices, float[] aAttributes, int aAttributeCount, int aTriangle)
+	{
+		int i0 = aIndices[3 * aTriangle];
+		int i1 = aIndices[3 * aTriangle + 1];
+		int i2 = aIndices[3 * aTriangle + 2];
+
+		int c0 = aOutcodes[i0];
+		int c1 = aOutcodes[i1];
+		int c2 = aOutcodes[i2];
+
+		if ((c0 & c1 & c2) != 0)
+		{
+			return;
+		}
+
+		// polygon vertices: x, y, z, w and attributes
+		int stride = 4 + aAttributeCount;
+		double[] polygon = aBatch.mPolygon;
+		int count = 3;
+
+		for (int k = 0; k < 3; k++)
+		{
+			int v = k == 0 ? i0 : k == 1 ? i1 : i2;
+			System.arraycopy(aClip, 4 * v, polygon, k * stride, 4);
+			for (int a = 0; a < aAttributeCount; a++)
+			{
+				polygon[k * stride + 4 + a] = aAttributes[v * aAttributeCount + a];
+			}
+		}
+
+		if ((c0 | c1 | c2) != 0)
+		{
+			count = clipPolygon(aBatch, stride, (c0 | c1 | c2));
+			polygon = aBatch.mPolygon;
+		}
+
+		for (int k = 2; k < count; k++)
+		{
+			emitTriangle(aBatch, polygon, stride, 0, k - 1, k, aAttributeCount, aTriangle);
+		}
+	}
+
+
+	/**
+	 * Clips the polygon of a batch against the planes flagged in the outcode (Sutherland-Hodgman).
+	 *
+	 * @return the number of vertices of the clipped polygon
+	 */
+	private static int clipPolygon(Batch aBatch, int aStride, int aPlanes)
+	{
+		double[] input = aBatch.mPolygon;
+		double[] output = aBatch.mClipped;
+		int count = 3;
+
+		for (int plane = 0; plane < 6 && count >= 3; plane++)
+		{
+			if ((aPlanes & (1 << plane)) == 0)
+			{
+				continue;
+			}
+
+			int[] p = CLIP_PLANES[plane];
+			int outCount = 0;
+
+			for (int i = 0; i < count; i++)
+			{
+				int a = i * aStride;
+				int b = ((i + 1) % count) * aStride;
+				double da = input[a + 3] + p[0] * input[a] + p[1] * input[a + 1] + p[2] * input[a + 2];
+				double db = input[b + 3] + p[0] * input[b] + p[1] * input[b + 1] + p[2] * input[b + 2];
+
+				if (da >= 0)
+				{
+					System.arraycopy(input, a, output, outCount++ * aStride, aStride);
+				}
+				if ((da >= 0) != (db >= 0))
+				{
+					double t = da / (da - db);
+					int o = outCount++ * aStride;
+					for (int j = 0; j < aStride; j++)
+					{
+						output[o + j] = input[a + j] + t * (input[b + j] - input[a + j]);
+					}
+				}
+			}
+
+			double[] tmp = input;
+			input = output;
+			output = tmp;
+			count = outCount;
+		}
+
+		aBatch.mPolygon = input;
+		aBatch.mClipped = output;
+
+		return count < 3 ? 0 : count;
+	}
+
+
+	private void emitTriangle(Batch aBatch, double[] aPolygon, int aStride, int aV0, int aV1, int aV2, int aAttributeCount, int aTriangle)
+	{
+		int[] x = aBatch.mX;
+		int[] y = aBatch.mY;
+		float[] z = aBatch.mZ;
+		float[] invW = aBatch.mInvW;
+		for (int k = 0; k < 3; k++)
+		{
+			int o = (k == 0 ? aV0 : k == 1 ? aV1 : aV2) * aStride;
+			double w = 1 / aPolygon[o + 3];
+			x[k] = (int)Math.round((aPolygon[o] * w * 0.5 + 0.5) * mWidth * SUBPIXEL_SCALE);
+			y[k] = (int)Math.round((0.5 - aPolygon[o + 1] * w * 0.5) * mHeight * SUBPIXEL_SCALE);
+			z[k] = (float)(aPolygon[o + 2] * w * 0.5 + 0.5);
+			invW[k] = (float)w;
+		}
+
+		long area = (long)(x[1] - x[0]) * (y[2] - y[0]) - (long)(y[1] - y[0]) * (x[2] - x[0]);
+
+		if (area == 0 || mBackfaceCulling && area > 0)
+		{
+			return;
+		}
+
+		// triangles facing the viewer have a negative area since the y axis points down, reverse them to always have a positive area
+		boolean reverse = area < 0;
+
+		int n = aBatch.add();
+		int[] ints = aBatch.mInts;
+		float[] floats = aBatch.mFloats;
+		int io = 7 * n;
+		int fo = aBatch.mFloatStride * n;
+
+		for (int k = 0; k < 3; k++)
+		{
+			int s = reverse && k > 0 ? 3 - k : k;
+			ints[io + 2 * k] = x[s];
+			ints[io + 2 * k + 1] = y[s];
+			floats[fo + k] = z[s];
+			floats[fo + 3 + k] = invW[s];
+
+			int o = (s == 0 ? aV0 : s == 1 ? aV1 : aV2) * aStride + 4;
+			for (int a = 0; a < aAttributeCount; a++)
+			{
+				floats[fo + 6 + 3 * a + k] = (float)(aPolygon[o + a] * invW[s]);
+			}
+		}
+		ints[io + 6] = aTriangle;
+	}
+
+
+	/**
+	 * Concatenates the screen space triangles of all batches.
+	 *
+	 * @return the number of triangles
+	 */
+	private int gather(Batch[] aBatches, int aFloatStride, boolean aParallel)
+	{
+		int[] offsets = new int[aBatches.length + 1];
+		for (int i = 0; i < aBatches.length; i++)
+		{
+			offsets[i + 1] = offsets[i] + aBatches[i].mCount;
+		}
+
+		int total = offsets[aBatches.length];
+
+		if (mTriangleInts.length < 7 * total)
+		{
+			mTriangleInts = new int[7 * total];
+		}
+		if (mTriangleFloats.length < aFloatStride * total)
+		{
+			mTriangleFloats = new float[aFloatStride * total];
+		}
+
+		Parallel.forEach(aBatches.length, aParallel, i ->
+		{
+			System.arraycopy(aBatches[i].mInts, 0, mTriangleInts, 7 * offsets[i], 7 * aBatches[i].mCount);
+			System.arraycopy(aBatches[i].mFloats, 0, mTriangleFloats, aFloatStride * offsets[i], aFloatStride * aBatches[i].mCount);
+		});
+
+		return total;
+	}
+
+
+	/**
+	 * Sorts triangle indices by the tiles their bounding boxes overlap using a counting sort, keeping the submission order within each tile.
+	 */
+	private void binTriangles(int aCount)
+	{
+		int[] start = mTileStart;
+		int[] ints = mTriangleInts;
+		int shift = SUBPIXEL_BITS + TILE_SHIFT;
+
+		Arrays.fill(start, 0);
+
+		for (int pass = 0; pass < 2; pass++)
+		{
+			if (pass == 1)
+			{
+				int sum = 0;
+				for (int i = 0; i < start.length; i++)
+				{
+					int n = start[i];
+					start[i] = sum;
+					sum += n;
+				}
+				if (mTileTriangles.length < sum)
+				{
+					mTileTriangles = new int[sum];
+				}
+			}
+
+			for (int t = 0; t < aCount; t++)
+			{
+				int o = 7 * t;
+				int tx0 = Math.max(0, Math.min(ints[o], Math.min(ints[o + 2], ints[o + 4])) >> shift);
+				int ty0 = Math.max(0, Math.min(ints[o + 1], Math.min(ints[o + 3], ints[o + 5])) >> shift);
+				int tx1 = Math.min(mTilesX - 1, Math.max(ints[o], Math.max(ints[o + 2], ints[o + 4])) >> shift);
+				int ty1 = Math.min(mTilesY - 1, Math.max(ints[o + 1], Math.max(ints[o + 3], ints[o + 5])) >> shift);
+
+				for (int ty = ty0; ty <= ty1; ty++)
+				{
+					for (int tx = tx0; tx <= tx1; tx++)
+					{
+						int tile = ty * mTilesX + tx;
+						if (pass == 0)
+						{
+							start[tile]++;
+						}
+						else
+						{
+							mTileTriangles[start[tile]++] = t;
+						}
+					}
+				}
+			}
+		}
+
+		// the fill pass advanced each start to the start of the next tile
+		System.arraycopy(start, 0, start, 1, start.length - 1);
+		start[0] = 0;
+	}
+
+
+	private void rasterizeTile(int aTile, int aFloatStride, int aAttributeCount, FragmentShader aShader)
+	{
+		int tileX0 = (aTile % mTilesX) << TILE_SHIFT;
+		int tileY0 = (aTile / mTilesX) << TILE_SHIFT;
+		int tileX1 = Math.min(mWidth, tileX0 + TILE_SIZE) - 1;
+		int tileY1 = Math.min(mHeight, tileY0 + TILE_SIZE) - 1;
+		float[] attributes = new float[aAttributeCount];
+		int[] ints = mTriangleInts;
+		float[] floats = mTriangleFloats;
+		int half = SUBPIXEL_SCALE / 2;
+		Edges edges = new Edges();
+
+		for (int i = mTileStart[aTile], end = mTileStart[aTile + 1]; i < end; i++)
+		{
+			int t = mTileTriangles[i];
+			int o = 7 * t;
+			int x0 = ints[o], y0 = ints[o + 1], x1 = ints[o + 2], y1 = ints[o + 3], x2 = ints[o + 4], y2 = ints[o + 5];
+
+			// pixel range covered by the bounding box, pixel centers are at half pixel offsets
+			int minX = Math.max(tileX0, (Math.min(x0, Math.min(x1, x2)) - half + SUBPIXEL_SCALE - 1) >> SUBPIXEL_BITS);
+			int minY = Math.max(tileY0, (Math.min(y0, Math.min(y1, y2)) - half + SUBPIXEL_SCALE - 1) >> SUBPIXEL_BITS);
+			int maxX = Math.min(tileX1, (Math.max(x0, Math.max(x1, x2)) - half) >> SUBPIXEL_BITS);
+			int maxY = Math.min(tileY1, (Math.max(y0, Math.max(y1, y2)) - half) >> SUBPIXEL_BITS);
+
+			if (minX > maxX || minY > maxY)
+			{
+				continue;
+			}
+
+			edges.setup(x0, y0, x1, y1, x2, y2, floats, aFloatStride * t);
+
+			// small triangles are tested per pixel, classifying blocks costs more than it saves
+			if (maxX - minX < BLOCK_SIZE && maxY - minY < BLOCK_SIZE)
+			{
+				rasterizeBlock(edges, minX, minY, maxX, maxY, false, floats, aFloatStride * t, ints[o + 6], aAttributeCount, attributes, aShader);
+				continue;
+			}
+
+			for (int by = minY; by <= maxY; by += BLOCK_SIZE)
+			{
+				int byEnd = Math.min(maxY, by + BLOCK_SIZE - 1);
+
+				for (int bx = minX; bx <= maxX; bx += BLOCK_SIZE)
+				{
+					int bxEnd = Math.min(maxX, bx + BLOCK_SIZE - 1);
+					int coverage = edges.classifyBlock(bx, by, bxEnd, byEnd);
+
+					if (coverage != 0)
+					{
+						rasterizeBlock(edges, bx, by, bxEnd, byEnd, coverage == 2, floats, aFloatStride * t, ints[o + 6], aAttributeCount, attributes, aShader);
+					}
+				}
+			}
+		}
+	}
+
+
+	private void rasterizeBlock(Edges aEdges, int aX0, int aY0, int aX1, int aY1, boolean aFull, float[] aFloats, int aOffset, int aTriangle, int aAttributeCount, float[] aAttributes, FragmentShader aShader)
+	{
+		float z0 = aFloats[aOffset], z1 = aFloats[aOffset + 1], z2 = aFloats[aOffset + 2];
+		float w0 = aFloats[aOffset + 3], w1 = aFloats[aOffset + 4], w2 = aFloats[aOffset + 5];
+		float invArea = aEdges.mInvArea;
+
+		long stepX0 = aEdges.mStepX0, stepX1 = aEdges.mStepX1, stepX2 = aEdges.mStepX2;
+		long row0 = aEdges.evaluate(0, aX0, aY0);
+		long row1 = aEdges.evaluate(1, aX0, aY0);
+		long row2 = aEdges.evaluate(2, aX0, aY0);
+
+		for (int y = aY0; y <= aY1; y++, row0 += aEdges.mStepY0, row1 += aEdges.mStepY1, row2 += aEdges.mStepY2)
+		{
+			long e0 = row0;
+			long e1 = row1;
+			long e2 = row2;
+			int index = y * mWidth + aX0;
+
+			for (int x = aX0; x <= aX1; x++, index++, e0 += stepX0, e1 += stepX1, e2 += stepX2)
+			{
+				if (!aFull && (e0 | e1 | e2) < 0)
+				{
+					continue;
+				}
+
+				// e0 is the edge opposite vertex 0
+				float b1 = e1 * invArea;
+				float b2 = e2 * invArea;
+				float b0 = 1 - b1 - b2;
+				float z = b0 * z0 + b1 * z1 + b2 * z2;
+
+				if (!(z < mDepthBuffer[index]))
+				{
+					continue;
+				}
+
+				mDepthBuffer[index] = z;
+
+				if (aShader != null)
+				{
+					float w = 1 / (b0 * w0 + b1 * w1 + b2 * w2);
+					for (int a = 0, o = aOffset + 6; a < aAttributeCount; a++, o += 3)
+					{
+						aAttributes[a] = (b0 * aFloats[o] + b1 * aFloats[o + 1] + b2 * aFloats[o + 2]) * w;
+					}
+
+					mColorBuffer[index] = aShader.shade(x, y, aTriangle, aAttributes);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Edge functions of a screen space triangle in fixed point. Each function is positive inside the triangle and the constants are biased
+	 * so that pixels exactly on an edge are only covered by the triangle for which the edge is a top or left edge.
+	 */
+	private final static class Edges
+	{
+		long mA0, mB0, mC0;
+		long mA1, mB1, mC1;
+		long mA2, mB2, mC2;
+		long mStepX0, mStepX1, mStepX2;
+		long mStepY0, mStepY1, mStepY2;
+		float mInvArea;
+
+
+		void setup(int x0, int y0, int x1, int y1, int x2, int y2, float[] aFloats, int aOffset)
+		{
+			// edge 0 is v1 -> v2, edge 1 is v2 -> v0 and edge 2 is v0 -> v1
+			mA0 = y1 - y2;
+			mB0 = x2 - x1;
+			mC0 = (long)x1 * y2 - (long)y1 * x2 + bias(x1, y1, x2, y2);
+			mA1 = y2 - y0;
+			mB1 = x0 - x2;
+			mC1 = (long)x2 * y0 - (long)y2 * x0 + bias(x2, y2, x0, y0);
+			mA2 = y0 - y1;
+			mB2 = x1 - x0;
+			mC2 = (long)x0 * y1 - (long)y0 * x1 + bias(x0, y0, x1, y1);
+
+			mStepX0 = mA0 << SUBPIXEL_BITS;
+			mStepX1 = mA1 << SUBPIXEL_BITS;
+			mStepX2 = mA2 << SUBPIXEL_BITS;
+			mStepY0 = mB0 << SUBPIXEL_BITS;
+			mStepY1 = mB1 << SUBPIXEL_BITS;
+			mStepY2 = mB2 << SUBPIXEL_BITS;
+
+			long area = (long)(x1 - x0) * (y2 - y0) - (long)(y1 - y0) * (x2 - x0);
+			mInvArea = 1f / area;
+		}
+
+
+		/**
+		 * Returns -1 for edges that are neither top nor left edges, excluding pixels exactly on the edge.
+		 */
+		private static int bias(int aX0, int aY0, int aX1, int aY1)
+		{
+			int dx = aX1 - aX0;
+			int dy = aY1 - aY0;
+
+			// the triangle has a positive area with y pointing down, a top edge is horizontal and points right and a left edge points up
+			boolean topLeft = dy == 0 ? dx > 0 : dy < 0;
+
+			return topLeft ? 0 : -1;
+		}
+
+
+		long evaluate(int aEdge, int aX, int aY)
+		{
+			long px = ((long)aX << SUBPIXEL_BITS) + SUBPIXEL_SCALE / 2;
+			long py = ((long)aY << SUBPIXEL_BITS) + SUBPIXEL_SCALE / 2;
+
+			switch (aEdge)
+			{
+				case 0:
+					return mA0 * px + mB0 * py + mC0;
+				case 1:
+					return mA1 * px + mB1 * py + mC1;
+				default:
+					return mA2 * px + mB2 * py + mC2;
+			}
+		}
+
+
+		/**
+		 * Classifies a block of pixels by evaluating the edge functions at the corner pixels.
+		 *
+		 * @return 0 if no pixel is covered, 2 if every pixel is covered and 1 otherwise
+		 */
+		int classifyBlock(int aX0, int aY0, int aX1, int aY1)
+		{
+			boolean full = true;
+
+			for (int edge = 0; edge < 3; edge++)
+			{
+				long e00 = evaluate(edge, aX0, aY0);
+				long e10 = evaluate(edge, aX1, aY0);
+				long e01 = evaluate(edge, aX0, aY1);
+				long e11 = evaluate(edge, aX1, aY1);
+
+				if ((e00 & e10 & e01 & e11) < 0)
+				{
+					return 0;
+				}
+
+				full &= (e00 | e10 | e01 | e11) >= 0;
+			}
+
+			return full ? 2 : 1;
+		}
+	}
+
+
+	/**
+	 * Screen space triangles produced by one thread.
+	 */
+	private final static class Batch
+	{
+		final int mFloatStride;
+		int[] mInts;
+		float[] mFloats;
+		int mCount;
+
+		// scratch
+		double[] mPolygon = new double[9 * (4 + MAX_ATTRIBUTES)];
+		double[] mClipped = new double[9 * (4 + MAX_ATTRIBUTES)];
+		final int[] mX = new int[3];
+		final int[] mY = new int[3];
+		final float[] mZ = new float[3];
+		final float[] mInvW = new float[3];
+
+
+		Batch(int aFloatStride, int aCapacity)
+		{
+			mFloatStride = aFloatStride;
+			mInts = new int[7 * Math.max(aCapacity, 1)];
+			mFloats = new float[aFloatStride * Math.max(aCapacity, 1)];
+		}
+
+
+		int add()
+		{
+			if (7 * mCount == mInts.length)
+			{
+				mInts = Arrays.copyOf(mInts, 2 * mInts.length);
+				mFloats = Arrays.copyOf(mFloats, 2 * mFloats.length);
+			}
+
+			return mCount++;
+		}
+	}
+}
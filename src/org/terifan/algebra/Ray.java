@@ -71,11 +71,20 @@ public class Ray implements Cloneable
 	}
 
 
+	/**
+	 * Kept for binary compatibility, see {@link #getDistanceToPoint(ReadOnlyVec3d)}.
+	 */
 	public double getDistanceToPoint(Vec3d aPoint)
 	{
-		double tx = aPoint.x - mOrigin.x;
-		double ty = aPoint.y - mOrigin.y;
-		double tz = aPoint.z - mOrigin.z;
+		return getDistanceToPoint((ReadOnlyVec3d)aPoint);
+	}
+
+
+	public double getDistanceToPoint(ReadOnlyVec3d aPoint)
+	{
+		double tx = aPoint.getX() - mOrigin.x;
+		double ty = aPoint.getY() - mOrigin.y;
+		double tz = aPoint.getZ() - mOrigin.z;
 
 		double x = mDirection.y * tz - mDirection.z * ty;
 		double y = mDirection.z * tx - mDirection.x * tz;
@@ -435,17 +444,39 @@ public class Ray implements Cloneable
 	}
 
 
+	/**
+	 * Kept for binary compatibility, see {@link #intersectTriangle(ReadOnlyVec3d, ReadOnlyVec3d, ReadOnlyVec3d)}.
+	 */
 	public double intersectTriangle(Vec3d a, Vec3d b, Vec3d c)
 	{
+		return intersectTriangle((ReadOnlyVec3d)a, b, c);
+	}
+
+
+	public double intersectTriangle(ReadOnlyVec3d a, ReadOnlyVec3d b, ReadOnlyVec3d c)
+	{
+		double ax = a.getX();
+		double ay = a.getY();
+		double az = a.getZ();
+		double dx = mDirection.x;
+		double dy = mDirection.y;
+		double dz = mDirection.z;
+
 		// find vectors for two edges sharing vert0
-		Vec3d edge1 = b.clone().subtract(a);
-		Vec3d edge2 = c.clone().subtract(a);
+		double e1x = b.getX() - ax;
+		double e1y = b.getY() - ay;
+		double e1z = b.getZ() - az;
+		double e2x = c.getX() - ax;
+		double e2y = c.getY() - ay;
+		double e2z = c.getZ() - az;
 
 		// begin calculating determinant - also used to calculate U parameter
-		Vec3d pvec = mDirection.clone().cross(edge2);
+		double px = dy * e2z - dz * e2y;
+		double py = dz * e2x - dx * e2z;
+		double pz = dx * e2y - dy * e2x;
 
 		// if determinant is near zero, ray lies in plane of triangle
-		double det = edge1.dot(pvec);
+		double det = e1x * px + e1y * py + e1z * pz;
 
 		if (det < 0.000001)
 		{
@@ -453,20 +484,24 @@ public class Ray implements Cloneable
 		}
 
 		// calculate distance from vert0 to ray origin
-		Vec3d tvec = mOrigin.clone().subtract(a);
+		double tx = mOrigin.x - ax;
+		double ty = mOrigin.y - ay;
+		double tz = mOrigin.z - az;
 
 		// calculate U parameter and test bounds
-		double u = tvec.dot(pvec);
+		double u = tx * px + ty * py + tz * pz;
 		if (u < 0.0 || u > det)
 		{
 			return -1;
 		}
 
 		// prepare to test V parameter
-		Vec3d qvec = tvec.clone().cross(edge1);
+		double qx = ty * e1z - tz * e1y;
+		double qy = tz * e1x - tx * e1z;
+		double qz = tx * e1y - ty * e1x;
 
 		// calculate V parameter and test bounds
-		double v = mDirection.dot(qvec);
+		double v = dx * qx + dy * qy + dz * qz;
 		if (v < 0.0 || u + v > det)
 		{
 			return -1;
@@ -474,7 +509,7 @@ public class Ray implements Cloneable
 
 		// calculate t, scale parameters, ray intersects triangle
 		double inv_det = 1.0 / det;
-		double t = edge2.dot(qvec);
+		double t = e2x * qx + e2y * qy + e2z * qz;
 
 		t *= inv_det;
 
@@ -482,12 +517,18 @@ public class Ray implements Cloneable
 	}
 
 
+	/**
+	 * Kept for binary compatibility, see {@link #intersectSphere(ReadOnlyVec3d, ReadOnlyVec3d)}.
+	 */
 	public double intersectSphere(Vec3d aCenter, Vec3d aRadius)
 	{
-		Vec3d center = aCenter.clone();
-		Vec3d radius = aRadius.clone();
+		return intersectSphere((ReadOnlyVec3d)aCenter, aRadius);
+	}
+
 
-		double discriminant = getDiscriminant(center, radius, mOrigin, mDirection);
+	public double intersectSphere(ReadOnlyVec3d aCenter, ReadOnlyVec3d aRadius)
+	{
+		double discriminant = getDiscriminant(aCenter, aRadius, mOrigin, mDirection);
 
 		if (discriminant < 0)
 		{
@@ -495,7 +536,7 @@ public class Ray implements Cloneable
 		}
 
 		// Quadratic formula!
-		double leftTerm = -mDirection.dot(mOrigin.clone().subtract(center));
+		double leftTerm = -(mDirection.x * (mOrigin.x - aCenter.getX()) + mDirection.y * (mOrigin.y - aCenter.getY()) + mDirection.z * (mOrigin.z - aCenter.getZ()));
 		double rightTerm = Math.sqrt(discriminant);
 		double denominator = mDirection.dot(mDirection);
 		double tNeg = (leftTerm - rightTerm) / denominator;
@@ -516,31 +557,45 @@ public class Ray implements Cloneable
 
 
 	// Gets the discriminat givin the origin and direction of the ray
-	private static double getDiscriminant(Vec3d aCenter, Vec3d aRadius, Vec3d aOrigin, Vec3d aDirection)
+	private static double getDiscriminant(ReadOnlyVec3d aCenter, ReadOnlyVec3d aRadius, ReadOnlyVec3d aOrigin, ReadOnlyVec3d aDirection)
 	{
-		assert aRadius.x == aRadius.y && aRadius.x == aRadius.z;
-
-		Vec3d cent = aOrigin.clone().subtract(aCenter);
-		double scalarA = aDirection.dot(cent) * aDirection.dot(cent);
-		double scalarB = cent.dot(cent) - aRadius.x * aRadius.x;
+		assert aRadius.getX() == aRadius.getY() && aRadius.getX() == aRadius.getZ();
+
+		double cx = aOrigin.getX() - aCenter.getX();
+		double cy = aOrigin.getY() - aCenter.getY();
+		double cz = aOrigin.getZ() - aCenter.getZ();
+		double dc = aDirection.getX() * cx + aDirection.getY() * cy + aDirection.getZ() * cz;
+		double scalarA = dc * dc;
+		double scalarB = cx * cx + cy * cy + cz * cz - aRadius.getX() * aRadius.getX();
 		return scalarA - aDirection.dot(aDirection) * scalarB;
 	}
 
 
+	/**
+	 * Kept for binary compatibility, see {@link #getSphereNormal(ReadOnlyVec3d, ReadOnlyVec3d, ReadOnlyVec3d)}.
+	 */
 	public Vec3d getSphereNormal(Vec3d aCenter, Vec3d aRadius, Vec3d aPoint)
 	{
-		assert aRadius.x == aRadius.y && aRadius.x == aRadius.z;
+		return getSphereNormal((ReadOnlyVec3d)aCenter, aRadius, aPoint);
+	}
+
+
+	public Vec3d getSphereNormal(ReadOnlyVec3d aCenter, ReadOnlyVec3d aRadius, ReadOnlyVec3d aPoint)
+	{
+		assert aRadius.getX() == aRadius.getY() && aRadius.getX() == aRadius.getZ();
 
 		// Find Normal
-		Vec3d surfaceNormal = aPoint.clone().subtract(aCenter);
+		Vec3d surfaceNormal = new Vec3d(aPoint.getX() - aCenter.getX(), aPoint.getY() - aCenter.getY(), aPoint.getZ() - aCenter.getZ());
 		surfaceNormal.normalize();
 
 		//Get the norm of the vector between the ray and the center of sphere.
-		Vec3d originToSphere = mOrigin.clone().subtract(aCenter);
+		double ox = mOrigin.x - aCenter.getX();
+		double oy = mOrigin.y - aCenter.getY();
+		double oz = mOrigin.z - aCenter.getZ();
 
 		// If the length of the vector is less than the radius, ray originated
 		// from inside the sphere. Thus we need to negate the normal.
-		if (originToSphere.length() < aRadius.x)
+		if (Math.sqrt(ox * ox + oy * oy + oz * oz) < aRadius.getX())
 		{
 			surfaceNormal.multiply(-1);
 		}
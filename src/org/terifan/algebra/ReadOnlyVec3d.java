@@ -0,0 +1,51 @@
+package org.terifan.algebra;
+
+
+/**
+ * Read access to the coordinates of a vector. Routines accepting this type only read the vector and never modify or retain it, so callers
+ * can pass shared vectors without making defensive copies.
+ *
+ * @see Vec3d
+ * @see ImmutableVec3d
+ */
+public interface ReadOnlyVec3d
+{
+	double getX();
+
+
+	double getY();
+
+
+	double getZ();
+
+
+	default double dot(ReadOnlyVec3d aVector)
+	{
+		return getX() * aVector.getX() + getY() * aVector.getY() + getZ() * aVector.getZ();
+	}
+
+
+	default double length()
+	{
+		return Math.sqrt(getX() * getX() + getY() * getY() + getZ() * getZ());
+	}
+
+
+	default double distance(ReadOnlyVec3d aVector)
+	{
+		double dx = aVector.getX() - getX();
+		double dy = aVector.getY() - getY();
+		double dz = aVector.getZ() - getZ();
+
+		return Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
+
+
+	/**
+	 * Returns a new mutable copy of this vector.
+	 */
+	default Vec3d toVec3d()
+	{
+		return new Vec3d(getX(), getY(), getZ());
+	}
+}
@@ -0,0 +1,223 @@
+package org.terifan.algebra;
+
+import java.util.Arrays;
+
+
+/**
+ * Per thread stack of reusable temporary vectors, matrices and quaternions.
+ * <p>
+ * A routine pushes a frame, takes the temporaries it needs and pops the frame when done, which returns every object taken since the push
+ * to the arena. Frames nest, so routines using the arena may call each other. The objects are created on first use and reused afterwards,
+ * so a warmed up thread runs without allocation even where escape analysis fails to remove the temporaries.
+ * <p>
+ * Objects handed out have undefined contents and must not be used after their frame is popped. Typical use:
+ * <pre>
+ * try (ScratchArena scratch = ScratchArena.get().push())
+ * {
+ *     Vec3d tmp = scratch.vec3d().set(a).subtract(b);
+ *     ...
+ * }
+ * </pre>
+ */
+public final class ScratchArena implements AutoCloseable
+{
+	private final static ThreadLocal<ScratchArena> ARENA = ThreadLocal.withInitial(ScratchArena::new);
+
+	private Vec3d[] mVec3d;
+	private Mat3d[] mMat3d;
+	private Mat4d[] mMat4d;
+	private QuaternionNew[] mQuaternions;
+	private int mVec3dTop;
+	private int mMat3dTop;
+	private int mMat4dTop;
+	private int mQuaternionTop;
+	private int[] mFrames;
+	private int mFrameCount;
+
+
+	private ScratchArena()
+	{
+		mVec3d = new Vec3d[16];
+		mMat3d = new Mat3d[4];
+		mMat4d = new Mat4d[4];
+		mQuaternions = new QuaternionNew[8];
+		mFrames = new int[4 * 8];
+	}
+
+
+	/**
+	 * Returns the arena of the current thread.
+	 */
+	public static ScratchArena get()
+	{
+		return ARENA.get();
+	}
+
+
+	/**
+	 * Starts a new frame.
+	 *
+	 * @return this arena
+	 */
+	public ScratchArena push()
+	{
+		if (4 * mFrameCount == mFrames.length)
+		{
+			mFrames = Arrays.copyOf(mFrames, 2 * mFrames.length);
+		}
+
+		int i = 4 * mFrameCount++;
+		mFrames[i] = mVec3dTop;
+		mFrames[i + 1] = mMat3dTop;
+		mFrames[i + 2] = mMat4dTop;
+		mFrames[i + 3] = mQuaternionTop;
+		return this;
+	}
+
+
+	/**
+	 * Ends the current frame returning all objects taken since the matching push to the arena.
+	 */
+	public void pop()
+	{
+		if (mFrameCount == 0)
+		{
+			throw new IllegalStateException("No frame to pop");
+		}
+
+		int i = 4 * --mFrameCount;
+		mVec3dTop = mFrames[i];
+		mMat3dTop = mFrames[i + 1];
+		mMat4dTop = mFrames[i + 2];
+		mQuaternionTop = mFrames[i + 3];
+	}
+
+
+	/**
+	 * Same as pop, allowing frames to be used with try-with-resources.
+	 */
+	@Override
+	public void close()
+	{
+		pop();
+	}
+
+
+	/**
+	 * Returns the number of frames currently pushed.
+	 */
+	public int getDepth()
+	{
+		return mFrameCount;
+	}
+
+
+	/**
+	 * Returns a temporary vector with undefined contents.
+	 */
+	public Vec3d vec3d()
+	{
+		checkFrame();
+
+		if (mVec3dTop == mVec3d.length)
+		{
+			mVec3d = Arrays.copyOf(mVec3d, 2 * mVec3d.length);
+		}
+
+		Vec3d v = mVec3d[mVec3dTop];
+		if (v == null)
+		{
+			v = mVec3d[mVec3dTop] = new Vec3d();
+		}
+		mVec3dTop++;
+
+		return v;
+	}
+
+
+	/**
+	 * Returns a temporary vector set to the coordinates provided.
+	 */
+	public Vec3d vec3d(double aX, double aY, double aZ)
+	{
+		return vec3d().set(aX, aY, aZ);
+	}
+
+
+	/**
+	 * Returns a temporary matrix with undefined contents.
+	 */
+	public Mat3d mat3d()
+	{
+		checkFrame();
+
+		if (mMat3dTop == mMat3d.length)
+		{
+			mMat3d = Arrays.copyOf(mMat3d, 2 * mMat3d.length);
+		}
+
+		Mat3d m = mMat3d[mMat3dTop];
+		if (m == null)
+		{
+			m = mMat3d[mMat3dTop] = new Mat3d();
+		}
+		mMat3dTop++;
+
+		return m;
+	}
+
+
+	/**
+	 * Returns a temporary matrix with undefined contents.
+	 */
+	public Mat4d mat4d()
+	{
+		checkFrame();
+
+		if (mMat4dTop == mMat4d.length)
+		{
+			mMat4d = Arrays.copyOf(mMat4d, 2 * mMat4d.length);
+		}
+
+		Mat4d m = mMat4d[mMat4dTop];
+		if (m == null)
+		{
+			m = mMat4d[mMat4dTop] = new Mat4d();
+		}
+		mMat4dTop++;
+
+		return m;
+	}
+
+
+	/**
+	 * Returns a temporary quaternion with undefined contents.
+	 */
+	public QuaternionNew quaternion()
+	{
+		checkFrame();
+
+		if (mQuaternionTop == mQuaternions.length)
+		{
+			mQuaternions = Arrays.copyOf(mQuaternions, 2 * mQuaternions.length);
+		}
+
+		QuaternionNew q = mQuaternions[mQuaternionTop];
+		if (q == null)
+		{
+			q = mQuaternions[mQuaternionTop] = new QuaternionNew();
+		}
+		mQuaternionTop++;
+
+		return q;
+	}
+
+
+	private void checkFrame()
+	{
+		if (mFrameCount == 0)
+		{
+			throw new IllegalStateException("No frame pushed");
+		}
+	}
+}
@@ -0,0 +1,277 @@
+package org.terifan.algebra;
+
+import java.util.Arrays;
+
+
+/**
+ * Uniform spatial hash grid for fixed-radius neighbor queries over particles, e.g. in SPH simulations.
+ * <p>
+ * Positions are quantized to integer cells which are hashed into a table of buckets. Particles are sorted by bucket using a counting
+ * (radix) sort, no per-cell lists are allocated, and each bucket is a contiguous range of the sorted particle array. Positions are copied
+ * in sorted order to keep queries cache friendly.
+ * <p>
+ * The grid is rebuilt, optionally in parallel, whenever the particles move. Queries don't allocate and may run concurrently once the grid
+ * has been built.
+ */
+public class SpatialHashGrid
+{
+	private final double mCellSize;
+	private final double mInvCellSize;
+	private final int mTableBits;
+	private final int mTableMask;
+	private final int[] mBucketStart;
+	private final int[] mBucketEnd;
+
+	private int mCount;
+	private long[] mKeys;
+	private int[] mSortedIndices;
+	private double[] mSortedPositions;
+	private double[] mPackedPositions;
+
+
+	/**
+	 * Creates a grid.
+	 *
+	 * @param aCellSize size of each cell, typically the query radius
+	 * @param aTableBits number of bits of the bucket table, the table will contain {@code 2^aTableBits} buckets. A table with roughly as
+	 * many buckets as particles is a good choice.
+	 */
+	public SpatialHashGrid(double aCellSize, int aTableBits)
+	{
+		if (!(aCellSize > 0))
+		{
+			throw new IllegalArgumentException("aCellSize must be positive: " + aCellSize);
+		}
+		if (aTableBits < 1 || aTableBits > 30)
+		{
+			throw new IllegalArgumentException("aTableBits out of range: " + aTableBits);
+		}
+
+		mCellSize = aCellSize;
+		mInvCellSize = 1.0 / aCellSize;
+		mTableBits = aTableBits;
+		mTableMask = (1 << aTableBits) - 1;
+		mBucketStart = new int[1 << aTableBits];
+		mBucketEnd = new int[1 << aTableBits];
+		mKeys = new long[0];
+		mSortedIndices = new int[0];
+		mSortedPositions = new double[0];
+		mPackedPositions = new double[0];
+	}
+
+
+	public double getCellSize()
+	{
+		return mCellSize;
+	}
+
+
+	/**
+	 * Returns the number of particles in the grid.
+	 */
+	public int size()
+	{
+		return mCount;
+	}
+
+
+	/**
+	 * Returns the cell containing a position.
+	 *
+	 * @return the Vec3i provided
+	 */
+	public Vec3i getCell(Vec3d aPosition, Vec3i aOutput)
+	{
+		aOutput.x = cell(aPosition.x);
+		aOutput.y = cell(aPosition.y);
+		aOutput.z = cell(aPosition.z);
+		return aOutput;
+	}
+
+
+	/**
+	 * Rebuilds the grid.
+	 *
+	 * @param aPositions particle positions
+	 * @param aParallel true if the grid should be built in parallel
+	 * @return this grid
+	 */
+	public SpatialHashGrid build(Vec3d[] aPositions, boolean aParallel)
+	{
+		// the packed copy is only read while building and is kept to avoid an allocation per rebuild
+		if (mPackedPositions.length < 3 * aPositions.length)
+		{
+			mPackedPositions = new double[3 * aPositions.length];
+		}
+
+		double[] positions = mPackedPositions;
+
+		Parallel.forEach(aPositions.length, aParallel, i ->
+		{
+			positions[3 * i] = aPositions[i].x;
+			positions[3 * i + 1] = aPositions[i].y;
+			positions[3 * i + 2] = aPositions[i].z;
+		});
+
+		return build(positions, aPositions.length, aParallel);
+	}
+
+
+	/**
+	 * Rebuilds the grid.
+	 *
+	 * @param aPositions interleaved x, y and z particle coordinates
+	 * @param aCount number of particles
+	 * @param aParallel true if the grid should be built in parallel
+	 * @return this grid
+	 */
+	public SpatialHashGrid build(double[] aPositions, int aCount, boolean aParallel)
+	{
+		if (mKeys.length != aCount)
+		{
+			mKeys = new long[aCount];
+			mSortedIndices = new int[aCount];
+			mSortedPositions = new double[3 * aCount];
+		}
+
+		mCount = aCount;
+
+		long[] keys = mKeys;
+		int[] sortedIndices = mSortedIndices;
+		double[] sortedPositions = mSortedPositions;
+
+		Parallel.forEach(aCount, aParallel, i ->
+		{
+			keys[i] = hash(cell(aPositions[3 * i]), cell(aPositions[3 * i + 1]), cell(aPositions[3 * i + 2]));
+		});
+
+		RadixSort.sort(keys, sortedIndices, mTableBits, aParallel);
+
+		Arrays.fill(mBucketStart, 0);
+		Arrays.fill(mBucketEnd, 0);
+
+		Parallel.forEach(aCount, aParallel, i ->
+		{
+			int j = sortedIndices[i];
+			sortedPositions[3 * i] = aPositions[3 * j];
+			sortedPositions[3 * i + 1] = aPositions[3 * j + 1];
+			sortedPositions[3 * i + 2] = aPositions[3 * j + 2];
+
+			// each bucket boundary is found by exactly one index, no synchronization needed
+			int bucket = (int)keys[i];
+			if (i == 0 || keys[i - 1] != bucket)
+			{
+				mBucketStart[bucket] = i;
+			}
+			if (i == aCount - 1 || keys[i + 1] != bucket)
+			{
+				mBucketEnd[bucket] = i + 1;
+			}
+		});
+
+		return this;
+	}
+
+
+	/**
+	 * Finds all particles within a radius of a position.
+	 *
+	 * @return number of neighbors found
+	 * @see #query(double, double, double, double, int[])
+	 */
+	public int query(Vec3d aPosition, double aRadius, int[] aOutput)
+	{
+		return query(aPosition.x, aPosition.y, aPosition.z, aRadius, aOutput);
+	}
+
+
+	/**
+	 * Finds all particles within a radius of a position. Indices of the particles found are written to the buffer provided, if the
+	 * buffer is too small the number returned is larger than the buffer and only the first neighbors found are written.
+	 *
+	 * @param aOutput buffer receiving the indices of the particles found
+	 * @return number of neighbors found
+	 */
+	public int query(double aX, double aY, double aZ, double aRadius, int[] aOutput)
+	{
+		double r2 = aRadius * aRadius;
+		int x0 = cell(aX - aRadius), x1 = cell(aX + aRadius);
+		int y0 = cell(aY - aRadius), y1 = cell(aY + aRadius);
+		int z0 = cell(aZ - aRadius), z1 = cell(aZ + aRadius);
+		double[] positions = mSortedPositions;
+		int found = 0;
+
+		// a query covering more cells than there are particles, e.g. a huge radius or cell coordinates saturated at the int range, scans
+		// the particles instead
+		if ((x1 - (double)x0 + 1) * (y1 - (double)y0 + 1) * (z1 - (double)z0 + 1) > mCount)
+		{
+			for (int i = 0; i < mCount; i++)
+			{
+				double dx = positions[3 * i] - aX;
+				double dy = positions[3 * i + 1] - aY;
+				double dz = positions[3 * i + 2] - aZ;
+
+				if (dx * dx + dy * dy + dz * dz <= r2)
+				{
+					if (found < aOutput.length)
+					{
+						aOutput[found] = mSortedIndices[i];
+					}
+					found++;
+				}
+			}
+
+			return found;
+		}
+
+		// long counters since the last cell may be Integer.MAX_VALUE
+		for (long cz = z0; cz <= z1; cz++)
+		{
+			for (long cy = y0; cy <= y1; cy++)
+			{
+				for (long cx = x0; cx <= x1; cx++)
+				{
+					int bucket = hash((int)cx, (int)cy, (int)cz);
+
+					for (int i = mBucketStart[bucket], end = mBucketEnd[bucket]; i < end; i++)
+					{
+						double px = positions[3 * i];
+						double py = positions[3 * i + 1];
+						double pz = positions[3 * i + 2];
+						double dx = px - aX;
+						double dy = py - aY;
+						double dz = pz - aZ;
+
+						// buckets may be shared by several cells, only accept particles in the cell being visited
+						if (dx * dx + dy * dy + dz * dz <= r2 && cell(px) == cx && cell(py) == cy && cell(pz) == cz)
+						{
+							if (found < aOutput.length)
+							{
+								aOutput[found] = mSortedIndices[i];
+							}
+							found++;
+						}
+					}
+				}
+			}
+		}
+
+		return found;
+	}
+
+
+	private int cell(double aValue)
+	{
+		return (int)Math.floor(aValue * mInvCellSize);
+	}
+
+
+	private int hash(int aX, int aY, int aZ)
+	{
+		int h = aX * 73856093 ^ aY * 19349663 ^ aZ * 83492791;
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		return h & mTableMask;
+	}
+}
@@ -0,0 +1,622 @@
+package org.terifan.algebra;
+
+import java.util.Arrays;
+
+
+/**
+ * Sweep-and-prune broadphase finding overlapping pairs of axis aligned bounding boxes.
+ * <p>
+ * The minimum and maximum of each box are kept as endpoints sorted along one or three axes. Since bodies move little between frames the
+ * endpoints are re-sorted using insertion sort, which runs in close to linear time on nearly sorted data, and the axes are sorted
+ * independently, optionally in parallel. The endpoints of bodies added since the previous update are sorted separately and merged in.
+ * Pairs are found by sweeping the sorted axis along which the boxes are most spread out and testing the remaining axes of the boxes
+ * whose intervals overlap.
+ * <p>
+ * Bodies are identified by the index returned when added, removed indices are reused. An instance is not thread safe.
+ */
+public class SweepAndPrune
+{
+	private final int mAxes;
+
+	private int mCapacity;
+	private int mBodyCount;
+	private int mFreeCount;
+	private int[] mFree;
+	private boolean[] mRemoved;
+	private boolean[] mInserted;
+	private int mInsertedCount;
+	private double[] mMin;
+	private double[] mMax;
+
+	// per sorted axis: endpoint body index and min/max flag (body << 1 | 1 for max) and the endpoint value
+	private final int[][] mEndpoints;
+	private final double[][] mValues;
+
+	// per sorted axis: endpoints of bodies added since the previous update, sorted separately before being merged
+	private final int[][] mInsertedEndpoints;
+	private final double[][] mInsertedValues;
+
+	// sweep state, the bounds of active bodies along the two axes not swept are copied to keep the inner loop sequential
+	private int[] mActive;
+	private int[] mActivePosition;
+	private double[] mActiveBounds;
+
+
+	/**
+	 * Creates a broadphase.
+	 *
+	 * @param aAxes number of axes to keep sorted, either 1 (the X axis) or 3. Sorting all three axes lets the sweep use the axis along
+	 * which the bodies are most spread out, which reports fewer interval overlaps for scenes that are flat or elongated.
+	 */
+	public SweepAndPrune(int aAxes)
+	{
+		if (aAxes != 1 && aAxes != 3)
+		{
+			throw new IllegalArgumentException("aAxes must be 1 or 3: " + aAxes);
+		}
+
+		mAxes = aAxes;
+		mEndpoints = new int[aAxes][];
+		mValues = new double[aAxes][];
+		mInsertedEndpoints = new int[aAxes][];
+		mInsertedValues = new double[aAxes][];
+
+		resize(16);
+	}
+
+
+	/**
+	 * Returns the number of bodies.
+	 */
+	public int size()
+	{
+		return mBodyCount - mFreeCount;
+	}
+
+
+	/**
+	 * Adds a body.
+	 *
+	 * @return the index of the body
+	 */
+	public int add(double aMinX, double aMinY, double aMinZ, double aMaxX, double aMaxY, double aMaxZ)
+	{
+		int body;
+
+		if (mFreeCount > 0)
+		{
+			body = mFree[--mFreeCount];
+			mRemoved[body] = false;
+		}
+		else
+		{
+			if (mBodyCount == mCapacity)
+			{
+				resize(2 * mCapacity);
+			}
+
+			body = mBodyCount++;
+
+			for (int axis = 0; axis < mAxes; axis++)
+			{
+				mEndpoints[axis][2 * body] = body << 1;
+				mEndpoints[axis][2 * body + 1] = (body << 1) | 1;
+			}
+		}
+
+		mInserted[body] = true;
+		mInsertedCount++;
+
+		setBounds(body, aMinX, aMinY, aMinZ, aMaxX, aMaxY, aMaxZ);
+
+		return body;
+	}
+
+
+	/**
+	 * Adds a body.
+	 *
+	 * @return the index of the body
+	 */
+	public int add(Vec3d aMin, Vec3d aMax)
+	{
+		return add(aMin.x, aMin.y, aMin.z, aMax.x, aMax.y, aMax.z);
+	}
+
+
+	/**
+	 * Removes a body. The index will be reused by a later call to add.
+	 */
+	public void remove(int aBody)
+	{
+		checkBody(aBody);
+
+		// removed bodies are moved past the end of every axis by the next update and are ignored by the sweep
+		Arrays.fill(mMin, 3 * aBody, 3 * aBody + 3, Double.POSITIVE_INFINITY);
+		Arrays.fill(mMax, 3 * aBody, 3 * aBody + 3, Double.POSITIVE_INFINITY);
+
+		mRemoved[aBody] = true;
+		mFree[mFreeCount++] = aBody;
+	}
+
+
+	/**
+	 * Sets the bounds of a body. The endpoints are re-sorted by the next call to update.
+	 */
+	public void setBounds(int aBody, double aMinX, double aMinY, double aMinZ, double aMaxX, double aMaxY, double aMaxZ)
+	{
+		checkBody(aBody);
+
+		int i = 3 * aBody;
+		mMin[i] = aMinX;
+		mMin[i + 1] = aMinY;
+		mMin[i + 2] = aMinZ;
+		mMax[i] = aMaxX;
+		mMax[i + 1] = aMaxY;
+		mMax[i + 2] = aMaxZ;
+	}
+
+
+	/**
+	 * Sets the bounds of a body. The endpoints are re-sorted by the next call to update.
+	 */
+	public void setBounds(int aBody, Vec3d aMin, Vec3d aMax)
+	{
+		setBounds(aBody, aMin.x, aMin.y, aMin.z, aMax.x, aMax.y, aMax.z);
+	}
+
+
+	/**
+	 * Sets the bounds of a body to the axis aligned bounding box of a box centered on the origin of a transform, taking the direction
+	 * and scale of the transform into account.
+	 *
+	 * @param aHalfExtents the half size of the box before it's transformed
+	 */
+	public void setBounds(int aBody, Transform3D aTransform, Vec3d aHalfExtents)
+	{
+		Vec3d p = aTransform.getPosition();
+		Vec3d s = aTransform.getScale();
+
+		double hx = Math.abs(aHalfExtents.x * s.x);
+		double hy = Math.abs(aHalfExtents.y * s.y);
+		double hz = Math.abs(aHalfExtents.z * s.z);
+
+		double ex, ey, ez;
+
+		if (aTransform.hasDirection())
+		{
+			Quaternion q = aTransform.getQuaternion();
+			double w = q.getW(), x = q.getX(), y = q.getY(), z = q.getZ();
+
+			// the extent along each world axis is the sum of the absolute rotation matrix row times the half extents
+			ex = Math.abs(1 - 2 * (y * y + z * z)) * hx + Math.abs(2 * (x * y - w * z)) * hy + Math.abs(2 * (x * z + w * y)) * hz;
+			ey = Math.abs(2 * (x * y + w * z)) * hx + Math.abs(1 - 2 * (x * x + z * z)) * hy + Math.abs(2 * (y * z - w * x)) * hz;
+			ez = Math.abs(2 * (x * z - w * y)) * hx + Math.abs(2 * (y * z + w * x)) * hy + Math.abs(1 - 2 * (x * x + y * y)) * hz;
+		}
+		else
+		{
+			ex = hx;
+			ey = hy;
+			ez = hz;
+		}
+
+		setBounds(aBody, p.x - ex, p.y - ey, p.z - ez, p.x + ex, p.y + ey, p.z + ez);
+	}
+
+
+	/**
+	 * Returns the minimum corner of the bounds of a body.
+	 *
+	 * @return the Vec3d provided
+	 */
+	public Vec3d getMin(int aBody, Vec3d aOutput)
+	{
+		checkBody(aBody);
+
+		return aOutput.set(mMin[3 * aBody], mMin[3 * aBody + 1], mMin[3 * aBody + 2]);
+	}
+
+
+	/**
+	 * Returns the maximum corner of the bounds of a body.
+	 *
+	 * @return the Vec3d provided
+	 */
+	public Vec3d getMax(int aBody, Vec3d aOutput)
+	{
+		checkBody(aBody);
+
+		return aOutput.set(mMax[3 * aBody], mMax[3 * aBody + 1], mMax[3 * aBody + 2]);
+	}
+
+
+	/**
+	 * Re-sorts the endpoints of every axis after the bounds of bodies have changed.
+	 *
+	 * @param aParallel true if the axes should be sorted concurrently
+	 */
+	public void update(boolean aParallel)
+	{
+		Parallel.forEach(mAxes, aParallel && mAxes > 1, this::sortAxis);
+
+		if (mInsertedCount > 0)
+		{
+			Arrays.fill(mInserted, 0, mBodyCount, false);
+			mInsertedCount = 0;
+		}
+	}
+
+
+	/**
+	 * Finds all pairs of bodies with overlapping bounds. Touching bounds are considered overlapping. The endpoints must have been sorted
+	 * by a call to update after the bounds changed.
+	 *
+	 * @param aPairs receives the pairs, the buffer is cleared before the pairs are added
+	 * @return the buffer provided
+	 */
+	public Pairs findPairs(Pairs aPairs)
+	{
+		aPairs.clear();
+
+		int axis = mAxes == 1 ? 0 : selectAxis();
+		int[] endpoints = mEndpoints[axis];
+		int[] active = mActive;
+		int[] activePosition = mActivePosition;
+		double[] bounds = mActiveBounds;
+		double[] min = mMin;
+		double[] max = mMax;
+		int a1 = (axis + 1) % 3;
+		int a2 = (axis + 2) % 3;
+		int activeCount = 0;
+
+		for (int i = 0, n = 2 * mBodyCount; i < n; i++)
+		{
+			int e = endpoints[i];
+			int body = e >>> 1;
+
+			if (mRemoved[body])
+			{
+				continue;
+			}
+
+			if ((e & 1) == 0)
+			{
+				int ib = 3 * body;
+				double min1 = min[ib + a1], max1 = max[ib + a1];
+				double min2 = min[ib + a2], max2 = max[ib + a2];
+
+				// non short-circuit operators since the outcome of each test is unpredictable
+				for (int j = 0, k = 0; j < activeCount; j++, k += 4)
+				{
+					if (bounds[k] <= max1 & bounds[k + 1] >= min1 & bounds[k + 2] <= max2 & bounds[k + 3] >= min2)
+					{
+						int other = active[j];
+						aPairs.add(Math.min(body, other), Math.max(body, other));
+					}
+				}
+
+				int k = 4 * activeCount;
+				bounds[k] = min1;
+				bounds[k + 1] = max1;
+				bounds[k + 2] = min2;
+				bounds[k + 3] = max2;
+				activePosition[body] = activeCount;
+				active[activeCount++] = body;
+			}
+			else
+			{
+				// the body may be missing if its bounds were inverted
+				int position = activePosition[body];
+				if (position < activeCount && active[position] == body)
+				{
+					int last = active[--activeCount];
+					active[position] = last;
+					activePosition[last] = position;
+					System.arraycopy(bounds, 4 * activeCount, bounds, 4 * position, 4);
+				}
+			}
+		}
+
+		return aPairs;
+	}
+
+
+	/**
+	 * Returns the sorted axis with the largest variance of the body centers.
+	 */
+	private int selectAxis()
+	{
+		double sx = 0, sy = 0, sz = 0;
+		double sxx = 0, syy = 0, szz = 0;
+		int count = 0;
+
+		for (int body = 0; body < mBodyCount; body++)
+		{
+			if (!mRemoved[body])
+			{
+				int i = 3 * body;
+				double cx = mMin[i] + mMax[i];
+				double cy = mMin[i + 1] + mMax[i + 1];
+				double cz = mMin[i + 2] + mMax[i + 2];
+				sx += cx;
+				sy += cy;
+				sz += cz;
+				sxx += cx * cx;
+				syy += cy * cy;
+				szz += cz * cz;
+				count++;
+			}
+		}
+
+		count = Math.max(count, 1);
+		double vx = sxx - sx * sx / count;
+		double vy = syy - sy * sy / count;
+		double vz = szz - sz * sz / count;
+
+		return vx >= vy && vx >= vz ? 0 : vy >= vz ? 1 : 2;
+	}
+
+
+	/**
+	 * Refreshes the endpoint values of an axis and restores the order. Minimum endpoints are ordered before maximum endpoints with the
+	 * same value so that touching bounds are reported by the sweep.
+	 * <p>
+	 * Endpoints of bodies added since the previous update can be anywhere along the axis, which would make insertion sort quadratic after
+	 * bulk adds. They are moved aside and merge sorted, the remaining endpoints are insertion sorted and the two runs are merged.
+	 */
+	private void sortAxis(int aAxis)
+	{
+		int[] endpoints = mEndpoints[aAxis];
+		double[] values = mValues[aAxis];
+		double[] min = mMin;
+		double[] max = mMax;
+		int n = 2 * mBodyCount;
+
+		for (int i = 0; i < n; i++)
+		{
+			int e = endpoints[i];
+			values[i] = ((e & 1) == 0 ? min : max)[3 * (e >>> 1) + aAxis];
+		}
+
+		if (mInsertedCount == 0)
+		{
+			insertionSort(endpoints, values, 0, n);
+			return;
+		}
+
+		int[] insertedEndpoints = mInsertedEndpoints[aAxis];
+		double[] insertedValues = mInsertedValues[aAxis];
+		int kept = 0;
+		int moved = 0;
+
+		for (int i = 0; i < n; i++)
+		{
+			int e = endpoints[i];
+
+			if (mInserted[e >>> 1])
+			{
+				insertedEndpoints[moved] = e;
+				insertedValues[moved++] = values[i];
+			}
+			else
+			{
+				endpoints[kept] = e;
+				values[kept++] = values[i];
+			}
+		}
+
+		insertionSort(endpoints, values, 0, kept);
+
+		// the tail vacated by the moved endpoints serves as the merge buffer
+		mergeSort(insertedEndpoints, insertedValues, 0, moved, endpoints, values, kept);
+
+		// merge from the back so the sorted run at the front is never overwritten before it's read
+		for (int i = kept - 1, j = moved - 1, k = n - 1; j >= 0; k--)
+		{
+			if (i >= 0 && isBefore(insertedValues[j], insertedEndpoints[j], values[i], endpoints[i]))
+			{
+				endpoints[k] = endpoints[i];
+				values[k] = values[i--];
+			}
+			else
+			{
+				endpoints[k] = insertedEndpoints[j];
+				values[k] = insertedValues[j--];
+			}
+		}
+	}
+
+
+	private static void insertionSort(int[] aEndpoints, double[] aValues, int aFrom, int aTo)
+	{
+		for (int i = aFrom + 1; i < aTo; i++)
+		{
+			int e = aEndpoints[i];
+			double v = aValues[i];
+			int j = i - 1;
+
+			while (j >= aFrom && isBefore(v, e, aValues[j], aEndpoints[j]))
+			{
+				aEndpoints[j + 1] = aEndpoints[j];
+				aValues[j + 1] = aValues[j];
+				j--;
+			}
+
+			aEndpoints[j + 1] = e;
+			aValues[j + 1] = v;
+		}
+	}
+
+
+	/**
+	 * Stable merge sort of a range using a buffer starting at the offset provided with room for half the range.
+	 */
+	private static void mergeSort(int[] aEndpoints, double[] aValues, int aFrom, int aTo, int[] aBufferEndpoints, double[] aBufferValues, int aBufferOffset)
+	{
+		if (aTo - aFrom <= 32)
+		{
+			insertionSort(aEndpoints, aValues, aFrom, aTo);
+			return;
+		}
+
+		int mid = (aFrom + aTo) >>> 1;
+
+		mergeSort(aEndpoints, aValues, aFrom, mid, aBufferEndpoints, aBufferValues, aBufferOffset);
+		mergeSort(aEndpoints, aValues, mid, aTo, aBufferEndpoints, aBufferValues, aBufferOffset);
+
+		if (!isBefore(aValues[mid], aEndpoints[mid], aValues[mid - 1], aEndpoints[mid - 1]))
+		{
+			return;
+		}
+
+		int length = mid - aFrom;
+		System.arraycopy(aEndpoints, aFrom, aBufferEndpoints, aBufferOffset, length);
+		System.arraycopy(aValues, aFrom, aBufferValues, aBufferOffset, length);
+
+		int i = aBufferOffset;
+		int end = aBufferOffset + length;
+		int j = mid;
+		int k = aFrom;
+
+		while (i < end && j < aTo)
+		{
+			if (isBefore(aValues[j], aEndpoints[j], aBufferValues[i], aBufferEndpoints[i]))
+			{
+				aEndpoints[k] = aEndpoints[j];
+				aValues[k++] = aValues[j++];
+			}
+			else
+			{
+				aEndpoints[k] = aBufferEndpoints[i];
+				aValues[k++] = aBufferValues[i++];
+			}
+		}
+
+		System.arraycopy(aBufferEndpoints, i, aEndpoints, k, end - i);
+		System.arraycopy(aBufferValues, i, aValues, k, end - i);
+	}
+
+
+	/**
+	 * Returns true if the first endpoint is ordered strictly before the second.
+	 */
+	private static boolean isBefore(double aValue, int aEndpoint, double aOtherValue, int aOtherEndpoint)
+	{
+		return aValue < aOtherValue || aValue == aOtherValue && (aEndpoint & 1) < (aOtherEndpoint & 1);
+	}
+
+
+	private void resize(int aCapacity)
+	{
+		mCapacity = aCapacity;
+		mMin = mMin == null ? new double[3 * aCapacity] : Arrays.copyOf(mMin, 3 * aCapacity);
+		mMax = mMax == null ? new double[3 * aCapacity] : Arrays.copyOf(mMax, 3 * aCapacity);
+		mRemoved = mRemoved == null ? new boolean[aCapacity] : Arrays.copyOf(mRemoved, aCapacity);
+		mInserted = mInserted == null ? new boolean[aCapacity] : Arrays.copyOf(mInserted, aCapacity);
+		mFree = mFree == null ? new int[aCapacity] : Arrays.copyOf(mFree, aCapacity);
+		mActive = new int[aCapacity];
+		mActivePosition = new int[aCapacity];
+		mActiveBounds = new double[4 * aCapacity];
+
+		for (int axis = 0; axis < mAxes; axis++)
+		{
+			mEndpoints[axis] = mEndpoints[axis] == null ? new int[2 * aCapacity] : Arrays.copyOf(mEndpoints[axis], 2 * aCapacity);
+			mValues[axis] = new double[2 * aCapacity];
+			mInsertedEndpoints[axis] = new int[2 * aCapacity];
+			mInsertedValues[axis] = new double[2 * aCapacity];
+		}
+	}
+
+
+	private void checkBody(int aBody)
+	{
+		if (aBody < 0 || aBody >= mBodyCount)
+		{
+			throw new IllegalArgumentException("aBody out of bounds: " + aBody);
+		}
+		if (mRemoved[aBody])
+		{
+			throw new IllegalArgumentException("Body has been removed: " + aBody);
+		}
+	}
+
+
+	/**
+	 * A growable buffer of pairs of body indices stored in a primitive array. The first index of a pair is always smaller than the
+	 * second.
+	 */
+	public static class Pairs
+	{
+		private int[] mPairs;
+		private int mSize;
+
+
+		public Pairs()
+		{
+			this(64);
+		}
+
+
+		public Pairs(int aInitialCapacity)
+		{
+			mPairs = new int[2 * Math.max(aInitialCapacity, 1)];
+		}
+
+
+		public int size()
+		{
+			return mSize;
+		}
+
+
+		public int getFirst(int aIndex)
+		{
+			if (aIndex < 0 || aIndex >= mSize)
+			{
+				throw new IllegalArgumentException("aIndex out of bounds: " + aIndex);
+			}
+
+			return mPairs[2 * aIndex];
+		}
+
+
+		public int getSecond(int aIndex)
+		{
+			if (aIndex < 0 || aIndex >= mSize)
+			{
+				throw new IllegalArgumentException("aIndex out of bounds: " + aIndex);
+			}
+
+			return mPairs[2 * aIndex + 1];
+		}
+
+
+		/**
+		 * Returns the backing array with pairs stored interleaved. The array is replaced when the buffer grows.
+		 */
+		public int[] array()
+		{
+			return mPairs;
+		}
+
+
+		public Pairs clear()
+		{
+			mSize = 0;
+			return this;
+		}
+
+
+		void add(int aFirst, int aSecond)
+		{
+			if (2 * mSize == mPairs.length)
+			{
+				mPairs = Arrays.copyOf(mPairs, 2 * mPairs.length);
+			}
+
+			mPairs[2 * mSize] = aFirst;
+			mPairs[2 * mSize + 1] = aSecond;
+			mSize++;
+		}
+	}
+}
@@ -0,0 +1,549 @@
+package org.terifan.algebra;
+
+import javax.vecmath.TexCoord2f;
+
+
+/**
+ * Mipmapped texture with nearest, bilinear and trilinear filtering.
+ * <p>
+ * Texels are stored as 1 to 4 float channels and all levels of the mip pyramid are stored after each other in a single array, level 0
+ * first. Each level is half the size of the previous, rounded down, and is computed from the previous level using a box filter in
+ * parallel over rows. The filter spans two texels along even dimensions and three weighted texels along odd dimensions, so every texel
+ * contributes to the next level. Packed ARGB images are decoded from sRGB to linear values so that filtering is done in linear space.
+ * <p>
+ * Texture coordinates are normalized with (0,0) in the top left corner of the first texel and (1,1) in the bottom right corner of the
+ * last texel. Lookups don't allocate and may be done concurrently.
+ */
+public class Texture
+{
+	/**
+	 * How texture coordinates outside the range 0-1 are handled.
+	 */
+	public enum Wrap
+	{
+		/**
+		 * The texture repeats.
+		 */
+		REPEAT,
+		/**
+		 * Coordinates are clamped to the edge texels.
+		 */
+		CLAMP,
+		/**
+		 * The texture repeats, every other copy mirrored.
+		 */
+		MIRROR
+	}
+
+
+	/**
+	 * Texture filtering.
+	 */
+	public enum Filter
+	{
+		/**
+		 * The nearest texel of the nearest level.
+		 */
+		NEAREST,
+		/**
+		 * Bilinear interpolation of the four nearest texels of the nearest level.
+		 */
+		BILINEAR,
+		/**
+		 * Bilinear interpolation in the two nearest levels, linearly interpolated.
+		 */
+		TRILINEAR
+	}
+
+
+	private final int mChannels;
+	private final int mLevels;
+	private final int[] mWidths;
+	private final int[] mHeights;
+	private final int[] mOffsets;
+	private final float[] mTexels;
+	private Wrap mWrapU;
+	private Wrap mWrapV;
+
+
+	/**
+	 * Creates a texture from linear float values.
+	 *
+	 * @param aPixels aChannels values per pixel stored row by row
+	 * @param aChannels number of channels, 1 to 4
+	 * @param aParallel true if the mip levels should be computed in parallel
+	 */
+	public Texture(float[] aPixels, int aChannels, int aWidth, int aHeight, boolean aParallel)
+	{
+		this(aChannels, aWidth, aHeight);
+
+		if (aPixels.length < aChannels * aWidth * aHeight)
+		{
+			throw new IllegalArgumentException("aPixels is too small: " + aPixels.length);
+		}
+
+		System.arraycopy(aPixels, 0, mTexels, 0, aChannels * aWidth * aHeight);
+
+		buildLevels(aParallel);
+	}
+
+
+	/**
+	 * Creates a texture with four channels, red, green, blue and alpha, from packed sRGB encoded ARGB pixels.
+	 *
+	 * @param aPixels pixels stored row by row
+	 * @param aParallel true if the pixels should be decoded and mip levels computed in parallel
+	 */
+	public Texture(int[] aPixels, int aWidth, int aHeight, boolean aParallel)
+	{
+		this(4, aWidth, aHeight);
+
+		if (aPixels.length < aWidth * aHeight)
+		{
+			throw new IllegalArgumentException("aPixels is too small: " + aPixels.length);
+		}
+
+		ColorConverter.decode(aPixels, mTexels, 4, aWidth, aHeight, aParallel);
+
+		buildLevels(aParallel);
+	}
+
+
+	private Texture(int aChannels, int aWidth, int aHeight)
+	{
+		if (aChannels < 1 || aChannels > 4)
+		{
+			throw new IllegalArgumentException("aChannels out of bounds: " + aChannels);
+		}
+		if (aWidth < 1)
+		{
+			throw new IllegalArgumentException("aWidth out of bounds: " + aWidth);
+		}
+		if (aHeight < 1)
+		{
+			throw new IllegalArgumentException("aHeight out of bounds: " + aHeight);
+		}
+
+		int levels = 1;
+		for (int w = aWidth, h = aHeight; w > 1 || h > 1; w = Math.max(1, w / 2), h = Math.max(1, h / 2))
+		{
+			levels++;
+		}
+
+		mChannels = aChannels;
+		mLevels = levels;
+		mWidths = new int[levels];
+		mHeights = new int[levels];
+		mOffsets = new int[levels];
+		mWrapU = Wrap.REPEAT;
+		mWrapV = Wrap.REPEAT;
+
+		long size = 0;
+		for (int level = 0, w = aWidth, h = aHeight; level < levels; level++, w = Math.max(1, w / 2), h = Math.max(1, h / 2))
+		{
+			mWidths[level] = w;
+			mHeights[level] = h;
+			mOffsets[level] = (int)size;
+			size += (long)aChannels * w * h;
+		}
+
+		if (size > Integer.MAX_VALUE - 8)
+		{
+			throw new IllegalArgumentException("Texture is too large: " + aWidth + "x" + aHeight);
+		}
+
+		mTexels = new float[(int)size];
+	}
+
+
+	private void buildLevels(boolean aParallel)
+	{
+		int c = mChannels;
+
+		for (int level = 1; level < mLevels; level++)
+		{
+			int srcOffset = mOffsets[level - 1];
+			int srcWidth = mWidths[level - 1];
+			int srcHeight = mHeights[level - 1];
+			int dstOffset = mOffsets[level];
+			int dstWidth = mWidths[level];
+			int dstHeight = mHeights[level];
+
+			int[] columns = new int[3 * dstWidth];
+			float[] columnWeights = new float[3 * dstWidth];
+			int[] rows = new int[3 * dstHeight];
+			float[] rowWeights = new float[3 * dstHeight];
+			int tapsX = filterTaps(srcWidth, dstWidth, columns, columnWeights);
+			int tapsY = filterTaps(srcHeight, dstHeight, rows, rowWeights);
+
+			Parallel.forEach(dstHeight, aParallel, y ->
+			{
+				float[] texels = mTexels;
+
+				for (int x = 0; x < dstWidth; x++)
+				{
+					int o = dstOffset + c * (y * dstWidth + x);
+
+					for (int k = 0; k < c; k++)
+					{
+						texels[o + k] = 0;
+					}
+
+					for (int ty = 0; ty < tapsY; ty++)
+					{
+						int row = srcOffset + c * srcWidth * rows[tapsY * y + ty];
+						float wy = rowWeights[tapsY * y + ty];
+
+						for (int tx = 0; tx < tapsX; tx++)
+						{
+							int i = row + c * columns[tapsX * x + tx];
+							float w = wy * columnWeights[tapsX * x + tx];
+
+							for (int k = 0; k < c; k++)
+							{
+								texels[o + k] += w * texels[i + k];
+							}
+						}
+					}
+				}
+			});
+		}
+	}
+
+
+	/**
+	 * Computes the source texels and weights of a box filter reducing a row or column of texels to half its size, rounded down. An even
+	 * size averages pairs of texels. An odd size has its texels spread over the destination using three texels per destination texel
+	 * weighted by their overlap with it, instead of skipping the last texel.
+	 *
+	 * @return the number of texels per destination texel
+	 */
+	private static int filterTaps(int aSrcSize, int aDstSize, int[] aIndices, float[] aWeights)
+	{
+		int taps = aSrcSize == 1 ? 1 : (aSrcSize & 1) == 0 ? 2 : 3;
+
+		for (int i = 0; i < aDstSize; i++)
+		{
+			for (int t = 0; t < taps; t++)
+			{
+				aIndices[taps * i + t] = Math.min(2 * i + t, aSrcSize - 1);
+			}
+
+			if (taps == 1)
+			{
+				aWeights[i] = 1;
+			}
+			else if (taps == 2)
+			{
+				aWeights[2 * i] = 0.5f;
+				aWeights[2 * i + 1] = 0.5f;
+			}
+			else
+			{
+				aWeights[3 * i] = (aDstSize - i) / (float)aSrcSize;
+				aWeights[3 * i + 1] = aDstSize / (float)aSrcSize;
+				aWeights[3 * i + 2] = (i + 1) / (float)aSrcSize;
+			}
+		}
+
+		return taps;
+	}
+
+
+	public int getChannels()
+	{
+		return mChannels;
+	}
+
+
+	/**
+	 * Returns the number of levels of the mip pyramid, including the full size image.
+	 */
+	public int getLevelCount()
+	{
+		return mLevels;
+	}
+
+
+	public int getWidth(int aLevel)
+	{
+		return mWidths[aLevel];
+	}
+
+
+	public int getHeight(int aLevel)
+	{
+		return mHeights[aLevel];
+	}
+
+
+	/**
+	 * Returns the texels of all levels, see getLevelOffset.
+	 */
+	public float[] getTexels()
+	{
+		return mTexels;
+	}
+
+
+	/**
+	 * Returns the index of the first texel of a level in the texel array.
+	 */
+	public int getLevelOffset(int aLevel)
+	{
+		return mOffsets[aLevel];
+	}
+
+
+	/**
+	 * Sets how texture coordinates outside the range 0-1 are handled.
+	 *
+	 * @return this texture
+	 */
+	public Texture setWrap(Wrap aWrapU, Wrap aWrapV)
+	{
+		mWrapU = aWrapU;
+		mWrapV = aWrapV;
+		return this;
+	}
+
+
+	public Wrap getWrapU()
+	{
+		return mWrapU;
+	}
+
+
+	public Wrap getWrapV()
+	{
+		return mWrapV;
+	}
+
+
+	/**
+	 * Computes the level of detail from the screen space derivatives of the texture coordinates.
+	 *
+	 * @return the base 2 logarithm of the largest footprint of a pixel in texels of level 0
+	 */
+	public float computeLod(float aDuDx, float aDvDx, float aDuDy, float aDvDy)
+	{
+		float w = mWidths[0];
+		float h = mHeights[0];
+		float x = (aDuDx * w) * (aDuDx * w) + (aDvDx * h) * (aDvDx * h);
+		float y = (aDuDy * w) * (aDuDy * w) + (aDvDy * h) * (aDvDy * h);
+
+		return 0.5f * (float)(Math.log(Math.max(x, y)) / Math.log(2));
+	}
+
+
+	/**
+	 * Samples the texture.
+	 *
+	 * @param aFilter the filter
+	 * @param aU horizontal texture coordinate
+	 * @param aV vertical texture coordinate
+	 * @param aLod level of detail, 0 for the full size image, see computeLod. Ignored by the nearest and bilinear filters beyond selecting
+	 * the nearest level.
+	 * @param aOutput an array receiving one value per channel
+	 * @param aOffset offset in the output array
+	 * @return the output array provided
+	 */
+	public float[] sample(Filter aFilter, float aU, float aV, float aLod, float[] aOutput, int aOffset)
+	{
+		switch (aFilter)
+		{
+			case NEAREST:
+				return sampleNearest(aU, aV, nearestLevel(aLod), aOutput, aOffset);
+			case BILINEAR:
+				return sampleBilinear(aU, aV, nearestLevel(aLod), aOutput, aOffset);
+			default:
+				return sampleTrilinear(aU, aV, aLod, aOutput, aOffset);
+		}
+	}
+
+
+	/**
+	 * Samples the texture.
+	 *
+	 * @see #sample(Filter, float, float, float, float[], int)
+	 */
+	public float[] sample(Filter aFilter, TexCoord2f aTexCoord, float aLod, float[] aOutput)
+	{
+		return sample(aFilter, aTexCoord.x, aTexCoord.y, aLod, aOutput, 0);
+	}
+
+
+	/**
+	 * Samples the texture at multiple coordinates.
+	 *
+	 * @param aTexCoords interleaved u and v coordinates
+	 * @param aLods level of detail per coordinate, or null for level 0
+	 * @param aCount number of coordinates
+	 * @param aOutput an array receiving one value per channel and coordinate
+	 * @return the output array provided
+	 */
+	public float[] sample(Filter aFilter, float[] aTexCoords, float[] aLods, int aCount, float[] aOutput)
+	{
+		for (int i = 0; i < aCount; i++)
+		{
+			sample(aFilter, aTexCoords[2 * i], aTexCoords[2 * i + 1], aLods == null ? 0 : aLods[i], aOutput, mChannels * i);
+		}
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Samples the texture at multiple coordinates.
+	 *
+	 * @param aLods level of detail per coordinate, or null for level 0
+	 * @param aOutput an array receiving one value per channel and coordinate
+	 * @return the output array provided
+	 */
+	public float[] sample(Filter aFilter, TexCoord2f[] aTexCoords, float[] aLods, float[] aOutput)
+	{
+		for (int i = 0; i < aTexCoords.length; i++)
+		{
+			sample(aFilter, aTexCoords[i].x, aTexCoords[i].y, aLods == null ? 0 : aLods[i], aOutput, mChannels * i);
+		}
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Returns the nearest texel of a level.
+	 *
+	 * @return the output array provided
+	 */
+	public float[] sampleNearest(float aU, float aV, int aLevel, float[] aOutput, int aOffset)
+	{
+		int w = mWidths[aLevel];
+		int h = mHeights[aLevel];
+		int x = wrap(fastFloor(aU * w), w, mWrapU);
+		int y = wrap(fastFloor(aV * h), h, mWrapV);
+
+		System.arraycopy(mTexels, mOffsets[aLevel] + mChannels * (y * w + x), aOutput, aOffset, mChannels);
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Returns the bilinear interpolation of the four nearest texels of a level.
+	 *
+	 * @return the output array provided
+	 */
+	public float[] sampleBilinear(float aU, float aV, int aLevel, float[] aOutput, int aOffset)
+	{
+		for (int k = 0; k < mChannels; k++)
+		{
+			aOutput[aOffset + k] = 0;
+		}
+
+		accumulateBilinear(aU, aV, aLevel, 1, aOutput, aOffset);
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Returns the linear interpolation of the bilinear samples of the two levels nearest the level of detail.
+	 *
+	 * @return the output array provided
+	 */
+	public float[] sampleTrilinear(float aU, float aV, float aLod, float[] aOutput, int aOffset)
+	{
+		for (int k = 0; k < mChannels; k++)
+		{
+			aOutput[aOffset + k] = 0;
+		}
+
+		if (!(aLod > 0))
+		{
+			accumulateBilinear(aU, aV, 0, 1, aOutput, aOffset);
+		}
+		else if (aLod >= mLevels - 1)
+		{
+			accumulateBilinear(aU, aV, mLevels - 1, 1, aOutput, aOffset);
+		}
+		else
+		{
+			int level = (int)aLod;
+			float f = aLod - level;
+
+			accumulateBilinear(aU, aV, level, 1 - f, aOutput, aOffset);
+			accumulateBilinear(aU, aV, level + 1, f, aOutput, aOffset);
+		}
+
+		return aOutput;
+	}
+
+
+	private void accumulateBilinear(float aU, float aV, int aLevel, float aWeight, float[] aOutput, int aOffset)
+	{
+		int w = mWidths[aLevel];
+		int h = mHeights[aLevel];
+		float x = aU * w - 0.5f;
+		float y = aV * h - 0.5f;
+		int ix = fastFloor(x);
+		int iy = fastFloor(y);
+		float fx = x - ix;
+		float fy = y - iy;
+		int x0 = wrap(ix, w, mWrapU);
+		int x1 = wrap(ix + 1, w, mWrapU);
+		int y0 = wrap(iy, h, mWrapV);
+		int y1 = wrap(iy + 1, h, mWrapV);
+
+		float[] texels = mTexels;
+		int c = mChannels;
+		int base = mOffsets[aLevel];
+		int i00 = base + c * (y0 * w + x0);
+		int i10 = base + c * (y0 * w + x1);
+		int i01 = base + c * (y1 * w + x0);
+		int i11 = base + c * (y1 * w + x1);
+		float w00 = (1 - fx) * (1 - fy) * aWeight;
+		float w10 = fx * (1 - fy) * aWeight;
+		float w01 = (1 - fx) * fy * aWeight;
+		float w11 = fx * fy * aWeight;
+
+		for (int k = 0; k < c; k++)
+		{
+			aOutput[aOffset + k] += w00 * texels[i00 + k] + w10 * texels[i10 + k] + w01 * texels[i01 + k] + w11 * texels[i11 + k];
+		}
+	}
+
+
+	private int nearestLevel(float aLod)
+	{
+		if (!(aLod > 0.5f))
+		{
+			return 0;
+		}
+
+		return Math.min(mLevels - 1, (int)(aLod + 0.5f));
+	}
+
+
+	private static int fastFloor(float aValue)
+	{
+		int i = (int)aValue;
+
+		return aValue < i ? i - 1 : i;
+	}
+
+
+	private static int wrap(int aIndex, int aSize, Wrap aWrap)
+	{
+		switch (aWrap)
+		{
+			case CLAMP:
+				return aIndex < 0 ? 0 : aIndex >= aSize ? aSize - 1 : aIndex;
+			case MIRROR:
+				int i = Math.floorMod(aIndex, 2 * aSize);
+				return i < aSize ? i : 2 * aSize - 1 - i;
+			default:
+				return Math.floorMod(aIndex, aSize);
+		}
+	}
+}
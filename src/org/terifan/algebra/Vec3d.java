@@ -11,10 +11,16 @@ import org.terifan.bundle.BundlableOutput;
 /**
  * Vector class represents a point in space defined by x, y and z coordinates.
  */
-public class Vec3d implements Cloneable, Serializable, Bundlable
+public class Vec3d implements ReadOnlyVec3d, Cloneable, Serializable, Bundlable
 {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * A zero vector. This instance is mutable and shared, use {@link ImmutableVec3d#ZERO} where a constant is needed.
+	 *
+	 * @deprecated replaced by {@link ImmutableVec3d#ZERO}
+	 */
+	@Deprecated
 	public final static Vec3d ZERO = new Vec3d()
 	{
 		@Override
@@ -74,6 +80,15 @@ public class Vec3d implements Cloneable, Serializable, Bundlable
 	}
 
 
+	/**
+	 * Constructs a new Vector.
+	 */
+	public Vec3d(ReadOnlyVec3d aVector)
+	{
+		set(aVector);
+	}
+
+
 	/**
 	 * Constructs a new Vector.
 	 */
@@ -109,6 +124,19 @@ public class Vec3d implements Cloneable, Serializable, Bundlable
 	}
 
 
+	/**
+	 * Sets the coordinates of this Vector.
+	 */
+	public Vec3d set(ReadOnlyVec3d aVector)
+	{
+		x = aVector.getX();
+		y = aVector.getY();
+		z = aVector.getZ();
+
+		return this;
+	}
+
+
 	/**
 	 * Sets the coordinates of this Vector.
 	 */
@@ -135,6 +163,27 @@ public class Vec3d implements Cloneable, Serializable, Bundlable
 	}
 
 
+	@Override
+	public double getX()
+	{
+		return x;
+	}
+
+
+	@Override
+	public double getY()
+	{
+		return y;
+	}
+
+
+	@Override
+	public double getZ()
+	{
+		return z;
+	}
+
+
 	/**
 	 * Sets each of the x, y, z coordinates to their absolute values.
 	 */
@@ -0,0 +1,282 @@
+package org.terifan.algebra;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.util.stream.LongStream;
+
+
+/**
+ * Off-heap storage of Vec3f points. Points are stored as interleaved little-endian x, y and z floats in direct or memory-mapped buffers
+ * outside of the garbage collected heap. The store is split in chunks allowing far more points than a single buffer or array can hold.
+ * <p>
+ * Points are accessed by index through a reusable Vec3f or in bulk through {@link #forEach(Visitor, boolean)} which visits the points in
+ * blocks, optionally in parallel.
+ */
+public class Vec3fStore
+{
+	/**
+	 * Number of points in each chunk, 768 MB of data per chunk.
+	 */
+	private final static int CHUNK_POINTS = 1 << 26;
+
+	/**
+	 * Number of points in each block visited by {@link #forEach(Visitor, boolean)}.
+	 */
+	private final static int BLOCK_POINTS = 1 << 16;
+
+	private final long mSize;
+	private final FloatBuffer[] mChunks;
+
+
+	/**
+	 * Visits blocks of points.
+	 */
+	@FunctionalInterface
+	public interface Visitor
+	{
+		/**
+		 * @param aCoordinates buffer with interleaved x, y and z coordinates, point {@code i} in the block starts at index {@code 3 * i}
+		 * @param aFirstIndex index in the store of the first point in the block
+		 * @param aCount number of points in the block
+		 */
+		void visit(FloatBuffer aCoordinates, long aFirstIndex, int aCount);
+	}
+
+
+	/**
+	 * Allocates a store in direct memory. All points are initialized to (0,0,0).
+	 *
+	 * @param aSize number of points
+	 */
+	public Vec3fStore(long aSize)
+	{
+		if (aSize < 0)
+		{
+			throw new IllegalArgumentException("aSize must not be negative: " + aSize);
+		}
+
+		mSize = aSize;
+		mChunks = new FloatBuffer[getChunkCount(aSize)];
+
+		for (int i = 0; i < mChunks.length; i++)
+		{
+			mChunks[i] = ByteBuffer.allocateDirect(12 * getChunkSize(i)).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+		}
+	}
+
+
+	private Vec3fStore(long aSize, FloatBuffer[] aChunks)
+	{
+		mSize = aSize;
+		mChunks = aChunks;
+	}
+
+
+	/**
+	 * Memory-maps a store from a file containing interleaved little-endian x, y and z floats. Changes to a writable store are written to
+	 * the file. The file is extended if needed when mapped writable.
+	 *
+	 * @param aChannel the file
+	 * @param aPosition the position in the file of the first point
+	 * @param aSize number of points
+	 * @param aWritable true if the store should be writable
+	 */
+	public static Vec3fStore map(FileChannel aChannel, long aPosition, long aSize, boolean aWritable) throws IOException
+	{
+		FileChannel.MapMode mode = aWritable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+		FloatBuffer[] chunks = new FloatBuffer[getChunkCount(aSize)];
+
+		for (int i = 0; i < chunks.length; i++)
+		{
+			long position = aPosition + 12L * i * CHUNK_POINTS;
+			int size = 12 * (int)Math.min(CHUNK_POINTS, aSize - (long)i * CHUNK_POINTS);
+
+			chunks[i] = aChannel.map(mode, position, size).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+		}
+
+		return new Vec3fStore(aSize, chunks);
+	}
+
+
+	/**
+	 * Returns the number of points in this store.
+	 */
+	public long size()
+	{
+		return mSize;
+	}
+
+
+	/**
+	 * Reads a point.
+	 *
+	 * @param aIndex index of the point
+	 * @param aOutput a Vec3f receiving the coordinates
+	 * @return the Vec3f provided
+	 */
+	public Vec3f get(long aIndex, Vec3f aOutput)
+	{
+		checkIndex(aIndex);
+
+		FloatBuffer chunk = mChunks[(int)(aIndex / CHUNK_POINTS)];
+		int i = 3 * (int)(aIndex % CHUNK_POINTS);
+
+		aOutput.x = chunk.get(i);
+		aOutput.y = chunk.get(i + 1);
+		aOutput.z = chunk.get(i + 2);
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Writes a point.
+	 */
+	public Vec3fStore set(long aIndex, Vec3f aVector)
+	{
+		return set(aIndex, aVector.x, aVector.y, aVector.z);
+	}
+
+
+	/**
+	 * Writes a point.
+	 */
+	public Vec3fStore set(long aIndex, float aX, float aY, float aZ)
+	{
+		checkIndex(aIndex);
+
+		FloatBuffer chunk = mChunks[(int)(aIndex / CHUNK_POINTS)];
+		int i = 3 * (int)(aIndex % CHUNK_POINTS);
+
+		chunk.put(i, aX);
+		chunk.put(i + 1, aY);
+		chunk.put(i + 2, aZ);
+
+		return this;
+	}
+
+
+	/**
+	 * Transforms all points by a matrix including the translation of the matrix. Blocks of points are transformed in parallel.
+	 *
+	 * @return this store
+	 */
+	public Vec3fStore transform(Mat4d aMatrix)
+	{
+		float m00 = (float)aMatrix.m00, m01 = (float)aMatrix.m01, m02 = (float)aMatrix.m02;
+		float m10 = (float)aMatrix.m10, m11 = (float)aMatrix.m11, m12 = (float)aMatrix.m12;
+		float m20 = (float)aMatrix.m20, m21 = (float)aMatrix.m21, m22 = (float)aMatrix.m22;
+		float m30 = (float)aMatrix.m30, m31 = (float)aMatrix.m31, m32 = (float)aMatrix.m32;
+
+		forEach((aCoordinates, aFirstIndex, aCount) ->
+		{
+			for (int i = 0, n = 3 * aCount; i < n; i += 3)
+			{
+				float x = aCoordinates.get(i);
+				float y = aCoordinates.get(i + 1);
+				float z = aCoordinates.get(i + 2);
+
+				aCoordinates.put(i, m00 * x + m10 * y + m20 * z + m30);
+				aCoordinates.put(i + 1, m01 * x + m11 * y + m21 * z + m31);
+				aCoordinates.put(i + 2, m02 * x + m12 * y + m22 * z + m32);
+			}
+		}, true);
+
+		return this;
+	}
+
+
+	/**
+	 * Rotates all points by a quaternion. Blocks of points are transformed in parallel.
+	 *
+	 * @return this store
+	 */
+	public Vec3fStore transform(Quaternion aQuaternion)
+	{
+		float w = (float)aQuaternion.getW();
+		float qx = (float)aQuaternion.getX();
+		float qy = (float)aQuaternion.getY();
+		float qz = (float)aQuaternion.getZ();
+
+		forEach((aCoordinates, aFirstIndex, aCount) ->
+		{
+			for (int i = 0, n = 3 * aCount; i < n; i += 3)
+			{
+				float x = aCoordinates.get(i);
+				float y = aCoordinates.get(i + 1);
+				float z = aCoordinates.get(i + 2);
+
+				float ccx = qy * z - qz * y + x * w;
+				float ccy = qz * x - qx * z + y * w;
+				float ccz = qx * y - qy * x + z * w;
+
+				aCoordinates.put(i, x + 2 * (qy * ccz - qz * ccy));
+				aCoordinates.put(i + 1, y + 2 * (qz * ccx - qx * ccz));
+				aCoordinates.put(i + 2, z + 2 * (qx * ccy - qy * ccx));
+			}
+		}, true);
+
+		return this;
+	}
+
+
+	/**
+	 * Visits all points in blocks. Blocks never span chunks and each block is visited exactly once.
+	 *
+	 * @param aVisitor the visitor
+	 * @param aParallel true if blocks should be visited in parallel
+	 */
+	public void forEach(Visitor aVisitor, boolean aParallel)
+	{
+		LongStream blocks = LongStream.range(0, (mSize + BLOCK_POINTS - 1) / BLOCK_POINTS);
+
+		if (aParallel)
+		{
+			blocks = blocks.parallel();
+		}
+
+		blocks.forEach(aBlock ->
+		{
+			long first = aBlock * BLOCK_POINTS;
+			int count = (int)Math.min(BLOCK_POINTS, mSize - first);
+			int offset = 3 * (int)(first % CHUNK_POINTS);
+
+			FloatBuffer chunk = mChunks[(int)(first / CHUNK_POINTS)].duplicate();
+			chunk.limit(offset + 3 * count);
+			chunk.position(offset);
+
+			aVisitor.visit(chunk.slice(), first, count);
+		});
+	}
+
+
+	private void checkIndex(long aIndex)
+	{
+		if (aIndex < 0 || aIndex >= mSize)
+		{
+			throw new IllegalArgumentException("aIndex out of bounds: " + aIndex);
+		}
+	}
+
+
+	private int getChunkSize(int aChunk)
+	{
+		return (int)Math.min(CHUNK_POINTS, mSize - (long)aChunk * CHUNK_POINTS);
+	}
+
+
+	private static int getChunkCount(long aSize)
+	{
+		long count = (aSize + CHUNK_POINTS - 1) / CHUNK_POINTS;
+
+		if (count > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("Too many points: " + aSize);
+		}
+
+		return (int)count;
+	}
+}
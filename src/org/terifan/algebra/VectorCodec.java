@@ -0,0 +1,439 @@
+package org.terifan.algebra;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Binary codec writing and reading arrays of vectors, matrices and quaternions as blocks of little-endian primitives.
+ * <p>
+ * Each array is stored as a block with an 8 byte header (an int type followed by an int element count) and one column per component,
+ * e.g. a block of Vec3d contains all x values followed by all y values and then all z values. Columns are 8 byte aligned and can be read
+ * directly from a direct or memory-mapped buffer using {@link #getDoubleColumn} and {@link #getFloatColumn} without copying.
+ * <p>
+ * The byte order of the buffers provided is never changed, the position of a buffer is advanced past the block written or read.
+ */
+public final class VectorCodec
+{
+	public final static int TYPE_VEC3D = 1;
+	public final static int TYPE_VEC3F = 2;
+	public final static int TYPE_MAT4D = 3;
+	public final static int TYPE_QUATERNION = 4;
+
+	private final static int HEADER_SIZE = 8;
+
+
+	private VectorCodec()
+	{
+	}
+
+
+	/**
+	 * Returns the number of components, columns, of each element of a type.
+	 */
+	public static int getComponentCount(int aType)
+	{
+		switch (aType)
+		{
+			case TYPE_VEC3D: return 3;
+			case TYPE_VEC3F: return 3;
+			case TYPE_MAT4D: return 16;
+			case TYPE_QUATERNION: return 4;
+			default: throw new IllegalArgumentException("Unsupported type: " + aType);
+		}
+	}
+
+
+	/**
+	 * Returns the size in bytes of a block including the header.
+	 */
+	public static long getBlockSize(int aType, int aCount)
+	{
+		int componentSize = aType == TYPE_VEC3F ? 4 : 8;
+
+		// float columns are padded to keep every column 8 byte aligned
+		return HEADER_SIZE + getComponentCount(aType) * align((long)aCount * componentSize);
+	}
+
+
+	/**
+	 * Allocates a direct little-endian buffer large enough to hold a block.
+	 */
+	public static ByteBuffer allocate(int aType, int aCount)
+	{
+		long size = getBlockSize(aType, aCount);
+
+		if (size > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("Block too large: " + size);
+		}
+
+		return ByteBuffer.allocateDirect((int)size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+
+	public static ByteBuffer write(ByteBuffer aBuffer, Vec3d[] aVectors)
+	{
+		int count = aVectors.length;
+		ByteBuffer block = beginWrite(aBuffer, TYPE_VEC3D, count);
+
+		DoubleBuffer x = getDoubleColumn(block, 0);
+		DoubleBuffer y = getDoubleColumn(block, 1);
+		DoubleBuffer z = getDoubleColumn(block, 2);
+
+		for (int i = 0; i < count; i++)
+		{
+			Vec3d v = aVectors[i];
+			x.put(i, v.x);
+			y.put(i, v.y);
+			z.put(i, v.z);
+		}
+
+		return endWrite(aBuffer, block);
+	}
+
+
+	public static ByteBuffer write(ByteBuffer aBuffer, Vec3f[] aVectors)
+	{
+		int count = aVectors.length;
+		ByteBuffer block = beginWrite(aBuffer, TYPE_VEC3F, count);
+
+		FloatBuffer x = getFloatColumn(block, 0);
+		FloatBuffer y = getFloatColumn(block, 1);
+		FloatBuffer z = getFloatColumn(block, 2);
+
+		for (int i = 0; i < count; i++)
+		{
+			Vec3f v = aVectors[i];
+			x.put(i, v.x);
+			y.put(i, v.y);
+			z.put(i, v.z);
+		}
+
+		return endWrite(aBuffer, block);
+	}
+
+
+	public static ByteBuffer write(ByteBuffer aBuffer, Mat4d[] aMatrices)
+	{
+		int count = aMatrices.length;
+		ByteBuffer block = beginWrite(aBuffer, TYPE_MAT4D, count);
+
+		DoubleBuffer[] columns = new DoubleBuffer[16];
+		for (int c = 0; c < 16; c++)
+		{
+			columns[c] = getDoubleColumn(block, c);
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			Mat4d m = aMatrices[i];
+			columns[0].put(i, m.m00);
+			columns[1].put(i, m.m01);
+			columns[2].put(i, m.m02);
+			columns[3].put(i, m.m03);
+			columns[4].put(i, m.m10);
+			columns[5].put(i, m.m11);
+			columns[6].put(i, m.m12);
+			columns[7].put(i, m.m13);
+			columns[8].put(i, m.m20);
+			columns[9].put(i, m.m21);
+			columns[10].put(i, m.m22);
+			columns[11].put(i, m.m23);
+			columns[12].put(i, m.m30);
+			columns[13].put(i, m.m31);
+			columns[14].put(i, m.m32);
+			columns[15].put(i, m.m33);
+		}
+
+		return endWrite(aBuffer, block);
+	}
+
+
+	/**
+	 * Writes the W, X, Y and Z components of the quaternions provided.
+	 */
+	public static ByteBuffer write(ByteBuffer aBuffer, Quaternion[] aQuaternions)
+	{
+		int count = aQuaternions.length;
+		ByteBuffer block = beginWrite(aBuffer, TYPE_QUATERNION, count);
+
+		DoubleBuffer w = getDoubleColumn(block, 0);
+		DoubleBuffer x = getDoubleColumn(block, 1);
+		DoubleBuffer y = getDoubleColumn(block, 2);
+		DoubleBuffer z = getDoubleColumn(block, 3);
+
+		for (int i = 0; i < count; i++)
+		{
+			Quaternion q = aQuaternions[i];
+			w.put(i, q.getW());
+			x.put(i, q.getX());
+			y.put(i, q.getY());
+			z.put(i, q.getZ());
+		}
+
+		return endWrite(aBuffer, block);
+	}
+
+
+	public static Vec3d[] readVec3d(ByteBuffer aBuffer)
+	{
+		ByteBuffer block = beginRead(aBuffer, TYPE_VEC3D);
+		int count = block.getInt(4);
+
+		DoubleBuffer x = getDoubleColumn(block, 0);
+		DoubleBuffer y = getDoubleColumn(block, 1);
+		DoubleBuffer z = getDoubleColumn(block, 2);
+
+		Vec3d[] vectors = new Vec3d[count];
+		for (int i = 0; i < count; i++)
+		{
+			vectors[i] = new Vec3d(x.get(i), y.get(i), z.get(i));
+		}
+
+		endRead(aBuffer, block);
+
+		return vectors;
+	}
+
+
+	public static Vec3f[] readVec3f(ByteBuffer aBuffer)
+	{
+		ByteBuffer block = beginRead(aBuffer, TYPE_VEC3F);
+		int count = block.getInt(4);
+
+		FloatBuffer x = getFloatColumn(block, 0);
+		FloatBuffer y = getFloatColumn(block, 1);
+		FloatBuffer z = getFloatColumn(block, 2);
+
+		Vec3f[] vectors = new Vec3f[count];
+		for (int i = 0; i < count; i++)
+		{
+			vectors[i] = new Vec3f(x.get(i), y.get(i), z.get(i));
+		}
+
+		endRead(aBuffer, block);
+
+		return vectors;
+	}
+
+
+	public static Mat4d[] readMat4d(ByteBuffer aBuffer)
+	{
+		ByteBuffer block = beginRead(aBuffer, TYPE_MAT4D);
+		int count = block.getInt(4);
+
+		DoubleBuffer[] columns = new DoubleBuffer[16];
+		for (int c = 0; c < 16; c++)
+		{
+			columns[c] = getDoubleColumn(block, c);
+		}
+
+		Mat4d[] matrices = new Mat4d[count];
+		for (int i = 0; i < count; i++)
+		{
+			matrices[i] = new Mat4d().set(
+				columns[0].get(i), columns[1].get(i), columns[2].get(i), columns[3].get(i),
+				columns[4].get(i), columns[5].get(i), columns[6].get(i), columns[7].get(i),
+				columns[8].get(i), columns[9].get(i), columns[10].get(i), columns[11].get(i),
+				columns[12].get(i), columns[13].get(i), columns[14].get(i), columns[15].get(i)
+			);
+		}
+
+		endRead(aBuffer, block);
+
+		return matrices;
+	}
+
+
+	public static Quaternion[] readQuaternion(ByteBuffer aBuffer)
+	{
+		ByteBuffer block = beginRead(aBuffer, TYPE_QUATERNION);
+		int count = block.getInt(4);
+
+		DoubleBuffer w = getDoubleColumn(block, 0);
+		DoubleBuffer x = getDoubleColumn(block, 1);
+		DoubleBuffer y = getDoubleColumn(block, 2);
+		DoubleBuffer z = getDoubleColumn(block, 3);
+
+		Quaternion[] quaternions = new Quaternion[count];
+		for (int i = 0; i < count; i++)
+		{
+			quaternions[i] = new Quaternion(w.get(i), x.get(i), y.get(i), z.get(i));
+		}
+
+		endRead(aBuffer, block);
+
+		return quaternions;
+	}
+
+
+	/**
+	 * Returns the type of the block at the position of the buffer without advancing the position.
+	 */
+	public static int getType(ByteBuffer aBuffer)
+	{
+		return aBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(aBuffer.position());
+	}
+
+
+	/**
+	 * Returns the element count of the block at the position of the buffer without advancing the position.
+	 */
+	public static int getCount(ByteBuffer aBuffer)
+	{
+		return aBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(aBuffer.position() + 4);
+	}
+
+
+	/**
+	 * Returns a view of a column of a block of double components. No data is copied.
+	 *
+	 * @param aBlock a buffer positioned at the start of a block
+	 * @param aColumn index of the component
+	 */
+	public static DoubleBuffer getDoubleColumn(ByteBuffer aBlock, int aColumn)
+	{
+		ByteBuffer buffer = getColumn(aBlock, aColumn, 8);
+
+		return buffer.asDoubleBuffer();
+	}
+
+
+	/**
+	 * Returns a view of a column of a block of float components. No data is copied.
+	 *
+	 * @param aBlock a buffer positioned at the start of a block
+	 * @param aColumn index of the component
+	 */
+	public static FloatBuffer getFloatColumn(ByteBuffer aBlock, int aColumn)
+	{
+		ByteBuffer buffer = getColumn(aBlock, aColumn, 4);
+
+		return buffer.asFloatBuffer();
+	}
+
+
+	/**
+	 * Writes the remaining bytes of a buffer to a channel.
+	 */
+	public static void write(FileChannel aChannel, ByteBuffer aBuffer) throws IOException
+	{
+		while (aBuffer.hasRemaining())
+		{
+			aChannel.write(aBuffer);
+		}
+	}
+
+
+	/**
+	 * Memory-maps the block stored at a position in a file. The buffer returned is positioned at the start of the block and can be passed
+	 * to the read methods or to {@link #getDoubleColumn} and {@link #getFloatColumn} for zero-copy access.
+	 */
+	public static ByteBuffer map(FileChannel aChannel, long aPosition) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+		while (header.hasRemaining())
+		{
+			if (aChannel.read(header, aPosition + header.position()) < 0)
+			{
+				throw new EOFException();
+			}
+		}
+
+		long size = getBlockSize(header.getInt(0), header.getInt(4));
+
+		return aChannel.map(FileChannel.MapMode.READ_ONLY, aPosition, size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+
+	private static ByteBuffer beginWrite(ByteBuffer aBuffer, int aType, int aCount)
+	{
+		long size = getBlockSize(aType, aCount);
+
+		if (aBuffer.remaining() < size)
+		{
+			throw new IllegalArgumentException("Buffer too small, required " + size + ", found " + aBuffer.remaining());
+		}
+
+		ByteBuffer block = aBuffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		block.limit((int)size);
+		block.putInt(0, aType);
+		block.putInt(4, aCount);
+
+		return block;
+	}
+
+
+	private static ByteBuffer endWrite(ByteBuffer aBuffer, ByteBuffer aBlock)
+	{
+		aBuffer.position(aBuffer.position() + aBlock.limit());
+
+		return aBuffer;
+	}
+
+
+	private static ByteBuffer beginRead(ByteBuffer aBuffer, int aType)
+	{
+		ByteBuffer block = aBuffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+		int type = block.getInt(0);
+		if (type != aType)
+		{
+			throw new IllegalArgumentException("Unexpected block type, expected " + aType + ", found " + type);
+		}
+
+		long size = getBlockSize(type, block.getInt(4));
+		if (block.remaining() < size)
+		{
+			throw new IllegalArgumentException("Buffer too small, required " + size + ", found " + block.remaining());
+		}
+
+		block.limit((int)size);
+
+		return block;
+	}
+
+
+	private static void endRead(ByteBuffer aBuffer, ByteBuffer aBlock)
+	{
+		aBuffer.position(aBuffer.position() + aBlock.limit());
+	}
+
+
+	private static ByteBuffer getColumn(ByteBuffer aBlock, int aColumn, int aComponentSize)
+	{
+		ByteBuffer block = aBlock.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int type = block.getInt(block.position());
+		int count = block.getInt(block.position() + 4);
+
+		if (aColumn < 0 || aColumn >= getComponentCount(type))
+		{
+			throw new IllegalArgumentException("aColumn out of bounds: " + aColumn);
+		}
+		if ((type == TYPE_VEC3F ? 4 : 8) != aComponentSize)
+		{
+			throw new IllegalArgumentException("Column type mismatch for block type " + type);
+		}
+
+		int columnSize = (int)align((long)count * aComponentSize);
+		int start = block.position() + HEADER_SIZE + aColumn * columnSize;
+
+		block.limit(start + count * aComponentSize);
+		block.position(start);
+
+		return block.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+
+	private static long align(long aSize)
+	{
+		return (aSize + 7) & ~7L;
+	}
+}
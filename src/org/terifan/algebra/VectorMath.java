@@ -4,16 +4,49 @@ import java.util.Random;
 
 public class VectorMath
 {
+	/**
+	 * Kept for binary compatibility, see {@link #getPerpendicularPointAlongAxis(ReadOnlyVec3d, ReadOnlyVec3d, double, double, double)}.
+	 */
 	public static Vec3d getPerpendicularPointAlongAxis(Vec3d aStartPosition, Vec3d aEndPosition, double aAxisAlpha, double aAngleAlpha, double aRadius)
 	{
-		double angle = Math.PI * 2.0 * aAngleAlpha;
+		return getPerpendicularPointAlongAxis((ReadOnlyVec3d)aStartPosition, aEndPosition, aAxisAlpha, aAngleAlpha, aRadius);
+	}
+
 
-		Vec3d len = aEndPosition.clone().subtract(aStartPosition);
-		Vec3d firstPerp = new Vec3d(len.z, len.z, -(len.x + len.y)).normalize();
-		Vec3d secondPerp = firstPerp.clone().cross(len).normalize();
-		Vec3d direction = firstPerp.multiply(Math.cos(angle)).add(secondPerp.multiply(Math.sin(angle)));
+	public static Vec3d getPerpendicularPointAlongAxis(ReadOnlyVec3d aStartPosition, ReadOnlyVec3d aEndPosition, double aAxisAlpha, double aAngleAlpha, double aRadius)
+	{
+		double angle = Math.PI * 2.0 * aAngleAlpha;
 
-		return aStartPosition.clone().interpolate(aEndPosition, aAxisAlpha).add(direction.multiply(aRadius));
+		double sx = aStartPosition.getX();
+		double sy = aStartPosition.getY();
+		double sz = aStartPosition.getZ();
+		double lx = aEndPosition.getX() - sx;
+		double ly = aEndPosition.getY() - sy;
+		double lz = aEndPosition.getZ() - sz;
+
+		// first perpendicular (lz, lz, -(lx + ly)) and second perpendicular first x len, both normalized
+		double ax = lz;
+		double ay = lz;
+		double az = -(lx + ly);
+		double fa = normalizeFactor(ax, ay, az);
+		ax *= fa;
+		ay *= fa;
+		az *= fa;
+
+		double bx = ay * lz - az * ly;
+		double by = az * lx - ax * lz;
+		double bz = ax * ly - ay * lx;
+		double fb = normalizeFactor(bx, by, bz);
+
+		double t = aAxisAlpha >= 1 ? 1 : aAxisAlpha > 0 ? aAxisAlpha : 0;
+		double c = Math.cos(angle) * aRadius;
+		double s = Math.sin(angle) * aRadius * fb;
+
+		return new Vec3d(
+			sx + lx * t + ax * c + bx * s,
+			sy + ly * t + ay * c + by * s,
+			sz + lz * t + az * c + bz * s
+		);
 	}
 
 
@@ -40,21 +73,34 @@ public class VectorMath
 
 
 	public static Vec3d importanceSampleUpperHemisphere(double x, double y, double z, double gamma, double phi, Vec3d aLightNormal, double n)
+	{
+		return importanceSampleUpperHemisphere(x, y, z, gamma, phi, aLightNormal, n, false);
+	}
+
+
+	/**
+	 * Samples the upper hemisphere around a normal with a cosine power distribution.
+	 *
+	 * @param aFastMath true if the exponent and trigonometric functions should be approximated using FastMath
+	 */
+	public static Vec3d importanceSampleUpperHemisphere(double x, double y, double z, double gamma, double phi, Vec3d aLightNormal, double n, boolean aFastMath)
 	{
 		phi *= 2 * Math.PI;
-		double theta = (n == 1 ? Math.acos(Math.sqrt(gamma)) : Math.acos(Math.pow(gamma, 1 / (n + 1))));
+		double theta = (n == 1 ? FastMath.acos(Math.sqrt(gamma), aFastMath) : FastMath.acos(FastMath.pow(gamma, 1 / (n + 1), aFastMath), aFastMath));
 
-		// Create vector aligned with z=(0,0,1)
-		double sintheta = Math.sin(theta);
-		Vec3d sample = new Vec3d(sintheta * Math.cos(phi), sintheta * Math.sin(phi), gamma);
+		try (ScratchArena scratch = ScratchArena.get().push())
+		{
+			// Create vector aligned with z=(0,0,1)
+			double sintheta = FastMath.sin(theta, aFastMath);
+			Vec3d sample = scratch.vec3d(sintheta * FastMath.cos(phi, aFastMath), sintheta * FastMath.sin(phi, aFastMath), gamma);
 
-		// Rotate sample to be aligned with normal
-		Vec3d t = new Vec3d(x, y, z);
-		Vec3d u = t.cross(aLightNormal).normalize();
-		Vec3d v = aLightNormal.clone().cross(u);
-		Mat3d rot = new Mat3d(u, v, aLightNormal.clone());
+			// Rotate sample to be aligned with normal
+			Vec3d u = scratch.vec3d(x, y, z).cross(aLightNormal).normalize();
+			Vec3d v = scratch.vec3d().set(aLightNormal).cross(u);
+			Mat3d rot = scratch.mat3d().setXBasis(u).setYBasis(v).setZBasis(aLightNormal);
 
-		return rot.transpose().multiply(sample);
+			return rot.transpose().multiply(sample);
+		}
 	}
 
 
@@ -76,9 +122,29 @@ public class VectorMath
 
 
 	public static Vec3d hemisphere(double u1, double u2)
+	{
+		return hemisphere(u1, u2, false);
+	}
+
+
+	/**
+	 * Maps two uniform random numbers to a direction on the upper hemisphere.
+	 *
+	 * @param aFastMath true if the trigonometric functions should be approximated using FastMath
+	 */
+	public static Vec3d hemisphere(double u1, double u2, boolean aFastMath)
 	{
 		double r = Math.sqrt(1.0 - u1 * u1);
 		double phi = 2 * Math.PI * u2;
-		return new Vec3d(Math.cos(phi) * r, Math.sin(phi) * r, u1);
+		return new Vec3d(FastMath.cos(phi, aFastMath) * r, FastMath.sin(phi, aFastMath) * r, u1);
+	}
+
+
+	// scale making a vector unit length, zero vectors are left unchanged like Vec3d.normalize
+	private static double normalizeFactor(double aX, double aY, double aZ)
+	{
+		double length = Math.sqrt(aX * aX + aY * aY + aZ * aZ);
+
+		return length > 0 ? 1 / length : 0;
 	}
 }
@@ -0,0 +1,197 @@
+package org.terifan.algebra;
+
+
+/**
+ * Projects packed model space positions to clip space, frustum outcodes and screen space coordinates in a single pass.
+ * <p>
+ * The model, view and projection matrices are multiplied once when set and the projection is done directly on primitive arrays, in
+ * parallel over chunks of vertices for large meshes. Clip coordinates use the convention of
+ * {@link Mat4d#createPerspectiveProjectionMatrix(double, double, double, double)}, screen coordinates have the origin in the top left
+ * corner with y pointing down and depth mapped to 0..1.
+ */
+public class VertexProjector
+{
+	public final static int OUTSIDE_LEFT = 1;
+	public final static int OUTSIDE_RIGHT = 2;
+	public final static int OUTSIDE_BOTTOM = 4;
+	public final static int OUTSIDE_TOP = 8;
+	public final static int OUTSIDE_NEAR = 16;
+	public final static int OUTSIDE_FAR = 32;
+
+	private final static int CHUNK_SIZE = 4096;
+
+	private final Mat4d mMatrix;
+	private double mWidth;
+	private double mHeight;
+
+
+	/**
+	 * Creates a projector.
+	 *
+	 * @param aWidth width of the viewport in pixels
+	 * @param aHeight height of the viewport in pixels
+	 */
+	public VertexProjector(double aWidth, double aHeight)
+	{
+		mMatrix = new Mat4d(1.0);
+
+		setViewport(aWidth, aHeight);
+	}
+
+
+	/**
+	 * Sets the size of the viewport.
+	 *
+	 * @return this projector
+	 */
+	public VertexProjector setViewport(double aWidth, double aHeight)
+	{
+		if (!(aWidth > 0) || !(aHeight > 0))
+		{
+			throw new IllegalArgumentException("Viewport size must be positive: " + aWidth + ", " + aHeight);
+		}
+
+		mWidth = aWidth;
+		mHeight = aHeight;
+		return this;
+	}
+
+
+	/**
+	 * Sets the model-view-projection matrix. The matrix is copied.
+	 *
+	 * @return this projector
+	 */
+	public VertexProjector setMatrix(Mat4d aModelViewProjection)
+	{
+		mMatrix.set(aModelViewProjection);
+		return this;
+	}
+
+
+	/**
+	 * Sets the model-view-projection matrix to the product of a projection, view and model matrix. The matrices are not modified.
+	 *
+	 * @return this projector
+	 */
+	public VertexProjector setMatrix(Mat4d aProjection, Mat4d aView, Mat4d aModel)
+	{
+		mMatrix.set(aProjection).multiply(aView).multiply(aModel);
+		return this;
+	}
+
+
+	/**
+	 * Returns the model-view-projection matrix.
+	 */
+	public Mat4d getMatrix()
+	{
+		return mMatrix;
+	}
+
+
+	/**
+	 * Projects vertices. Outputs that are not needed may be null.
+	 *
+	 * @param aPositions interleaved x, y and z model space coordinates
+	 * @param aCount number of vertices
+	 * @param aClip an array receiving x, y, z and w clip space coordinates per vertex, or null
+	 * @param aOutcodes an array receiving a combination of the OUTSIDE flags per vertex, or null
+	 * @param aScreen an array receiving x, y and depth screen space coordinates per vertex, or null. Vertices behind the viewer, with a
+	 * non-positive w, get NaN coordinates.
+	 * @param aParallel true if the vertices should be projected in parallel
+	 * @return the bitwise and of the outcodes of all vertices, if not zero all vertices are outside the same frustum plane
+	 */
+	public int project(double[] aPositions, int aCount, double[] aClip, int[] aOutcodes, float[] aScreen, boolean aParallel)
+	{
+		if (aCount < 0 || 3 * aCount > aPositions.length)
+		{
+			throw new IllegalArgumentException("aCount out of bounds: " + aCount);
+		}
+
+		int chunks = (aCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		int[] outside = new int[chunks];
+
+		Parallel.forEach(chunks, aParallel, chunk -> outside[chunk] = project(aPositions, chunk * CHUNK_SIZE, Math.min(aCount, (chunk + 1) * CHUNK_SIZE), aClip, aOutcodes, aScreen));
+
+		int result = chunks == 0 ? 0 : 0x3f;
+		for (int code : outside)
+		{
+			result &= code;
+		}
+
+		return result;
+	}
+
+
+	private int project(double[] aPositions, int aStart, int aEnd, double[] aClip, int[] aOutcodes, float[] aScreen)
+	{
+		Mat4d m = mMatrix;
+		double m00 = m.m00, m10 = m.m10, m20 = m.m20, m30 = m.m30;
+		double m01 = m.m01, m11 = m.m11, m21 = m.m21, m31 = m.m31;
+		double m02 = m.m02, m12 = m.m12, m22 = m.m22, m32 = m.m32;
+		double m03 = m.m03, m13 = m.m13, m23 = m.m23, m33 = m.m33;
+		double halfWidth = mWidth / 2;
+		double halfHeight = mHeight / 2;
+		int outside = 0x3f;
+
+		for (int i = aStart; i < aEnd; i++)
+		{
+			double x = aPositions[3 * i];
+			double y = aPositions[3 * i + 1];
+			double z = aPositions[3 * i + 2];
+
+			double cx = m00 * x + m10 * y + m20 * z + m30;
+			double cy = m01 * x + m11 * y + m21 * z + m31;
+			double cz = m02 * x + m12 * y + m22 * z + m32;
+			double cw = m03 * x + m13 * y + m23 * z + m33;
+
+			int code = outcode(cx, cy, cz, cw);
+			outside &= code;
+
+			if (aClip != null)
+			{
+				aClip[4 * i] = cx;
+				aClip[4 * i + 1] = cy;
+				aClip[4 * i + 2] = cz;
+				aClip[4 * i + 3] = cw;
+			}
+			if (aOutcodes != null)
+			{
+				aOutcodes[i] = code;
+			}
+			if (aScreen != null)
+			{
+				if (cw > 0)
+				{
+					double w = 1 / cw;
+					aScreen[3 * i] = (float)((cx * w + 1) * halfWidth);
+					aScreen[3 * i + 1] = (float)((1 - cy * w) * halfHeight);
+					aScreen[3 * i + 2] = (float)(cz * w * 0.5 + 0.5);
+				}
+				else
+				{
+					aScreen[3 * i] = aScreen[3 * i + 1] = aScreen[3 * i + 2] = Float.NaN;
+				}
+			}
+		}
+
+		return outside;
+	}
+
+
+	/**
+	 * Returns the frustum planes a clip space coordinate is outside of as a combination of the OUTSIDE flags.
+	 */
+	public static int outcode(double aX, double aY, double aZ, double aW)
+	{
+		int code = 0;
+		if (aX < -aW) code |= OUTSIDE_LEFT;
+		if (aX > aW) code |= OUTSIDE_RIGHT;
+		if (aY < -aW) code |= OUTSIDE_BOTTOM;
+		if (aY > aW) code |= OUTSIDE_TOP;
+		if (aZ < -aW) code |= OUTSIDE_NEAR;
+		if (aZ > aW) code |= OUTSIDE_FAR;
+		return code;
+	}
+}
@@ -0,0 +1,294 @@
+package org.terifan.algebra;
+
+import java.util.Arrays;
+
+
+/**
+ * Open-addressing hash map from 3D coordinates to int values backed by primitive arrays, intended for welding duplicate vertices.
+ * <p>
+ * Coordinates are snapped to a grid with a cell size of epsilon before being used as keys, coordinates snapped to the same grid point are
+ * considered equal. With an epsilon of zero coordinates are compared exactly. Unlike {@link Vec3d#equals(java.lang.Object)} negative and
+ * positive zero are considered equal and all NaN values are considered equal.
+ * <p>
+ * Note that two coordinates closer than epsilon may still snap to different grid points if they are on either side of a cell boundary.
+ */
+public class VertexWeldMap
+{
+	private final static int EMPTY = -1;
+
+	// three keys per slot must fit in a single array
+	private final static int MAX_CAPACITY = 1 << 29;
+
+	private final double mInvEpsilon;
+	private long[] mKeys;
+	private int[] mValues;
+	private int mMask;
+	private int mSize;
+
+
+	/**
+	 * Creates a map.
+	 *
+	 * @param aEpsilon size of the grid coordinates are snapped to or zero for exact comparison
+	 * @param aExpectedSize expected number of unique keys
+	 */
+	public VertexWeldMap(double aEpsilon, int aExpectedSize)
+	{
+		if (!(aEpsilon >= 0) || Double.isInfinite(aEpsilon))
+		{
+			throw new IllegalArgumentException("aEpsilon out of bounds: " + aEpsilon);
+		}
+		if (aExpectedSize < 0)
+		{
+			throw new IllegalArgumentException("aExpectedSize must not be negative: " + aExpectedSize);
+		}
+
+		mInvEpsilon = aEpsilon == 0 ? 0 : 1 / aEpsilon;
+
+		allocate(Math.max(16, Long.highestOneBit(Math.max(1L, aExpectedSize) * 2 - 1) << 1));
+	}
+
+
+	/**
+	 * Returns the number of keys in the map.
+	 */
+	public int size()
+	{
+		return mSize;
+	}
+
+
+	public VertexWeldMap clear()
+	{
+		Arrays.fill(mValues, EMPTY);
+		mSize = 0;
+		return this;
+	}
+
+
+	public int get(Vec3d aPosition)
+	{
+		return get(aPosition.x, aPosition.y, aPosition.z);
+	}
+
+
+	/**
+	 * Returns the value of a key.
+	 *
+	 * @return the value or -1 if the key is not in the map
+	 */
+	public int get(double aX, double aY, double aZ)
+	{
+		return get(snap(aX), snap(aY), snap(aZ));
+	}
+
+
+	/**
+	 * Returns the value of a key given as a grid point in units of epsilon, e.g. a vertex quantized by the caller.
+	 *
+	 * @return the value or -1 if the key is not in the map
+	 */
+	public int get(Vec3i aGridPoint)
+	{
+		return get(aGridPoint.x, aGridPoint.y, aGridPoint.z);
+	}
+
+
+	public int putIfAbsent(Vec3d aPosition, int aValue)
+	{
+		return putIfAbsent(aPosition.x, aPosition.y, aPosition.z, aValue);
+	}
+
+
+	/**
+	 * Adds a key unless it's already in the map.
+	 *
+	 * @param aValue a non-negative value
+	 * @return the value already in the map or -1 if the key was added
+	 */
+	public int putIfAbsent(double aX, double aY, double aZ, int aValue)
+	{
+		return putIfAbsent(snap(aX), snap(aY), snap(aZ), aValue);
+	}
+
+
+	/**
+	 * Adds a key given as a grid point in units of epsilon unless it's already in the map.
+	 *
+	 * @param aValue a non-negative value
+	 * @return the value already in the map or -1 if the key was added
+	 */
+	public int putIfAbsent(Vec3i aGridPoint, int aValue)
+	{
+		return putIfAbsent(aGridPoint.x, aGridPoint.y, aGridPoint.z, aValue);
+	}
+
+
+	/**
+	 * Welds the vertices of a mesh. Each vertex is mapped to the first vertex snapping to the same grid point.
+	 *
+	 * @param aCoordinates interleaved x, y and z coordinates
+	 * @param aCount number of vertices
+	 * @param aEpsilon size of the grid coordinates are snapped to or zero for exact comparison
+	 * @param aRemap an array receiving the new index of each vertex, new indices are assigned in order of first occurrence
+	 * @return number of unique vertices
+	 */
+	public static int weld(double[] aCoordinates, int aCount, double aEpsilon, int[] aRemap)
+	{
+		// indexed triangle soups typically share each vertex between several triangles, the map grows if needed
+		VertexWeldMap map = new VertexWeldMap(aEpsilon, aCount / 4);
+
+		for (int i = 0; i < aCount; i++)
+		{
+			int index = map.putIfAbsent(aCoordinates[3 * i], aCoordinates[3 * i + 1], aCoordinates[3 * i + 2], map.size());
+
+			aRemap[i] = index == EMPTY ? map.size() - 1 : index;
+		}
+
+		return map.size();
+	}
+
+
+	/**
+	 * Copies the first vertex of each welded group to the front of the coordinate array.
+	 *
+	 * @param aCoordinates interleaved x, y and z coordinates
+	 * @param aRemap the remap array returned by {@link #weld(double[], int, double, int[])}
+	 * @param aCount number of vertices
+	 */
+	public static void compact(double[] aCoordinates, int[] aRemap, int aCount)
+	{
+		for (int i = 0, next = 0; i < aCount; i++)
+		{
+			// new indices are assigned in order so the first vertex of a group is never moved backwards past another group
+			if (aRemap[i] == next)
+			{
+				System.arraycopy(aCoordinates, 3 * i, aCoordinates, 3 * next, 3);
+				next++;
+			}
+		}
+	}
+
+
+	private int get(long aX, long aY, long aZ)
+	{
+		for (int slot = hash(aX, aY, aZ) & mMask;; slot = (slot + 1) & mMask)
+		{
+			int value = mValues[slot];
+
+			if (value == EMPTY || mKeys[3 * slot] == aX && mKeys[3 * slot + 1] == aY && mKeys[3 * slot + 2] == aZ)
+			{
+				return value;
+			}
+		}
+	}
+
+
+	private int putIfAbsent(long aX, long aY, long aZ, int aValue)
+	{
+		if (aValue < 0)
+		{
+			throw new IllegalArgumentException("aValue must not be negative: " + aValue);
+		}
+
+		int slot = hash(aX, aY, aZ) & mMask;
+
+		for (;; slot = (slot + 1) & mMask)
+		{
+			int value = mValues[slot];
+
+			if (value == EMPTY)
+			{
+				break;
+			}
+			if (mKeys[3 * slot] == aX && mKeys[3 * slot + 1] == aY && mKeys[3 * slot + 2] == aZ)
+			{
+				return value;
+			}
+		}
+
+		mKeys[3 * slot] = aX;
+		mKeys[3 * slot + 1] = aY;
+		mKeys[3 * slot + 2] = aZ;
+		mValues[slot] = aValue;
+
+		if (++mSize > mValues.length / 2)
+		{
+			rehash();
+		}
+
+		return EMPTY;
+	}
+
+
+	private void rehash()
+	{
+		long[] keys = mKeys;
+		int[] values = mValues;
+
+		allocate(2L * values.length);
+
+		for (int i = 0; i < values.length; i++)
+		{
+			if (values[i] != EMPTY)
+			{
+				int slot = hash(keys[3 * i], keys[3 * i + 1], keys[3 * i + 2]) & mMask;
+				while (mValues[slot] != EMPTY)
+				{
+					slot = (slot + 1) & mMask;
+				}
+				System.arraycopy(keys, 3 * i, mKeys, 3 * slot, 3);
+				mValues[slot] = values[i];
+			}
+		}
+	}
+
+
+	private void allocate(long aCapacity)
+	{
+		if (aCapacity > MAX_CAPACITY)
+		{
+			throw new IllegalStateException("Map too large");
+		}
+
+		int capacity = (int)aCapacity;
+
+		mKeys = new long[3 * capacity];
+		mValues = new int[capacity];
+		mMask = capacity - 1;
+		Arrays.fill(mValues, EMPTY);
+	}
+
+
+	private long snap(double aValue)
+	{
+		if (mInvEpsilon == 0)
+		{
+			// adding positive zero turns negative zero into positive zero, NaN values are collapsed into one canonical NaN
+			return Double.doubleToLongBits(aValue + 0.0);
+		}
+
+		if (aValue != aValue)
+		{
+			return Long.MIN_VALUE;
+		}
+
+		return (long)Math.floor(aValue * mInvEpsilon + 0.5);
+	}
+
+
+	private static int hash(long aX, long aY, long aZ)
+	{
+		long h = aX * 0x9E3779B97F4A7C15L;
+		h = (h ^ aY) * 0xC2B2AE3D27D4EB4FL;
+		h = (h ^ aZ) * 0x165667B19E3779F9L;
+
+		// murmur3 fmix64, exact keys are raw double bits where short mantissas leave the low bits zero and the mask keeps only low bits
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return (int)h;
+	}
+}
@@ -18,9 +18,8 @@ package org.terifan.sobol;
  * You should have received a copy of the GNU Lesser General Public License
  * along with the MOEA Framework.  If not, see <http://www.gnu.org/licenses/>.
  */
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 
 /**
@@ -35,43 +34,33 @@ public class Sobol
 	private final static int SCALE = 31;
 
 	/**
-	 * The directions used by Kuo and Joe's Sobol' sequence generator. The array is structured so that
-	 * {@code directions[i] = [a, m1, m2, ..., mk]} for dimension {@code i-1}.
+	 * The table of direction vectors or null if a shared table should be used.
 	 */
-	private static int[][] DIRECTIONS;
+	private final SobolTable mTable;
+
 
 	/**
-	 * The path to the resource containing Sobol' directions.
+	 * Creates a generator using a shared table of direction vectors.
 	 */
-	private final static String DIRECTIONS_RESOURCE = "new-joe-kuo-6.21201.bin";
-
-
-	static
+	public Sobol()
 	{
-		try
-		{
-			loadDirectionNumbers();
-		}
-		catch (IOException ex)
-		{
-			throw new Error(ex);
-		}
+		mTable = null;
 	}
 
 
 	/**
-	 * Loads the direction numbers. This is designed to read the file format from Kuo and Joe's site.
+	 * Creates a generator using the table of direction vectors provided.
+	 *
+	 * @param aTable a 32 bit table
 	 */
-	private static void loadDirectionNumbers() throws IOException
+	public Sobol(SobolTable aTable)
 	{
-		try (ObjectInputStream ois = new ObjectInputStream(new InflaterInputStream(Sobol.class.getResourceAsStream(DIRECTIONS_RESOURCE))))
+		if (aTable.isLong())
 		{
-			Sobol.DIRECTIONS = (int[][])ois.readObject();
-		}
-		catch (ClassNotFoundException e)
-		{
-			throw new IOException(e);
+			throw new IllegalArgumentException("A 32 bit table is required");
 		}
+
+		mTable = aTable;
 	}
 
 
@@ -94,45 +83,116 @@ public class Sobol
 		return index;
 	}
 
-	/*
-	 * The following code is based on the Sobol sequence generator by Frances
-	 * Y. Kuo and Stephen Joe. The license terms are provided below.
-	 *
-	 * Copyright (c) 2008, Frances Y. Kuo and Stephen Joe
-	 * All rights reserved.
-	 *
-	 * Redistribution and use in source and binary forms, with or without
-	 * modification, are permitted provided that the following conditions are
-	 * met:
-	 *
-	 * * Redistributions of source code must retain the above copyright
-	 *   notice, this list of conditions and the following disclaimer.
-	 *
-	 * * Redistributions in binary form must reproduce the above copyright
-	 *   notice, this list of conditions and the following disclaimer in the
-	 *   documentation and/or other materials provided with the distribution.
+	public double[][] generate(int N, int D)
+	{
+		int[] directions = getDirections(N, D);
+
+		double[][] points = new double[N][D];
+		double pow = Math.pow(2, SCALE);
+
+		for (int i = 0, offset = 0; i < D; i++, offset += SobolTable.BITS)
+		{
+			// direction numbers are scaled by pow(2, 32) in the table
+			int X = 0;
+			for (int j = 1; j < N; j++)
+			{
+				X ^= directions[offset + indexOfLeastSignificantZeroBit(j - 1) - 1];
+				points[j][i] = (X >>> (SobolTable.BITS - SCALE)) / pow;
+			}
+		}
+
+		return points;
+	}
+
+
+	/**
+	 * Generates {@code N} points with {@code D} dimensions into a single flat array. Each dimension is independent and can optionally be
+	 * generated in parallel.
 	 *
-	 * * Neither the names of the copyright holders nor the names of the
-	 *   University of New South Wales and the University of Waikato
-	 *   and its contributors may be used to endorse or promote products derived
-	 *   from this software without specific prior written permission.
+	 * @param aOutput an array with room for at least {@code N * D} values
+	 * @param aLayout order of the values written to the array
+	 * @param aParallel true if dimensions should be generated in parallel
+	 * @return the array provided
+	 */
+	public double[] generate(int N, int D, double[] aOutput, SobolLayout aLayout, boolean aParallel)
+	{
+		int[] directions = getDirections(N, D);
+		checkOutput(N, D, aOutput.length);
+
+		if (N == 0)
+		{
+			return aOutput;
+		}
+
+		double pow = Math.pow(2, SCALE);
+		int stride = aLayout.getStride(D);
+
+		forEachDimension(D, aParallel, i ->
+		{
+			int offset = i * SobolTable.BITS;
+			int position = aLayout.getOffset(i, N);
+
+			aOutput[position] = 0;
+
+			int X = 0;
+			for (int j = 1; j < N; j++)
+			{
+				X ^= directions[offset + indexOfLeastSignificantZeroBit(j - 1) - 1];
+				position += stride;
+				aOutput[position] = (X >>> (SobolTable.BITS - SCALE)) / pow;
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Generates {@code N} points with {@code D} dimensions into a single flat array of floats holding 24 bits of precision. Each dimension
+	 * is independent and can optionally be generated in parallel.
 	 *
-	 * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS ``AS IS'' AND ANY
-	 * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
-	 * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
-	 * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS BE LIABLE FOR ANY
-	 * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
-	 * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
-	 * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
-	 * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
-	 * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
-	 * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
-	 * POSSIBILITY OF SUCH DAMAGE.
+	 * @param aOutput an array with room for at least {@code N * D} values
+	 * @param aLayout order of the values written to the array
+	 * @param aParallel true if dimensions should be generated in parallel
+	 * @return the array provided
 	 */
+	public float[] generate(int N, int D, float[] aOutput, SobolLayout aLayout, boolean aParallel)
+	{
+		int[] directions = getDirections(N, D);
+		checkOutput(N, D, aOutput.length);
 
-	public double[][] generate(int N, int D)
+		if (N == 0)
+		{
+			return aOutput;
+		}
+
+		int stride = aLayout.getStride(D);
+
+		forEachDimension(D, aParallel, i ->
+		{
+			int offset = i * SobolTable.BITS;
+			int position = aLayout.getOffset(i, N);
+
+			aOutput[position] = 0;
+
+			int X = 0;
+			for (int j = 1; j < N; j++)
+			{
+				X ^= directions[offset + indexOfLeastSignificantZeroBit(j - 1) - 1];
+				position += stride;
+				aOutput[position] = (X >>> 8) * 0x1.0p-24f;
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	private int[] getDirections(int N, int D)
 	{
-		if (D > DIRECTIONS.length + 1)
+		SobolTable table = mTable != null ? mTable : SobolTable.getInstance(D);
+
+		if (D > table.getDimensions())
 		{
 			throw new IllegalArgumentException("not enough dimensions");
 		}
@@ -145,61 +205,29 @@ public class Sobol
 			throw new IllegalArgumentException("not enough bits");
 		}
 
-		double[][] points = new double[N][D];
-		double pow = Math.pow(2, SCALE);
+		return table.mDirections;
+	}
 
-		for (int i = 0; i < D; i++)
+
+	static void checkOutput(long aPointCount, long aDimensionCount, int aLength)
+	{
+		if (aPointCount * aDimensionCount > aLength)
 		{
-			// direction numbers, scaled by pow(2, scale)
-			long[] V = new long[L + 1];
+			throw new IllegalArgumentException("Output array too small, required " + aPointCount * aDimensionCount + ", found " + aLength);
+		}
+	}
 
-			if (i == 0)
-			{
-				for (int j = 1; j <= L; j++)
-				{
-					V[j] = 1 << (SCALE - j); // all m's = 1
-				}
-			}
-			else
-			{
-				int[] m = Sobol.DIRECTIONS[i - 1];
-				int a = m[0];
-				int s = m.length - 1;
 
-				if (L <= s)
-				{
-					for (int j = 1; j <= L; j++)
-					{
-						V[j] = m[j] << (SCALE - j);
-					}
-				}
-				else
-				{
-					for (int j = 1; j <= s; j++)
-					{
-						V[j] = m[j] << (SCALE - j);
-					}
-
-					for (int j = s + 1; j <= L; j++)
-					{
-						V[j] = V[j - s] ^ (V[j - s] >> s);
-						for (int k = 1; k < s; k++)
-						{
-							V[j] ^= ((a >> (s - 1 - k)) & 1) * V[j - k];
-						}
-					}
-				}
-			}
+	static void forEachDimension(int aDimensionCount, boolean aParallel, IntConsumer aConsumer)
+	{
+		IntStream dimensions = IntStream.range(0, aDimensionCount);
 
-			long X = 0;
-			for (int j = 1; j < N; j++)
-			{
-				X ^= V[indexOfLeastSignificantZeroBit(j - 1)];
-				points[j][i] = (double)X / pow;
-			}
+		if (aParallel)
+		{
+			dimensions = dimensions.parallel();
 		}
 
-		return points;
+		dimensions.forEach(aConsumer);
 	}
 
 
@@ -0,0 +1,260 @@
+package org.terifan.sobol;
+
+
+/**
+ * Generates Sobol' sequences with 64 bits of precision. Up to {@code 2^63} points can be generated per dimension and each coordinate is
+ * returned as a double using the full 53 bit mantissa.
+ * <p>
+ * Points can either be streamed one at a time using {@link #next(double[])}, which uses the Gray code ordering and updates each coordinate
+ * with a single xor, or generated in batches starting at an arbitrary index using {@link #generate(long, int)}.
+ * <p>
+ * Instances are not thread safe but the underlying {@link SobolTable} is shared and any number of generators can run concurrently.
+ */
+public class Sobol64
+{
+	/**
+	 * The maximum number of points supported by this generator.
+	 */
+	public final static long MAX_POINTS = Long.MAX_VALUE;
+
+	private final static double SCALE = 0x1.0p-53;
+
+	private final long[] mDirections;
+	private final int mDimensions;
+	private final long[] mState;
+	private long mIndex;
+
+
+	/**
+	 * Creates a generator using a shared table of direction vectors.
+	 *
+	 * @param aDimensions number of dimensions of each point
+	 */
+	public Sobol64(int aDimensions)
+	{
+		this(SobolTable.getLongInstance(aDimensions), aDimensions);
+	}
+
+
+	/**
+	 * Creates a generator using the table of direction vectors provided.
+	 *
+	 * @param aTable a 64 bit table
+	 * @param aDimensions number of dimensions of each point
+	 */
+	public Sobol64(SobolTable aTable, int aDimensions)
+	{
+		if (!aTable.isLong())
+		{
+			throw new IllegalArgumentException("A 64 bit table is required");
+		}
+		if (aDimensions < 1 || aDimensions > aTable.getDimensions())
+		{
+			throw new IllegalArgumentException("not enough dimensions");
+		}
+
+		mDirections = aTable.mLongDirections;
+		mDimensions = aDimensions;
+		mState = new long[aDimensions];
+	}
+
+
+	public int getDimensions()
+	{
+		return mDimensions;
+	}
+
+
+	/**
+	 * Returns the index of the point returned by the next call to {@link #next(double[])}.
+	 */
+	public long getIndex()
+	{
+		return mIndex;
+	}
+
+
+	/**
+	 * Moves this generator to the point at the index provided.
+	 *
+	 * @return this generator
+	 */
+	public Sobol64 skipTo(long aIndex)
+	{
+		if (aIndex < 0)
+		{
+			throw new IllegalArgumentException("aIndex out of bounds: " + aIndex);
+		}
+
+		computePoint(aIndex, mState);
+		mIndex = aIndex;
+
+		return this;
+	}
+
+
+	/**
+	 * Returns the next point in the sequence.
+	 *
+	 * @return a new array
+	 */
+	public double[] next()
+	{
+		return next(new double[mDimensions]);
+	}
+
+
+	/**
+	 * Writes the next point in the sequence to the array provided.
+	 *
+	 * @param aPoint an array with room for at least {@link #getDimensions()} values
+	 * @return the array provided
+	 * @throws IllegalStateException if all points of the sequence have been generated
+	 */
+	public double[] next(double[] aPoint)
+	{
+		if (mIndex == MAX_POINTS)
+		{
+			throw new IllegalStateException("not enough bits");
+		}
+
+		long[] state = mState;
+
+		for (int i = 0; i < mDimensions; i++)
+		{
+			aPoint[i] = (state[i] >>> 11) * SCALE;
+		}
+
+		// Gray code order, only one direction vector per dimension changes between two consecutive points
+		int c = Long.numberOfTrailingZeros(~mIndex);
+
+		for (int i = 0, offset = c; i < mDimensions; i++, offset += SobolTable.LONG_BITS)
+		{
+			state[i] ^= mDirections[offset];
+		}
+
+		mIndex++;
+
+		return aPoint;
+	}
+
+
+	/**
+	 * Generates the first points in the sequence.
+	 *
+	 * @param N number of points
+	 * @return an array of {@code N} points
+	 */
+	public double[][] generate(int N)
+	{
+		return generate(0, N);
+	}
+
+
+	/**
+	 * Generates a batch of points starting at the index provided. The state of this generator is not changed.
+	 *
+	 * @param aStart index of the first point
+	 * @param aCount number of points
+	 * @return an array of {@code aCount} points
+	 */
+	public double[][] generate(long aStart, int aCount)
+	{
+		if (aStart < 0 || aCount < 0 || aStart > MAX_POINTS - aCount)
+		{
+			throw new IllegalArgumentException("not enough bits");
+		}
+
+		double[][] points = new double[aCount][mDimensions];
+		long[] state = computePoint(aStart, new long[mDimensions]);
+
+		for (int j = 0; j < aCount; j++)
+		{
+			double[] point = points[j];
+
+			for (int i = 0; i < mDimensions; i++)
+			{
+				point[i] = (state[i] >>> 11) * SCALE;
+			}
+
+			int c = Long.numberOfTrailingZeros(~(aStart + j));
+
+			for (int i = 0, offset = c; i < mDimensions; i++, offset += SobolTable.LONG_BITS)
+			{
+				state[i] ^= mDirections[offset];
+			}
+		}
+
+		return points;
+	}
+
+
+	/**
+	 * Generates a batch of points starting at the index provided into a single flat array. Each dimension is independent and can
+	 * optionally be generated in parallel. The state of this generator is not changed.
+	 *
+	 * @param aStart index of the first point
+	 * @param aCount number of points
+	 * @param aOutput an array with room for at least {@code aCount * getDimensions()} values
+	 * @param aLayout order of the values written to the array
+	 * @param aParallel true if dimensions should be generated in parallel
+	 * @return the array provided
+	 */
+	public double[] generate(long aStart, int aCount, double[] aOutput, SobolLayout aLayout, boolean aParallel)
+	{
+		if (aStart < 0 || aCount < 0 || aStart > MAX_POINTS - aCount)
+		{
+			throw new IllegalArgumentException("not enough bits");
+		}
+
+		Sobol.checkOutput(aCount, mDimensions, aOutput.length);
+
+		int stride = aLayout.getStride(mDimensions);
+
+		Sobol.forEachDimension(mDimensions, aParallel, i ->
+		{
+			int offset = i * SobolTable.LONG_BITS;
+			int position = aLayout.getOffset(i, aCount);
+			long x = computeCoordinate(offset, aStart);
+
+			for (int j = 0; j < aCount; j++, position += stride)
+			{
+				aOutput[position] = (x >>> 11) * SCALE;
+
+				int c = Long.numberOfTrailingZeros(~(aStart + j));
+
+				x ^= mDirections[offset + c];
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Computes the point at an arbitrary index directly from the Gray code of the index.
+	 */
+	private long[] computePoint(long aIndex, long[] aState)
+	{
+		for (int i = 0, offset = 0; i < mDimensions; i++, offset += SobolTable.LONG_BITS)
+		{
+			aState[i] = computeCoordinate(offset, aIndex);
+		}
+
+		return aState;
+	}
+
+
+	private long computeCoordinate(int aOffset, long aIndex)
+	{
+		long gray = aIndex ^ (aIndex >>> 1);
+		long x = 0;
+
+		for (long g = gray; g != 0; g &= g - 1)
+		{
+			x ^= mDirections[aOffset + Long.numberOfTrailingZeros(g)];
+		}
+
+		return x;
+	}
+}
@@ -0,0 +1,230 @@
+package org.terifan.sobol;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Reads the Kuo and Joe direction numbers from a compact flat binary table. Only the rows actually requested are decoded, and when the
+ * table is available as a plain file it is memory-mapped so that untouched rows are never paged in.
+ * <p>
+ * The table is laid out as big-endian values:
+ * <pre>
+ *   int     magic ("SOBL")
+ *   int     row count
+ *   int[]   byte offset of each row relative to the start of the row data, followed by the total data length
+ *   byte[]  row data
+ * </pre>
+ * Each row starts with a byte holding the degree {@code s} of the primitive polynomial followed by a bit stream, most significant bit
+ * first, containing the polynomial coefficients {@code a} in {@code s-1} bits and the initial direction numbers {@code m1...ms} where
+ * {@code mk} occupies {@code k} bits. Rows are padded to whole bytes.
+ */
+final class SobolDirections
+{
+	/**
+	 * The path to the resource containing Sobol' directions.
+	 */
+	private final static String DIRECTIONS_RESOURCE = "new-joe-kuo-6.21201.dat";
+
+	private final static int MAGIC = 0x534F424C;
+	private final static int HEADER_SIZE = 8;
+
+	/**
+	 * The memory-mapped table or null if the resource isn't a plain file.
+	 */
+	private static ByteBuffer MAPPED;
+	private static int ROW_COUNT = -1;
+
+
+	private SobolDirections()
+	{
+	}
+
+
+	/**
+	 * Returns the number of rows in the table. The first dimension of a Sobol' sequence is implicit and has no row, the number of
+	 * supported dimensions is therefore one more than the value returned.
+	 */
+	static synchronized int getRowCount() throws IOException
+	{
+		if (ROW_COUNT == -1)
+		{
+			if (!tryMap())
+			{
+				try (DataInputStream in = open())
+				{
+					ROW_COUNT = in.readInt();
+				}
+			}
+		}
+
+		return ROW_COUNT;
+	}
+
+
+	/**
+	 * Reads the first rows of the table. Each row is structured as {@code [a, m1, m2, ..., ms]} for dimension {@code index+1}.
+	 *
+	 * @param aRowCount number of rows to read
+	 * @return the decoded rows
+	 */
+	static synchronized int[][] read(int aRowCount) throws IOException
+	{
+		if (aRowCount < 0 || aRowCount > getRowCount())
+		{
+			throw new IllegalArgumentException("not enough dimensions");
+		}
+
+		if (MAPPED != null)
+		{
+			return decode(MAPPED, HEADER_SIZE, HEADER_SIZE + 4 * (ROW_COUNT + 1), aRowCount);
+		}
+
+		// read only the prefix of the table needed for the requested rows
+		try (DataInputStream in = open())
+		{
+			int rowCount = in.readInt();
+
+			ByteBuffer buffer = ByteBuffer.allocate(4 * (aRowCount + 1));
+			in.readFully(buffer.array());
+
+			int dataLength = buffer.getInt(4 * aRowCount);
+
+			skipFully(in, 4L * (rowCount - aRowCount));
+
+			byte[] data = new byte[dataLength];
+			in.readFully(data);
+
+			ByteBuffer table = ByteBuffer.allocate(buffer.capacity() + dataLength);
+			table.put(buffer.array()).put(data);
+
+			return decode(table, 0, buffer.capacity(), aRowCount);
+		}
+	}
+
+
+	private static int[][] decode(ByteBuffer aBuffer, int aOffsetsStart, int aDataStart, int aRowCount)
+	{
+		int[][] directions = new int[aRowCount][];
+
+		for (int i = 0; i < aRowCount; i++)
+		{
+			int position = aDataStart + aBuffer.getInt(aOffsetsStart + 4 * i);
+			int s = 0xFF & aBuffer.get(position);
+			long bitPosition = 8L * (position + 1);
+
+			int[] row = new int[s + 1];
+			row[0] = readBits(aBuffer, bitPosition, s - 1);
+			bitPosition += s - 1;
+
+			for (int k = 1; k <= s; k++)
+			{
+				row[k] = readBits(aBuffer, bitPosition, k);
+				bitPosition += k;
+			}
+
+			directions[i] = row;
+		}
+
+		return directions;
+	}
+
+
+	private static int readBits(ByteBuffer aBuffer, long aBitPosition, int aLength)
+	{
+		int value = 0;
+
+		for (int i = 0; i < aLength; i++, aBitPosition++)
+		{
+			int b = aBuffer.get((int)(aBitPosition >>> 3));
+			value = (value << 1) | ((b >>> (7 - (int)(aBitPosition & 7))) & 1);
+		}
+
+		return value;
+	}
+
+
+	/**
+	 * Memory-maps the table if the resource is a plain file, e.g. when running from an exploded class directory.
+	 */
+	private static boolean tryMap() throws IOException
+	{
+		URL url = getResource();
+
+		if (!"file".equals(url.getProtocol()))
+		{
+			return false;
+		}
+
+		try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ))
+		{
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.getInt(0) != MAGIC)
+			{
+				throw new IOException("Bad Sobol' direction table: " + url);
+			}
+
+			MAPPED = buffer;
+			ROW_COUNT = buffer.getInt(4);
+
+			return true;
+		}
+		catch (URISyntaxException e)
+		{
+			return false;
+		}
+	}
+
+
+	private static DataInputStream open() throws IOException
+	{
+		InputStream in = getResource().openStream();
+		DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+
+		if (dis.readInt() != MAGIC)
+		{
+			dis.close();
+			throw new IOException("Bad Sobol' direction table: " + DIRECTIONS_RESOURCE);
+		}
+
+		return dis;
+	}
+
+
+	private static URL getResource() throws IOException
+	{
+		URL url = SobolDirections.class.getResource(DIRECTIONS_RESOURCE);
+
+		if (url == null)
+		{
+			throw new IOException("Resource not found: " + DIRECTIONS_RESOURCE);
+		}
+
+		return url;
+	}
+
+
+	private static void skipFully(InputStream aInput, long aLength) throws IOException
+	{
+		while (aLength > 0)
+		{
+			long n = aInput.skip(aLength);
+
+			if (n <= 0)
+			{
+				throw new IOException("Unexpected end of Sobol' direction table");
+			}
+
+			aLength -= n;
+		}
+	}
+}
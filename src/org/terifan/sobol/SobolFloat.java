@@ -0,0 +1,269 @@
+package org.terifan.sobol;
+
+
+/**
+ * Generates Sobol' sequences of floats. Direction vectors have 32 bits of precision and each coordinate is returned as a float using the
+ * top 24 bits, the full mantissa of a float. Up to {@code 2^32} points can be generated per dimension.
+ * <p>
+ * Points can either be streamed one at a time using {@link #next(float[])}, which uses the Gray code ordering and updates each coordinate
+ * with a single xor, or generated in batches starting at an arbitrary index using {@link #generate(long, int)}.
+ * <p>
+ * Instances are not thread safe but the underlying {@link SobolTable} is shared and any number of generators can run concurrently.
+ */
+public class SobolFloat
+{
+	/**
+	 * The maximum number of points supported by this generator.
+	 */
+	public final static long MAX_POINTS = 1L << SobolTable.BITS;
+
+	private final static float SCALE = 0x1.0p-24f;
+
+	private final int[] mDirections;
+	private final int mDimensions;
+	private final int[] mState;
+	private long mIndex;
+
+
+	/**
+	 * Creates a generator using a shared table of direction vectors.
+	 *
+	 * @param aDimensions number of dimensions of each point
+	 */
+	public SobolFloat(int aDimensions)
+	{
+		this(SobolTable.getInstance(aDimensions), aDimensions);
+	}
+
+
+	/**
+	 * Creates a generator using the table of direction vectors provided.
+	 *
+	 * @param aTable a 32 bit table
+	 * @param aDimensions number of dimensions of each point
+	 */
+	public SobolFloat(SobolTable aTable, int aDimensions)
+	{
+		if (aTable.isLong())
+		{
+			throw new IllegalArgumentException("A 32 bit table is required");
+		}
+		if (aDimensions < 1 || aDimensions > aTable.getDimensions())
+		{
+			throw new IllegalArgumentException("not enough dimensions");
+		}
+
+		mDirections = aTable.mDirections;
+		mDimensions = aDimensions;
+		mState = new int[aDimensions];
+	}
+
+
+	public int getDimensions()
+	{
+		return mDimensions;
+	}
+
+
+	/**
+	 * Returns the index of the point returned by the next call to {@link #next(float[])}.
+	 */
+	public long getIndex()
+	{
+		return mIndex;
+	}
+
+
+	/**
+	 * Moves this generator to the point at the index provided.
+	 *
+	 * @return this generator
+	 */
+	public SobolFloat skipTo(long aIndex)
+	{
+		if (aIndex < 0 || aIndex > MAX_POINTS)
+		{
+			throw new IllegalArgumentException("aIndex out of bounds: " + aIndex);
+		}
+
+		computePoint(aIndex, mState);
+		mIndex = aIndex;
+
+		return this;
+	}
+
+
+	/**
+	 * Returns the next point in the sequence.
+	 *
+	 * @return a new array
+	 */
+	public float[] next()
+	{
+		return next(new float[mDimensions]);
+	}
+
+
+	/**
+	 * Writes the next point in the sequence to the array provided.
+	 *
+	 * @param aPoint an array with room for at least {@link #getDimensions()} values
+	 * @return the array provided
+	 * @throws IllegalStateException if all points of the sequence have been generated
+	 */
+	public float[] next(float[] aPoint)
+	{
+		if (mIndex == MAX_POINTS)
+		{
+			throw new IllegalStateException("not enough bits");
+		}
+
+		int[] state = mState;
+
+		for (int i = 0; i < mDimensions; i++)
+		{
+			aPoint[i] = (state[i] >>> 8) * SCALE;
+		}
+
+		// Gray code order, only one direction vector per dimension changes between two consecutive points
+		int c = Long.numberOfTrailingZeros(~mIndex);
+
+		if (c < SobolTable.BITS)
+		{
+			for (int i = 0, offset = c; i < mDimensions; i++, offset += SobolTable.BITS)
+			{
+				state[i] ^= mDirections[offset];
+			}
+		}
+
+		mIndex++;
+
+		return aPoint;
+	}
+
+
+	/**
+	 * Generates the first points in the sequence.
+	 *
+	 * @param N number of points
+	 * @return an array of {@code N} points
+	 */
+	public float[][] generate(int N)
+	{
+		return generate(0, N);
+	}
+
+
+	/**
+	 * Generates a batch of points starting at the index provided. The state of this generator is not changed.
+	 *
+	 * @param aStart index of the first point
+	 * @param aCount number of points
+	 * @return an array of {@code aCount} points
+	 */
+	public float[][] generate(long aStart, int aCount)
+	{
+		if (aStart < 0 || aCount < 0 || aStart > MAX_POINTS - aCount)
+		{
+			throw new IllegalArgumentException("not enough bits");
+		}
+
+		float[][] points = new float[aCount][mDimensions];
+		int[] state = computePoint(aStart, new int[mDimensions]);
+
+		for (int j = 0; j < aCount; j++)
+		{
+			float[] point = points[j];
+
+			for (int i = 0; i < mDimensions; i++)
+			{
+				point[i] = (state[i] >>> 8) * SCALE;
+			}
+
+			int c = Long.numberOfTrailingZeros(~(aStart + j));
+
+			if (c < SobolTable.BITS)
+			{
+				for (int i = 0, offset = c; i < mDimensions; i++, offset += SobolTable.BITS)
+				{
+					state[i] ^= mDirections[offset];
+				}
+			}
+		}
+
+		return points;
+	}
+
+
+	/**
+	 * Generates a batch of points starting at the index provided into a single flat array. Each dimension is independent and can
+	 * optionally be generated in parallel. The state of this generator is not changed.
+	 *
+	 * @param aStart index of the first point
+	 * @param aCount number of points
+	 * @param aOutput an array with room for at least {@code aCount * getDimensions()} values
+	 * @param aLayout order of the values written to the array
+	 * @param aParallel true if dimensions should be generated in parallel
+	 * @return the array provided
+	 */
+	public float[] generate(long aStart, int aCount, float[] aOutput, SobolLayout aLayout, boolean aParallel)
+	{
+		if (aStart < 0 || aCount < 0 || aStart > MAX_POINTS - aCount)
+		{
+			throw new IllegalArgumentException("not enough bits");
+		}
+
+		Sobol.checkOutput(aCount, mDimensions, aOutput.length);
+
+		int stride = aLayout.getStride(mDimensions);
+
+		Sobol.forEachDimension(mDimensions, aParallel, i ->
+		{
+			int offset = i * SobolTable.BITS;
+			int position = aLayout.getOffset(i, aCount);
+			int x = computeCoordinate(offset, aStart);
+
+			for (int j = 0; j < aCount; j++, position += stride)
+			{
+				aOutput[position] = (x >>> 8) * SCALE;
+
+				int c = Long.numberOfTrailingZeros(~(aStart + j));
+
+				if (c < SobolTable.BITS)
+				{
+					x ^= mDirections[offset + c];
+				}
+			}
+		});
+
+		return aOutput;
+	}
+
+
+	/**
+	 * Computes the point at an arbitrary index directly from the Gray code of the index.
+	 */
+	private int[] computePoint(long aIndex, int[] aState)
+	{
+		for (int i = 0, offset = 0; i < mDimensions; i++, offset += SobolTable.BITS)
+		{
+			aState[i] = computeCoordinate(offset, aIndex);
+		}
+
+		return aState;
+	}
+
+
+	private int computeCoordinate(int aOffset, long aIndex)
+	{
+		int gray = (int)(aIndex ^ (aIndex >>> 1));
+		int x = 0;
+
+		for (int g = gray; g != 0; g &= g - 1)
+		{
+			x ^= mDirections[aOffset + Integer.numberOfTrailingZeros(g)];
+		}
+
+		return x;
+	}
+}
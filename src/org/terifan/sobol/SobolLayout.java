@@ -0,0 +1,29 @@
+package org.terifan.sobol;
+
+
+/**
+ * Layout of points written by the bulk generation methods to a flat array of {@code N} points with {@code D} dimensions each.
+ */
+public enum SobolLayout
+{
+	/**
+	 * Coordinates of each point are stored together, coordinate {@code i} of point {@code j} is stored at index {@code j * D + i}.
+	 */
+	POINT_MAJOR,
+	/**
+	 * Coordinates of each dimension are stored together, coordinate {@code i} of point {@code j} is stored at index {@code i * N + j}.
+	 */
+	DIMENSION_MAJOR;
+
+
+	int getOffset(int aDimension, int aPointCount)
+	{
+		return this == POINT_MAJOR ? aDimension : aDimension * aPointCount;
+	}
+
+
+	int getStride(int aDimensionCount)
+	{
+		return this == POINT_MAJOR ? aDimensionCount : 1;
+	}
+}
@@ -0,0 +1,338 @@
+package org.terifan.sobol;
+
+import java.io.IOException;
+
+
+/**
+ * Immutable table of precomputed Sobol' direction vectors. A table is computed once from the Kuo and Joe direction numbers and can be
+ * shared by any number of generators running concurrently.
+ * <p>
+ * Direction vectors are stored in a single flat array either with 32 bits of precision, {@code V[j] = m[j] << (32 - j)} for
+ * {@code j = 1...32}, or with 64 bits of precision, {@code V[j] = m[j] << (64 - j)} for {@code j = 1...64}.
+ * <p>
+ * {@link #getInstance(int)} and {@link #getLongInstance(int)} return cached tables. At most one table of each precision is cached and it is
+ * replaced with a larger one when more dimensions are requested, the memory used is therefore bounded by the number of dimensions in the
+ * direction table (roughly 2.7 MB for 32 bit and 5.4 MB for 64 bit tables at most).
+ */
+public final class SobolTable
+{
+	/**
+	 * Number of bits in each direction vector of a 32 bit table.
+	 */
+	public final static int BITS = 32;
+
+	/**
+	 * Number of bits in each direction vector of a 64 bit table.
+	 */
+	public final static int LONG_BITS = 64;
+
+	private static volatile SobolTable CACHED;
+	private static volatile SobolTable CACHED_LONG;
+
+	private final int mDimensions;
+	final int[] mDirections;
+	final long[] mLongDirections;
+
+
+	private SobolTable(int aDimensions, boolean aLong) throws IOException
+	{
+		if (aDimensions < 1)
+		{
+			throw new IllegalArgumentException("aDimensions must be positive: " + aDimensions);
+		}
+		if (aDimensions > getMaxDimensions())
+		{
+			throw new IllegalArgumentException("not enough dimensions");
+		}
+
+		int[][] directions = SobolDirections.read(aDimensions - 1);
+
+		mDimensions = aDimensions;
+
+		if (aLong)
+		{
+			mDirections = null;
+			mLongDirections = new long[aDimensions * LONG_BITS];
+
+			// first dimension, all m's = 1
+			for (int j = 1; j <= LONG_BITS; j++)
+			{
+				mLongDirections[j - 1] = 1L << (LONG_BITS - j);
+			}
+
+			for (int i = 1; i < aDimensions; i++)
+			{
+				computeDirections(directions[i - 1], mLongDirections, i * LONG_BITS);
+			}
+		}
+		else
+		{
+			mDirections = new int[aDimensions * BITS];
+			mLongDirections = null;
+
+			// first dimension, all m's = 1
+			for (int j = 1; j <= BITS; j++)
+			{
+				mDirections[j - 1] = 1 << (BITS - j);
+			}
+
+			for (int i = 1; i < aDimensions; i++)
+			{
+				computeDirections(directions[i - 1], mDirections, i * BITS);
+			}
+		}
+	}
+
+
+	/**
+	 * Returns a shared table with 32 bit direction vectors containing at least the number of dimensions requested.
+	 *
+	 * @param aDimensions number of dimensions needed
+	 * @return a shared table
+	 * @throws IllegalArgumentException if the number of dimensions exceeds {@link #getMaxDimensions()}
+	 */
+	public static SobolTable getInstance(int aDimensions)
+	{
+		SobolTable table = CACHED;
+
+		if (table != null && table.mDimensions >= aDimensions)
+		{
+			return table;
+		}
+
+		synchronized (SobolTable.class)
+		{
+			table = CACHED = grow(CACHED, aDimensions, false);
+		}
+
+		return table;
+	}
+
+
+	/**
+	 * Returns a shared table with 64 bit direction vectors containing at least the number of dimensions requested.
+	 *
+	 * @param aDimensions number of dimensions needed
+	 * @return a shared table
+	 * @throws IllegalArgumentException if the number of dimensions exceeds {@link #getMaxDimensions()}
+	 */
+	public static SobolTable getLongInstance(int aDimensions)
+	{
+		SobolTable table = CACHED_LONG;
+
+		if (table != null && table.mDimensions >= aDimensions)
+		{
+			return table;
+		}
+
+		synchronized (SobolTable.class)
+		{
+			table = CACHED_LONG = grow(CACHED_LONG, aDimensions, true);
+		}
+
+		return table;
+	}
+
+
+	private static SobolTable grow(SobolTable aTable, int aDimensions, boolean aLong)
+	{
+		if (aTable != null && aTable.mDimensions >= aDimensions)
+		{
+			return aTable;
+		}
+
+		// grow geometrically to avoid rebuilding the table for every additional dimension requested
+		int dimensions = aDimensions;
+		if (aTable != null)
+		{
+			dimensions = Math.max(dimensions, (int)Math.min(getMaxDimensions(), 2L * aTable.mDimensions));
+		}
+
+		try
+		{
+			return new SobolTable(dimensions, aLong);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+
+	/**
+	 * Returns the maximum number of dimensions supported.
+	 */
+	public static int getMaxDimensions()
+	{
+		try
+		{
+			return SobolDirections.getRowCount() + 1;
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+
+	/**
+	 * Returns the number of dimensions in this table.
+	 */
+	public int getDimensions()
+	{
+		return mDimensions;
+	}
+
+
+	/**
+	 * Returns true if this table contains 64 bit direction vectors.
+	 */
+	public boolean isLong()
+	{
+		return mLongDirections != null;
+	}
+
+
+	/**
+	 * Returns the direction vector {@code V[j]} of a dimension scaled by {@code 2^32}.
+	 *
+	 * @param aDimension the dimension, zero based
+	 * @param aIndex the index {@code j} of the direction vector, ranging from 1 to {@link #BITS}
+	 */
+	public int getDirection(int aDimension, int aIndex)
+	{
+		if (aDimension < 0 || aDimension >= mDimensions)
+		{
+			throw new IllegalArgumentException("aDimension out of bounds: " + aDimension);
+		}
+		if (aIndex < 1 || aIndex > BITS)
+		{
+			throw new IllegalArgumentException("aIndex out of bounds: " + aIndex);
+		}
+
+		if (mDirections == null)
+		{
+			return (int)(mLongDirections[aDimension * LONG_BITS + aIndex - 1] >>> BITS);
+		}
+
+		return mDirections[aDimension * BITS + aIndex - 1];
+	}
+
+
+	/**
+	 * Returns the direction vector {@code V[j]} of a dimension scaled by {@code 2^64}.
+	 *
+	 * @param aDimension the dimension, zero based
+	 * @param aIndex the index {@code j} of the direction vector, ranging from 1 to {@link #LONG_BITS}
+	 * @throws IllegalStateException if this is a 32 bit table
+	 */
+	public long getLongDirection(int aDimension, int aIndex)
+	{
+		if (mLongDirections == null)
+		{
+			throw new IllegalStateException("Not a 64 bit table");
+		}
+		if (aDimension < 0 || aDimension >= mDimensions)
+		{
+			throw new IllegalArgumentException("aDimension out of bounds: " + aDimension);
+		}
+		if (aIndex < 1 || aIndex > LONG_BITS)
+		{
+			throw new IllegalArgumentException("aIndex out of bounds: " + aIndex);
+		}
+
+		return mLongDirections[aDimension * LONG_BITS + aIndex - 1];
+	}
+
+
+	/*
+	 * The following code is based on the Sobol sequence generator by Frances
+	 * Y. Kuo and Stephen Joe. The license terms are provided below.
+	 *
+	 * Copyright (c) 2008, Frances Y. Kuo and Stephen Joe
+	 * All rights reserved.
+	 *
+	 * Redistribution and use in source and binary forms, with or without
+	 * modification, are permitted provided that the following conditions are
+	 * met:
+	 *
+	 * * Redistributions of source code must retain the above copyright
+	 *   notice, this list of conditions and the following disclaimer.
+	 *
+	 * * Redistributions in binary form must reproduce the above copyright
+	 *   notice, this list of conditions and the following disclaimer in the
+	 *   documentation and/or other materials provided with the distribution.
+	 *
+	 * * Neither the names of the copyright holders nor the names of the
+	 *   University of New South Wales and the University of Waikato
+	 *   and its contributors may be used to endorse or promote products derived
+	 *   from this software without specific prior written permission.
+	 *
+	 * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS ``AS IS'' AND ANY
+	 * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+	 * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+	 * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS BE LIABLE FOR ANY
+	 * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+	 * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+	 * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+	 * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+	 * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+	 * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+	 * POSSIBILITY OF SUCH DAMAGE.
+	 */
+
+	/**
+	 * Computes the 32 bit direction vectors of a dimension from the primitive polynomial and initial direction numbers.
+	 */
+	private static void computeDirections(int[] m, int[] aOutput, int aOffset)
+	{
+		int a = m[0];
+		int s = m.length - 1;
+
+		for (int j = 1; j <= Math.min(s, BITS); j++)
+		{
+			aOutput[aOffset + j - 1] = m[j] << (BITS - j);
+		}
+
+		for (int j = s + 1; j <= BITS; j++)
+		{
+			int v = aOutput[aOffset + j - s - 1];
+			v ^= v >>> s;
+
+			for (int k = 1; k < s; k++)
+			{
+				v ^= ((a >> (s - 1 - k)) & 1) * aOutput[aOffset + j - k - 1];
+			}
+
+			aOutput[aOffset + j - 1] = v;
+		}
+	}
+
+
+	/**
+	 * Computes the 64 bit direction vectors of a dimension from the primitive polynomial and initial direction numbers.
+	 */
+	private static void computeDirections(int[] m, long[] aOutput, int aOffset)
+	{
+		int a = m[0];
+		int s = m.length - 1;
+
+		for (int j = 1; j <= s; j++)
+		{
+			aOutput[aOffset + j - 1] = (long)m[j] << (LONG_BITS - j);
+		}
+
+		for (int j = s + 1; j <= LONG_BITS; j++)
+		{
+			long v = aOutput[aOffset + j - s - 1];
+			v ^= v >>> s;
+
+			for (int k = 1; k < s; k++)
+			{
+				v ^= ((a >> (s - 1 - k)) & 1) * aOutput[aOffset + j - k - 1];
+			}
+
+			aOutput[aOffset + j - 1] = v;
+		}
+	}
+}